@@ -0,0 +1,56 @@
+package org.autorefactor.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.benchmarks.Samples.Sample;
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.autorefactor.refactoring.rules.AggregateASTVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Traverses the ASTs of all the samples with one rule or all the rules, finding the refactorings
+ * without applying them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AggregateASTVisitorBenchmark {
+    /** {@link Samples#ALL_RULES} or the simple class name of a rule. */
+    @Param({ Samples.ALL_RULES, "UseDiamondOperatorRefactoring", "StringRefactoring" })
+    public String rules;
+
+    private JavaProjectOptions options;
+    private List<Sample> samples;
+    private AggregateASTVisitor visitor;
+
+    @Setup
+    public void setUp() throws IOException {
+        options = Samples.newJavaProjectOptions();
+        samples = Samples.load(options, true);
+        visitor = new AggregateASTVisitor(Samples.rules(rules));
+    }
+
+    @Benchmark
+    public void getRefactorings(Blackhole bh) {
+        for (Sample sample : samples) {
+            Samples.newContext(visitor, sample.astRoot, options);
+            bh.consume(visitor.getRefactorings(sample.astRoot));
+        }
+    }
+}
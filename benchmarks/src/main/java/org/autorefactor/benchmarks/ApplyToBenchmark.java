@@ -0,0 +1,73 @@
+package org.autorefactor.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.benchmarks.Samples.Sample;
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.autorefactor.refactoring.Refactorings;
+import org.autorefactor.refactoring.rules.AggregateASTVisitor;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Applies the refactorings of all the rules to the documents of all the samples.
+ *
+ * The refactorings are found again before each invocation: applying them consumes the rewrite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ApplyToBenchmark {
+    private JavaProjectOptions options;
+    private List<Sample> samples;
+    private AggregateASTVisitor visitor;
+    private final List<Refactorings> refactorings = new ArrayList<>();
+    private final List<IDocument> documents = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        options = Samples.newJavaProjectOptions();
+        samples = Samples.load(options, true);
+        visitor = new AggregateASTVisitor(Samples.rules(Samples.ALL_RULES));
+    }
+
+    @Setup(Level.Invocation)
+    public void findRefactorings() {
+        refactorings.clear();
+        documents.clear();
+        for (Sample sample : samples) {
+            Samples.newContext(visitor, sample.astRoot, options);
+            final Refactorings r = visitor.getRefactorings(sample.astRoot);
+            if (r.hasRefactorings()) {
+                refactorings.add(r);
+                documents.add(new Document(sample.source));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<IDocument> applyTo() throws BadLocationException {
+        for (int i = 0; i < refactorings.size(); i++) {
+            refactorings.get(i).applyTo(documents.get(i));
+        }
+        return documents;
+    }
+}
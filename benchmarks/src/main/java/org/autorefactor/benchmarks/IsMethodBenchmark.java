@@ -0,0 +1,72 @@
+package org.autorefactor.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.benchmarks.Samples.Sample;
+import org.autorefactor.refactoring.ASTHelper;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Checks all the method invocations of the samples with {@link ASTHelper#isMethod}, the most frequent check
+ * of the rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IsMethodBenchmark {
+    private final List<MethodInvocation> invocations = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        for (Sample sample : Samples.load(Samples.newJavaProjectOptions(), true)) {
+            sample.astRoot.accept(new ASTVisitor() {
+                @Override
+                public boolean visit(MethodInvocation node) {
+                    invocations.add(node);
+                    return true;
+                }
+            });
+        }
+    }
+
+    /** A method without parameters, the name rejects most invocations. */
+    @Benchmark
+    public int isMethodNoParameter() {
+        int count = 0;
+        for (MethodInvocation mi : invocations) {
+            if (ASTHelper.isMethod(mi, "java.util.Collection", "isEmpty")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** A method of Object with a parameter, matched through the hierarchy of every receiver type. */
+    @Benchmark
+    public int isMethodInHierarchy() {
+        int count = 0;
+        for (MethodInvocation mi : invocations) {
+            if (ASTHelper.isMethod(mi, "java.lang.Object", "equals", "java.lang.Object")) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,61 @@
+package org.autorefactor.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.cfg.CFGBuilder;
+import org.autorefactor.cfg.LongMethodSource;
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds the control flow graph of one generated method of growing size.
+ *
+ * Building it should scale linearly: 4 times more lines should take about 4 times longer, not 16.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LongMethodCFGBuilderBenchmark {
+    /** The number of lines of the generated method. */
+    @Param({ "2500", "10000" })
+    public int nbLines;
+
+    private JavaProjectOptions options;
+    private String source;
+    private CompilationUnit astRoot;
+
+    @Setup
+    public void setUp() {
+        options = Samples.newJavaProjectOptions();
+        source = LongMethodSource.generate(nbLines);
+        final ASTParser parser = ASTParser.newParser(AST.JLS8);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setCompilerOptions(options.getCompilerOptions());
+        parser.setEnvironment(new String[0], new String[0], null, true);
+        parser.setUnitName(LongMethodSource.FILE_NAME);
+        parser.setResolveBindings(true);
+        parser.setSource(source.toCharArray());
+        astRoot = (CompilationUnit) parser.createAST(null);
+    }
+
+    @Benchmark
+    public Object buildCFG() {
+        return new CFGBuilder(source, options).buildCFG(astRoot);
+    }
+}
@@ -0,0 +1,69 @@
+package org.autorefactor.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.benchmarks.Samples.Sample;
+import org.autorefactor.matcher.AstMatcher;
+import org.autorefactor.matcher.AstMatcher.BoundNodes;
+import org.autorefactor.matcher.DirectMatchCallback;
+import org.autorefactor.matcher.DirectMatchFinder;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Finds the matches of matchers of the DSL in all the samples, as done by ast-match. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatcherBenchmark {
+    private List<Sample> samples;
+    private int matches;
+
+    @Setup
+    public void setUp() throws IOException {
+        samples = Samples.load(Samples.newJavaProjectOptions(), true);
+    }
+
+    /** Structural checks only. */
+    @Benchmark
+    public int methodInvocationName() {
+        return countMatches(newVisitor(AstMatcher.methodInvocation().hasName("equals")));
+    }
+
+    /** A cheap check, then binding resolution. */
+    @Benchmark
+    public int simpleNameDeclaringClass() {
+        return countMatches(newVisitor(AstMatcher.simpleName().hasIdentifier("add").hasDeclaringClass("java.util.List")));
+    }
+
+    private ASTVisitor newVisitor(AstMatcher.Matcher<?> matcher) {
+        return new DirectMatchFinder().addMatcher(matcher, new DirectMatchCallback() {
+            @Override
+            public Visit onMatch(BoundNodes bounds) {
+                matches++;
+                return Visit.VisitSubtree;
+            }
+        }).createVisitor();
+    }
+
+    private int countMatches(ASTVisitor visitor) {
+        matches = 0;
+        for (Sample sample : samples) {
+            sample.astRoot.accept(visitor);
+        }
+        return matches;
+    }
+}
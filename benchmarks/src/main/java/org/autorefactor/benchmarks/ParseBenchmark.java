@@ -0,0 +1,44 @@
+package org.autorefactor.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.benchmarks.Samples.Sample;
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Parses all the samples with bindings, as done before each iteration of the refactorings. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+    private JavaProjectOptions options;
+    private List<Sample> samples;
+
+    @Setup
+    public void setUp() throws IOException {
+        options = Samples.newJavaProjectOptions();
+        samples = Samples.load(options, false);
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (Sample sample : samples) {
+            bh.consume(Samples.parse(sample, options));
+        }
+    }
+}
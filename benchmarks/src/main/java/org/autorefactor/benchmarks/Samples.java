@@ -0,0 +1,187 @@
+package org.autorefactor.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.EventLoop;
+import org.autorefactor.environment.Logger;
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.autorefactor.refactoring.JavaProjectOptionsImpl;
+import org.autorefactor.refactoring.Release;
+import org.autorefactor.refactoring.RefactoringRule;
+import org.autorefactor.refactoring.rules.AggregateASTVisitor;
+import org.autorefactor.refactoring.rules.AllRefactoringRules;
+import org.autorefactor.refactoring.rules.RefactoringContext;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * The input samples of the rules tests, parsed with bindings outside of Eclipse.
+ *
+ * The samples directory is given by the system property "autorefactor.samples", by default it is searched
+ * from the current directory, i.e. the root of the repository or the benchmarks module.
+ */
+final class Samples {
+    /** System property giving the samples_in directory. */
+    static final String SAMPLES_DIR_PROPERTY = "autorefactor.samples";
+
+    /** Value of the rules parameter selecting all the rules. */
+    static final String ALL_RULES = "all";
+
+    private static final String SAMPLES_IN = "samples/src/test/java/org/autorefactor/refactoring/rules/samples_in";
+
+    /** Number of directories between the source folder and samples_in. */
+    private static final int SAMPLES_IN_DEPTH = 5;
+
+    /** Refactorings run on the current thread, errors are printed: the benchmarks go on with other visitors. */
+    static final Environment ENVIRONMENT = new Environment(new CurrentThreadEventLoop(), null, new PrintingLogger(),
+            null);
+
+    /** A sample file. */
+    static final class Sample {
+        final File file;
+        final String source;
+        /* @Nullable */ CompilationUnit astRoot;
+
+        Sample(File file, String source) {
+            this.file = file;
+            this.source = source;
+        }
+    }
+
+    private Samples() {
+    }
+
+    static JavaProjectOptions newJavaProjectOptions() {
+        final JavaProjectOptionsImpl options = new JavaProjectOptionsImpl();
+        options.setJavaSERelease(Release.javaSE("1.8"));
+        options.setTabSize(4);
+        return options;
+    }
+
+    static File samplesDir() {
+        final String configured = System.getProperty(SAMPLES_DIR_PROPERTY);
+        if (configured != null) {
+            return new File(configured);
+        }
+        for (File dir : Arrays.asList(new File(SAMPLES_IN), new File("..", SAMPLES_IN))) {
+            if (dir.isDirectory()) {
+                return dir;
+            }
+        }
+        throw new IllegalStateException("cannot find " + SAMPLES_IN + ", set -D" + SAMPLES_DIR_PROPERTY);
+    }
+
+    /**
+     * Reads the samples.
+     *
+     * @param options the java project options to parse with
+     * @param parse whether to parse the samples, e.g. when only their source is needed
+     * @return the samples, sorted by name
+     */
+    static List<Sample> load(JavaProjectOptions options, boolean parse) throws IOException {
+        final File dir = samplesDir();
+        final File[] files = dir.listFiles((d, name) -> name.endsWith("Sample.java"));
+        if (files == null || files.length == 0) {
+            throw new IllegalStateException("no sample in " + dir);
+        }
+        Arrays.sort(files);
+        final List<Sample> samples = new ArrayList<>(files.length);
+        for (File file : files) {
+            final Sample sample = new Sample(file, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            if (parse) {
+                sample.astRoot = parse(sample, options);
+            }
+            samples.add(sample);
+        }
+        return samples;
+    }
+
+    /** Parses a sample with bindings resolved from the samples source folder and the running JVM. */
+    static CompilationUnit parse(Sample sample, JavaProjectOptions options) {
+        File sourceFolder = sample.file.getAbsoluteFile().getParentFile();
+        for (int i = 0; i < SAMPLES_IN_DEPTH; i++) {
+            sourceFolder = sourceFolder.getParentFile();
+        }
+        final ASTParser parser = ASTParser.newParser(AST.JLS8);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setCompilerOptions(options.getCompilerOptions());
+        parser.setEnvironment(new String[0], new String[] { sourceFolder.getPath() }, new String[] { "UTF-8" }, true);
+        parser.setUnitName(sample.file.getAbsolutePath());
+        parser.setResolveBindings(true);
+        parser.setBindingsRecovery(true);
+        parser.setSource(sample.source.toCharArray());
+        return (CompilationUnit) parser.createAST(null);
+    }
+
+    /**
+     * Returns the rules selected by a benchmark parameter.
+     *
+     * @param rules {@link #ALL_RULES} or the simple class name of a rule
+     */
+    static List<RefactoringRule> rules(String rules) {
+        final List<RefactoringRule> allRules = AllRefactoringRules.getAllRefactoringRules();
+        if (ALL_RULES.equals(rules)) {
+            return allRules;
+        }
+        for (RefactoringRule rule : allRules) {
+            if (rule.getClass().getSimpleName().equals(rules)) {
+                return Arrays.asList(rule);
+            }
+        }
+        throw new IllegalArgumentException("unknown rule " + rules);
+    }
+
+    /** Prepares the visitor to find the refactorings of a compilation unit. */
+    static RefactoringContext newContext(AggregateASTVisitor visitor, CompilationUnit astRoot,
+            JavaProjectOptions options) {
+        final RefactoringContext ctx = new RefactoringContext(null, astRoot, options,
+                SubMonitor.convert(new NullProgressMonitor()), ENVIRONMENT);
+        visitor.setRefactoringContext(ctx);
+        return ctx;
+    }
+
+    /** Runs the callables on the current thread. */
+    private static final class CurrentThreadEventLoop implements EventLoop {
+        @Override
+        public <E extends Exception> void syncExec(Callable<E> callable) throws E {
+            final E ex;
+            try {
+                ex = callable.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            if (ex != null) {
+                throw ex;
+            }
+        }
+    }
+
+    /** Prints the errors of the visitors. */
+    private static final class PrintingLogger implements Logger {
+        @Override
+        public void error(String message) {
+            System.err.println(message);
+        }
+
+        @Override
+        public void error(String message, Exception e) {
+            System.err.println(message + ": " + e);
+        }
+
+        @Override
+        public void warn(String message) {
+            System.err.println(message);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
 import com.beust.jcommander.Parameters;
 
 /** Parameters for application of refactorings. */
@@ -21,6 +22,25 @@ public class ApplyArgs extends CommonResolveArgs {
             description = "Comma separated list of refactorings to exclude (e.g. UseDiamondOperatorRefactoring).")
     private List<String> excludedRefactorings = new ArrayList<String>();
 
+    @Parameter(names = { "--dry-run", "--diff" }, description = "Do not change files,"
+            + " print a unified diff of the changes of each file instead,"
+            + " with the paths relative to the working directory.")
+    private boolean dryRun;
+
+    @Parameter(names = "--projects-dir", description = "Directory scanned for projects to refactor with those of"
+            + " --project: directories with a .project, pom.xml or build.gradle file. Can be repeated.")
+    private List<String> projectDirs = new ArrayList<String>();
+
+    @Parameter(names = "--jobs", description = "Number of files refactored in parallel, across all projects.")
+    private int jobs = 1;
+
+    @Parameter(names = "--check", description = "Do not change files, report the files which would be refactored"
+            + " and the rules refactoring them. Exits with code 1 if any. Cannot be combined with --dry-run.")
+    private boolean check;
+
+    @Parameter(names = "--fail-fast", description = "With --check, stop at the first file which would be refactored.")
+    private boolean failFast;
+
     /**
      * The refactorings to apply.
      *
@@ -47,4 +67,65 @@ public class ApplyArgs extends CommonResolveArgs {
     public String getSourceLevel() {
         return sourceLevel;
     }
+
+    /**
+     * Directories to scan for projects.
+     *
+     * @return the directories
+     */
+    public List<String> getProjectDirs() {
+        return projectDirs;
+    }
+
+    /**
+     * Checks the options against each other and against the projects to refactor.
+     *
+     * @param nbProjects the number of projects of --project and --projects-dir
+     * @throws ParameterException if the options conflict or do not apply to these projects
+     */
+    void validate(int nbProjects) {
+        if (check && dryRun) {
+            throw new ParameterException("--check and --dry-run cannot be combined: --check prints no diff");
+        }
+        if (getClasspathFile() != null && nbProjects > 1) {
+            throw new ParameterException("--classpath-file is the classpath of a single project, got " + nbProjects
+                    + " projects");
+        }
+    }
+
+    /**
+     * Number of files refactored in parallel.
+     *
+     * @return the number of workers
+     */
+    public int getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Is dry run enabled?
+     *
+     * @return dry run enabled?
+     */
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    /**
+     * Is check mode enabled?
+     *
+     * @return check mode enabled?
+     */
+    public boolean isCheck() {
+        return check;
+    }
+
+    /**
+     * Does check mode stop at the first file which would be refactored?
+     *
+     * @return check mode stops at the first file?
+     */
+    public boolean isFailFast() {
+        return failFast;
+    }
 }
@@ -30,6 +30,30 @@ public class ApplyDDArgs extends CommonResolveArgs {
     @Parameter(names = "--dd-test-code", description = "Command to detect expected code after refactoring.")
     private String deltaDebugTestCodeCommand;
 
+    @Parameter(names = "--dd-jobs", description = "Number of candidates tested in parallel."
+            + " Each parallel test uses its own scratch project depending on the project.")
+    private int deltaDebugJobs = 1;
+
+    @Parameter(names = "--dd-hierarchical", description = "Remove whole type members, statements and expressions"
+            + " before reducing lines and characters.")
+    private boolean deltaDebugHierarchical;
+
+    @Parameter(names = "--dd-command-timeout", description = "Seconds after which test commands are killed"
+            + " and the candidate is considered not reproducing. 0 for no limit.")
+    private int deltaDebugCommandTimeout;
+
+    @Parameter(names = "--dd-oracle", description = "Start test commands once and keep them running:"
+            + " they read a file path per line on stdin and answer an exit code per line on stdout.")
+    private boolean deltaDebugOracle;
+
+    @Parameter(names = "--resume", description = "Continue an interrupted reduction from its checkpoint,"
+            + " saved next to the reduced file.")
+    private boolean deltaDebugResume;
+
+    @Parameter(names = "--time-budget", description = "Seconds after which the reduction stops"
+            + " with the smallest reproducing code found so far. 0 for no limit.")
+    private int deltaDebugTimeBudget;
+
     @Parameter(names = "--source-level", description = "Java source release to support. (e.g. 1.7)")
     private String sourceLevel;
 
@@ -98,6 +122,60 @@ public class ApplyDDArgs extends CommonResolveArgs {
         return deltaDebugTestCodeCommand;
     }
 
+    /**
+     * Getter.
+     *
+     * @return number of candidates tested in parallel.
+     */
+    public int getDeltaDebugJobs() {
+        return deltaDebugJobs;
+    }
+
+    /**
+     * Is hierarchical delta debugging enabled?
+     *
+     * @return hierarchical delta debugging enabled?
+     */
+    public boolean isDeltaDebugHierarchical() {
+        return deltaDebugHierarchical;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return seconds after which test commands are killed, 0 for no limit.
+     */
+    public int getDeltaDebugCommandTimeout() {
+        return deltaDebugCommandTimeout;
+    }
+
+    /**
+     * Are test commands long-lived oracles?
+     *
+     * @return test commands are long-lived oracles?
+     */
+    public boolean isDeltaDebugOracle() {
+        return deltaDebugOracle;
+    }
+
+    /**
+     * Is resuming from the checkpoint enabled?
+     *
+     * @return resuming from the checkpoint enabled?
+     */
+    public boolean isDeltaDebugResume() {
+        return deltaDebugResume;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return seconds after which the reduction stops, 0 for no limit.
+     */
+    public int getDeltaDebugTimeBudget() {
+        return deltaDebugTimeBudget;
+    }
+
     /**
      * The refactorings to apply.
      *
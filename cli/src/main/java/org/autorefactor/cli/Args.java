@@ -13,12 +13,30 @@ public class Args {
             order = 0)
     private boolean consoleLog;
 
+    /** Fake parameter here, evaluated by shell wrapper. */
+    @Parameter(names = "--workspace", description = "Eclipse workspace to reuse between runs, keeping project metadata"
+            + " and JDT indexes. Must precede the command. Default: a free workspace of the cache directory"
+            + " $AUTOREFACTOR_CACHE_DIR (~/.cache/autorefactor).", order = 1)
+    private String workspace;
+
     @Parameter(names = "--debug", description = "Debug mode")
     private boolean debug;
 
     @Parameter(names = "--verbose", description = "Verbose mode")
     private boolean verbose;
 
+    @Parameter(names = "--mmap-threshold", description = "Memory-map source files of at least this size in bytes"
+            + " instead of reading them. 0 to never map.")
+    private long memoryMapThreshold;
+
+    @Parameter(names = "--events", description = "Write progress events as JSON lines to this file"
+            + " or to an open file descriptor, e.g. fd:3. Events are dropped rather than slowing down the refactoring.")
+    private String events;
+
+    @Parameter(names = "--jfr", description = "Record the run with Java Flight Recorder into this file,"
+            + " including the parse, rule, apply, save, CFG and delta debugging test events. Requires JDK 11+ or 8u262+.")
+    private String jfr;
+
     @Parameter(names = { "--help", "help" }, description = "Display usage info.", help = true)
     private boolean help;
 
@@ -34,6 +52,33 @@ public class Args {
         return verbose;
     }
 
+    /**
+     * Getter.
+     *
+     * @return minimum size in bytes of memory-mapped files, 0 to never map.
+     */
+    public long getMemoryMapThreshold() {
+        return memoryMapThreshold;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return destination of the event stream, null if disabled.
+     */
+    public String getEvents() {
+        return events;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return destination of the flight recording, null if disabled.
+     */
+    public String getJfr() {
+        return jfr;
+    }
+
     /**
      * Getter.
      *
@@ -7,6 +7,8 @@ import java.util.Map;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+import org.autorefactor.cli.index.AstFeatureIndex;
+import org.autorefactor.cli.index.AstFeatureQuery;
 import org.autorefactor.matcher.AstMatcherUtil;
 import org.autorefactor.util.Pair;
 import org.eclipse.core.resources.IFolder;
@@ -66,10 +68,16 @@ public class AstTools {
 	        System.out.println("dumpAst: starting");
 	        System.out.println("dumpAst: source folders: " + sourceFolders);
 	    }
+	    final AstFeatureQuery featureQuery = args.getFeatureQuery();
+	    final AstFeatureIndex featureIndex = Refactor.prepareFeatureIndex(project, sourceFolders,
+	            args.getIndexFile(), featureQuery, verbose);
+	    final Predicate<IResource> indexFilter = resource -> featureIndex == null
+	            || featureIndex.mayMatch(resource.getLocation().toFile(), featureQuery);
 	    try {
 	        for (String src : sourceFolders) {
 	            final IFolder sourceFolder = project.getFolder(src);
-	            dumpFolderAsts(javaProject, sourceFolder, args.getIncludePattern(), args.isVerbose(), fileFilter2);  
+	            dumpFolderAsts(javaProject, sourceFolder, args.getIncludePattern(), args.isVerbose(), fileFilter2,
+	                    indexFilter);
 	        }
 	    } finally {
 	        javaProject.save(null, true);
@@ -79,7 +87,8 @@ public class AstTools {
 	}
 
 	private static void dumpFolderAsts(final IJavaProject project, final IFolder sourceFolder,
-	        final Pattern filenamePattern, final boolean verbose, Predicate<String> filter2) throws CoreException {
+	        final Pattern filenamePattern, final boolean verbose, Predicate<String> filter2,
+	        final Predicate<IResource> indexFilter) throws CoreException {
 	    final IPackageFragmentRoot pfr = project.getPackageFragmentRoot(sourceFolder);
 	    FileUtil.walkMax(sourceFolder, 1000000, new IResourceVisitor() {
 	        @Override
@@ -105,6 +114,12 @@ public class AstTools {
 	                        }
 	                        return true;
 	                    }
+	                    if (!indexFilter.test(resource)) {
+	                        if (verbose) {
+	                            System.out.println("    skipped by index");
+	                        }
+	                        return true;
+	                    }
 	                    dumpAst(new Refactor.RefactorTarget(pfr, resource, relativePath));
 	                }
 	            } catch (Exception e) {
@@ -1,23 +1,29 @@
 package org.autorefactor.cli;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import org.autorefactor.cli.ast.AstMatchRule;
 import org.autorefactor.cli.ast.AstMatcherBase;
+import org.autorefactor.cli.index.AstFeatureQuery;
 import org.autorefactor.cli.script.jdt.JdtRefactor;
 import org.autorefactor.refactoring.RefactoringRule;
 import org.autorefactor.refactoring.rules.AllRefactoringRules;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.app.IApplicationContext;
 import org.eclipse.jdt.core.JavaModelException;
@@ -76,17 +82,29 @@ public class AutoRefactor implements IApplication {
 
     static final Pattern CLASSPATH_VARIABLE_ASSIGNMENT = Pattern.compile("^([^=]+)=(.*)$");
 
+    /** Whether --jfr started a recording, to write it at the end of the run. */
+    private boolean jfrStarted;
+
     @Override
     public Object start(IApplicationContext context) throws Exception {
         final String[] argv = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+        final long startNanos = System.nanoTime();
+        int exitCode = -1;
         try {
-        	return run(argv);
+        	exitCode = run(argv);
+        	return exitCode;
         } catch (Exception e) {
         	e.printStackTrace(System.err);
             // prevent launcher messages
             System.setProperty(IApplicationContext.EXIT_DATA_PROPERTY, "");
             return -1;
         	
+        } finally {
+        	EventStream.runFinished(exitCode, startNanos);
+        	EventStream.close();
+        	if (jfrStarted) {
+        		JfrTracer.stop();
+        	}
         }
     }
     
@@ -102,10 +120,14 @@ public class AutoRefactor implements IApplication {
         AstDumpArgs astDumpArgs = new AstDumpArgs();
         AstMatchArgs astMatchArgs = new AstMatchArgs();
         GenericResolveArgs renameClassArgs = new GenericResolveArgs();
+        final FilterArgs filterArgs = new FilterArgs();
+        final BenchArgs benchArgs = new BenchArgs();
         final JCommander argParser = JCommander.newBuilder().addObject(args)
                 .addCommand("list", listArgs)
                 .addCommand("apply", applyArgs)
                 .addCommand("apply-dd", applyDDArgs)
+                .addCommand("filter", filterArgs)
+                .addCommand("bench", benchArgs)
                 .addCommand("ast-dump", astDumpArgs)
                 .addCommand("ast-match", astMatchArgs)
                 .addCommand("rename-class", renameClassArgs)
@@ -129,6 +151,8 @@ public class AutoRefactor implements IApplication {
             final JCommander argParserShort = JCommander.newBuilder().addObject(args)
                     .addCommand("list", listArgs)
                     .addCommand("apply", applyArgs)
+                    .addCommand("filter", filterArgs)
+                    .addCommand("bench", benchArgs)
                     .addCommand("ast-dump", astDumpArgs)
                     .addCommand("ast-match", astMatchArgs)
                     .addCommand("eclipse", eclipseArgs)
@@ -138,13 +162,41 @@ public class AutoRefactor implements IApplication {
         }
 
         final boolean verbose = args.isVerbose();
+        FileUtil.setMemoryMapThreshold(args.getMemoryMapThreshold());
 
         boolean usage = false;
+        int exitCode = IApplication.EXIT_OK;
         final String cmd = argParser.getParsedCommand();
+        if (args.getEvents() != null) {
+            EventStream.open(args.getEvents());
+            EventStream.runStarted(cmd);
+        }
+        if (args.getJfr() != null) {
+            try {
+                JfrTracer.start(args.getJfr());
+                jfrStarted = true;
+            } catch (IOException e) {
+                System.err.println("jfr: " + e.getMessage());
+                return -1;
+            }
+        }
         if ("apply".equals(cmd)) {
-        	final String projectFile = applyArgs.getProjectPath();
-        	if (projectFile != null) {
-        		applyAutoRefactorings(new File(projectFile), applyArgs, applyArgs.getClassPathVariables(), verbose, applyArgs.getSourceLevel(), Rules.resolveRules(applyArgs.getRefactorings()), applyArgs.getExcludedRefactorings());
+        	final List<File> projectFiles = projectFiles(applyArgs);
+        	if (!projectFiles.isEmpty()) {
+        		try {
+        			applyArgs.validate(projectFiles.size());
+        		} catch (ParameterException e) {
+        			System.out.println("*** ERROR: " + e.getMessage());
+        			// prevent launcher messages
+        			System.setProperty(IApplicationContext.EXIT_DATA_PROPERTY, "");
+        			return -1;
+        		}
+        		final CheckReport checkReport = applyArgs.isCheck() ? new CheckReport(applyArgs.isFailFast()) : null;
+        		applyAutoRefactorings(projectFiles, applyArgs, applyArgs.getClassPathVariables(), verbose, applyArgs.getSourceLevel(), Rules.resolveRules(applyArgs.getRefactorings()), applyArgs.getExcludedRefactorings(),
+        				applyArgs.isDryRun(), checkReport, applyArgs.getFeatureQuery(), applyArgs.getJobs());
+        		if (checkReport != null) {
+        			exitCode = checkReport.printSummary();
+        		}
         	} else {
         		usage = true;
         	}
@@ -155,23 +207,45 @@ public class AutoRefactor implements IApplication {
         	} else {
         		usage = true;
         	}
+        } else if ("filter".equals(cmd)) {
+        	if (filterArgs.getProjectPath() != null) {
+        		exitCode = filter(filterArgs, verbose);
+        	} else {
+        		usage = true;
+        	}
+        } else if ("bench".equals(cmd)) {
+        	if (benchArgs.getProjectPath() != null) {
+        		bench(benchArgs, verbose);
+        	} else {
+        		usage = true;
+        	}
         } else if ("list".equals(cmd)) {
             listRefactorings();
         } else if ("ast-dump".equals(cmd)) {
-            AstTools.dumpProjectAsts(new File(astDumpArgs.getProjectPath()), Collections.<String>emptyList(),  Collections.<String,String>emptyMap(),
-                    astDumpArgs, ignoreFilesFilter());
+        	if (astDumpArgs.getProjectPath() != null) {
+        		AstTools.dumpProjectAsts(new File(astDumpArgs.getProjectPath()), Collections.<String>emptyList(),  Collections.<String,String>emptyMap(),
+        				astDumpArgs, ignoreFilesFilter());
+        	} else {
+        		usage = true;
+        	}
         } else if ("ast-match".equals(cmd)) {
         	final String projectFile = astMatchArgs.getProjectPath();
         	if (projectFile != null) {
         		// TODO: catch and log Exceptions on top level 
-        		applyAutoRefactorings(new File(projectFile), astMatchArgs, astMatchArgs.getClassPathVariables(), verbose, 
-        				null, Arrays.asList(new AstMatchRule(AstMatcherBase.evaluateMatchExpression(astMatchArgs.getMatchPattern()))), 
-        				Collections.emptyList());
+        		final AstMatchRule matchRule = new AstMatchRule(AstMatcherBase.evaluateMatchExpression(astMatchArgs.getMatchPattern()));
+        		applyAutoRefactorings(Collections.singletonList(new File(projectFile)), astMatchArgs, astMatchArgs.getClassPathVariables(), verbose, 
+        				null, Arrays.asList(matchRule), 
+        				Collections.emptyList(),
+        				false, null, astMatchArgs.getFeatureQuery().requireAll(matchRule.getRequiredFeatures()), 1);
         	} else {
         		usage = true;
         	}
         } else if ("rename-class".equals(cmd)) {
-        	JdtRefactor.applyRefactorings(renameClassArgs);
+        	if (renameClassArgs.getProjectPath() != null) {
+        		JdtRefactor.applyRefactorings(renameClassArgs);
+        	} else {
+        		usage = true;
+        	}
         } else if ("eclipse".equals(cmd)) {
             WorkspaceUtil.printEclipseInfo(new File(eclipseArgs.getProjectPath()), null, verbose || eclipseArgs.isVerbose());
         } else {
@@ -184,7 +258,7 @@ public class AutoRefactor implements IApplication {
             System.setProperty(IApplicationContext.EXIT_DATA_PROPERTY, "");
             return -1;
         } else {
-            return IApplication.EXIT_OK;
+            return exitCode;
         }
     }
 
@@ -196,19 +270,40 @@ public class AutoRefactor implements IApplication {
 		return (s) -> !filesToIgnore.contains(s);
 	}
 
-	private void applyAutoRefactorings(final File projectFile, final CommonResolveArgs applyArgs, Map<String, String> classPathVariables, 
-			final boolean verbose, String configuredSourceLevel, List<RefactoringRule> refactorings, List<String> excludedRefactorings)
+	/**
+	 * The projects of --project and those found in --projects-dir.
+	 */
+	private static List<File> projectFiles(ApplyArgs applyArgs) throws CoreException {
+		final Set<File> projectFiles = new LinkedHashSet<File>();
+		for (String projectPath : applyArgs.getProjectPaths()) {
+			projectFiles.add(new File(projectPath));
+		}
+		for (String projectDir : applyArgs.getProjectDirs()) {
+			try {
+				projectFiles.addAll(ProjectImporter.findProjects(new File(projectDir)));
+			} catch (IOException e) {
+				throw new CoreException(new Status(0, "", "cannot scan " + projectDir, e));
+			}
+		}
+		return new ArrayList<File>(projectFiles);
+	}
+
+	private void applyAutoRefactorings(final List<File> projectFiles, final CommonResolveArgs applyArgs, Map<String, String> classPathVariables, 
+			final boolean verbose, String configuredSourceLevel, List<RefactoringRule> refactorings, List<String> excludedRefactorings,
+			boolean dryRun, /* @Nullable */ CheckReport checkReport, AstFeatureQuery featureQuery, int jobs)
 			throws JavaModelException, CoreException {
 		final boolean verboseApply = verbose || applyArgs.isVerbose();
 
 		final List<String> sourceFolders = new ArrayList<String>(applyArgs.getSources());
 		SourceLevel sourceLevel = configuredSourceLevel != null ? SourceLevel.fromValue(configuredSourceLevel) : null;
-		EffApplyArgs effArgs = new EffApplyArgs(sourceLevel, applyArgs.getIncludePattern(), verboseApply);
-		Refactor.refactorProject(projectFile, sourceFolders, classPathVariables,
+		EffApplyArgs effArgs = new EffApplyArgs(sourceLevel, applyArgs.getIncludePattern(), applyArgs.getGlobs(),
+				verboseApply, dryRun, checkReport,
+				applyArgs.getIndexFile(), featureQuery);
+		Refactor.refactorProjects(projectFiles, sourceFolders, classPathVariables, newProjectImporter(applyArgs, verboseApply),
 				refactorings,
 				excludedRefactorings,
-				effArgs, (target, rules, args) -> { Refactor.refactorFile(target, rules); }, 
-				ignoreFilesFilter());
+				effArgs, (target, rules, args) -> { Refactor.refactorFile(target, rules, args); }, 
+				ignoreFilesFilter(), jobs);
 	}
 
 	private void applyDeltaDebugRefactorings(final File projectFile, final ApplyDDArgs applyDDArgs, Map<String, String> classPathVariables,
@@ -219,14 +314,20 @@ public class AutoRefactor implements IApplication {
 		SourceLevel sourceLevel = applyDDArgs.getSourceLevel() != null ? SourceLevel.fromValue(applyDDArgs.getSourceLevel()) : null;
 		EffApplyArgs effArgs = new EffApplyArgs(sourceLevel,
 				applyDDArgs.getIncludePattern(),
+				applyDDArgs.getGlobs(),
 				applyDDArgs.getDeltaDebugTestExceptionPattern(),
 				applyDDArgs.getDeltaDebugBeforeTestCodePattern(),
 				applyDDArgs.getDeltaDebugBeforeTestCodeCommand(),
 				applyDDArgs.getDeltaDebugTestCodePattern(),
 				applyDDArgs.getDeltaDebugTestCodeCommand(),
-				verboseApply, applyDDArgs.isDeltaDebug());
+				verboseApply, applyDDArgs.isDeltaDebug(), applyDDArgs.getDeltaDebugJobs(),
+				applyDDArgs.isDeltaDebugHierarchical(),
+				TimeUnit.SECONDS.toMillis(applyDDArgs.getDeltaDebugCommandTimeout()),
+				applyDDArgs.isDeltaDebugOracle(),
+				applyDDArgs.isDeltaDebugResume(),
+				TimeUnit.SECONDS.toMillis(applyDDArgs.getDeltaDebugTimeBudget()));
 		DeltaDebugRefactor deltaDebugRefactor = new DeltaDebugRefactor();
-		Refactor.refactorProject(projectFile, sourceFolders, classPathVariables,
+		Refactor.refactorProject(projectFile, sourceFolders, classPathVariables, newProjectImporter(applyDDArgs, verboseApply),
 				Rules.resolveRules(applyDDArgs.getRefactorings()),
 				applyDDArgs.getExcludedRefactorings(),
 				effArgs,
@@ -234,6 +335,77 @@ public class AutoRefactor implements IApplication {
 				ignoreFilesFilter());
 	}
 
+	/**
+	 * Refactors stdin to stdout. Other output goes to stderr.
+	 *
+	 * @return the exit code
+	 */
+	private int filter(FilterArgs filterArgs, boolean verbose) {
+		final PrintStream stdout = System.out;
+		System.setOut(System.err);
+		try {
+			final boolean verboseFilter = verbose || filterArgs.isVerbose();
+			Refactor.filterSourceCode(new File(filterArgs.getProjectPath()), new File(filterArgs.getPath()),
+					filterArgs.getClassPathVariables(), newProjectImporter(filterArgs, verboseFilter),
+					Rules.resolveRules(filterArgs.getRefactorings()), filterArgs.getExcludedRefactorings(),
+					filterArgs.getSourceLevel() != null ? SourceLevel.fromValue(filterArgs.getSourceLevel()) : null,
+					System.in, stdout, verboseFilter);
+			return IApplication.EXIT_OK;
+		} catch (Exception e) {
+			// nothing is printed to stdout, callers keep their text
+			e.printStackTrace();
+			return 1;
+		} finally {
+			System.setOut(stdout);
+		}
+	}
+
+	/**
+	 * Refactors the files in memory during warmup rounds then measured rounds, and prints the statistics
+	 * of the measured rounds. The project is imported once, before the rounds, which only time the files.
+	 */
+	private void bench(BenchArgs benchArgs, boolean verbose) throws JavaModelException, CoreException {
+		final boolean verboseBench = verbose || benchArgs.isVerbose();
+		final SourceLevel sourceLevel = benchArgs.getSourceLevel() != null ? SourceLevel.fromValue(benchArgs.getSourceLevel()) : null;
+		final EffApplyArgs effArgs = new EffApplyArgs(sourceLevel, benchArgs.getIncludePattern(), benchArgs.getGlobs(),
+				verboseBench, true, null, benchArgs.getIndexFile(), benchArgs.getFeatureQuery());
+		final ProjectImporter importer = newProjectImporter(benchArgs, verboseBench);
+		final List<RefactoringRule> refactorings = Rules.resolveRules(benchArgs.getRefactorings());
+		final BenchReport report = new BenchReport();
+		long gcCount = 0;
+		long gcMillis = 0;
+		final int rounds = benchArgs.getWarmup() + benchArgs.getRounds();
+		try (Refactor.Projects projects = Refactor.prepareProjects(
+				Collections.singletonList(new File(benchArgs.getProjectPath())), benchArgs.getSources(),
+				benchArgs.getClassPathVariables(), importer, refactorings, benchArgs.getExcludedRefactorings(),
+				effArgs, ignoreFilesFilter())) {
+			for (int round = 0; round < rounds; round++) {
+				final boolean measured = round >= benchArgs.getWarmup();
+				if (round == benchArgs.getWarmup()) {
+					// the garbage of the warmup is not accounted to the measured rounds
+					System.gc();
+					BenchReport.resetPeakHeap();
+					gcCount = BenchReport.gcCount();
+					gcMillis = BenchReport.gcMillis();
+				}
+				final BenchReport roundReport = measured ? report : new BenchReport();
+				roundReport.startRound();
+				final long start = System.nanoTime();
+				projects.refactor((target, rules, args) -> { Refactor.benchFile(target, rules, roundReport); },
+						effArgs, benchArgs.getJobs());
+				System.out.printf("round %d%s: %.1f files/sec%n", round + 1, measured ? "" : " (warmup)",
+						roundReport.endRound(System.nanoTime() - start));
+			}
+		}
+		System.out.print(report.format(BenchReport.peakHeap(), BenchReport.gcCount() - gcCount,
+				BenchReport.gcMillis() - gcMillis));
+	}
+
+	private static ProjectImporter newProjectImporter(CommonResolveArgs args, boolean verbose) {
+		return new ProjectImporter(args.getClasspathFile() != null ? new File(args.getClasspathFile()) : null,
+				args.getLocalRepository() != null ? new File(args.getLocalRepository()) : null, verbose);
+	}
+
 	private void listRefactorings() {
         System.out.println("Available refactorings:");
         final List<RefactoringRule> rules = new ArrayList<RefactoringRule>(
@@ -0,0 +1,87 @@
+package org.autorefactor.cli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+/** Parameters for measuring the throughput of the refactorings. */
+@Parameters(commandDescription = "Refactor the files in memory, as with apply --dry-run, and report the throughput,"
+        + " the per-file latency, the iterations, the heap and the garbage collections.")
+public class BenchArgs extends CommonResolveArgs {
+    @Parameter(names = "--source-level", description = "Java source release to support. (e.g. 1.7)")
+    private String sourceLevel;
+
+    @Parameter(names = "--refactorings",
+            description = "Comma separated list of refactorings (e.g. UseDiamondOperatorRefactoring).")
+    private List<String> refactorings = new ArrayList<String>(Arrays.asList("all"));
+
+    @Parameter(names = "--exclude-refactorings",
+            description = "Comma separated list of refactorings to exclude (e.g. UseDiamondOperatorRefactoring).")
+    private List<String> excludedRefactorings = new ArrayList<String>();
+
+    @Parameter(names = "--warmup", description = "Number of rounds run before measuring, e.g. to compile the code.")
+    private int warmup = 2;
+
+    @Parameter(names = "--rounds", description = "Number of measured rounds.")
+    private int rounds = 5;
+
+    @Parameter(names = "--jobs", description = "Number of files refactored in parallel.")
+    private int jobs = 1;
+
+    /**
+     * The java source level to support.
+     *
+     * @return java source level to support
+     */
+    public String getSourceLevel() {
+        return sourceLevel;
+    }
+
+    /**
+     * The refactorings to apply.
+     *
+     * @return The refactorings to apply.
+     */
+    public List<String> getRefactorings() {
+        return refactorings;
+    }
+
+    /**
+     * The refactorings to exclude.
+     *
+     * @return The refactorings to exclude.
+     */
+    public List<String> getExcludedRefactorings() {
+        return excludedRefactorings;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return number of rounds run before measuring
+     */
+    public int getWarmup() {
+        return warmup;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return number of measured rounds
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return number of files refactored in parallel
+     */
+    public int getJobs() {
+        return jobs;
+    }
+}
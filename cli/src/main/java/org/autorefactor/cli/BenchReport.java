@@ -0,0 +1,163 @@
+package org.autorefactor.cli;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the measured rounds of the bench command: throughput, per-file latency and
+ * number of iterations of the refactorings until no rule applies anymore. Thread safe.
+ */
+final class BenchReport {
+	private final List<Long> latencies = new ArrayList<Long>();
+	/** Number of files by number of iterations, in the last round. */
+	private final Map<Integer, Integer> iterations = new TreeMap<Integer, Integer>();
+	private int files;
+	private int failures;
+	private int rounds;
+	private long roundsNanos;
+	private double minFilesPerSecond = Double.MAX_VALUE;
+	private double maxFilesPerSecond;
+	private int roundFiles;
+
+	/** Starts a measured round. */
+	synchronized void startRound() {
+		roundFiles = 0;
+		iterations.clear();
+	}
+
+	/**
+	 * Records a file of the current round.
+	 *
+	 * @param nanos time spent on the file
+	 * @param iterationCount number of iterations applying refactorings, 0 if the file was not changed
+	 * @param failed whether refactoring the file failed
+	 */
+	synchronized void addFile(long nanos, int iterationCount, boolean failed) {
+		latencies.add(nanos);
+		files++;
+		roundFiles++;
+		if (failed) {
+			failures++;
+		}
+		final Integer count = iterations.get(iterationCount);
+		iterations.put(iterationCount, count != null ? count + 1 : 1);
+	}
+
+	/**
+	 * Ends the current round.
+	 *
+	 * @param nanos wall time of the round
+	 * @return the throughput of the round in files per second
+	 */
+	synchronized double endRound(long nanos) {
+		rounds++;
+		roundsNanos += nanos;
+		final double filesPerSecond = filesPerSecond(roundFiles, nanos);
+		minFilesPerSecond = Math.min(minFilesPerSecond, filesPerSecond);
+		maxFilesPerSecond = Math.max(maxFilesPerSecond, filesPerSecond);
+		return filesPerSecond;
+	}
+
+	static double filesPerSecond(int files, long nanos) {
+		return nanos > 0 ? files * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+	}
+
+	/**
+	 * Nearest-rank percentile.
+	 *
+	 * @param sorted sorted values, not empty
+	 * @param percent percentile, in ]0, 100]
+	 */
+	static long percentile(long[] sorted, double percent) {
+		final int rank = (int) Math.ceil(percent / 100 * sorted.length);
+		return sorted[Math.max(rank, 1) - 1];
+	}
+
+	/**
+	 * Formats the report.
+	 *
+	 * @param peakHeapBytes peak heap usage during the measured rounds
+	 * @param gcCount number of garbage collections during the measured rounds
+	 * @param gcMillis time spent in garbage collections during the measured rounds
+	 */
+	synchronized String format(long peakHeapBytes, long gcCount, long gcMillis) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("bench: ").append(rounds).append(" rounds, ").append(files).append(" files");
+		if (failures > 0) {
+			sb.append(", ").append(failures).append(" failed");
+		}
+		sb.append('\n');
+		if (files == 0) {
+			return sb.toString();
+		}
+		sb.append(String.format(Locale.ROOT, "files/sec: %.1f (rounds: min %.1f, max %.1f)%n",
+				filesPerSecond(files, roundsNanos), minFilesPerSecond, maxFilesPerSecond));
+		final long[] sorted = new long[latencies.size()];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = latencies.get(i);
+		}
+		Arrays.sort(sorted);
+		sb.append(String.format(Locale.ROOT, "latency ms: median %.1f, p99 %.1f, max %.1f%n",
+				millis(percentile(sorted, 50)), millis(percentile(sorted, 99)), millis(sorted[sorted.length - 1])));
+		sb.append("iterations:");
+		for (Map.Entry<Integer, Integer> e : iterations.entrySet()) {
+			sb.append(' ').append(e.getKey()).append(": ").append(e.getValue());
+		}
+		sb.append(" (files per number of iterations)\n");
+		sb.append(String.format(Locale.ROOT, "peak heap: %d MB%n", peakHeapBytes / (1024 * 1024)));
+		sb.append(String.format(Locale.ROOT, "gc: %d collections, %d ms (%.1f%% of the time)%n", gcCount, gcMillis,
+				roundsNanos > 0 ? 100.0 * TimeUnit.MILLISECONDS.toNanos(gcMillis) / roundsNanos : 0));
+		return sb.toString();
+	}
+
+	/** Starts measuring the peak heap usage from now. */
+	static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/** Sum of the peak usages of the heap pools, an upper bound of the peak heap usage. */
+	static long peakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	/** Number of garbage collections since the start of the JVM. */
+	static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(gc.getCollectionCount(), 0);
+		}
+		return count;
+	}
+
+	/** Time in milliseconds spent in garbage collections since the start of the JVM. */
+	static long gcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(gc.getCollectionTime(), 0);
+		}
+		return millis;
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+}
@@ -0,0 +1,62 @@
+package org.autorefactor.cli;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Files which the refactorings would change, found by "apply --check".
+ *
+ * Each file is printed with the rules changing it as soon as it is found. Thread safe.
+ */
+final class CheckReport {
+	/** Exit code when files would be changed. */
+	static final int EXIT_FILES_WOULD_CHANGE = 1;
+
+	private final boolean failFast;
+	private final Map<String, List<String>> files = new TreeMap<String, List<String>>();
+
+	/**
+	 * @param failFast stop at the first file which would be changed
+	 */
+	CheckReport(boolean failFast) {
+		this.failFast = failFast;
+	}
+
+	/**
+	 * Records a file which would be changed.
+	 *
+	 * @param path the path of the file, unique among the files of all the checked projects
+	 * @param rules the names of the rules changing the file
+	 */
+	synchronized void add(String path, List<String> rules) {
+		files.put(path, rules);
+		System.out.println("would refactor " + path + ": " + String.join(", ", rules));
+	}
+
+	/**
+	 * Whether the remaining files need not be checked.
+	 */
+	synchronized boolean isDone() {
+		return failFast && !files.isEmpty();
+	}
+
+	synchronized boolean isEmpty() {
+		return files.isEmpty();
+	}
+
+	/**
+	 * Prints the summary.
+	 *
+	 * @return the exit code
+	 */
+	synchronized int printSummary() {
+		if (files.isEmpty()) {
+			System.out.println("check: no file would be refactored");
+			return 0;
+		}
+		System.out.println("check: " + files.size() + " file(s) would be refactored"
+				+ (failFast ? ", stopped at the first one" : ""));
+		return EXIT_FILES_WOULD_CHANGE;
+	}
+}
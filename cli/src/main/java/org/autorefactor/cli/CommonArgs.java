@@ -1,7 +1,12 @@
 package org.autorefactor.cli;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Pattern;
 
+import org.autorefactor.cli.index.AstFeatureQuery;
+
 import com.beust.jcommander.Parameter;
 
 public class CommonArgs {
@@ -10,11 +15,28 @@ public class CommonArgs {
 	private String pathFilter = "";
 	@Parameter(names = "--path-re", description = "Select files with java regular expression. (e.g. '/mydir.*/MyFile')")
 	private String includeRe = ".*";
+	@Parameter(names = "--glob", description = "Select files with glob relative to the source folder"
+			+ " (e.g. 'org/foo/**/*Dao.java'). Can be repeated, files matching any glob are selected.")
+	private List<String> globs = new ArrayList<String>();
 	/** Duplicated here compared to args to allow setting of verbose parameter after selection of command. */
 	@Parameter(names = "--verbose", description = "Verbose mode", hidden = true)
 	private boolean verbose;
-	@Parameter(names = "--project", description = "Path to project file.", required = true)
-	private String projectPath;
+	@Parameter(names = "--project", description = "Path to project file. A .project file, or a pom.xml,"
+			+ " a build.gradle or their directory for projects without Eclipse metadata."
+			+ " Required, except by apply with --projects-dir. Can be repeated by apply.")
+	private List<String> projectPaths = new ArrayList<String>();
+	@Parameter(names = "--index", description = "Persistent AST feature index used to skip files not matching the"
+			+ " --require-* options. Created or updated as needed.")
+	private String indexPath;
+	@Parameter(names = "--require-node",
+			description = "Only process files containing AST node type (e.g. SynchronizedStatement). Needs --index.")
+	private List<String> requiredNodes = new ArrayList<String>();
+	@Parameter(names = "--require-name",
+			description = "Only process files referencing simple name (e.g. Vector). Needs --index.")
+	private List<String> requiredNames = new ArrayList<String>();
+	@Parameter(names = "--require-import",
+			description = "Only process files importing type (e.g. java.util.Vector). Needs --index.")
+	private List<String> requiredImports = new ArrayList<String>();
 
 	public CommonArgs() {
 		super();
@@ -31,9 +53,20 @@ public class CommonArgs {
 
 	/**
 	 * Getter.
+	 *
+	 * @return the first project, null if there is none
+	 */
+	public final /* @Nullable */ String getProjectPath() {
+	    return projectPaths.isEmpty() ? null : projectPaths.get(0);
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the projects
 	 */
-	public final String getProjectPath() {
-	    return projectPath;
+	public final List<String> getProjectPaths() {
+	    return projectPaths;
 	}
 
 	public final Pattern getIncludePattern() {
@@ -50,7 +83,44 @@ public class CommonArgs {
 		return includeRe;
 	}
 
+	/**
+	 * Getter.
+	 *
+	 * @return globs selecting files, all files are selected if empty
+	 */
+	public final List<String> getGlobs() {
+		return globs;
+	}
+
 	public final String getPathFilter() {
 		return pathFilter;
 	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return index file or null
+	 */
+	public final /* @Nullable */ File getIndexFile() {
+		return indexPath != null ? new File(indexPath) : null;
+	}
+
+	/**
+	 * Features required by --require-* options.
+	 *
+	 * @return new query
+	 */
+	public final AstFeatureQuery getFeatureQuery() {
+		final AstFeatureQuery query = new AstFeatureQuery();
+		for (String node : requiredNodes) {
+			query.requireNode(node);
+		}
+		for (String name : requiredNames) {
+			query.requireSimpleName(name);
+		}
+		for (String type : requiredImports) {
+			query.requireImport(type);
+		}
+		return query;
+	}
 }
\ No newline at end of file
@@ -15,6 +15,13 @@ public class CommonResolveArgs extends CommonArgs{
 	private Map<String, String> classPathVariables = new HashMap<>();
 	@Parameter(names = "--source", description = "Source directories to use. (e.g. src/main/java). Default is: 'all source dirs'.")
 	private List<String> sources = new ArrayList<String>();
+	@Parameter(names = "--classpath-file", description = "Classpath of a project without .project file, exported by"
+			+ " the build (e.g. mvn dependency:build-classpath -Dmdep.outputFile=cp.txt). Default: the dependencies"
+			+ " of the pom.xml found in the local repository.")
+	private String classpathFile;
+	@Parameter(names = "--local-repository", description = "Local Maven repository resolving the dependencies of a"
+			+ " pom.xml, nothing is downloaded. Default: the one of ~/.m2/settings.xml or ~/.m2/repository.")
+	private String localRepository;
 
 	public CommonResolveArgs() {
 		super();
@@ -37,4 +44,22 @@ public class CommonResolveArgs extends CommonArgs{
 	public List<String> getSources() {
 	    return sources;
 	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return property
+	 */
+	public /* @Nullable */ String getClasspathFile() {
+	    return classpathFile;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return property
+	 */
+	public /* @Nullable */ String getLocalRepository() {
+	    return localRepository;
+	}
 }
\ No newline at end of file
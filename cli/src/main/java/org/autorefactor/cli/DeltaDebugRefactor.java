@@ -2,15 +2,20 @@ package org.autorefactor.cli;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.autorefactor.cli.dd.DDCheckpoint;
 import org.autorefactor.cli.dd.DDMin;
 import org.autorefactor.cli.dd.DDMin.Result;
+import org.autorefactor.cli.dd.TestOutcomeCache;
+import org.autorefactor.cli.dd.TimeBudgetExceededException;
+import org.autorefactor.environment.Tracer;
 import org.autorefactor.refactoring.RefactoringRule;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
@@ -25,72 +30,281 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
  */
 @SuppressWarnings("restriction")
 public class DeltaDebugRefactor {
+	/** Per thread buffer used to render candidates, reused across tests. */
+	private static final ThreadLocal<StringBuilder> RENDER_BUFFER = ThreadLocal.withInitial(StringBuilder::new);
 
     public interface TargetTest {
 		Result apply(String code);
 	}
 
+    /* @Nullable */ private TestCommandRunner beforeTestCommandRunner;
+    /* @Nullable */ private TestCommandRunner testCommandRunner;
+
     void deltaDebugRefactorFile(final Refactor.RefactorTarget target, final List<RefactoringRule> originalRules, final EffApplyArgs args) throws CoreException, Exception {
+        try (TestCommandRunner beforeTestRunner = newCommandRunner(args.deltaDebugBeforeTestCodeCommand, args);
+                TestCommandRunner testRunner = newCommandRunner(args.deltaDebugTestCodeCommand, args)) {
+            beforeTestCommandRunner = beforeTestRunner;
+            testCommandRunner = testRunner;
+            reduceFile(target, originalRules, args);
+        } finally {
+            beforeTestCommandRunner = null;
+            testCommandRunner = null;
+        }
+    }
+
+    private static /* @Nullable */ TestCommandRunner newCommandRunner(/* @Nullable */ String command, EffApplyArgs args) {
+        return command != null
+                ? new TestCommandRunner(command, args.deltaDebugOracle, args.deltaDebugCommandTimeout, args.verbose)
+                : null;
+    }
+
+    private void reduceFile(final Refactor.RefactorTarget target, final List<RefactoringRule> originalRules, final EffApplyArgs args) throws CoreException, Exception {
     	final IResource resource = target.getResource();
         final String originalCode = FileUtil.read(resource);
-        DDMin.Result testResult = testRefactorFile(originalCode, target, originalRules, args);
-        if (testResult != DDMin.Result.Reproduced) {
-            throw new IllegalStateException("cannot start: test case not reproducable");
-        }
+        final Charset charset = FileUtil.charset(resource);
         final File file = resource.getLocation().toFile();
-		try {
-            // 1. reduce rules
-			final List<RefactoringRule> rules = reduceRules(target, originalCode, originalRules, args);
-			if (originalRules.size() > 1) {
-				if (rules.size() < originalRules.size()) {
-					System.out.println("reduced rule size from " + originalRules.size() + " to " + rules.size());
-					System.out.println("applying rules: " + rules);
-				} else {
-					System.out.println("could not reduce reduced rule size " + originalRules.size());
-				}
-			}
-	        final TargetTest test = new TargetTest() {
-				@Override
-				public Result apply(String code) {
-					return testRefactorFile(code, target, rules, args);
-	            }
-	        };
-
-            String code = originalCode;
-			code = reduceWhitespace(code, test);
-			code = splitLines(code, test);
-
-			String previousCode = "";
-            while(!code.equals(previousCode)) {
-            	previousCode = code;
-            	boolean loop;
-            	// 2. lines + expressions
-            	do {
-            		// 2.1. reduce lines
-            		code = reduceLines(code, target, test);
-            		// 2.2. misc
-            		String s = code;
-            		code = tryReplacements(code, target, test);
-            		loop = !s.equals(code);
-            	} while (loop);
-                // 3. reduce characters
-                code = reduceCharacters(code, target, test);
-                if (code.equals(previousCode)) {
-        			code = reduceWhitespace(code, test);
-        			code = splitLines(code, test);
-                    code = tryReplacements(code, target, test);
-                }
+        final File checkpointFile = new File(file.getAbsolutePath() + "-ddmin-checkpoint");
+        final DDCheckpoint checkpoint = args.deltaDebugResume ? DDCheckpoint.load(checkpointFile, originalCode) : null;
+        if (checkpoint == null) {
+            DDMin.Result testResult = testRefactorFile(originalCode, target, originalRules, args);
+            if (testResult != DDMin.Result.Reproduced) {
+                throw new IllegalStateException("cannot start: test case not reproducable");
             }
-            FileUtil.writeFile(new File(file.getAbsolutePath() + "-ddmin"), code);
+        }
+		try (ScratchTargets scratchTargets = ScratchTargets.create(target, args.deltaDebugJobs, args.verbose)) {
+			final int parallelism = scratchTargets.size();
+			if (parallelism > 1) {
+				System.out.println("testing up to " + parallelism + " candidates in parallel");
+			}
+			// the outcome cache of the session is shared by all the phases: they often generate candidates which were already tested
+			final Session session = new Session(resource.getFullPath().toString(), checkpointFile, originalCode, originalRules,
+					args.deltaDebugTimeBudget);
+			if (checkpoint != null) {
+				System.out.println("resuming " + checkpoint);
+				session.resume(checkpoint);
+			}
+			String code;
+			try {
+				code = reduce(session, target, scratchTargets, originalRules, args);
+				session.deleteCheckpoint();
+			} catch (TimeBudgetExceededException e) {
+				code = session.stop();
+				System.out.println("DD: " + e.getMessage() + ", stopping with code size " + code.length()
+						+ ", use --resume to continue from " + checkpointFile);
+			}
+            FileUtil.writeFile(new File(file.getAbsolutePath() + "-ddmin"), code, charset);
             // TODO: hcak: this currently leaves refactored code in fs where we catch it
-            test.apply(code);
-            FileUtil.writeFile(new File(file.getAbsolutePath() + "-ddmin-result"), FileUtil.readFileToString(file.getAbsolutePath()));
+            testRefactorFile(code, target, session.rules, args);
+            FileUtil.writeFile(new File(file.getAbsolutePath() + "-ddmin-result"), FileUtil.read(resource), charset);
         } finally {
-            FileUtil.writeFile(file, originalCode);
+            FileUtil.writeFile(file, originalCode, charset);
+        }
+    }
+
+    private String reduce(final Session session, final Refactor.RefactorTarget target,
+            final ScratchTargets scratchTargets, final List<RefactoringRule> originalRules, final EffApplyArgs args) {
+        final int parallelism = scratchTargets.size();
+        // 1. reduce rules
+        if (session.runs(Phase.Rules)) {
+            session.rules = reduceRules(scratchTargets, session, session.originalCode, originalRules, args);
+            printProgress(session, "rules", session.originalCode);
+            session.checkpoint(Phase.Whitespace, session.originalCode);
+        }
+        final List<RefactoringRule> rules = session.rules;
+        if (originalRules.size() > 1) {
+            if (rules.size() < originalRules.size()) {
+                System.out.println("reduced rule size from " + originalRules.size() + " to " + rules.size());
+                System.out.println("applying rules: " + rules);
+            } else {
+                System.out.println("could not reduce reduced rule size " + originalRules.size());
+            }
+        }
+        final TargetTest test = new TargetTest() {
+            @Override
+            public Result apply(String code) {
+                final Result res = testRefactorFile(code, scratchTargets, session, rules, args);
+                if (res == Result.Reproduced) {
+                    session.reproduced(code);
+                }
+                return res;
+            }
+        };
+
+        String code = session.bestCode;
+        if (session.runs(Phase.Whitespace)) {
+            code = reduceWhitespace(code, test);
+            code = splitLines(code, test);
+            session.checkpoint(Phase.Ast, code);
+        }
+
+        String previousCode = "";
+        while(!code.equals(previousCode)) {
+        	previousCode = code;
+        	if (args.deltaDebugHierarchical && session.runs(Phase.Ast)) {
+        		// 2.0. whole AST nodes, candidates still parse
+        		code = HierarchicalDeltaDebug.reduce(code,
+        				target.getPackageFragmentRoot().getJavaProject().getOptions(true), test, parallelism);
+        		printProgress(session, "ast", code);
+        		session.checkpoint(Phase.Lines, code);
+        	}
+        	boolean loop;
+        	// 2. lines + expressions
+        	do {
+        		// 2.1. reduce lines
+        		if (session.runs(Phase.Lines)) {
+        			code = reduceLines(code, target, test, parallelism);
+        			printProgress(session, "lines", code);
+        			session.checkpoint(Phase.Replacements, code);
+        		}
+        		// 2.2. misc
+        		String s = code;
+        		if (session.runs(Phase.Replacements)) {
+        			code = tryReplacements(code, target, test, parallelism);
+        			printProgress(session, "replacements", code);
+        		}
+        		loop = !s.equals(code);
+        		session.checkpoint(loop ? Phase.Lines : Phase.Characters, code);
+        	} while (loop);
+            // 3. reduce characters
+            if (session.runs(Phase.Characters)) {
+                code = reduceCharacters(code, target, test, parallelism);
+                printProgress(session, "characters", code);
+            }
+            if (code.equals(previousCode)) {
+    			code = reduceWhitespace(code, test);
+    			code = splitLines(code, test);
+                code = tryReplacements(code, target, test, parallelism);
+            }
+            session.checkpoint(Phase.Ast, code);
         }
+        return code;
     }
 
-	private List<RefactoringRule> reduceRules(final Refactor.RefactorTarget target, final String originalCode,
+	/** Reduction phases, in order. */
+	private enum Phase {
+		Rules, Whitespace, Ast, Lines, Replacements, Characters
+	}
+
+	/**
+	 * State of the reduction of a file: the phase, the smallest reproducing code, the reduced rules
+	 * and the test outcomes, checkpointed after each successful step so that the reduction can be resumed.
+	 */
+	private static final class Session {
+		/** Minimum delay between two checkpoints saved in the middle of a phase. */
+		private static final long CHECKPOINT_INTERVAL_MILLIS = 10000;
+
+		final String path;
+		final File checkpointFile;
+		final String originalCode;
+		final TestOutcomeCache cache = new TestOutcomeCache();
+		final long timeBudget;
+		final long deadline;
+		volatile List<RefactoringRule> rules;
+		/** Phase to resume, null once it started. */
+		/* @Nullable */ private Phase resumePhase;
+		private Phase phase = Phase.Rules;
+		private String bestCode;
+		private long lastCheckpoint = System.currentTimeMillis();
+
+		Session(String path, File checkpointFile, String originalCode, List<RefactoringRule> rules, long timeBudget) {
+			this.path = path;
+			this.checkpointFile = checkpointFile;
+			this.originalCode = originalCode;
+			this.rules = rules;
+			this.bestCode = originalCode;
+			this.timeBudget = timeBudget;
+			this.deadline = timeBudget > 0 ? System.currentTimeMillis() + timeBudget : Long.MAX_VALUE;
+		}
+
+		synchronized void resume(DDCheckpoint checkpoint) {
+			cache.restore(checkpoint.getOutcomes());
+			bestCode = checkpoint.getCode();
+			try {
+				resumePhase = Phase.valueOf(checkpoint.getPhase());
+			} catch (IllegalArgumentException e) {
+				resumePhase = Phase.Rules;
+			}
+			if (resumePhase != Phase.Rules) {
+				final List<RefactoringRule> resumedRules = new ArrayList<RefactoringRule>();
+				for (RefactoringRule rule : rules) {
+					if (checkpoint.getRules().contains(rule.getClass().getName())) {
+						resumedRules.add(rule);
+					}
+				}
+				rules = resumedRules;
+			}
+		}
+
+		/** Whether given phase runs, i.e. it is not before the phase to resume. */
+		synchronized boolean runs(Phase p) {
+			if (resumePhase != null) {
+				if (p.compareTo(resumePhase) < 0) {
+					return false;
+				}
+				resumePhase = null;
+			}
+			phase = p;
+			return true;
+		}
+
+		void checkTimeBudget() {
+			if (System.currentTimeMillis() > deadline) {
+				throw new TimeBudgetExceededException(timeBudget);
+			}
+		}
+
+		/** Remembers a reproducing candidate, checkpointing from time to time. */
+		synchronized void reproduced(String code) {
+			if (code.length() < bestCode.length()) {
+				bestCode = code;
+				EventStream.ddProgress(path, phase.name().toLowerCase(Locale.ROOT), "reduced", code.length(),
+						cache.getHits() + cache.getMisses(), cache.getHits());
+				if (System.currentTimeMillis() - lastCheckpoint >= CHECKPOINT_INTERVAL_MILLIS) {
+					save();
+				}
+			}
+		}
+
+		/** Records the end of a step: the reduction continues with given phase and code. */
+		synchronized void checkpoint(Phase nextPhase, String code) {
+			phase = nextPhase;
+			bestCode = code;
+			save();
+		}
+
+		/** Checkpoints the current phase, to resume it from the smallest reproducing code. */
+		synchronized String stop() {
+			save();
+			return bestCode;
+		}
+
+		private void save() {
+			final List<String> ruleNames = new ArrayList<String>();
+			for (RefactoringRule rule : rules) {
+				ruleNames.add(rule.getClass().getName());
+			}
+			try {
+				DDCheckpoint.save(checkpointFile, originalCode, phase.name(), bestCode, ruleNames, cache);
+			} catch (IOException e) {
+				System.err.println("delta debugging: cannot save checkpoint " + checkpointFile + ": " + e);
+			}
+			lastCheckpoint = System.currentTimeMillis();
+		}
+
+		void deleteCheckpoint() {
+			checkpointFile.delete();
+		}
+	}
+
+	private static void printProgress(Session session, String phase, String code) {
+		final TestOutcomeCache cache = session.cache;
+		System.out.println("DD: after " + phase + " reduction: code size: " + code.length() + ", " + cache);
+		EventStream.ddProgress(session.path, phase, "finished", code.length(),
+				cache.getHits() + cache.getMisses(), cache.getHits());
+	}
+
+	private List<RefactoringRule> reduceRules(final ScratchTargets scratchTargets, final Session session,
+			final String originalCode,
 			final List<RefactoringRule> originalRules, final EffApplyArgs args) {
 		final List<RefactoringRule> rules;
 		if (originalRules.size() <= 1) {
@@ -99,9 +313,9 @@ public class DeltaDebugRefactor {
 		    rules = DDMin.ddMin(originalRules, 2, new DDMin.Predicate<RefactoringRule>() {
 		        @Override
 		        public Result apply(List<RefactoringRule> newRules) {
-		            return testRefactorFile(originalCode, target, newRules, args);
+		            return testRefactorFile(originalCode, scratchTargets, session, newRules, args);
 		        }
-		    });
+		    }, scratchTargets.size());
 		}
 		return rules;
 	}
@@ -156,11 +370,13 @@ public class DeltaDebugRefactor {
 		return code;
 	}
 
-	private String reduceLines(String code, final Refactor.RefactorTarget target, final TargetTest test) {
-		final List<String> reducedLines = DDMin.ddMin(split(code), 2, new DDMin.Predicate<String>() {
+	private String reduceLines(String code, final Refactor.RefactorTarget target, final TargetTest test,
+			int parallelism) {
+		final String[] lines = code.split("\n");
+		final BitSet reducedLines = DDMin.ddMin(lines.length, 2, null, new DDMin.BitSetPredicate() {
 		    @Override
-		    public Result apply(List<String> a) {
-		        final String newCode = join(a);
+		    public Result apply(BitSet configuration) {
+		        final String newCode = renderLines(lines, configuration);
 		        /*
 		         * writeFile(new
 		         * File(resource.getLocation().toFile().getAbsolutePath(
@@ -169,31 +385,67 @@ public class DeltaDebugRefactor {
 		        // setContent((IFile)resource, newCode);
 		        Result res = test.apply(newCode);
 		        if (res == Result.Reproduced) {
-		            FileUtil.writeFile(new File(target.getResource().getLocation().toFile().getAbsolutePath() + "-ddmin-latest"),
-		                    newCode);
+		            writeLatest(target, newCode);
 		        }
 		        return res;
 		    }
-		});
-		return join(reducedLines);
+		}, parallelism);
+		return renderLines(lines, reducedLines);
 	}
 
-	private String reduceCharacters(final String code, final Refactor.RefactorTarget target, final TargetTest test) {
-		final List<Character> reducedChars = DDMin.ddMin(splitChars(code), 2,
-		        new DDMin.Predicate<Character>() {
+	private String reduceCharacters(final String code, final Refactor.RefactorTarget target, final TargetTest test,
+			int parallelism) {
+		// do not remove new lines in character mode
+		final BitSet newLines = new BitSet(code.length());
+		for (int i = code.indexOf('\n'); i >= 0; i = code.indexOf('\n', i + 1)) {
+			newLines.set(i);
+		}
+		final BitSet reducedChars = DDMin.ddMin(code.length(), 2, newLines,
+		        new DDMin.BitSetPredicate() {
 		            @Override
-		            public Result apply(List<Character> a) {
-		                final String newCode = joinChars(a);
+		            public Result apply(BitSet configuration) {
+		                final String newCode = renderChars(code, configuration);
 		                Result res = test.apply(newCode);
 		                if (res == Result.Reproduced) {
-		                    FileUtil.writeFile(new File(
-		                            target.getResource().getLocation().toFile().getAbsolutePath() + "-ddmin-latest"),
-		                            newCode);
+		                    writeLatest(target, newCode);
 		                }
 		                return res;
 		            }
-		        });
-		return joinChars(reducedChars);
+		        }, parallelism);
+		return renderChars(code, reducedChars);
+	}
+
+	/** Renders the selected characters of the code, in a buffer reused by the tests of this thread. */
+	private static String renderChars(String code, BitSet configuration) {
+		final StringBuilder sb = RENDER_BUFFER.get();
+		sb.setLength(0);
+		// append runs of consecutive characters at once
+		int i = configuration.nextSetBit(0);
+		while (i >= 0) {
+			final int end = configuration.nextClearBit(i);
+			sb.append(code, i, end);
+			i = configuration.nextSetBit(end);
+		}
+		return sb.toString();
+	}
+
+	/** Renders the selected lines, in a buffer reused by the tests of this thread. */
+	private static String renderLines(String[] lines, BitSet configuration) {
+		final StringBuilder sb = RENDER_BUFFER.get();
+		sb.setLength(0);
+		for (int i = configuration.nextSetBit(0); i >= 0; i = configuration.nextSetBit(i + 1)) {
+			sb.append(lines[i]).append('\n');
+		}
+		if (sb.length() == 0) {
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	/** Keeps the latest reproducing candidate next to the original file. */
+	private static synchronized void writeLatest(Refactor.RefactorTarget target, String code) {
+		FileUtil.writeFile(new File(target.getResource().getLocation().toFile().getAbsolutePath() + "-ddmin-latest"),
+				code);
 	}
 
 	private static class Replace {
@@ -229,21 +481,26 @@ public class DeltaDebugRefactor {
     // TODO: needs ddmax!
 	// TODO: may introduce loops!
 	public static String tryReplacements(final String code, final Refactor.RefactorTarget target, TargetTest test) {
+		return tryReplacements(code, target, test, 1);
+	}
+
+	public static String tryReplacements(final String code, final Refactor.RefactorTarget target, TargetTest test,
+			int parallelism) {
 		String replaced = code;
-		replaced = tryReplace(replaced, returns, "return null;", target, test);
-		replaced = tryReplace(replaced, returns, "return true;", target, test);
-		replaced = tryReplace(replaced, returns, "return 1;", target, test);
-		replaced = tryReplace(replaced, assignment, "=null;", target, test);
-		replaced = tryReplace(replaced, assignment, "=true;", target, test);
-		replaced = tryReplace(replaced, assignment, "=1;", target, test);
-		replaced = tryReplace(replaced, mayBeGenericParam, " ", target, test);
-		replaced = tryReplace(replaced, typeName, "Object", target, test);
-		replaced = tryReplace(replaced, name, "q", target, test);
+		replaced = tryReplace(replaced, returns, "return null;", target, test, parallelism);
+		replaced = tryReplace(replaced, returns, "return true;", target, test, parallelism);
+		replaced = tryReplace(replaced, returns, "return 1;", target, test, parallelism);
+		replaced = tryReplace(replaced, assignment, "=null;", target, test, parallelism);
+		replaced = tryReplace(replaced, assignment, "=true;", target, test, parallelism);
+		replaced = tryReplace(replaced, assignment, "=1;", target, test, parallelism);
+		replaced = tryReplace(replaced, mayBeGenericParam, " ", target, test, parallelism);
+		replaced = tryReplace(replaced, typeName, "Object", target, test, parallelism);
+		replaced = tryReplace(replaced, name, "q", target, test, parallelism);
 		return replaced;
 	}
 
 	private static String tryReplace(final String code, Pattern pattern, final String replacement, final Refactor.RefactorTarget target,
-			final TargetTest test) {
+			final TargetTest test, int parallelism) {
 		final List<Replace> edits = new ArrayList<Replace>();
 		Matcher m = pattern.matcher(code);
 		while (m.find()) {
@@ -261,13 +518,11 @@ public class DeltaDebugRefactor {
 					final String newCode = DeltaDebugRefactor.apply(code, minus(edits, a), replacement);
 					Result res = test.apply(newCode);
 					if (res == Result.Reproduced && target != null) {
-						FileUtil.writeFile(new File(
-								target.getResource().getLocation().toFile().getAbsolutePath() + "-ddmin-latest"),
-								newCode);
+						writeLatest(target, newCode);
 					}
 					return res;
 				}
-			});
+			}, parallelism);
 			return apply(code, minus(edits, min), replacement);
 		} else {
 			return code;
@@ -290,6 +545,39 @@ public class DeltaDebugRefactor {
 		return s;
 	}
 
+    /**
+     * Tests the code on a copy of the target taken from the pool, with the rule instances of this copy,
+     * so that tests can run concurrently.
+     * Outcomes are remembered by the cache of the session.
+     */
+    private DDMin.Result testRefactorFile(final String code, final ScratchTargets scratchTargets,
+            Session session, final List<RefactoringRule> rules, final EffApplyArgs args) {
+        session.checkTimeBudget();
+        return session.cache.apply(code, rulesKey(rules), () -> {
+            final Refactor.RefactorTarget target = scratchTargets.acquire();
+            final Tracer tracer = Tracer.get();
+            final Object span = tracer.begin(Tracer.Phase.DD_TEST);
+            try {
+                final DDMin.Result result = testRefactorFile(code, target, scratchTargets.rulesFor(target, rules),
+                        args);
+                if (span != null) {
+                    tracer.end(span, session.path, result.name());
+                }
+                return result;
+            } finally {
+                scratchTargets.release(target);
+            }
+        });
+    }
+
+    private static String rulesKey(List<RefactoringRule> rules) {
+        final StringBuilder sb = new StringBuilder();
+        for (RefactoringRule rule : rules) {
+            sb.append(rule.getClass().getName()).append(',');
+        }
+        return sb.toString();
+    }
+
     private DDMin.Result testRefactorFile(String code, Refactor.RefactorTarget target, final List<RefactoringRule> rules, final EffApplyArgs args) {
     	final IResource resource = target.getResource();
         DDMin.Result testResult = DDMin.Result.Unknown;
@@ -336,22 +624,13 @@ public class DeltaDebugRefactor {
         return testResult;
     }
 
-	private boolean matchesPreCondition(final EffApplyArgs args, String code, IResource resource) throws IOException {
+	private boolean matchesPreCondition(final EffApplyArgs args, String code, IResource resource) {
 		final Pattern p = args.deltaDebugBeforeTestCodePattern;
 		if (p != null && !p.matcher(code).matches()) {
 			return false;
 		}
-		final String cmd = args.deltaDebugBeforeTestCodeCommand;
-		if (cmd != null) {
-			File tmpFile = File.createTempFile("/tmp/autorefactor",  "");
-			try {
-				FileUtil.writeFile(tmpFile, code);
-				if (executeCommand(cmd, tmpFile) != 0) {
-					return false;
-				}
-			} finally {
-				tmpFile.delete();
-			}
+		if (beforeTestCommandRunner != null && beforeTestCommandRunner.run(code) != 0) {
+			return false;
 		}
 		return true;
 	}
@@ -364,30 +643,12 @@ public class DeltaDebugRefactor {
 				return false;
 			}
 		}
-		final String cmd = args.deltaDebugTestCodeCommand;
-		if (cmd != null && executeCommand(cmd, resource.getLocation().toFile()) != 0) {
+		if (testCommandRunner != null && testCommandRunner.run(resource.getLocation().toFile()) != 0) {
 			return false;
 		}
 		return true;
 	}
 
-    private int executeCommand(String beforeTestCodeCommand, File arg1) {
-    	try {
-    		// TODO: use proper exec to avoid stream stalls
-    		String[] cmdArray = new String[] { beforeTestCodeCommand, arg1.getAbsolutePath() };
-			Process p = Runtime.getRuntime().exec(cmdArray);
-    		int exitCode = p.waitFor();
-    		//System.out.println("exit code " + exitCode + " when executing " + Arrays.asList(cmdArray));
-			return exitCode;
-    	} catch (InterruptedException e) {
-    		e.printStackTrace(System.err);
-    		return 2;
-    	} catch (IOException e) {
-    		e.printStackTrace(System.err);
-    		return 2;
-    	}
-	}
-
     /*
      * Some AST infos:
      *  http://www.programcreek.com/2014/01/how-to-resolve-bindings-when-using-eclipse-jdt-astparser/
@@ -427,57 +688,4 @@ public class DeltaDebugRefactor {
         return Refactor.refactorSourceCode(code, target, rules);
     }
 
-    private static boolean LINE_MODE = true;
-
-    private List<String> split(final String s) {
-        if (LINE_MODE) {
-            return new LinkedList<String>(Arrays.asList(s.split("\n")));
-        } else {
-            // very inefficient ... TODO
-            List<String> l = new LinkedList<String>();
-            for (int i = 0; i < s.length(); i++) {
-                l.add(s.substring(i, i + 1));
-            }
-            return l;
-        }
-    }
-
-    private String join(List<String> a) {
-        if (LINE_MODE) {
-            return join(a, "\n") + "\n";
-        } else {
-            return join(a, "");
-        }
-    }
-
-    private String join(List<String> l, String sep) {
-        StringBuilder sb = new StringBuilder();
-        boolean first = true;
-        for (String s: l) {
-            if (first) {
-                first = false;
-            } else {
-                sb.append(sep);
-            }
-            sb.append(s);
-        }
-        return sb.toString();
-    }
-
-    private List<Character> splitChars(final String s) {
-        // very inefficient ... TODO
-        List<Character> l = new LinkedList<Character>();
-        for (int i = 0; i < s.length(); i++) {
-            l.add(s.charAt(i));
-        }
-        return l;
-    }
-    private String joinChars(List<Character> l) {
-        StringBuilder sb = new StringBuilder();
-        boolean first = true;
-        for (Character s: l) {
-            sb.append(s);
-        }
-        return sb.toString();
-    }
 }
@@ -1,7 +1,11 @@
 package org.autorefactor.cli;
 
+import java.io.File;
+import java.util.List;
 import java.util.regex.Pattern;
 
+import org.autorefactor.cli.index.AstFeatureQuery;
+
 /**
  * Effective refactor application arguments.
  *
@@ -10,6 +14,8 @@ import java.util.regex.Pattern;
 public class EffApplyArgs {
     final SourceLevel sourceLevel;
     final Pattern sourceFileName;
+    /** Globs selecting source files, all files are selected if empty. */
+    final List<String> sourceGlobs;
     /* @Nullable */ final Pattern deltaDebugTestExceptionPattern;
     /* @Nullable */ final Pattern deltaDebugBeforeTestCodePattern;
     /* @Nullable */ final Pattern deltaDebugTestCodePattern;
@@ -17,11 +23,32 @@ public class EffApplyArgs {
     /* @Nullable */ final String deltaDebugTestCodeCommand;
     final boolean verbose;
     final boolean deltaDebug;
+    /** Number of delta debugging candidates tested concurrently. */
+    final int deltaDebugJobs;
+    /** Reduce whole AST nodes before lines and characters. */
+    final boolean deltaDebugHierarchical;
+    /** Maximum duration of a test command in milliseconds, 0 for no limit. */
+    final long deltaDebugCommandTimeout;
+    /** Keep test commands running and talk to them through stdin/stdout. */
+    final boolean deltaDebugOracle;
+    /** Continue the reduction from its checkpoint. */
+    final boolean deltaDebugResume;
+    /** Duration of the reduction in milliseconds, after which it stops with the best result so far. 0 for no limit. */
+    final long deltaDebugTimeBudget;
+    /** Print unified diffs instead of changing files. */
+    final boolean dryRun;
+    /** Report of check mode, null when refactoring. */
+    /* @Nullable */ final CheckReport checkReport;
+    /* @Nullable */ final File featureIndexFile;
+    final AstFeatureQuery featureQuery;
 
-    public EffApplyArgs(SourceLevel sourceLevel, Pattern compile, boolean verboseApply) {
+    public EffApplyArgs(SourceLevel sourceLevel, Pattern compile, List<String> sourceGlobs, boolean verboseApply,
+            boolean dryRun, /* @Nullable */ CheckReport checkReport, File featureIndexFile,
+            AstFeatureQuery featureQuery) {
         super();
         this.sourceLevel = sourceLevel;
         this.sourceFileName = compile;
+        this.sourceGlobs = sourceGlobs;
         this.deltaDebugTestExceptionPattern = null;
         this.deltaDebugBeforeTestCodePattern = null;
         this.deltaDebugTestCodePattern = null;
@@ -29,17 +56,31 @@ public class EffApplyArgs {
         this.deltaDebugTestCodeCommand = null;
         this.verbose = verboseApply;
         this.deltaDebug = false;
+        this.deltaDebugJobs = 1;
+        this.deltaDebugHierarchical = false;
+        this.deltaDebugCommandTimeout = 0;
+        this.deltaDebugOracle = false;
+        this.deltaDebugResume = false;
+        this.deltaDebugTimeBudget = 0;
+        this.dryRun = dryRun;
+        this.checkReport = checkReport;
+        this.featureIndexFile = featureIndexFile;
+        this.featureQuery = featureQuery;
     }
 
-    public EffApplyArgs(SourceLevel sourceLevel, Pattern compile, Pattern deltaDebugTestExceptionPattern,
+    public EffApplyArgs(SourceLevel sourceLevel, Pattern compile, List<String> sourceGlobs,
+            Pattern deltaDebugTestExceptionPattern,
             Pattern deltaDebugBeforeTestCodePattern,
             String deltaDebugBeforeTestCodeCommand, 
             Pattern deltaDebugTestCodePattern,
             String deltaDebugTestCodeCommand, 
-            boolean verboseApply, boolean deltaDebug) {
+            boolean verboseApply, boolean deltaDebug, int deltaDebugJobs, boolean deltaDebugHierarchical,
+            long deltaDebugCommandTimeout, boolean deltaDebugOracle, boolean deltaDebugResume,
+            long deltaDebugTimeBudget) {
         super();
         this.sourceLevel = sourceLevel;
         this.sourceFileName = compile;
+        this.sourceGlobs = sourceGlobs;
         this.deltaDebugTestExceptionPattern = deltaDebugTestExceptionPattern;
         this.deltaDebugBeforeTestCodePattern = deltaDebugBeforeTestCodePattern;
         this.deltaDebugTestCodePattern = deltaDebugTestCodePattern;
@@ -47,5 +88,15 @@ public class EffApplyArgs {
         this.deltaDebugTestCodeCommand = deltaDebugTestCodeCommand;
         this.verbose = verboseApply;
         this.deltaDebug = deltaDebug;
+        this.deltaDebugJobs = deltaDebugJobs;
+        this.deltaDebugHierarchical = deltaDebugHierarchical;
+        this.deltaDebugCommandTimeout = deltaDebugCommandTimeout;
+        this.deltaDebugOracle = deltaDebugOracle;
+        this.deltaDebugResume = deltaDebugResume;
+        this.deltaDebugTimeBudget = deltaDebugTimeBudget;
+        this.dryRun = false;
+        this.checkReport = null;
+        this.featureIndexFile = null;
+        this.featureQuery = new AstFeatureQuery();
     }
 }
@@ -0,0 +1,322 @@
+package org.autorefactor.cli;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.autorefactor.environment.VisitorListener;
+
+/**
+ * Opt-in stream of progress events, one JSON object per line, e.g. to monitor long runs.
+ *
+ * Events are queued and written by a daemon thread: the refactoring workers never wait for the destination.
+ * When the queue is full, events are dropped and counted in an "events_dropped" event.
+ * All the static methods do nothing while no stream is open.
+ */
+final class EventStream {
+	/** Maximum number of events waiting to be written. */
+	static final int CAPACITY = 64 * 1024;
+
+	private static final Pattern FD = Pattern.compile("fd:(\\d+)");
+	/** Queued by {@link #close()} after the last event. */
+	private static final String END = new String("end");
+
+	/* @Nullable */ private static volatile EventStream current;
+
+	/** The file refactored by the current thread. */
+	private static final ThreadLocal<FileProgress> FILE = new ThreadLocal<FileProgress>();
+
+	private final BlockingQueue<String> queue;
+	private final Writer out;
+	private final Thread writer;
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile boolean failed;
+
+	EventStream(OutputStream out, int capacity) {
+		this.queue = new ArrayBlockingQueue<String>(capacity);
+		this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		this.writer = new Thread(this::write, "autorefactor-events");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Starts writing the events to given destination.
+	 *
+	 * @param destination a file, truncated, or "fd:N" for an open file descriptor of the process
+	 */
+	static void open(String destination) throws IOException {
+		final Matcher m = FD.matcher(destination);
+		final OutputStream out = m.matches()
+				? new FileOutputStream(new File("/dev/fd/" + m.group(1)), true)
+				: new FileOutputStream(destination);
+		current = new EventStream(out, CAPACITY);
+		VisitorListener.set(new VisitorListener() {
+			@Override
+			public void visitorDisabled(String visitorClassName, String message, Exception cause) {
+				EventStream.visitorDisabled(visitorClassName, message);
+			}
+		});
+	}
+
+	/** Writes the queued events and closes the stream, waiting at most a few seconds for a slow destination. */
+	static void close() {
+		final EventStream stream = current;
+		if (stream != null) {
+			VisitorListener.set(VisitorListener.NONE);
+			current = null;
+			stream.shutdown(5, TimeUnit.SECONDS);
+		}
+	}
+
+	static boolean isEnabled() {
+		return current != null;
+	}
+
+	static void runStarted(String command) {
+		final EventStream stream = current;
+		if (stream != null) {
+			stream.emit(new Event("run_started").put("command", command));
+		}
+	}
+
+	static void runFinished(int exitCode, long startNanos) {
+		final EventStream stream = current;
+		if (stream != null) {
+			stream.emit(new Event("run_finished").put("exitCode", exitCode)
+					.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+		}
+	}
+
+	/** The current thread starts refactoring given file. */
+	static void fileStarted(String path) {
+		final EventStream stream = current;
+		if (stream != null) {
+			FILE.set(new FileProgress(path));
+			stream.emit(new Event("file_started").put("path", path));
+		}
+	}
+
+	/**
+	 * The current thread finished refactoring its file.
+	 *
+	 * @param error the failure, null on success
+	 */
+	static void fileFinished(/* @Nullable */ Throwable error) {
+		final EventStream stream = current;
+		final FileProgress file = FILE.get();
+		if (stream != null && file != null) {
+			FILE.remove();
+			final Event event = new Event("file_finished").put("path", file.path)
+					.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - file.startNanos))
+					.put("iterations", file.iterations)
+					.put("changed", file.iterations > 0);
+			if (error != null) {
+				event.put("error", String.valueOf(error));
+			}
+			stream.emit(event);
+		}
+	}
+
+	/**
+	 * An iteration of the refactorings of the current file applied changes.
+	 *
+	 * @param iteration the number of the iteration, from 1
+	 * @param rules the simple names of the rules which contributed changes
+	 */
+	static void rulesContributing(int iteration, Collection<String> rules) {
+		final EventStream stream = current;
+		if (stream != null) {
+			final FileProgress file = FILE.get();
+			if (file != null) {
+				file.iterations = iteration;
+			}
+			stream.emit(new Event("rules_contributing").put("path", file != null ? file.path : null)
+					.put("iteration", iteration).put("rules", rules));
+		}
+	}
+
+	/** A visitor failed and is disabled for the rest of the run. */
+	static void visitorDisabled(String visitor, String message) {
+		final EventStream stream = current;
+		if (stream != null) {
+			final FileProgress file = FILE.get();
+			stream.emit(new Event("visitor_disabled").put("path", file != null ? file.path : null)
+					.put("visitor", visitor).put("message", message));
+		}
+	}
+
+	/**
+	 * Progress of the delta debugging of a file.
+	 *
+	 * @param step "reduced" when a smaller reproducing code is found, "finished" at the end of a phase
+	 */
+	static void ddProgress(String path, String phase, String step, int codeSize, long tests, long cacheHits) {
+		final EventStream stream = current;
+		if (stream != null) {
+			stream.emit(new Event("dd_progress").put("path", path).put("phase", phase).put("step", step)
+					.put("codeSize", codeSize).put("tests", tests).put("cacheHits", cacheHits));
+		}
+	}
+
+	/** Queues the event, or drops it if the queue is full. */
+	void emit(Event event) {
+		if (failed || !queue.offer(event.toJson())) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	void shutdown(long timeout, TimeUnit unit) {
+		try {
+			if (queue.offer(END, timeout, unit)) {
+				writer.join(unit.toMillis(timeout));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (writer.isAlive()) {
+			System.err.println("events: destination too slow, " + queue.size() + " events not written");
+			writer.interrupt();
+		}
+	}
+
+	/** Writes events in batches, flushing when the queue is empty. */
+	private void write() {
+		final List<String> batch = new ArrayList<String>();
+		try {
+			while (true) {
+				batch.add(queue.take());
+				queue.drainTo(batch);
+				for (String line : batch) {
+					if (line == END) {
+						writeDropped();
+						return;
+					}
+					out.write(line);
+					out.write('\n');
+				}
+				batch.clear();
+				writeDropped();
+				if (queue.isEmpty()) {
+					out.flush();
+				}
+			}
+		} catch (IOException e) {
+			failed = true;
+			queue.clear();
+			System.err.println("events: cannot write events, disabling them: " + e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// already reported or nothing to do
+			}
+		}
+	}
+
+	private void writeDropped() throws IOException {
+		final long n = dropped.getAndSet(0);
+		if (n > 0) {
+			out.write(new Event("events_dropped").put("count", n).toJson());
+			out.write('\n');
+		}
+	}
+
+	/** The file refactored by a thread. */
+	private static final class FileProgress {
+		final String path;
+		final long startNanos = System.nanoTime();
+		int iterations;
+
+		FileProgress(String path) {
+			this.path = path;
+		}
+	}
+
+	/** A JSON object with the time, the thread and the type of an event. */
+	static final class Event {
+		private final StringBuilder json = new StringBuilder(128);
+
+		Event(String type) {
+			json.append("{\"ts\":").append(System.currentTimeMillis());
+			put("thread", Thread.currentThread().getName());
+			put("event", type);
+		}
+
+		/** Adds a string, number, boolean or collection of strings, null values are omitted. */
+		Event put(String name, /* @Nullable */ Object value) {
+			if (value == null) {
+				return this;
+			}
+			json.append(',');
+			appendString(json, name);
+			json.append(':');
+			if (value instanceof Number || value instanceof Boolean) {
+				json.append(value);
+			} else if (value instanceof Collection) {
+				json.append('[');
+				String separator = "";
+				for (Object element : (Collection<?>) value) {
+					json.append(separator);
+					appendString(json, String.valueOf(element));
+					separator = ",";
+				}
+				json.append(']');
+			} else {
+				appendString(json, value.toString());
+			}
+			return this;
+		}
+
+		String toJson() {
+			return json.toString() + "}";
+		}
+
+		private static void appendString(StringBuilder sb, String s) {
+			sb.append('"');
+			for (int i = 0; i < s.length(); i++) {
+				final char c = s.charAt(i);
+				switch (c) {
+				case '"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+				}
+			}
+			sb.append('"');
+		}
+	}
+}
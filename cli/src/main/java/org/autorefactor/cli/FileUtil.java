@@ -1,25 +1,48 @@
 package org.autorefactor.cli;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.Status;
 
 public class FileUtil {
+	private static final String RESOURCES_PREFS = ".settings/org.eclipse.core.resources.prefs";
+
+	/** Charset of the files in a directory, found in the Eclipse settings of the enclosing project. */
+	private static final Map<File, Charset> DIRECTORY_CHARSETS = new ConcurrentHashMap<File, Charset>();
+
+	/** Files of at least this size in bytes are memory-mapped instead of read, 0 to never map. */
+	private static volatile long memoryMapThreshold;
+
+	/**
+	 * Memory-map files of at least given size in bytes instead of reading them, 0 to never map.
+	 */
+	static void setMemoryMapThreshold(long threshold) {
+		memoryMapThreshold = threshold;
+	}
 
 	static void walkMax(final IFolder f, final int max, final IResourceVisitor visitor) throws CoreException {
 	    f.accept(new IResourceVisitor() {
 	        int count = max;
-	
+
 	        /** @Override */
 	        public boolean visit(IResource resource) throws CoreException {
 	            return count-- > 0 && visitor.visit(resource);
@@ -27,31 +50,70 @@ public class FileUtil {
 	    });
 	}
 
+	/**
+	 * Charset of a resource: the encoding of the file or else of its project.
+	 */
+	static Charset charset(IResource resource) throws CoreException {
+		if (resource instanceof IFile) {
+			return Charset.forName(((IFile) resource).getCharset());
+		}
+		final IProject project = resource.getProject();
+		return project != null ? Charset.forName(project.getDefaultCharset()) : Charset.defaultCharset();
+	}
+
 	static String read(final IResource resource) throws CoreException {
-	    return FileUtil.readFileToString(resource.getLocation().toFile().getAbsolutePath());
+	    try {
+	        return readFile(resource.getLocation().toFile(), charset(resource));
+	    } catch (IOException e) {
+	        throw new CoreException(new Status(0, "", "", e));
+	    }
 	}
 
+	/**
+	 * Writes the content with the charset of the enclosing project.
+	 */
 	static void writeFile(File file, final String content) {
+	    writeFile(file, content, charset(file));
+	}
+
+	/**
+	 * Writes the content to a temporary file next to the file, then renames it,
+	 * so that readers never see a partially written file.
+	 */
+	static void writeFile(File file, final String content, Charset charset) {
 	    try {
-	    Writer w = new FileWriter(file);
-	    try {
-	        w.write(content);
-	        w.close();
-	        w = null;
-	    } finally {
-	        if (w != null) {
-	            try { w.close(); } catch (Exception e) {}
+	        final Path target = file.toPath().toAbsolutePath();
+	        // unlike createTempFile(), gets the default permissions of new files
+	        final Path tmp = target.resolveSibling(
+	                file.getName() + "." + Thread.currentThread().getId() + "-" + System.nanoTime() + ".tmp");
+	        try {
+	            Files.write(tmp, content.getBytes(charset), StandardOpenOption.CREATE_NEW);
+	            if (Files.exists(target)) {
+	                copyPermissions(target, tmp);
+	            }
+	            try {
+	                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+	            } catch (AtomicMoveNotSupportedException e) {
+	                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+	            }
+	        } finally {
+	            Files.deleteIfExists(tmp);
 	        }
-	    }
 	    } catch (IOException e) {
 	        throw new IllegalStateException(e);
 	    }
 	}
 
+	private static void copyPermissions(Path from, Path to) throws IOException {
+		try {
+			Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+		} catch (UnsupportedOperationException e) {
+			to.toFile().setExecutable(from.toFile().canExecute());
+		}
+	}
+
 	/**
-	 * Read file to String.
-	 *
-	 * TODO: use project encoding!
+	 * Read file to String, with the charset of the enclosing project.
 	 *
 	 * @param filePath
 	 *            file path
@@ -68,31 +130,78 @@ public class FileUtil {
 	}
 
 	/**
-	 * Read file to String.
-	 *
-	 * TODO: use project encoding!
+	 * Read file to String, with the charset of the enclosing project.
 	 *
 	 * @param filePath
 	 *            file path
 	 * @return String
-	 * @throws CoreException
+	 * @throws IOException
 	 *             on I/O errors
 	 */
 	public static String readFile(String filePath) throws FileNotFoundException, IOException {
-		StringBuilder fileData = new StringBuilder(1000);
-		BufferedReader reader = new BufferedReader(new FileReader(filePath));
-
-		char[] buf = new char[10];
-		int numRead = 0;
-		while ((numRead = reader.read(buf)) != -1) {
-		    String readData = String.valueOf(buf, 0, numRead);
-		    fileData.append(readData);
-		    buf = new char[1024];
+		final File file = new File(filePath);
+		return readFile(file, charset(file));
+	}
+
+	/**
+	 * Read file to String in one sized read, or through a memory mapping for large files.
+	 *
+	 * @param file
+	 *            the file
+	 * @param charset
+	 *            the charset of the file
+	 * @return String
+	 * @throws IOException
+	 *             on I/O errors
+	 */
+	static String readFile(File file, Charset charset) throws IOException {
+		final long threshold = memoryMapThreshold;
+		if (threshold > 0 && file.length() >= threshold) {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				return charset.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())).toString();
+			}
 		}
+		return new String(Files.readAllBytes(file.toPath()), charset);
+	}
 
-		reader.close();
+	/**
+	 * Charset of a file outside of the workspace: the encoding of the enclosing Eclipse project
+	 * found in its settings, or else the platform charset.
+	 */
+	static Charset charset(File file) {
+		final File dir = file.getAbsoluteFile().getParentFile();
+		return dir != null ? directoryCharset(dir) : Charset.defaultCharset();
+	}
 
-		return fileData.toString();
+	private static Charset directoryCharset(File dir) {
+		final Charset cached = DIRECTORY_CHARSETS.get(dir);
+		if (cached != null) {
+			return cached;
+		}
+		Charset charset = projectCharset(dir);
+		if (charset == null) {
+			final File parent = dir.getParentFile();
+			charset = parent != null ? directoryCharset(parent) : Charset.defaultCharset();
+		}
+		DIRECTORY_CHARSETS.put(dir, charset);
+		return charset;
+	}
+
+	/** Returns the encoding of the Eclipse project in given directory, or null if it is not a project. */
+	private static /* @Nullable */ Charset projectCharset(File dir) {
+		final File prefs = new File(dir, RESOURCES_PREFS);
+		if (!prefs.isFile()) {
+			return null;
+		}
+		final Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(prefs.toPath())) {
+			properties.load(in);
+			final String encoding = properties.getProperty("encoding/<project>");
+			return encoding != null ? Charset.forName(encoding) : Charset.defaultCharset();
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("cannot read encoding from " + prefs + ": " + e);
+			return null;
+		}
 	}
 
 }
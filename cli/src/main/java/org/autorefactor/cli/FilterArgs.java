@@ -0,0 +1,64 @@
+package org.autorefactor.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+/** Parameters for refactoring source text read from stdin. */
+@Parameters(commandDescription = "Refactor source text read from stdin, print the result to stdout.")
+public class FilterArgs extends CommonResolveArgs {
+    @Parameter(names = "--path", description = "Path of the source text in the project, relative to the project"
+            + " directory or absolute (e.g. src/main/java/org/foo/Bar.java). Gives the package, the classpath"
+            + " and the encoding. The file does not need to exist.", required = true)
+    private String path;
+
+    @Parameter(names = "--source-level", description = "Java source release to support. (e.g. 1.7)")
+    private String sourceLevel;
+
+    @Parameter(names = "--refactorings",
+            description = "Comma separated list of refactorings (e.g. UseDiamondOperatorRefactoring).",
+            required = true)
+    private List<String> refactorings = new ArrayList<String>();
+
+    @Parameter(names = "--exclude-refactorings",
+            description = "Comma separated list of refactorings to exclude (e.g. UseDiamondOperatorRefactoring).")
+    private List<String> excludedRefactorings = new ArrayList<String>();
+
+    /**
+     * The path of the source text.
+     *
+     * @return the path of the source text
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * The java source level to support.
+     *
+     * @return java source level to support
+     */
+    public String getSourceLevel() {
+        return sourceLevel;
+    }
+
+    /**
+     * The refactorings to apply.
+     *
+     * @return The refactorings to apply.
+     */
+    public List<String> getRefactorings() {
+        return refactorings;
+    }
+
+    /**
+     * The refactorings to exclude.
+     *
+     * @return The refactorings to exclude.
+     */
+    public List<String> getExcludedRefactorings() {
+        return excludedRefactorings;
+    }
+}
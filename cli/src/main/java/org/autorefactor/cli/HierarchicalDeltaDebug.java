@@ -0,0 +1,213 @@
+package org.autorefactor.cli;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.cli.dd.DDMin;
+import org.autorefactor.cli.dd.DDMin.Result;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.CastExpression;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ConditionalExpression;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.SwitchStatement;
+
+/**
+ * Hierarchical delta debugging: reduces code by removing or simplifying whole AST nodes.
+ *
+ * Hierarchical Delta Debugging
+ * https://www.st.cs.uni-saarland.de/publications/files/misherghi-icse-2006.pdf
+ *
+ * Nodes are reduced level by level: type members, then statements, then expressions.
+ * Inside a level, the outermost nodes are reduced first, then the nodes nested in the remaining ones.
+ * Unlike line or character reduction, nearly all candidates still parse.
+ */
+class HierarchicalDeltaDebug {
+
+	/** Kinds of nodes, in reduction order. */
+	enum Level {
+		/** Removes type members. */
+		Members,
+		/** Removes statements of blocks and switch statements. */
+		Statements,
+		/** Replaces expressions by one of their operands. */
+		Expressions
+	}
+
+	/** Replaces a node by a text. */
+	static class Edit {
+		final int start;
+		final int end;
+		final String replacement;
+
+		Edit(int start, int end, String replacement) {
+			this.start = start;
+			this.end = end;
+			this.replacement = replacement;
+		}
+
+		@Override
+		public String toString() {
+			return "Edit [start=" + start + ", end=" + end + ", replacement=" + replacement + "]";
+		}
+	}
+
+	/**
+	 * Reduces the code level by level.
+	 *
+	 * @param code the code to reduce, must parse
+	 * @param compilerOptions the compiler options of the project, giving the source level
+	 * @param test the test of the candidates
+	 * @param parallelism the maximum number of candidates tested concurrently
+	 * @return the reduced code
+	 */
+	static String reduce(String code, Map<String, String> compilerOptions, DeltaDebugRefactor.TargetTest test,
+			int parallelism) {
+		for (Level level : Level.values()) {
+			int depth = 0;
+			while (true) {
+				final List<Edit> edits = collectEdits(parse(code, compilerOptions), code, level, depth);
+				if (edits.isEmpty()) {
+					// no node at this depth, so none deeper either
+					break;
+				}
+				final String reduced = reduce(code, edits, test, parallelism);
+				// replacing an expression by an operand moves the operand up to this depth: try again
+				if (level != Level.Expressions || reduced.equals(code)) {
+					depth++;
+				}
+				code = reduced;
+			}
+		}
+		return code;
+	}
+
+	private static String reduce(final String code, final List<Edit> edits, final DeltaDebugRefactor.TargetTest test,
+			int parallelism) {
+		// the configuration is the set of nodes kept as is
+		final List<Edit> kept = DDMin.ddMin(edits, 1, new DDMin.Predicate<Edit>() {
+			@Override
+			public Result apply(List<Edit> a) {
+				return test.apply(HierarchicalDeltaDebug.apply(code, edits, a));
+			}
+		}, parallelism);
+		return apply(code, edits, kept);
+	}
+
+	/** Applies the edits which are not kept. Edits are sorted and do not overlap. */
+	static String apply(String code, List<Edit> edits, List<Edit> kept) {
+		final StringBuilder sb = new StringBuilder(code.length());
+		int offset = 0;
+		int k = 0;
+		for (Edit edit : edits) {
+			// kept is a sublist of edits, in the same order
+			if (k < kept.size() && kept.get(k) == edit) {
+				k++;
+				continue;
+			}
+			sb.append(code, offset, edit.start).append(edit.replacement);
+			offset = edit.end;
+		}
+		return sb.append(code, offset, code.length()).toString();
+	}
+
+	static CompilationUnit parse(String code, Map<String, String> compilerOptions) {
+		final ASTParser parser = ASTParser.newParser(AST.JLS8);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setSource(code.toCharArray());
+		parser.setCompilerOptions(compilerOptions);
+		parser.setResolveBindings(false);
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	/**
+	 * Collects the edits of the nodes of given level, nested in exactly depth other nodes of this level.
+	 * Such nodes do not overlap.
+	 */
+	static List<Edit> collectEdits(CompilationUnit cu, final String code, final Level level, final int depth) {
+		final List<Edit> edits = new ArrayList<Edit>();
+		cu.accept(new ASTVisitor() {
+			/** Enclosing nodes of the level. */
+			private final Deque<ASTNode> enclosingNodes = new ArrayDeque<ASTNode>();
+
+			@Override
+			public boolean preVisit2(ASTNode node) {
+				final Edit edit = toEdit(node, code, level);
+				if (edit == null) {
+					return true;
+				}
+				if (enclosingNodes.size() == depth) {
+					edits.add(edit);
+					// nested nodes are deeper
+					return false;
+				}
+				enclosingNodes.push(node);
+				return true;
+			}
+
+			@Override
+			public void postVisit(ASTNode node) {
+				if (enclosingNodes.peek() == node) {
+					enclosingNodes.pop();
+				}
+			}
+		});
+		return edits;
+	}
+
+	/** Returns the edit reducing given node, or null if it is not a node of given level. */
+	private static /* @Nullable */ Edit toEdit(ASTNode node, String code, Level level) {
+		switch (level) {
+		case Members:
+			if (node instanceof BodyDeclaration
+					&& (node.getParent() instanceof AbstractTypeDeclaration
+							|| node.getParent() instanceof AnonymousClassDeclaration)) {
+				return remove(node);
+			}
+			return null;
+
+		case Statements:
+			if (node instanceof Statement
+					&& (node.getParent() instanceof Block || node.getParent() instanceof SwitchStatement)) {
+				return remove(node);
+			}
+			return null;
+
+		case Expressions:
+			if (node instanceof ParenthesizedExpression) {
+				return replace(node, ((ParenthesizedExpression) node).getExpression(), code);
+			} else if (node instanceof InfixExpression) {
+				return replace(node, ((InfixExpression) node).getLeftOperand(), code);
+			} else if (node instanceof ConditionalExpression) {
+				return replace(node, ((ConditionalExpression) node).getThenExpression(), code);
+			} else if (node instanceof CastExpression) {
+				return replace(node, ((CastExpression) node).getExpression(), code);
+			}
+			return null;
+
+		default:
+			throw new IllegalArgumentException("unknown level " + level);
+		}
+	}
+
+	private static Edit remove(ASTNode node) {
+		return new Edit(node.getStartPosition(), node.getStartPosition() + node.getLength(), "");
+	}
+
+	private static Edit replace(ASTNode node, ASTNode child, String code) {
+		return new Edit(node.getStartPosition(), node.getStartPosition() + node.getLength(),
+				code.substring(child.getStartPosition(), child.getStartPosition() + child.getLength()));
+	}
+}
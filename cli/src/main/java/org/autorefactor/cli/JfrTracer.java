@@ -0,0 +1,223 @@
+package org.autorefactor.cli;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.environment.Tracer;
+
+/**
+ * Records the phases of the refactorings as Java Flight Recorder events.
+ *
+ * Only loaded with --jfr: the JVM must provide jdk.jfr (JDK 11+ or 8u262+). Without --jfr, the tracer of
+ * the plugin stays {@link Tracer#NONE} and the traced code only pays for a volatile read.
+ *
+ * The cli builds against Java 8 without jdk.jfr, so the JFR API is only used reflectively:
+ * the events are defined at runtime with jdk.jfr.EventFactory.
+ */
+final class JfrTracer extends Tracer {
+	private static final String JFR = "jdk.jfr.";
+	private static final String CATEGORY = "AutoRefactor";
+
+	/** The event of each phase. */
+	private static final Map<Phase, EventType> EVENT_TYPES = new EnumMap<Phase, EventType>(Phase.class);
+	static {
+		EVENT_TYPES.put(Phase.PARSE, new EventType("org.autorefactor.Parse", "Parse",
+				"ASTParser.createAST() with bindings", null));
+		EVENT_TYPES.put(Phase.RULE, new EventType("org.autorefactor.Rule", "Rule Contribution",
+				"A rule contributed refactorings while visiting the AST", "Rule Class"));
+		EVENT_TYPES.put(Phase.APPLY, new EventType("org.autorefactor.Apply", "Apply Refactorings",
+				"Refactorings.applyTo() of an iteration", null));
+		EVENT_TYPES.put(Phase.SAVE, new EventType("org.autorefactor.Save", "Save",
+				"ICompilationUnit.save() of an iteration", null));
+		EVENT_TYPES.put(Phase.CFG, new EventType("org.autorefactor.Cfg", "Build CFG",
+				"Control flow graph of a method, built on a cache miss", "Method"));
+		EVENT_TYPES.put(Phase.DD_TEST, new EventType("org.autorefactor.DdTest", "Delta Debugging Test",
+				"Refactoring and testing a candidate code while delta debugging", "Result"));
+	}
+
+	/* @Nullable */ private static Object recording;
+
+	/** The jdk.jfr.EventFactory of each phase. */
+	private final Map<Phase, Object> eventFactories = new EnumMap<Phase, Object>(Phase.class);
+	private final Method newEvent;
+	private final Method isEnabled;
+	private final Method begin;
+	private final Method end;
+	private final Method shouldCommit;
+	private final Method set;
+	private final Method commit;
+
+	private JfrTracer() throws ReflectiveOperationException {
+		final Class<?> eventFactoryClass = jfrClass("EventFactory");
+		final Method create = eventFactoryClass.getMethod("create", List.class, List.class);
+		for (Map.Entry<Phase, EventType> e : EVENT_TYPES.entrySet()) {
+			eventFactories.put(e.getKey(), create.invoke(null, e.getValue().annotations(), e.getValue().fields()));
+		}
+		final Class<?> eventClass = jfrClass("Event");
+		newEvent = eventFactoryClass.getMethod("newEvent");
+		isEnabled = eventClass.getMethod("isEnabled");
+		begin = eventClass.getMethod("begin");
+		end = eventClass.getMethod("end");
+		shouldCommit = eventClass.getMethod("shouldCommit");
+		set = eventClass.getMethod("set", int.class, Object.class);
+		commit = eventClass.getMethod("commit");
+	}
+
+	/**
+	 * Starts recording the JVM with the default settings plus the AutoRefactor events.
+	 *
+	 * @param file the recording written when {@link #stop()} is called
+	 * @throws IOException if the JVM does not provide Java Flight Recorder or if it cannot record
+	 */
+	static synchronized void start(String file) throws IOException {
+		try {
+			final JfrTracer tracer = new JfrTracer();
+			final Class<?> configurationClass = jfrClass("Configuration");
+			final Class<?> recordingClass = jfrClass("Recording");
+			final Object r = recordingClass.getConstructor(configurationClass).newInstance(
+					configurationClass.getMethod("getConfiguration", String.class).invoke(null, "default"));
+			recordingClass.getMethod("setName", String.class).invoke(r, "autorefactor");
+			recordingClass.getMethod("setDestination", Path.class).invoke(r, Paths.get(file));
+			final Method enable = recordingClass.getMethod("enable", String.class);
+			final Method withoutThreshold = jfrClass("EventSettings").getMethod("withoutThreshold");
+			for (EventType type : EVENT_TYPES.values()) {
+				withoutThreshold.invoke(enable.invoke(r, type.name));
+			}
+			recordingClass.getMethod("start").invoke(r);
+			recording = r;
+			Tracer.set(tracer);
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Java Flight Recorder is not available in this JVM (" + e.getMessage() + ")", e);
+		} catch (InvocationTargetException e) {
+			throw new IOException("cannot start recording to " + file + ": " + e.getCause(), e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IOException("Java Flight Recorder is not available in this JVM (" + e + ")", e);
+		}
+	}
+
+	/** Stops tracing and writes the recording, if started. */
+	static synchronized void stop() {
+		final Object r = recording;
+		if (r != null) {
+			recording = null;
+			Tracer.set(Tracer.NONE);
+			try {
+				try {
+					r.getClass().getMethod("stop").invoke(r);
+					System.err.println("jfr: recording written to " + r.getClass().getMethod("getDestination").invoke(r));
+				} finally {
+					r.getClass().getMethod("close").invoke(r);
+				}
+			} catch (ReflectiveOperationException e) {
+				System.err.println("jfr: cannot write the recording: " + e);
+			}
+		}
+	}
+
+	@Override
+	public /* @Nullable */ Object begin(Phase phase) {
+		final Object event = invoke(newEvent, eventFactories.get(phase));
+		if (!(Boolean) invoke(isEnabled, event)) {
+			return null;
+		}
+		invoke(begin, event);
+		return new Span(event, EVENT_TYPES.get(phase).detailLabel != null);
+	}
+
+	@Override
+	public void end(Object span, /* @Nullable */ String path, /* @Nullable */ String detail) {
+		final Span s = (Span) span;
+		invoke(end, s.event);
+		if ((Boolean) invoke(shouldCommit, s.event)) {
+			invoke(set, s.event, 0, path);
+			if (s.detailed) {
+				invoke(set, s.event, 1, detail);
+			}
+			invoke(commit, s.event);
+		}
+	}
+
+	private static Object invoke(Method method, Object target, Object... args) {
+		try {
+			return method.invoke(target, args);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static Class<?> jfrClass(String simpleName) throws ClassNotFoundException {
+		// jdk.jfr is not visible from the class loader of the bundle
+		return Class.forName(JFR + simpleName, true, ClassLoader.getSystemClassLoader());
+	}
+
+	/** An event being recorded. */
+	private static final class Span {
+		final Object event;
+		/** Whether the event has a detail field. */
+		final boolean detailed;
+
+		Span(Object event, boolean detailed) {
+			this.event = event;
+			this.detailed = detailed;
+		}
+	}
+
+	/** The name, labels and fields of the event of a phase. */
+	private static final class EventType {
+		final String name;
+		final String label;
+		final String description;
+		/* @Nullable */ final String detailLabel;
+
+		EventType(String name, String label, String description, /* @Nullable */ String detailLabel) {
+			this.name = name;
+			this.label = label;
+			this.description = description;
+			this.detailLabel = detailLabel;
+		}
+
+		List<Object> annotations() throws ReflectiveOperationException {
+			return Arrays.asList(annotation("Name", name), annotation("Label", label),
+					annotation("Description", description), annotation("Category", new String[] { CATEGORY }));
+		}
+
+		/** The path of the file then the detail, if any. */
+		List<Object> fields() throws ReflectiveOperationException {
+			final List<Object> fields = new ArrayList<Object>();
+			fields.add(field("path", "Path", "File being refactored"));
+			if (detailLabel != null) {
+				fields.add(field("detail", detailLabel, null));
+			}
+			return fields;
+		}
+
+		private static Object field(String fieldName, String fieldLabel, /* @Nullable */ String fieldDescription)
+				throws ReflectiveOperationException {
+			final List<Object> fieldAnnotations = new ArrayList<Object>();
+			fieldAnnotations.add(annotation("Label", fieldLabel));
+			if (fieldDescription != null) {
+				fieldAnnotations.add(annotation("Description", fieldDescription));
+			}
+			final Constructor<?> constructor = jfrClass("ValueDescriptor").getConstructor(Class.class, String.class,
+					List.class);
+			return constructor.newInstance(String.class, fieldName, Collections.unmodifiableList(fieldAnnotations));
+		}
+
+		private static Object annotation(String simpleName, Object value) throws ReflectiveOperationException {
+			return jfrClass("AnnotationElement").getConstructor(Class.class, Object.class)
+					.newInstance(jfrClass(simpleName), value);
+		}
+	}
+}
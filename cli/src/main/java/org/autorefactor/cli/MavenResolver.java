@@ -0,0 +1,633 @@
+package org.autorefactor.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Resolves the classpath of a Maven project from the local repository, without network access.
+ *
+ * Supports the parts of the POM model needed to find the dependencies: parents, properties,
+ * dependency management including imported BOMs, exclusions and optional dependencies.
+ * Conflicts are mediated like Maven does, the nearest dependency wins.
+ * Dependencies of the same multi-module build which are not installed are taken from the
+ * target/classes directory of their module. Other missing dependencies are reported and skipped.
+ */
+final class MavenResolver {
+	private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)\\}");
+
+	private final File localRepository;
+	private final boolean verbose;
+	/** Effective models of the poms already read, keyed by canonical file. */
+	private final Map<File, Pom> poms = new HashMap<File, Pom>();
+	private final Set<String> reported = new HashSet<String>();
+
+	/**
+	 * @param localRepository the local repository, e.g. ~/.m2/repository
+	 * @param verbose verbose mode
+	 */
+	MavenResolver(File localRepository, boolean verbose) {
+		this.localRepository = localRepository;
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Returns the local repository configured like Maven does: by the maven.repo.local system property,
+	 * else by ~/.m2/settings.xml, else ~/.m2/repository.
+	 */
+	static File defaultLocalRepository() {
+		final String property = System.getProperty("maven.repo.local");
+		if (property != null) {
+			return new File(property);
+		}
+		final File m2 = new File(System.getProperty("user.home"), ".m2");
+		final File settings = new File(m2, "settings.xml");
+		if (settings.isFile()) {
+			try {
+				final String configured = text(parse(settings), "localRepository");
+				if (configured != null && !configured.isEmpty()) {
+					return new File(configured.replace("${user.home}", System.getProperty("user.home")));
+				}
+			} catch (IOException e) {
+				System.err.println("cannot read " + settings + ": " + e);
+			}
+		}
+		return new File(m2, "repository");
+	}
+
+	/**
+	 * A dependency, or a managed dependency.
+	 */
+	static final class Dependency {
+		final String groupId;
+		final String artifactId;
+		/* @Nullable */ final String version;
+		final String type;
+		/* @Nullable */ final String classifier;
+		/* @Nullable */ final String scope;
+		final boolean optional;
+		/** Excluded "groupId:artifactId", possibly with "*" wildcards. */
+		final Set<String> exclusions;
+		/* @Nullable */ final String systemPath;
+
+		Dependency(String groupId, String artifactId, String version, String type, String classifier,
+				String scope, boolean optional, Set<String> exclusions, String systemPath) {
+			this.groupId = groupId;
+			this.artifactId = artifactId;
+			this.version = version;
+			this.type = type;
+			this.classifier = classifier;
+			this.scope = scope;
+			this.optional = optional;
+			this.exclusions = exclusions;
+			this.systemPath = systemPath;
+		}
+
+		/** The key of the dependency in conflict mediation and dependency management. */
+		String key() {
+			return groupId + ":" + artifactId + ":" + type + (classifier != null ? ":" + classifier : "");
+		}
+
+		Dependency withVersion(String newVersion, Set<String> moreExclusions) {
+			final Set<String> allExclusions = new HashSet<String>(exclusions);
+			allExclusions.addAll(moreExclusions);
+			return new Dependency(groupId, artifactId, newVersion, type, classifier, scope, optional, allExclusions,
+					systemPath);
+		}
+
+		boolean excludes(Dependency d) {
+			return exclusions.contains(d.groupId + ":" + d.artifactId) || exclusions.contains(d.groupId + ":*")
+					|| exclusions.contains("*:" + d.artifactId) || exclusions.contains("*:*");
+		}
+
+		@Override
+		public String toString() {
+			return key() + ":" + version;
+		}
+	}
+
+	/**
+	 * The effective model of a pom, limited to what the classpath and the source folders depend on.
+	 */
+	static final class Pom {
+		final File file;
+		/* @Nullable */ Pom parent;
+		/** The parent found on the file system, part of the same multi-module build. */
+		/* @Nullable */ Pom localParent;
+		String groupId;
+		String artifactId;
+		String version;
+		String packaging;
+		final Map<String, String> properties = new HashMap<String, String>();
+		/** Dependency elements, those of the parents first. */
+		final List<Element> dependencyElements = new ArrayList<Element>();
+		/** Managed dependency elements, those of the parents first. */
+		final List<Element> managedElements = new ArrayList<Element>();
+		final List<Dependency> dependencies = new ArrayList<Dependency>();
+		final Map<String, Dependency> managed = new HashMap<String, Dependency>();
+		/* @Nullable */ String sourceDirectory;
+		/* @Nullable */ String testSourceDirectory;
+		/* @Nullable */ String sourceLevel;
+		final List<String> modules = new ArrayList<String>();
+
+		Pom(File file) {
+			this.file = file;
+		}
+
+		File getBaseDir() {
+			return file.getParentFile();
+		}
+
+		@Override
+		public String toString() {
+			return groupId + ":" + artifactId + ":" + version + " (" + file + ")";
+		}
+	}
+
+	/**
+	 * Reads the effective model of a pom.
+	 *
+	 * @param pomFile the pom
+	 * @return the model
+	 * @throws IOException if the pom or one of its parents cannot be read
+	 */
+	Pom readPom(File pomFile) throws IOException {
+		return readPom(pomFile, 0);
+	}
+
+	private Pom readPom(File pomFile, int depth) throws IOException {
+		final File file = pomFile.getCanonicalFile();
+		Pom pom = poms.get(file);
+		if (pom == null) {
+			if (depth > 50) {
+				throw new IOException("cycle in the parents of " + file);
+			}
+			pom = load(file, depth);
+			poms.put(file, pom);
+		}
+		return pom;
+	}
+
+	private Pom load(File file, int depth) throws IOException {
+		final Element project = parse(file);
+		final Pom pom = new Pom(file);
+		final Element parentElement = child(project, "parent");
+		if (parentElement != null) {
+			readParent(pom, parentElement, depth);
+		}
+		final Pom parent = pom.parent;
+		if (parent != null) {
+			pom.properties.putAll(parent.properties);
+			pom.managedElements.addAll(parent.managedElements);
+		}
+		final Element properties = child(project, "properties");
+		if (properties != null) {
+			for (Element property : children(properties)) {
+				pom.properties.put(property.getTagName(), property.getTextContent().trim());
+			}
+		}
+		pom.groupId = orElse(text(project, "groupId"), parent != null ? parent.groupId : null);
+		pom.artifactId = text(project, "artifactId");
+		pom.version = orElse(text(project, "version"), parent != null ? parent.version : null);
+		pom.packaging = orElse(text(project, "packaging"), "jar");
+		for (String prefix : new String[] { "project.", "pom." }) {
+			pom.properties.put(prefix + "groupId", pom.groupId);
+			pom.properties.put(prefix + "artifactId", pom.artifactId);
+			pom.properties.put(prefix + "version", pom.version);
+		}
+		if (parent != null) {
+			pom.properties.put("project.parent.groupId", parent.groupId);
+			pom.properties.put("project.parent.artifactId", parent.artifactId);
+			pom.properties.put("project.parent.version", parent.version);
+		}
+		pom.properties.put("project.basedir", file.getParent());
+		pom.properties.put("basedir", file.getParent());
+		pom.groupId = interpolate(pom.groupId, pom.properties);
+		pom.version = interpolate(pom.version, pom.properties);
+
+		final Element dependencyManagement = child(project, "dependencyManagement");
+		if (dependencyManagement != null) {
+			pom.managedElements.addAll(children(child(dependencyManagement, "dependencies"), "dependency"));
+		}
+		// the dependencies of the child override those of the parent with the same key
+		pom.dependencyElements.addAll(children(child(project, "dependencies"), "dependency"));
+		if (parent != null) {
+			pom.dependencyElements.addAll(parent.dependencyElements);
+		}
+		resolveManagement(pom);
+		final Set<String> dependencyKeys = new HashSet<String>();
+		for (Element element : pom.dependencyElements) {
+			Dependency d = toDependency(element, pom.properties);
+			if (!dependencyKeys.add(d.key())) {
+				continue;
+			}
+			final Dependency managed = pom.managed.get(d.key());
+			if (d.version == null && managed != null) {
+				d = d.withVersion(managed.version, managed.exclusions);
+			}
+			pom.dependencies.add(d);
+		}
+
+		final Element build = child(project, "build");
+		if (build != null) {
+			pom.sourceDirectory = interpolate(text(build, "sourceDirectory"), pom.properties);
+			pom.testSourceDirectory = interpolate(text(build, "testSourceDirectory"), pom.properties);
+		}
+		if (pom.sourceDirectory == null && parent != null && parent.sourceDirectory != null
+				&& !new File(parent.sourceDirectory).isAbsolute()) {
+			pom.sourceDirectory = parent.sourceDirectory;
+		}
+		if (pom.testSourceDirectory == null && parent != null && parent.testSourceDirectory != null
+				&& !new File(parent.testSourceDirectory).isAbsolute()) {
+			pom.testSourceDirectory = parent.testSourceDirectory;
+		}
+		pom.sourceLevel = sourceLevel(pom, build, parent);
+		for (Element module : children(child(project, "modules"), "module")) {
+			pom.modules.add(module.getTextContent().trim());
+		}
+		return pom;
+	}
+
+	private void readParent(Pom pom, Element parentElement, int depth) throws IOException {
+		final String groupId = text(parentElement, "groupId");
+		final String artifactId = text(parentElement, "artifactId");
+		final String version = text(parentElement, "version");
+		final String relativePath = text(parentElement, "relativePath");
+		// an empty relativePath disables the lookup on the file system
+		if (relativePath == null || !relativePath.isEmpty()) {
+			File parentFile = new File(pom.getBaseDir(), relativePath != null ? relativePath : "../pom.xml");
+			if (parentFile.isDirectory()) {
+				parentFile = new File(parentFile, "pom.xml");
+			}
+			if (parentFile.isFile() && artifactId != null && artifactId.equals(text(parse(parentFile), "artifactId"))) {
+				pom.parent = readPom(parentFile, depth + 1);
+				pom.localParent = pom.parent;
+				return;
+			}
+		}
+		if (groupId == null || artifactId == null || version == null) {
+			report("incomplete parent of " + pom.file);
+			return;
+		}
+		final File parentFile = artifactPom(groupId, artifactId, version);
+		if (parentFile.isFile()) {
+			pom.parent = readPom(parentFile, depth + 1);
+		} else {
+			report("parent " + groupId + ":" + artifactId + ":" + version + " of " + pom.file
+					+ " not in the local repository");
+		}
+	}
+
+	/** Managed dependencies: declared ones, those of the children overriding those of the parents, then imported ones. */
+	private void resolveManagement(Pom pom) {
+		final List<Dependency> imports = new ArrayList<Dependency>();
+		for (Element element : pom.managedElements) {
+			final Dependency d = toDependency(element, pom.properties);
+			if ("import".equals(d.scope) && "pom".equals(d.type)) {
+				imports.add(d);
+			} else {
+				pom.managed.put(d.key(), d);
+			}
+		}
+		for (Dependency d : imports) {
+			final File bom = artifactPom(d.groupId, d.artifactId, d.version);
+			if (!bom.isFile()) {
+				report("imported " + d + " not in the local repository");
+				continue;
+			}
+			try {
+				for (Map.Entry<String, Dependency> e : readPom(bom).managed.entrySet()) {
+					if (!pom.managed.containsKey(e.getKey())) {
+						pom.managed.put(e.getKey(), e.getValue());
+					}
+				}
+			} catch (IOException e) {
+				report("cannot read " + bom + ": " + e);
+			}
+		}
+	}
+
+	private static /* @Nullable */ String sourceLevel(Pom pom, /* @Nullable */ Element build, /* @Nullable */ Pom parent) {
+		String level = orElse(pom.properties.get("maven.compiler.release"), pom.properties.get("maven.compiler.source"));
+		if (build != null) {
+			final List<Element> plugins = new ArrayList<Element>(children(child(build, "plugins"), "plugin"));
+			final Element pluginManagement = child(build, "pluginManagement");
+			if (pluginManagement != null) {
+				plugins.addAll(children(child(pluginManagement, "plugins"), "plugin"));
+			}
+			for (Element plugin : plugins) {
+				final Element configuration = child(plugin, "configuration");
+				if ("maven-compiler-plugin".equals(text(plugin, "artifactId")) && configuration != null) {
+					level = orElse(orElse(text(configuration, "release"), text(configuration, "source")), level);
+					break;
+				}
+			}
+		}
+		if (level == null && parent != null) {
+			level = parent.sourceLevel;
+		}
+		return interpolate(level, pom.properties);
+	}
+
+	private static Dependency toDependency(Element element, Map<String, String> properties) {
+		final Set<String> exclusions = new HashSet<String>();
+		for (Element exclusion : children(child(element, "exclusions"), "exclusion")) {
+			exclusions.add(interpolate(text(exclusion, "groupId"), properties) + ":"
+					+ interpolate(text(exclusion, "artifactId"), properties));
+		}
+		String classifier = interpolate(text(element, "classifier"), properties);
+		final String type = orElse(interpolate(text(element, "type"), properties), "jar");
+		if ("test-jar".equals(type) && classifier == null) {
+			classifier = "tests";
+		}
+		return new Dependency(interpolate(text(element, "groupId"), properties),
+				interpolate(text(element, "artifactId"), properties),
+				interpolate(text(element, "version"), properties),
+				type, classifier,
+				interpolate(text(element, "scope"), properties),
+				"true".equals(interpolate(text(element, "optional"), properties)),
+				exclusions,
+				interpolate(text(element, "systemPath"), properties));
+	}
+
+	/**
+	 * Resolves the classpath of a project: the artifacts of its dependencies of all scopes,
+	 * since the test sources are refactored too, and of their transitive dependencies.
+	 *
+	 * @param project the project
+	 * @return the jars and class directories, in the order of Maven
+	 */
+	List<File> resolveClasspath(Pom project) {
+		final Map<String, Pom> reactor = reactorModules(project);
+		final Map<String, File> classpath = new LinkedHashMap<String, File>();
+		final Set<String> seen = new HashSet<String>();
+		final Deque<Dependency> queue = new ArrayDeque<Dependency>(project.dependencies);
+		final Set<Dependency> direct = new HashSet<Dependency>(project.dependencies);
+		while (!queue.isEmpty()) {
+			Dependency d = queue.poll();
+			// breadth first: the nearest dependency wins
+			if (!seen.add(d.key())) {
+				continue;
+			}
+			final Dependency managed = project.managed.get(d.key());
+			if (!direct.contains(d) && managed != null && managed.version != null) {
+				d = d.withVersion(managed.version, managed.exclusions);
+			}
+			if ("system".equals(d.scope)) {
+				if (d.systemPath != null && new File(d.systemPath).exists()) {
+					classpath.put(d.key(), new File(d.systemPath));
+				} else {
+					report("system dependency " + d + " not found at " + d.systemPath);
+				}
+				continue;
+			}
+			final Pom module = reactor.get(d.groupId + ":" + d.artifactId);
+			final String version = resolveVersion(d);
+			final File artifact = version != null ? artifactFile(d, version) : null;
+			final Pom dependencyPom;
+			if (version != null && artifactPom(d.groupId, d.artifactId, version).isFile()
+					&& (artifact == null || artifact.isFile())) {
+				if (artifact != null) {
+					classpath.put(d.key(), artifact);
+				}
+				dependencyPom = readArtifactPom(d.groupId, d.artifactId, version);
+			} else if (module != null) {
+				final File classes = new File(module.getBaseDir(),
+						"tests".equals(d.classifier) ? "target/test-classes" : "target/classes");
+				if (classes.isDirectory()) {
+					classpath.put(d.key(), classes);
+				} else {
+					report(d + " is neither installed nor built in " + module.getBaseDir());
+				}
+				dependencyPom = module;
+			} else {
+				report(d + " not in the local repository " + localRepository);
+				continue;
+			}
+			if (dependencyPom == null) {
+				continue;
+			}
+			for (Dependency transitive : dependencyPom.dependencies) {
+				if (transitive.optional || "test".equals(transitive.scope) || "provided".equals(transitive.scope)
+						|| d.excludes(transitive)) {
+					continue;
+				}
+				queue.add(transitive.withVersion(transitive.version, d.exclusions));
+			}
+		}
+		if (verbose) {
+			System.out.println("maven: classpath of " + project.artifactId + ": " + classpath.values());
+		}
+		return new ArrayList<File>(classpath.values());
+	}
+
+	private /* @Nullable */ Pom readArtifactPom(String groupId, String artifactId, String version) {
+		final File file = artifactPom(groupId, artifactId, version);
+		try {
+			return readPom(file);
+		} catch (IOException e) {
+			report("cannot read " + file + ": " + e);
+			return null;
+		}
+	}
+
+	/** Version ranges resolve to the highest version of the local repository. */
+	private /* @Nullable */ String resolveVersion(Dependency d) {
+		final String version = d.version;
+		if (version == null) {
+			report("no version for " + d);
+			return null;
+		}
+		if (!version.startsWith("[") && !version.startsWith("(")) {
+			return version;
+		}
+		final File[] versions = artifactDirectory(d.groupId, d.artifactId).listFiles();
+		String highest = null;
+		if (versions != null) {
+			for (File v : versions) {
+				if (v.isDirectory() && (highest == null || compareVersions(v.getName(), highest) > 0)) {
+					highest = v.getName();
+				}
+			}
+		}
+		if (highest == null) {
+			report("no version of " + d + " in the local repository");
+		} else if (verbose) {
+			System.out.println("maven: using " + highest + " for " + d);
+		}
+		return highest;
+	}
+
+	static int compareVersions(String v1, String v2) {
+		final String[] parts1 = v1.split("[.-]");
+		final String[] parts2 = v2.split("[.-]");
+		for (int i = 0; i < Math.max(parts1.length, parts2.length); i++) {
+			final String p1 = i < parts1.length ? parts1[i] : "0";
+			final String p2 = i < parts2.length ? parts2[i] : "0";
+			final int c = p1.matches("\\d+") && p2.matches("\\d+")
+					? Long.compare(Long.parseLong(p1), Long.parseLong(p2))
+					: p1.compareTo(p2);
+			if (c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+
+	/** Modules of the multi-module build of the project, keyed by "groupId:artifactId". */
+	private Map<String, Pom> reactorModules(Pom project) {
+		Pom root = project;
+		while (root.localParent != null) {
+			root = root.localParent;
+		}
+		final Map<String, Pom> modules = new HashMap<String, Pom>();
+		addModules(root, modules);
+		return modules;
+	}
+
+	private void addModules(Pom pom, Map<String, Pom> modules) {
+		if (modules.put(pom.groupId + ":" + pom.artifactId, pom) != null) {
+			return;
+		}
+		for (String module : pom.modules) {
+			File file = new File(pom.getBaseDir(), module);
+			if (file.isDirectory()) {
+				file = new File(file, "pom.xml");
+			}
+			if (!file.isFile()) {
+				continue;
+			}
+			try {
+				addModules(readPom(file), modules);
+			} catch (IOException e) {
+				report("cannot read module " + file + ": " + e);
+			}
+		}
+	}
+
+	private File artifactDirectory(String groupId, String artifactId) {
+		return new File(localRepository, groupId.replace('.', '/') + "/" + artifactId);
+	}
+
+	File artifactPom(String groupId, String artifactId, String version) {
+		return new File(artifactDirectory(groupId, artifactId), version + "/" + artifactId + "-" + version + ".pom");
+	}
+
+	/**
+	 * Returns the artifact file of a dependency, or null for pom dependencies which only bring their dependencies.
+	 */
+	/* @Nullable */ File artifactFile(Dependency d, String version) {
+		final String extension;
+		if ("pom".equals(d.type)) {
+			return null;
+		} else if ("test-jar".equals(d.type) || "bundle".equals(d.type) || "maven-plugin".equals(d.type)
+				|| "ejb".equals(d.type) || "ejb-client".equals(d.type)) {
+			extension = "jar";
+		} else {
+			extension = d.type;
+		}
+		final String classifier = d.classifier != null ? "-" + d.classifier
+				: "ejb-client".equals(d.type) ? "-client" : "";
+		return new File(artifactDirectory(d.groupId, d.artifactId),
+				version + "/" + d.artifactId + "-" + version + classifier + "." + extension);
+	}
+
+	private void report(String message) {
+		if (reported.add(message)) {
+			System.err.println("maven: " + message);
+		}
+	}
+
+	static /* @Nullable */ String interpolate(/* @Nullable */ String value, Map<String, String> properties) {
+		if (value == null) {
+			return null;
+		}
+		String result = value;
+		for (int i = 0; i < 10 && result.contains("${"); i++) {
+			final Matcher m = PROPERTY.matcher(result);
+			final StringBuffer sb = new StringBuffer();
+			while (m.find()) {
+				final String name = m.group(1);
+				String replacement = properties.get(name);
+				if (replacement == null) {
+					replacement = name.startsWith("env.") ? System.getenv(name.substring(4)) : System.getProperty(name);
+				}
+				m.appendReplacement(sb, Matcher.quoteReplacement(replacement != null ? replacement : m.group()));
+			}
+			m.appendTail(sb);
+			if (sb.toString().equals(result)) {
+				break;
+			}
+			result = sb.toString();
+		}
+		return result;
+	}
+
+	static Element parse(File file) throws IOException {
+		try {
+			final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			factory.setExpandEntityReferences(false);
+			final DocumentBuilder builder = factory.newDocumentBuilder();
+			return builder.parse(file).getDocumentElement();
+		} catch (ParserConfigurationException | SAXException e) {
+			throw new IOException("cannot parse " + file, e);
+		}
+	}
+
+	private static /* @Nullable */ Element child(/* @Nullable */ Element parent, String name) {
+		for (Element e : children(parent, name)) {
+			return e;
+		}
+		return null;
+	}
+
+	private static List<Element> children(/* @Nullable */ Element parent) {
+		return children(parent, null);
+	}
+
+	private static List<Element> children(/* @Nullable */ Element parent, /* @Nullable */ String name) {
+		if (parent == null) {
+			return Collections.emptyList();
+		}
+		final List<Element> result = new ArrayList<Element>();
+		final NodeList nodes = parent.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			final Node node = nodes.item(i);
+			if (node instanceof Element && (name == null || name.equals(((Element) node).getTagName()))) {
+				result.add((Element) node);
+			}
+		}
+		return result;
+	}
+
+	static /* @Nullable */ String text(Element parent, String name) {
+		final Element e = child(parent, name);
+		return e != null ? e.getTextContent().trim() : null;
+	}
+
+	private static /* @Nullable */ String orElse(/* @Nullable */ String value, /* @Nullable */ String defaultValue) {
+		return value != null ? value : defaultValue;
+	}
+}
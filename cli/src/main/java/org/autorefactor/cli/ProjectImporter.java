@@ -0,0 +1,338 @@
+package org.autorefactor.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Imports a project without Eclipse metadata, from its pom.xml or its Gradle build file.
+ *
+ * The Java project is created in the workspace directory, its source folders are links to those of the project,
+ * so nothing is written next to the sources but the refactorings.
+ * The classpath is read from a classpath file exported by the build, one entry per line or separated by
+ * the path separator, e.g. by "mvn dependency:build-classpath -Dmdep.outputFile=...".
+ * Without a classpath file, the dependencies of a pom.xml are resolved from the local Maven repository,
+ * see {@link MavenResolver}. Nothing is downloaded.
+ */
+final class ProjectImporter {
+	private static final String JRE_CONTAINER = "org.eclipse.jdt.launching.JRE_CONTAINER";
+	private static final String STANDARD_VM_TYPE = "org.eclipse.jdt.internal.debug.ui.launcher.StandardVMType";
+	private static final String IMPORTED_FROM = "imported by autorefactor from ";
+	private static final List<String> GRADLE_BUILD_FILES = Arrays.asList("build.gradle", "build.gradle.kts");
+	/** Directories of build output and dependencies, not searched for projects. */
+	private static final Set<String> SKIPPED_DIRECTORIES = new HashSet<String>(
+			Arrays.asList("target", "build", "bin", "out", "node_modules"));
+	private static final Pattern CLASSPATH_SEPARATOR = Pattern.compile("[\\r\\n" + Pattern.quote(File.pathSeparator) + "]+");
+
+	/* @Nullable */ private final File classpathFile;
+	private final MavenResolver mavenResolver;
+	private final boolean verbose;
+	/** Build files of the projects imported by this importer, keyed by project name. */
+	private final Map<String, File> importedProjects = new HashMap<String, File>();
+
+	/**
+	 * @param classpathFile the classpath exported by the build, null to resolve the dependencies of the pom.xml
+	 * @param localRepository the local Maven repository, null for the default one
+	 * @param verbose verbose mode
+	 */
+	ProjectImporter(/* @Nullable */ File classpathFile, /* @Nullable */ File localRepository, boolean verbose) {
+		this.classpathFile = classpathFile;
+		this.mavenResolver = new MavenResolver(
+				localRepository != null ? localRepository : MavenResolver.defaultLocalRepository(), verbose);
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Returns the Eclipse project file of given project path: the .project file itself,
+	 * or the .project file of a directory.
+	 *
+	 * @return the .project file, or null if the project must be imported from its build file
+	 */
+	static /* @Nullable */ File eclipseProjectFile(File projectPath) {
+		if (projectPath.isDirectory()) {
+			final File dotProject = new File(projectPath, IProjectDescription.DESCRIPTION_FILE_NAME);
+			return dotProject.isFile() ? dotProject : null;
+		}
+		return IProjectDescription.DESCRIPTION_FILE_NAME.equals(projectPath.getName()) ? projectPath : null;
+	}
+
+	/**
+	 * Reads the name of an Eclipse project, which is also its name in the workspace.
+	 *
+	 * @param dotProject the .project file
+	 * @return the name
+	 */
+	static String eclipseProjectName(File dotProject) throws CoreException {
+		final String name;
+		try {
+			name = MavenResolver.text(MavenResolver.parse(dotProject), "name");
+		} catch (IOException e) {
+			throw new CoreException(new Status(0, "", "cannot read project description " + dotProject, e));
+		}
+		if (name == null || name.isEmpty()) {
+			throw new CoreException(new Status(0, "", "no project name in " + dotProject));
+		}
+		return name;
+	}
+
+	/**
+	 * Finds the projects below a directory: the directories with a .project file or a build file.
+	 * Build output, hidden directories and git ignored directories are skipped.
+	 *
+	 * @param dir the directory to scan
+	 * @return the sorted project directories
+	 */
+	static List<File> findProjects(File dir) throws IOException {
+		final List<File> projects = new ArrayList<File>();
+		Files.walkFileTree(dir.toPath(), new SimpleFileVisitor<java.nio.file.Path>() {
+			private SourceDiscovery.GitIgnore ignore = SourceDiscovery.GitIgnore.ofAncestors(dir.toPath());
+			private final Deque<SourceDiscovery.GitIgnore> ignores = new ArrayDeque<SourceDiscovery.GitIgnore>();
+
+			@Override
+			public FileVisitResult preVisitDirectory(java.nio.file.Path d, BasicFileAttributes attrs) {
+				final String name = d.getFileName() != null ? d.getFileName().toString() : "";
+				if (!d.equals(dir.toPath())
+						&& (name.startsWith(".") || SKIPPED_DIRECTORIES.contains(name) || ignore.isIgnored(d, true))) {
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+				final File file = d.toFile();
+				if (eclipseProjectFile(file) != null || findBuildFile(file) != null) {
+					projects.add(file);
+				}
+				ignores.push(ignore);
+				ignore = ignore.with(d);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(java.nio.file.Path d, IOException e) {
+				ignore = ignores.pop();
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		Collections.sort(projects);
+		return projects;
+	}
+
+	private static /* @Nullable */ File findBuildFile(File dir) {
+		final File pom = new File(dir, "pom.xml");
+		if (pom.isFile()) {
+			return pom;
+		}
+		for (String name : GRADLE_BUILD_FILES) {
+			final File gradle = new File(dir, name);
+			if (gradle.isFile()) {
+				return gradle;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates or updates the Java project of a build file in the workspace.
+	 *
+	 * @param workspace the workspace
+	 * @param projectPath the pom.xml, the Gradle build file or their directory
+	 * @return the open project
+	 */
+	IProject importProject(IWorkspace workspace, File projectPath) throws CoreException {
+		final File buildFile = projectPath.isDirectory() ? findBuildFile(projectPath) : projectPath;
+		if (buildFile == null || !buildFile.isFile()) {
+			throw new CoreException(new Status(0, "", "no .project, pom.xml or build.gradle in " + projectPath));
+		}
+		final File baseDir = buildFile.getAbsoluteFile().getParentFile();
+		final String name;
+		final List<String> sourceFolders = new ArrayList<String>();
+		/* @Nullable */ String sourceLevel = null;
+		final List<File> classpath;
+		if ("pom.xml".equals(buildFile.getName())) {
+			final MavenResolver.Pom pom;
+			try {
+				pom = mavenResolver.readPom(buildFile);
+			} catch (IOException e) {
+				throw new CoreException(new Status(0, "", "cannot read " + buildFile, e));
+			}
+			name = pom.artifactId;
+			addSourceFolder(sourceFolders, baseDir, pom.sourceDirectory != null ? pom.sourceDirectory : "src/main/java");
+			addSourceFolder(sourceFolders, baseDir,
+					pom.testSourceDirectory != null ? pom.testSourceDirectory : "src/test/java");
+			sourceLevel = pom.sourceLevel;
+			classpath = classpathFile != null ? readClasspathFile(classpathFile) : mavenResolver.resolveClasspath(pom);
+		} else {
+			name = baseDir.getName();
+			addSourceFolder(sourceFolders, baseDir, "src/main/java");
+			addSourceFolder(sourceFolders, baseDir, "src/test/java");
+			if (classpathFile != null) {
+				classpath = readClasspathFile(classpathFile);
+			} else {
+				System.err.println("no --classpath-file for " + buildFile + ": only the JRE is on the classpath");
+				classpath = new ArrayList<File>();
+			}
+		}
+		if (verbose) {
+			System.out.println("import: project " + name + " from " + buildFile);
+			System.out.println("import: source folders: " + sourceFolders);
+			System.out.println("import: source level: " + sourceLevel);
+		}
+		return createJavaProject(workspace, uniqueName(name, buildFile.getAbsoluteFile()), buildFile, baseDir,
+				sourceFolders, sourceLevel, classpath);
+	}
+
+	/** Modules of different builds may have the same name, e.g. "core". */
+	private synchronized String uniqueName(String name, File buildFile) {
+		String uniqueName = name;
+		for (int i = 2; importedProjects.containsKey(uniqueName)
+				&& !importedProjects.get(uniqueName).equals(buildFile); i++) {
+			uniqueName = name + "-" + i;
+		}
+		importedProjects.put(uniqueName, buildFile);
+		return uniqueName;
+	}
+
+	private static void addSourceFolder(List<String> sourceFolders, File baseDir, String sourceFolder) {
+		final File dir = new File(sourceFolder).isAbsolute() ? new File(sourceFolder) : new File(baseDir, sourceFolder);
+		if (!dir.isDirectory()) {
+			return;
+		}
+		final String relative = baseDir.toURI().relativize(dir.toURI()).getPath();
+		if (relative.isEmpty() || relative.startsWith("/") || relative.startsWith("..")) {
+			System.err.println("ignoring source folder outside of the project: " + dir);
+			return;
+		}
+		sourceFolders.add(relative.endsWith("/") ? relative.substring(0, relative.length() - 1) : relative);
+	}
+
+	private IProject createJavaProject(IWorkspace workspace, String name, File buildFile, File baseDir,
+			List<String> sourceFolders, /* @Nullable */ String sourceLevel, List<File> classpath)
+			throws CoreException {
+		final IProject project = workspace.getRoot().getProject(name);
+		final String comment = IMPORTED_FROM + buildFile.getAbsolutePath();
+		if (project.exists()) {
+			project.open(null);
+			if (!comment.equals(project.getDescription().getComment())) {
+				// a reused workspace may know a project of the same name elsewhere, e.g. a checkout with a .project file:
+				// only the workspace forgets it
+				if (verbose) {
+					System.out.println("import: replacing project " + name + " (" + project.getDescription().getComment()
+							+ ")");
+				}
+				project.delete(IResource.NEVER_DELETE_PROJECT_CONTENT | IResource.FORCE, null);
+			}
+		}
+		if (!project.exists()) {
+			final IProjectDescription description = workspace.newProjectDescription(name);
+			description.setComment(comment);
+			description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+			project.create(description, null);
+		}
+		project.open(null);
+
+		final List<IClasspathEntry> entries = new ArrayList<IClasspathEntry>();
+		for (String sourceFolder : sourceFolders) {
+			final IFolder folder = project.getFolder(sourceFolder);
+			createParents(folder);
+			folder.createLink(new Path(new File(baseDir, sourceFolder).getAbsolutePath()),
+					IResource.REPLACE | IResource.ALLOW_MISSING_LOCAL, null);
+			entries.add(JavaCore.newSourceEntry(folder.getFullPath()));
+		}
+		entries.add(JavaCore.newContainerEntry(new Path(JRE_CONTAINER + jreContainerSuffix(sourceLevel))));
+		final Set<File> libraries = new LinkedHashSet<File>(classpath);
+		for (File library : libraries) {
+			if (library.exists()) {
+				entries.add(JavaCore.newLibraryEntry(new Path(library.getAbsolutePath()), null, null));
+			} else if (verbose) {
+				System.out.println("import: ignoring missing classpath entry " + library);
+			}
+		}
+		final IJavaProject javaProject = JavaCore.create(project);
+		javaProject.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]),
+				project.getFolder("bin").getFullPath(), null);
+		if (sourceLevel != null) {
+			final Map<String, String> options = javaProject.getOptions(false);
+			JavaCore.setComplianceOptions(javaVersion(sourceLevel), options);
+			javaProject.setOptions(options);
+		}
+		return project;
+	}
+
+	private static void createParents(IFolder folder) throws CoreException {
+		if (folder.getParent() instanceof IFolder) {
+			final IFolder parent = (IFolder) folder.getParent();
+			if (!parent.exists()) {
+				createParents(parent);
+				parent.create(IResource.FORCE, true, null);
+			}
+		}
+	}
+
+	/** Java version of JDT, e.g. "1.8" for "8", "11" for "11". */
+	static String javaVersion(String sourceLevel) {
+		return sourceLevel.matches("[5-8]") ? "1." + sourceLevel : sourceLevel;
+	}
+
+	/** The execution environment of the JRE container, read back by {@link Refactor#sourceLevel}. */
+	static String jreContainerSuffix(/* @Nullable */ String sourceLevel) {
+		if (sourceLevel == null) {
+			return "";
+		}
+		final String version = javaVersion(sourceLevel);
+		final String environment = version.compareTo("1.6") < 0 && version.startsWith("1.") ? "J2SE-" : "JavaSE-";
+		return "/" + STANDARD_VM_TYPE + "/" + environment + version;
+	}
+
+	/**
+	 * Reads a classpath file: entries separated by line breaks or by the path separator,
+	 * relative entries are relative to the directory of the file, lines starting with '#' are comments.
+	 */
+	static List<File> readClasspathFile(File file) throws CoreException {
+		final String content;
+		try {
+			content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new CoreException(new Status(0, "", "cannot read classpath file " + file, e));
+		}
+		final List<File> entries = new ArrayList<File>();
+		final StringBuilder uncommented = new StringBuilder();
+		for (String line : content.split("\\r?\\n")) {
+			if (!line.trim().startsWith("#")) {
+				uncommented.append(line).append('\n');
+			}
+		}
+		for (String entry : CLASSPATH_SEPARATOR.split(uncommented)) {
+			final String path = entry.trim();
+			if (!path.isEmpty()) {
+				final File f = new File(path);
+				entries.add(f.isAbsolute() ? f : new File(file.getAbsoluteFile().getParentFile(), path));
+			}
+		}
+		return entries;
+	}
+}
@@ -1,11 +1,29 @@
 package org.autorefactor.cli;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.autorefactor.cli.index.AstFeatureIndex;
+import org.autorefactor.cli.index.AstFeatureQuery;
 import org.autorefactor.refactoring.ApplyRefactoringsJob;
 import org.autorefactor.refactoring.JavaProjectOptions;
 import org.autorefactor.refactoring.JavaProjectOptionsImpl;
@@ -13,14 +31,17 @@ import org.autorefactor.refactoring.RefactoringRule;
 import org.autorefactor.refactoring.Release;
 import org.autorefactor.refactoring.rules.AggregateASTVisitor;
 import org.autorefactor.util.Pair;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -29,6 +50,7 @@ import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
 
@@ -37,6 +59,8 @@ import org.eclipse.jface.text.IDocument;
  */
 @SuppressWarnings("restriction")
 public class Refactor {
+	private static final Pattern PACKAGE_DECLARATION = Pattern.compile(
+			"^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
 
 	/**
 	 * Combined information. 
@@ -67,47 +91,74 @@ public class Refactor {
 	}
 
 	/**
-	 * Entered by apply and apply with delta debugging.
-	 * @param fileFilter 
+	 * A file to refactor with the rules selected for its project.
+	 */
+	private static final class Task {
+		final RefactorTarget target;
+		final List<RefactoringRule> rules;
+
+		Task(RefactorTarget target, List<RefactoringRule> rules) {
+			this.target = target;
+			this.rules = rules;
+		}
+	}
+
+	/**
+	 * Selects the files of a source folder.
+	 *
+	 * @param fileFilter filter of the file names
+	 * @param tasks receives a task per selected file
 	 */
-	static void refactorSourceFolder(final IJavaProject project,
-			final Refactor.RefactorProcedure refactor,
+	static void collectSourceFolderTasks(final IJavaProject project,
 			final IFolder sourceFolder,
-	        final List<RefactoringRule> rules, final EffApplyArgs args, Predicate<String> fileFilter) throws CoreException {
+	        final List<RefactoringRule> rules, final EffApplyArgs args, Predicate<String> fileFilter,
+	        /* @Nullable */ final AstFeatureIndex featureIndex, final List<Task> tasks) throws CoreException {
 	    final boolean verbose = args.verbose;
 	    final IPackageFragmentRoot pfr = project.getPackageFragmentRoot(sourceFolder);
-	    FileUtil.walkMax(sourceFolder, 1000000, new IResourceVisitor() {
-	        @Override
-	        public boolean visit(IResource resource) throws CoreException {
-	            try {
-	                if ("java".equals(resource.getFileExtension())) {
-	                    final String name = resource.getName();
-	                    IPath relativePath = WorkspaceUtil.relativePath(sourceFolder, resource);
-	                    if (!args.sourceFileName.matcher(relativePath.toString()).matches()) {
-	                        if (verbose) {
-	                            System.out.println("skipping " + resource.getProjectRelativePath());
-	                            // System.out.println("skipping " +
-	                            // resource.getRawLocationURI());
-	                        }
-	                        return true;
-	                    }
-	                    if (verbose) {
-	                        System.out.println("refactoring " + resource.getProjectRelativePath());
-	                    }
-	                    if (!fileFilter.test(name)) {
-	                        if (verbose) {
-	                            System.out.println("    ignored");
-	                        }
-	                        return true;
-	                    }
-	                    refactor.refactor(new RefactorTarget(pfr, resource, relativePath), rules, args);
-	                }
-	            } catch (Exception e) {
-	                e.printStackTrace();
+	    final List<String> files;
+	    try {
+	        files = SourceDiscovery.discover(sourceFolder.getLocation().toFile().toPath(), args.sourceFileName,
+	                SourceDiscovery.compileGlobs(args.sourceGlobs), fileFilter, verbose);
+	    } catch (IOException e) {
+	        throw new CoreException(new Status(0, "", "cannot list " + sourceFolder.getLocation(), e));
+	    }
+	    if (verbose) {
+	        System.out.println("refactor: " + files.size() + " files selected in " + sourceFolder.getFullPath());
+	    }
+	    for (String file : files) {
+	        final IFile resource = sourceFolder.getFile(file);
+	        if (featureIndex != null
+	                && !featureIndex.mayMatch(resource.getLocation().toFile(), args.featureQuery)) {
+	            if (verbose) {
+	                System.out.println("skipped by index: " + resource.getFullPath());
 	            }
-	            return true;
+	            continue;
 	        }
-	    });
+	        tasks.add(new Task(new RefactorTarget(pfr, resource, new Path(file)), rules));
+	    }
+	}
+
+	private static void runTask(final Task task, final List<RefactoringRule> rules, final RefactorProcedure refactor,
+	        final EffApplyArgs args) {
+	    if (args.checkReport != null && args.checkReport.isDone()) {
+	        return;
+	    }
+	    final IResource resource = task.target.getResource();
+	    EventStream.fileStarted(resource.getFullPath().toString());
+	    Throwable error = null;
+	    try {
+	        if (args.verbose) {
+	            System.out.println("refactoring " + resource.getFullPath());
+	        }
+	        // only the refactored files are refreshed, not the whole project
+	        WorkspaceUtil.refresh(resource);
+	        refactor.refactor(task.target, rules, args);
+	    } catch (Exception e) {
+	        error = e;
+	        e.printStackTrace();
+	    } finally {
+	        EventStream.fileFinished(error);
+	    }
 	}
 
 	static SourceLevel sourceLevel(final IJavaProject project) throws JavaModelException {
@@ -126,13 +177,146 @@ public class Refactor {
 	    return sourceLevel;
 	}
 
+	/**
+	 * Entered by apply and apply with delta debugging.
+	 */
 	static void refactorProject(final File projectFile, final List<String> originalSourceFolders,
-	        final Map<String, String> classPathVariables, List<RefactoringRule> refactorings, List<String> excludedRefactorings,
+	        final Map<String, String> classPathVariables, final ProjectImporter importer,
+	        List<RefactoringRule> refactorings, List<String> excludedRefactorings,
 	        final EffApplyArgs args, Refactor.RefactorProcedure refactorProcedure, Predicate<String> fileFilter)
 	                throws JavaModelException, CoreException {
+	    refactorProjects(Collections.singletonList(projectFile), originalSourceFolders, classPathVariables, importer,
+	            refactorings, excludedRefactorings, args, refactorProcedure, fileFilter, 1);
+	}
+
+	/**
+	 * Refactors several projects imported in the workspace, sharing the JDT indexes and caches of their libraries.
+	 * The files of all projects are refactored by one pool of workers, each with its own instances of the rules.
+	 *
+	 * @param projectFiles the projects, see {@link WorkspaceUtil#prepareProject(File, Map, ProjectImporter, boolean, boolean)}
+	 * @param jobs the number of workers, 1 to refactor in the current thread
+	 */
+	static void refactorProjects(final List<File> projectFiles, final List<String> originalSourceFolders,
+	        final Map<String, String> classPathVariables, final ProjectImporter importer,
+	        List<RefactoringRule> refactorings, List<String> excludedRefactorings,
+	        final EffApplyArgs args, final Refactor.RefactorProcedure refactorProcedure, Predicate<String> fileFilter,
+	        int jobs) throws JavaModelException, CoreException {
+	    try (Projects projects = prepareProjects(projectFiles, originalSourceFolders, classPathVariables, importer,
+	            refactorings, excludedRefactorings, args, fileFilter)) {
+	        projects.refactor(refactorProcedure, args, jobs);
+	    }
+	}
+
+	/**
+	 * Imports several projects in the workspace and selects their files.
+	 *
+	 * @param projectFiles the projects, see {@link WorkspaceUtil#prepareProject(File, Map, ProjectImporter, boolean, boolean)}
+	 * @return the projects, to close once refactored
+	 */
+	static Projects prepareProjects(final List<File> projectFiles, final List<String> originalSourceFolders,
+	        final Map<String, String> classPathVariables, final ProjectImporter importer,
+	        List<RefactoringRule> refactorings, List<String> excludedRefactorings,
+	        final EffApplyArgs args, Predicate<String> fileFilter) throws JavaModelException, CoreException {
+	    final Projects projects = new Projects(ResourcesPlugin.getWorkspace());
+	    boolean prepared = false;
+	    try {
+	        final Set<String> projectNames = new HashSet<String>();
+	        for (File projectFile : projectFiles) {
+	            try {
+	                if (!reserveProjectName(projectFile, projectNames)) {
+	                    System.err.println("skipping " + projectFile + ": another project has the same name");
+	                    continue;
+	                }
+	                final IJavaProject javaProject = prepareProjectTasks(projectFile, originalSourceFolders,
+	                        classPathVariables, importer, refactorings, excludedRefactorings, args, fileFilter,
+	                        projects.tasks);
+	                projects.javaProjects.add(javaProject);
+	                projectNames.add(javaProject.getElementName());
+	            } catch (CoreException e) {
+	                if (projectFiles.size() == 1) {
+	                    throw e;
+	                }
+	                System.err.println("skipping " + projectFile + ": " + e.getMessage());
+	                e.printStackTrace();
+	            }
+	        }
+	        if (args.verbose) {
+	            System.out.println("refactor: " + projects.tasks.size() + " files in " + projects.javaProjects.size()
+	                    + " projects");
+	        }
+	        prepared = true;
+	        return projects;
+	    } finally {
+	        if (!prepared) {
+	            projects.close();
+	        }
+	    }
+	}
+
+	/**
+	 * Projects imported in the workspace with their selected files. Closing them saves them and the workspace.
+	 */
+	static final class Projects implements AutoCloseable {
+		private final IWorkspace workspace;
+		private final List<IJavaProject> javaProjects = new ArrayList<IJavaProject>();
+		private final List<Task> tasks = new ArrayList<Task>();
+
+		private Projects(IWorkspace workspace) {
+			this.workspace = workspace;
+		}
+
+		/**
+		 * Refactors the selected files of all projects. Can be called again, e.g. by benchmark rounds.
+		 *
+		 * @param jobs the number of workers, 1 to refactor in the current thread
+		 */
+		void refactor(final RefactorProcedure refactorProcedure, final EffApplyArgs args, int jobs) {
+		    if (jobs <= 1) {
+		        for (Task task : tasks) {
+		            runTask(task, task.rules, refactorProcedure, args);
+		        }
+		    } else {
+		        runTasks(tasks, refactorProcedure, args, jobs);
+		    }
+		}
+
+		@Override
+		public void close() throws CoreException {
+		    for (IJavaProject javaProject : javaProjects) {
+		        javaProject.save(null, true);
+		        javaProject.close();
+		    }
+		    workspace.save(true, null);
+		}
+	}
+
+	/**
+	 * Reserves the name of an Eclipse project among the refactored projects:
+	 * projects of the same name would replace each other in the workspace.
+	 *
+	 * @param projectFile the project, see {@link WorkspaceUtil#prepareProject(File, Map, ProjectImporter, boolean, boolean)}
+	 * @param projectNames the names of the previous projects, receives the name of the project
+	 * @return whether the project can be refactored: it is imported from its build file with a unique name,
+	 *         or no previous project has its name
+	 */
+	static boolean reserveProjectName(File projectFile, Set<String> projectNames) throws CoreException {
+	    final File dotProject = ProjectImporter.eclipseProjectFile(projectFile);
+	    return dotProject == null || projectNames.add(ProjectImporter.eclipseProjectName(dotProject));
+	}
+
+	/**
+	 * Imports a project and selects its files.
+	 *
+	 * @return the project
+	 */
+	private static IJavaProject prepareProjectTasks(final File projectFile, final List<String> originalSourceFolders,
+	        final Map<String, String> classPathVariables, final ProjectImporter importer,
+	        List<RefactoringRule> refactorings, List<String> excludedRefactorings,
+	        final EffApplyArgs args, Predicate<String> fileFilter, final List<Task> tasks)
+	                throws JavaModelException, CoreException {
 	    final boolean verbose = args.verbose;
-	    final Pair<IWorkspace, IProject> projectCtx = WorkspaceUtil.prepareProject(projectFile, classPathVariables, verbose);
-	    final IWorkspace workspace = projectCtx.getFirst();
+	    final Pair<IWorkspace, IProject> projectCtx = WorkspaceUtil.prepareProject(projectFile, classPathVariables,
+	            importer, verbose, false);
 	    final IProject project = projectCtx.getSecond();
 	
 	    final IJavaProject javaProject = JavaCore.create(project);
@@ -142,7 +326,7 @@ public class Refactor {
 	    }
 	
 	    if (verbose) {
-	        System.out.println("refactor: starting refactoring");
+	        System.out.println("refactor: project " + project.getName());
 	        System.out.println("refactor: source folders: " + sourceFolders);
 	    }
 	    final SourceLevel sourceLevel = args.sourceLevel != null ? args.sourceLevel : sourceLevel(javaProject);
@@ -150,23 +334,63 @@ public class Refactor {
 	    if (verbose) {
 	        System.out.println("refactor: rules: " + rules);
 	    }
+	    final AstFeatureIndex featureIndex = prepareFeatureIndex(project, sourceFolders,
+	            args.featureIndexFile, args.featureQuery, verbose);
+	    for (String src : sourceFolders) {
+	        final IFolder sourceFolder = project.getFolder(src);
+	        collectSourceFolderTasks(javaProject, sourceFolder, rules, args, fileFilter, featureIndex, tasks);
+	    }
+	    return javaProject;
+	}
+
+	/**
+	 * Runs the tasks in a pool of workers.
+	 * Rules keep the state of the file they visit, so each worker refactors with its own instances.
+	 */
+	private static void runTasks(final List<Task> tasks, final RefactorProcedure refactorProcedure,
+	        final EffApplyArgs args, int jobs) {
+	    final ThreadLocal<Map<List<RefactoringRule>, List<RefactoringRule>>> workerRules =
+	            ThreadLocal.withInitial(IdentityHashMap::new);
+	    final ExecutorService executor = Executors.newFixedThreadPool(jobs);
 	    try {
-	        for (String src : sourceFolders) {
-	            final IFolder sourceFolder = project.getFolder(src);
-	            refactorSourceFolder(javaProject, refactorProcedure, sourceFolder, rules, args, fileFilter);
-	            //refactor(javaProject, sourceFolder, Pattern.compile(".*SpacePreparator.*"), rules, verbose);
-	            //refactor(javaProject, sourceFolder, Pattern.compile(".*TextEditsBuilder.*"), rules, verbose);
-	            //refactor(javaProject, sourceFolder, Pattern.compile(".*CharOperation.*"), rules, verbose);
-	            //refactor(javaProject, sourceFolder, Pattern.compile(".*FieldDeclaration.*"), rules, verbose);
-	            //refactor(javaProject, sourceFolder, Pattern.compile(".*ProblemReporter.*"), rules, verbose);
+	        final List<Future<?>> futures = new ArrayList<Future<?>>(tasks.size());
+	        for (final Task task : tasks) {
+	            futures.add(executor.submit(() -> runTask(task,
+	                    workerRules.get().computeIfAbsent(task.rules, Rules::newInstances), refactorProcedure, args)));
+	        }
+	        for (Future<?> future : futures) {
+	            try {
+	                future.get();
+	            } catch (ExecutionException e) {
+	                e.getCause().printStackTrace();
+	            }
 	        }
+	    } catch (InterruptedException e) {
+	        Thread.currentThread().interrupt();
 	    } finally {
-	        javaProject.save(null, true);
-	        javaProject.close();
-	        workspace.save(true, null);
+	        executor.shutdownNow();
 	    }
 	}
 
+	/**
+	 * Brings the feature index of given source folders up to date.
+	 *
+	 * @return the index or null if files shall not be filtered
+	 */
+	static /* @Nullable */ AstFeatureIndex prepareFeatureIndex(IProject project, List<String> sourceFolders,
+			/* @Nullable */ File indexFile, AstFeatureQuery query, boolean verbose) throws CoreException {
+		final List<File> roots = new ArrayList<File>();
+		for (String src : sourceFolders) {
+			roots.add(project.getFolder(src).getLocation().toFile());
+		}
+		try {
+			return AstFeatureIndex.prepare(indexFile, query, roots, Charset.forName(project.getDefaultCharset()),
+					JavaCore.create(project).getOptions(true), verbose);
+		} catch (IOException e) {
+			throw new CoreException(new Status(0, "", "cannot update index " + indexFile, e));
+		}
+	}
+
 	static String packageName(IPath path) {
 	    return path.removeLastSegments(1).toString().replace("/", ".");
 	}
@@ -178,15 +402,230 @@ public class Refactor {
 	    return options;
 	}
 
-	static void refactorFile(Refactor.RefactorTarget target, final List<RefactoringRule> rules) throws CoreException, Exception {
+	static void refactorFile(Refactor.RefactorTarget target, final List<RefactoringRule> rules, EffApplyArgs args) throws CoreException, Exception {
         final IResource resource = target.getResource();
+        if (args.checkReport != null) {
+            final List<String> contributing = checkSourceCode(target, rules);
+            if (!contributing.isEmpty()) {
+                args.checkReport.add(displayPath(resource), contributing);
+            }
+            return;
+        }
         final String code = FileUtil.read(resource);
+        if (args.dryRun) {
+            final String diff = UnifiedDiff.diff(displayPath(resource), code,
+                    refactorWorkingCopy(code, target, rules));
+            if (!diff.isEmpty()) {
+                // one diff per file, as soon as the file is done
+                synchronized (System.out) {
+                    System.out.print(diff);
+                    System.out.flush();
+                }
+            }
+            return;
+        }
         final boolean didRefactor = refactorSourceCode(code, target, rules);
         if (didRefactor) {
-            System.out.println(">> " + resource.getProjectRelativePath());
+            System.out.println(">> " + displayPath(resource));
         }
     }
 
+	/**
+	 * The path of a refactored file to print, unique among the files of all the projects:
+	 * relative to the working directory so that the diffs of --dry-run apply from there, else absolute.
+	 */
+	static String displayPath(IResource resource) {
+	    return displayPath(resource.getLocation().toFile(), new File(System.getProperty("user.dir")));
+	}
+
+	static String displayPath(File file, File workingDir) {
+	    final java.nio.file.Path path = file.getAbsoluteFile().toPath().normalize();
+	    final java.nio.file.Path dir = workingDir.getAbsoluteFile().toPath().normalize();
+	    if (!path.startsWith(dir)) {
+	        return path.toString().replace(File.separatorChar, '/');
+	    }
+	    return dir.relativize(path).toString().replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * Refactors a file in memory, as with --dry-run, and records its latency and iterations.
+	 *
+	 * @param report receives the measures
+	 */
+	static void benchFile(Refactor.RefactorTarget target, final List<RefactoringRule> rules, BenchReport report)
+	        throws Exception {
+	    final AtomicInteger iterations = new AtomicInteger();
+	    final long start = System.nanoTime();
+	    boolean failed = true;
+	    try {
+	        refactorWorkingCopy(FileUtil.read(target.getResource()), target, rules, iterations);
+	        failed = false;
+	    } finally {
+	        report.addFile(System.nanoTime() - start, iterations.get(), failed);
+	    }
+	}
+
+	/**
+	 * Refactors source text read from a stream, e.g. the buffer of an editor, and writes the result to another stream.
+	 * The text is refactored in memory until no rule applies anymore: nothing is written to the project.
+	 *
+	 * @param projectFile the project giving the classpath, see
+	 *            {@link WorkspaceUtil#prepareProject(File, Map, ProjectImporter, boolean, boolean)}
+	 * @param path the path of the source text, absolute or relative to the project directory. The file does not
+	 *            need to exist, it gives the package and the encoding.
+	 * @param in the source text
+	 * @param out receives the refactored source text
+	 */
+	static void filterSourceCode(final File projectFile, final File path, final Map<String, String> classPathVariables,
+	        final ProjectImporter importer, List<RefactoringRule> refactorings, List<String> excludedRefactorings,
+	        /* @Nullable */ SourceLevel configuredSourceLevel, InputStream in, OutputStream out, boolean verbose)
+	                throws Exception {
+	    final Pair<IWorkspace, IProject> projectCtx = WorkspaceUtil.prepareProject(projectFile, classPathVariables,
+	            importer, verbose, false);
+	    final IWorkspace workspace = projectCtx.getFirst();
+	    final IJavaProject javaProject = JavaCore.create(projectCtx.getSecond());
+	    try {
+	        final byte[] bytes = readFully(in);
+	        final File projectDir = projectFile.isDirectory() ? projectFile : projectFile.getAbsoluteFile().getParentFile();
+	        final File file = path.isAbsolute() ? path : new File(projectDir, path.getPath());
+	        // the package declaration is ASCII, the project encoding is good enough to find it
+	        final RefactorTarget target = virtualTarget(javaProject, file,
+	                new String(bytes, Charset.forName(projectCtx.getSecond().getDefaultCharset())));
+	        final Charset charset = FileUtil.charset(target.getResource());
+	        final String code = new String(bytes, charset);
+	        final SourceLevel sourceLevel = configuredSourceLevel != null ? configuredSourceLevel : sourceLevel(javaProject);
+	        final List<RefactoringRule> rules = Rules.filterRules(refactorings, excludedRefactorings, sourceLevel);
+	        if (verbose) {
+	            System.err.println("filter: " + target.getResource().getFullPath() + ", rules: " + rules);
+	        }
+	        EventStream.fileStarted(target.getResource().getFullPath().toString());
+	        Throwable error = null;
+	        try {
+	            out.write(refactorWorkingCopy(code, target, rules).getBytes(charset));
+	            out.flush();
+	        } catch (Exception e) {
+	            error = e;
+	            throw e;
+	        } finally {
+	            EventStream.fileFinished(error);
+	        }
+	    } finally {
+	        // keeps the imported project for the next run
+	        workspace.save(false, null);
+	    }
+	}
+
+	/**
+	 * Returns the target of a file which may not exist: in the source folder containing it,
+	 * or else in the first source folder, in the package of its package declaration.
+	 */
+	static RefactorTarget virtualTarget(final IJavaProject javaProject, final File file, final String code)
+	        throws CoreException {
+	    final IProject project = javaProject.getProject();
+	    final List<String> sourceFolders = WorkspaceUtil.allProjectSourceFolders(javaProject);
+	    if (sourceFolders.isEmpty()) {
+	        throw new CoreException(new Status(0, "", "no source folder in project " + project.getName()));
+	    }
+	    final java.nio.file.Path filePath = file.getAbsoluteFile().toPath().normalize();
+	    for (String src : sourceFolders) {
+	        final IFolder sourceFolder = project.getFolder(src);
+	        final java.nio.file.Path dir = sourceFolder.getLocation().toFile().getAbsoluteFile().toPath().normalize();
+	        if (filePath.startsWith(dir) && !filePath.equals(dir)) {
+	            final String relative = dir.relativize(filePath).toString().replace(File.separatorChar, '/');
+	            return new RefactorTarget(javaProject.getPackageFragmentRoot(sourceFolder), sourceFolder.getFile(relative),
+	                    new Path(relative));
+	        }
+	    }
+	    final Matcher m = PACKAGE_DECLARATION.matcher(code);
+	    final String relative = (m.find() ? m.group(1).replace('.', '/') + "/" : "") + file.getName();
+	    final IFolder sourceFolder = project.getFolder(sourceFolders.get(0));
+	    return new RefactorTarget(javaProject.getPackageFragmentRoot(sourceFolder), sourceFolder.getFile(relative),
+	            new Path(relative));
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+	    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	    final byte[] buffer = new byte[64 * 1024];
+	    for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+	        bytes.write(buffer, 0, n);
+	    }
+	    return bytes.toByteArray();
+	}
+
+	/**
+	 * Runs the first iteration of the refactorings on the compilation unit, without applying them.
+	 *
+	 * @return the sorted names of the rules which would refactor the code, empty if none
+	 */
+	static List<String> checkSourceCode(RefactorTarget target, final List<RefactoringRule> rules) throws Exception {
+	    final IPackageFragment pf = target.getPackageFragmentRoot().getPackageFragment(packageName(target.getRelativePath()));
+	    final ICompilationUnit cu = pf.getCompilationUnit(target.getResource().getName());
+	    final Set<ASTVisitor> visitors = new ApplyRefactoringsJob(null, null, EnvUtil.SIMPLE_ENVIRONMENT).findRefactorings(
+	            cu, new AggregateASTVisitor(rules),
+	            newJavaProjectOptions(Release.javaSE("1.7.0"), 4), SubMonitor.convert(new NullProgressMonitor()));
+	    return simpleNames(visitors);
+	}
+
+	/**
+	 * Returns a job reporting the rules contributing to each iteration to the event stream.
+	 *
+	 * @param iterations receives the number of iterations which changed the compilation unit, may be null
+	 */
+	private static ApplyRefactoringsJob newApplyRefactoringsJob(final /* @Nullable */ AtomicInteger iterations) {
+	    return new ApplyRefactoringsJob(null, null, EnvUtil.SIMPLE_ENVIRONMENT) {
+	        @Override
+	        protected void refactoringsApplied(ICompilationUnit compilationUnit, int iteration, Set<ASTVisitor> visitors) {
+	            if (iterations != null) {
+	                iterations.set(iteration);
+	            }
+	            if (EventStream.isEnabled()) {
+	                EventStream.rulesContributing(iteration, simpleNames(visitors));
+	            }
+	        }
+	    };
+	}
+
+	private static List<String> simpleNames(Set<ASTVisitor> visitors) {
+	    final List<String> names = new ArrayList<String>();
+	    for (ASTVisitor visitor : visitors) {
+	        names.add(visitor.getClass().getSimpleName());
+	    }
+	    Collections.sort(names);
+	    return names;
+	}
+
+	/**
+	 * Refactors a working copy of the compilation unit in memory: the file is neither written nor saved.
+	 *
+	 * @return the refactored code
+	 */
+	static String refactorWorkingCopy(String code, RefactorTarget target, final List<RefactoringRule> rules) throws Exception {
+	    return refactorWorkingCopy(code, target, rules, null);
+	}
+
+	/**
+	 * Refactors a working copy of the compilation unit in memory, counting the iterations.
+	 *
+	 * @param iterations receives the number of iterations which changed the code, may be null
+	 * @return the refactored code
+	 */
+	static String refactorWorkingCopy(String code, RefactorTarget target, final List<RefactoringRule> rules,
+	        /* @Nullable */ AtomicInteger iterations) throws Exception {
+	    final IPackageFragment pf = target.getPackageFragmentRoot().getPackageFragment(packageName(target.getRelativePath()));
+	    final ICompilationUnit cu = pf.getCompilationUnit(target.getResource().getName()).getWorkingCopy(null);
+	    try {
+	        cu.getBuffer().setContents(code);
+	        final IDocument doc = new Document(code);
+	        // saving a working copy only reconciles it
+	        newApplyRefactoringsJob(iterations).applyRefactoring(
+	                doc, cu, new AggregateASTVisitor(rules),
+	                newJavaProjectOptions(Release.javaSE("1.7.0"), 4), SubMonitor.convert(new NullProgressMonitor()));
+	        return doc.get();
+	    } finally {
+	        cu.discardWorkingCopy();
+	    }
+	}
+
 	/**
 	 * @return didRefactor
 	 */
@@ -205,7 +644,7 @@ public class Refactor {
 	    // TODO: needed only for ddmin usage
 	    //cu.getBuffer().setContents(code);
 	    //save(cu);
-	    return new ApplyRefactoringsJob(null, null, EnvUtil.SIMPLE_ENVIRONMENT).applyRefactoring(
+	    return newApplyRefactoringsJob(null).applyRefactoring(
 	            doc, cu, new AggregateASTVisitor(rules),
 	            newJavaProjectOptions(Release.javaSE("1.7.0"), 4), SubMonitor.convert(new NullProgressMonitor()));
 	}
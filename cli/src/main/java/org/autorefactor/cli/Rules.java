@@ -150,6 +150,32 @@ public class Rules {
 		return rules;
 	}
 
+	/**
+	 * New instances of the rules, e.g. for another thread: rules keep the state of the file they visit.
+	 *
+	 * @param rules the rules
+	 * @return the new instances, in the same order
+	 */
+	static List<RefactoringRule> newInstances(List<RefactoringRule> rules) {
+	    final Map<Class<?>, RefactoringRule> allRules = new HashMap<Class<?>, RefactoringRule>();
+	    for (RefactoringRule rule : AllRefactoringRules.getAllRefactoringRules()) {
+	        allRules.put(rule.getClass(), rule);
+	    }
+	    final List<RefactoringRule> result = new ArrayList<RefactoringRule>(rules.size());
+	    for (RefactoringRule rule : rules) {
+	        RefactoringRule copy = allRules.remove(rule.getClass());
+	        if (copy == null) {
+	            try {
+	                copy = rule.getClass().getDeclaredConstructor().newInstance();
+	            } catch (ReflectiveOperationException e) {
+	                throw new IllegalStateException("cannot create rule " + rule.getClass().getName(), e);
+	            }
+	        }
+	        result.add(copy);
+	    }
+	    return result;
+	}
+
 	/**
 	 * Selected rules.
 	 *
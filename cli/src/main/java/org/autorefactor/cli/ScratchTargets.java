@@ -0,0 +1,207 @@
+package org.autorefactor.cli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.autorefactor.refactoring.RefactoringRule;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Pool of isolated copies of a refactor target, one per concurrent delta debugging test.
+ *
+ * Testing a candidate writes the candidate to the compilation unit of the target,
+ * so concurrent tests each need their own compilation unit.
+ * Each copy lives at the same relative path in the source folder of its own scratch project,
+ * which depends on the project of the target: the copy shadows the original type instead of
+ * duplicating it. The scratch projects are deleted again by {@link #close()}.
+ *
+ * Each copy also has its own rule instances, since rules keep the state of the file they visit.
+ *
+ * With a single job the pool only contains the target itself.
+ */
+@SuppressWarnings("restriction")
+final class ScratchTargets implements AutoCloseable {
+	private static final String SCRATCH_PROJECT_SUFFIX = ".autorefactor-dd-";
+	private static final String SCRATCH_SOURCE_FOLDER = "src";
+
+	private final BlockingQueue<Refactor.RefactorTarget> targets;
+	private final int size;
+	private final List<IProject> scratchProjects;
+	private final Map<Refactor.RefactorTarget, Map<Class<?>, RefactoringRule>> rulesByTarget =
+			new ConcurrentHashMap<Refactor.RefactorTarget, Map<Class<?>, RefactoringRule>>();
+
+	private ScratchTargets(List<Refactor.RefactorTarget> targets, List<IProject> scratchProjects) {
+		this.targets = new ArrayBlockingQueue<Refactor.RefactorTarget>(targets.size(), false, targets);
+		this.size = targets.size();
+		this.scratchProjects = scratchProjects;
+	}
+
+	/**
+	 * Creates a pool of copies of given target.
+	 *
+	 * Falls back to the target itself when the scratch projects cannot be created.
+	 *
+	 * @param target the target to copy
+	 * @param jobs the number of concurrent tests
+	 * @param verbose verbose mode
+	 * @return the pool
+	 */
+	static ScratchTargets create(Refactor.RefactorTarget target, int jobs, boolean verbose) throws CoreException {
+		if (jobs <= 1) {
+			return new ScratchTargets(Arrays.asList(target), Collections.<IProject>emptyList());
+		}
+		final IJavaProject javaProject = target.getPackageFragmentRoot().getJavaProject();
+		final IProject project = javaProject.getProject();
+		final String packageName = Refactor.packageName(target.getRelativePath());
+		final List<IProject> scratchProjects = new ArrayList<IProject>();
+		try {
+			// the source folders of the project are only visible through the project dependency,
+			// its libraries are not necessarily exported
+			final List<IClasspathEntry> classpath = new ArrayList<IClasspathEntry>();
+			classpath.add(JavaCore.newProjectEntry(project.getFullPath()));
+			for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+				if (entry.getEntryKind() != IClasspathEntry.CPE_SOURCE) {
+					classpath.add(entry);
+				}
+			}
+
+			final List<Refactor.RefactorTarget> targets = new ArrayList<Refactor.RefactorTarget>();
+			for (int i = 0; i < jobs; i++) {
+				final IProject scratchProject = createProject(project.getWorkspace(),
+						project.getName() + SCRATCH_PROJECT_SUFFIX + i);
+				scratchProjects.add(scratchProject);
+				final IFolder sourceFolder = scratchProject.getFolder(SCRATCH_SOURCE_FOLDER);
+				sourceFolder.create(IResource.FORCE, true, null);
+
+				final List<IClasspathEntry> entries = new ArrayList<IClasspathEntry>();
+				entries.add(JavaCore.newSourceEntry(sourceFolder.getFullPath()));
+				entries.addAll(classpath);
+				final IJavaProject scratchJavaProject = JavaCore.create(scratchProject);
+				scratchJavaProject.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]),
+						scratchProject.getFolder("bin").getFullPath(), null);
+				scratchJavaProject.setOptions(javaProject.getOptions(false));
+
+				final IPackageFragmentRoot pfr = scratchJavaProject.getPackageFragmentRoot(sourceFolder);
+				pfr.createPackageFragment(packageName, true, null);
+				targets.add(new Refactor.RefactorTarget(pfr, sourceFolder.getFile(target.getRelativePath()),
+						target.getRelativePath()));
+			}
+			return new ScratchTargets(targets, scratchProjects);
+		} catch (CoreException e) {
+			System.err.println("delta debugging: cannot create scratch projects, testing sequentially: " + e);
+			if (verbose) {
+				e.printStackTrace(System.err);
+			}
+			delete(scratchProjects);
+			return new ScratchTargets(Arrays.asList(target), Collections.<IProject>emptyList());
+		}
+	}
+
+	private static IProject createProject(IWorkspace workspace, String name) throws CoreException {
+		final IProject project = workspace.getRoot().getProject(name);
+		if (project.exists()) {
+			// left over by an interrupted run
+			project.delete(true, true, null);
+		}
+		final IProjectDescription description = workspace.newProjectDescription(name);
+		description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+		project.create(description, null);
+		project.open(null);
+		return project;
+	}
+
+	/**
+	 * Returns the number of copies, i.e. the number of tests which can run concurrently.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Takes a copy out of the pool, waiting for one to be released if needed.
+	 */
+	Refactor.RefactorTarget acquire() {
+		try {
+			return targets.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Puts a copy taken by {@link #acquire()} back into the pool.
+	 */
+	void release(Refactor.RefactorTarget target) {
+		targets.add(target);
+	}
+
+	/**
+	 * Returns the instances of given rules to use on a copy taken by {@link #acquire()}.
+	 *
+	 * @param target the copy
+	 * @param rules the rules, possibly shared with other threads
+	 * @return the rules themselves with a single copy, else instances only used on this copy, in the same order
+	 */
+	List<RefactoringRule> rulesFor(Refactor.RefactorTarget target, List<RefactoringRule> rules) {
+		if (size == 1) {
+			return rules;
+		}
+		Map<Class<?>, RefactoringRule> instances = rulesByTarget.get(target);
+		if (instances == null) {
+			instances = new HashMap<Class<?>, RefactoringRule>();
+			rulesByTarget.put(target, instances);
+		}
+		final List<RefactoringRule> missing = new ArrayList<RefactoringRule>();
+		for (RefactoringRule rule : rules) {
+			if (!instances.containsKey(rule.getClass())) {
+				missing.add(rule);
+			}
+		}
+		if (!missing.isEmpty()) {
+			for (RefactoringRule rule : Rules.newInstances(missing)) {
+				instances.put(rule.getClass(), rule);
+			}
+		}
+		final List<RefactoringRule> result = new ArrayList<RefactoringRule>(rules.size());
+		for (RefactoringRule rule : rules) {
+			result.add(instances.get(rule.getClass()));
+		}
+		return result;
+	}
+
+	@Override
+	public void close() throws CoreException {
+		if (!scratchProjects.isEmpty()) {
+			// wait for abandoned tests still running on the copies
+			for (int i = 0; i < size; i++) {
+				acquire();
+			}
+			delete(scratchProjects);
+		}
+	}
+
+	private static void delete(List<IProject> projects) throws CoreException {
+		for (IProject project : projects) {
+			if (project.exists()) {
+				project.delete(true, true, null);
+			}
+		}
+	}
+}
@@ -0,0 +1,304 @@
+package org.autorefactor.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the java files of a source folder to refactor, directly on the file system.
+ *
+ * Directories are listed in parallel and files are filtered during the walk,
+ * so that only the selected files need to be known by the Eclipse workspace.
+ * Files and directories ignored by git are skipped.
+ */
+final class SourceDiscovery {
+	private static final String GITIGNORE = ".gitignore";
+
+	private SourceDiscovery() {
+	}
+
+	/**
+	 * Compiles glob patterns matching paths relative to the source folder, e.g. "org/foo/**&#47;*Test.java".
+	 */
+	static List<PathMatcher> compileGlobs(List<String> globs) {
+		final List<PathMatcher> matchers = new ArrayList<PathMatcher>();
+		for (String glob : globs) {
+			matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+		}
+		return matchers;
+	}
+
+	/**
+	 * Returns the java files below given source folder.
+	 *
+	 * @param sourceFolder the source folder
+	 * @param include pattern the relative path must match
+	 * @param globs globs one of which the relative path must match, all paths match if empty
+	 * @param fileFilter filter of the file names
+	 * @param verbose verbose mode
+	 * @return the sorted relative paths, with '/' separators
+	 */
+	static List<String> discover(Path sourceFolder, Pattern include, List<PathMatcher> globs,
+			Predicate<String> fileFilter, boolean verbose) throws IOException {
+		if (!Files.isDirectory(sourceFolder)) {
+			return Collections.emptyList();
+		}
+		final Queue<String> found = new ConcurrentLinkedQueue<String>();
+		final Walk walk = new Walk(sourceFolder, include, globs, fileFilter, verbose, found);
+		ForkJoinPool.commonPool().invoke(walk.new Directory(sourceFolder, GitIgnore.ofAncestors(sourceFolder)));
+		if (walk.error != null) {
+			throw walk.error;
+		}
+		final List<String> result = new ArrayList<String>(found);
+		Collections.sort(result);
+		return result;
+	}
+
+	/** State shared by the tasks of a walk. */
+	private static final class Walk {
+		private final Path root;
+		private final Pattern include;
+		private final List<PathMatcher> globs;
+		private final Predicate<String> fileFilter;
+		private final boolean verbose;
+		private final Queue<String> found;
+		/* @Nullable */ private volatile IOException error;
+
+		Walk(Path root, Pattern include, List<PathMatcher> globs, Predicate<String> fileFilter, boolean verbose,
+				Queue<String> found) {
+			this.root = root;
+			this.include = include;
+			this.globs = globs;
+			this.fileFilter = fileFilter;
+			this.verbose = verbose;
+			this.found = found;
+		}
+
+		private boolean accept(Path file) {
+			final Path relative = root.relativize(file);
+			final String relativePath = relative.toString().replace(File.separatorChar, '/');
+			if (!include.matcher(relativePath).matches() || !matchesGlobs(relative)) {
+				if (verbose) {
+					System.out.println("skipping " + relativePath);
+				}
+				return false;
+			}
+			if (!fileFilter.test(file.getFileName().toString())) {
+				if (verbose) {
+					System.out.println("ignored " + relativePath);
+				}
+				return false;
+			}
+			found.add(relativePath);
+			return true;
+		}
+
+		private boolean matchesGlobs(Path relative) {
+			if (globs.isEmpty()) {
+				return true;
+			}
+			for (PathMatcher glob : globs) {
+				if (glob.matches(relative)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/** Lists a directory, forking a task per sub directory. */
+		final class Directory extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+
+			private final Path dir;
+			private final GitIgnore ignore;
+
+			Directory(Path dir, GitIgnore ignore) {
+				this.dir = dir;
+				this.ignore = ignore.with(dir);
+			}
+
+			@Override
+			protected void compute() {
+				final List<Directory> subDirectories = new ArrayList<Directory>();
+				try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+					for (Path entry : entries) {
+						final String name = entry.getFileName().toString();
+						if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+							if (!".git".equals(name) && !ignore.isIgnored(entry, true)) {
+								subDirectories.add(new Directory(entry, ignore));
+							}
+						} else if (name.endsWith(".java") && Files.isRegularFile(entry)
+								&& !ignore.isIgnored(entry, false)) {
+							accept(entry);
+						}
+					}
+				} catch (IOException e) {
+					error = e;
+				}
+				invokeAll(subDirectories);
+			}
+		}
+	}
+
+	/**
+	 * The .gitignore rules applying to a directory: those of the directory and of its ancestors in the repository.
+	 */
+	static final class GitIgnore {
+		private static final GitIgnore NONE = new GitIgnore(null, null, Collections.<Rule>emptyList());
+
+		/* @Nullable */ private final GitIgnore parent;
+		/* @Nullable */ private final Path base;
+		private final List<Rule> rules;
+
+		private GitIgnore(GitIgnore parent, Path base, List<Rule> rules) {
+			this.parent = parent;
+			this.base = base;
+			this.rules = rules;
+		}
+
+		/** Rules of the ancestors of given directory, up to the root of its git repository. */
+		static GitIgnore ofAncestors(Path dir) {
+			final List<Path> ancestors = new ArrayList<Path>();
+			for (Path p = dir.toAbsolutePath().getParent(); p != null; p = p.getParent()) {
+				ancestors.add(p);
+				if (Files.exists(p.resolve(".git"))) {
+					GitIgnore ignore = NONE;
+					for (int i = ancestors.size() - 1; i >= 0; i--) {
+						ignore = ignore.with(ancestors.get(i));
+					}
+					return ignore;
+				}
+			}
+			// not below the root of a repository: only the .gitignore files of the walked directories apply
+			return NONE;
+		}
+
+		/** Adds the rules of the .gitignore file of given directory, if any. */
+		GitIgnore with(Path dir) {
+			final Path file = dir.resolve(GITIGNORE);
+			if (!Files.isRegularFile(file)) {
+				return this;
+			}
+			try {
+				final List<Rule> rules = new ArrayList<Rule>();
+				for (String line : Files.readAllLines(file)) {
+					final Rule rule = Rule.parse(line);
+					if (rule != null) {
+						rules.add(rule);
+					}
+				}
+				return rules.isEmpty() ? this : new GitIgnore(this, dir.toAbsolutePath(), rules);
+			} catch (IOException e) {
+				System.err.println("cannot read " + file + ": " + e);
+				return this;
+			}
+		}
+
+		/** Whether the path is ignored. The last matching rule wins, the rules of deeper directories come last. */
+		boolean isIgnored(Path path, boolean isDirectory) {
+			final Boolean ignored = match(path.toAbsolutePath(), isDirectory);
+			return ignored != null && ignored;
+		}
+
+		private /* @Nullable */ Boolean match(Path path, boolean isDirectory) {
+			if (base == null) {
+				return null;
+			}
+			final String relative = base.relativize(path).toString().replace(File.separatorChar, '/');
+			for (int i = rules.size() - 1; i >= 0; i--) {
+				final Rule rule = rules.get(i);
+				if ((isDirectory || !rule.directoryOnly) && rule.pattern.matcher(relative).matches()) {
+					return !rule.negated;
+				}
+			}
+			return parent != null ? parent.match(path, isDirectory) : null;
+		}
+	}
+
+	/** A .gitignore line. */
+	static final class Rule {
+		final Pattern pattern;
+		final boolean negated;
+		final boolean directoryOnly;
+
+		private Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+			this.pattern = pattern;
+			this.negated = negated;
+			this.directoryOnly = directoryOnly;
+		}
+
+		/** Returns the rule of given line, or null for blank lines and comments. */
+		static /* @Nullable */ Rule parse(String line) {
+			String s = line.replaceAll("(?<!\\\\)\\s+$", "");
+			if (s.isEmpty() || s.startsWith("#")) {
+				return null;
+			}
+			final boolean negated = s.startsWith("!");
+			if (negated) {
+				s = s.substring(1);
+			}
+			final boolean directoryOnly = s.endsWith("/");
+			if (directoryOnly) {
+				s = s.substring(0, s.length() - 1);
+			}
+			// patterns with a slash are relative to the .gitignore directory, others match at any depth
+			final boolean anchored = s.contains("/");
+			if (s.startsWith("/")) {
+				s = s.substring(1);
+			}
+			if (s.isEmpty()) {
+				return null;
+			}
+			return new Rule(Pattern.compile((anchored ? "" : "(?:.*/)?") + toRegex(s)), negated, directoryOnly);
+		}
+
+		private static String toRegex(String glob) {
+			final StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < glob.length(); i++) {
+				final char c = glob.charAt(i);
+				if (c == '*') {
+					if (glob.startsWith("**/", i)) {
+						sb.append("(?:.*/)?");
+						i += 2;
+					} else if (glob.startsWith("**", i)) {
+						sb.append(".*");
+						i++;
+					} else {
+						sb.append("[^/]*");
+					}
+				} else if (c == '?') {
+					sb.append("[^/]");
+				} else if (c == '[') {
+					final int end = glob.indexOf(']', i + 1);
+					if (end < 0) {
+						sb.append("\\[");
+					} else {
+						sb.append('[').append(glob.substring(i + 1, end).replace("\\", "\\\\").replaceFirst("^!", "^"))
+								.append(']');
+						i = end;
+					}
+				} else if (c == '\\' && i + 1 < glob.length()) {
+					sb.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+				} else {
+					sb.append(Pattern.quote(String.valueOf(c)));
+				}
+			}
+			return sb.toString();
+		}
+	}
+
+}
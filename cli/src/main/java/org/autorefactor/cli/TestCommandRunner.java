@@ -0,0 +1,214 @@
+package org.autorefactor.cli;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs an external delta debugging test command on files.
+ *
+ * The command gets the path of the file to test as only argument, exit code 0 means the test passed.
+ * Its output is discarded, or shown in verbose mode, so that it can never stall on a full pipe.
+ * Commands running longer than the timeout are killed and count as failed.
+ *
+ * In oracle mode the command is started once per worker and kept running:
+ * for each test it reads the path of the file to test as a line on its standard input
+ * and answers with the exit code as a line on its standard output.
+ * Its standard error is discarded, or shown in verbose mode.
+ * This avoids starting e.g. a JVM for each of the thousands of tests of a reduction.
+ *
+ * Thread safe: each concurrent test uses its own scratch file and oracle process.
+ */
+final class TestCommandRunner implements AutoCloseable {
+	/** Exit code reported for killed commands, as timeout(1) does. */
+	static final int TIMEOUT_EXIT_CODE = 124;
+	/** Exit code reported when the command cannot be run. */
+	static final int ERROR_EXIT_CODE = 2;
+
+	private static final File NULL_FILE = new File(
+			System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null");
+
+	/** A long-lived oracle process. */
+	private static final class Oracle {
+		final Process process;
+		final Writer in;
+		final BufferedReader out;
+
+		Oracle(Process process) {
+			this.process = process;
+			this.in = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+			this.out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+		}
+	}
+
+	private final String command;
+	private final boolean oracleMode;
+	private final long timeoutMillis;
+	private final boolean verbose;
+	private final Queue<File> scratchFiles = new ConcurrentLinkedQueue<File>();
+	private final List<File> allScratchFiles = new CopyOnWriteArrayList<File>();
+	private final Queue<Oracle> oracles = new ConcurrentLinkedQueue<Oracle>();
+	private final List<Oracle> allOracles = new CopyOnWriteArrayList<Oracle>();
+	private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread t = new Thread(r, "dd-command-watchdog");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/**
+	 * @param command the command to run
+	 * @param oracleMode keep one process per worker running and talk to it through stdin/stdout
+	 * @param timeoutMillis the maximum duration of a test, 0 for no limit
+	 * @param verbose show the output of the command
+	 */
+	TestCommandRunner(String command, boolean oracleMode, long timeoutMillis, boolean verbose) {
+		this.command = command;
+		this.oracleMode = oracleMode;
+		this.timeoutMillis = timeoutMillis;
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Writes the code to a scratch file of the calling worker and runs the command on it.
+	 *
+	 * @return the exit code of the command
+	 */
+	int run(String code) {
+		File file = scratchFiles.poll();
+		try {
+			if (file == null) {
+				file = File.createTempFile("autorefactor-dd", ".java");
+				allScratchFiles.add(file);
+			}
+			FileUtil.writeFile(file, code);
+			return run(file);
+		} catch (IOException e) {
+			e.printStackTrace(System.err);
+			return ERROR_EXIT_CODE;
+		} finally {
+			if (file != null) {
+				scratchFiles.add(file);
+			}
+		}
+	}
+
+	/**
+	 * Runs the command on given file.
+	 *
+	 * @return the exit code of the command
+	 */
+	int run(File file) {
+		return oracleMode ? ask(file) : execute(file);
+	}
+
+	private int execute(File file) {
+		final ProcessBuilder pb = new ProcessBuilder(command, file.getAbsolutePath());
+		pb.redirectErrorStream(true);
+		pb.redirectOutput(verbose ? Redirect.INHERIT : Redirect.appendTo(NULL_FILE));
+		pb.redirectInput(Redirect.from(NULL_FILE));
+		try {
+			final Process p = pb.start();
+			if (timeoutMillis <= 0) {
+				return p.waitFor();
+			}
+			if (!p.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+				p.destroyForcibly();
+				System.err.println("delta debugging: killed '" + command + "' after " + timeoutMillis + " ms");
+				return TIMEOUT_EXIT_CODE;
+			}
+			return p.exitValue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return ERROR_EXIT_CODE;
+		} catch (IOException e) {
+			e.printStackTrace(System.err);
+			return ERROR_EXIT_CODE;
+		}
+	}
+
+	private int ask(File file) {
+		Oracle oracle = oracles.poll();
+		final AtomicBoolean timedOut = new AtomicBoolean();
+		try {
+			if (oracle == null) {
+				oracle = startOracle();
+			}
+			final Process process = oracle.process;
+			final ScheduledFuture<?> kill = timeoutMillis > 0
+					? watchdog.schedule(() -> {
+						timedOut.set(true);
+						process.destroyForcibly();
+					}, timeoutMillis, TimeUnit.MILLISECONDS)
+					: null;
+			final String answer;
+			try {
+				oracle.in.write(file.getAbsolutePath() + "\n");
+				oracle.in.flush();
+				answer = oracle.out.readLine();
+			} finally {
+				if (kill != null) {
+					kill.cancel(false);
+				}
+			}
+			if (answer == null) {
+				throw new IOException("oracle stopped");
+			}
+			return Integer.parseInt(answer.trim());
+		} catch (IOException | NumberFormatException e) {
+			System.err.println("delta debugging: oracle '" + command + "' failed, restarting it: "
+					+ (timedOut.get() ? "killed after " + timeoutMillis + " ms" : e.toString()));
+			if (oracle != null) {
+				stop(oracle);
+				oracle = null;
+			}
+			return timedOut.get() ? TIMEOUT_EXIT_CODE : ERROR_EXIT_CODE;
+		} finally {
+			if (oracle != null) {
+				oracles.add(oracle);
+			}
+		}
+	}
+
+	private Oracle startOracle() throws IOException {
+		final ProcessBuilder pb = new ProcessBuilder(command);
+		pb.redirectError(verbose ? Redirect.INHERIT : Redirect.appendTo(NULL_FILE));
+		final Oracle oracle = new Oracle(pb.start());
+		allOracles.add(oracle);
+		return oracle;
+	}
+
+	private void stop(Oracle oracle) {
+		allOracles.remove(oracle);
+		try {
+			oracle.in.close();
+		} catch (IOException ignore) {
+			// the process is killed anyway
+		}
+		oracle.process.destroyForcibly();
+	}
+
+	@Override
+	public void close() {
+		watchdog.shutdownNow();
+		for (Oracle oracle : allOracles) {
+			stop(oracle);
+		}
+		for (File file : allScratchFiles) {
+			file.delete();
+		}
+	}
+}
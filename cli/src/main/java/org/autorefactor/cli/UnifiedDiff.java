@@ -0,0 +1,200 @@
+package org.autorefactor.cli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Line based unified diff, in the format of "git diff".
+ *
+ * An O(ND) Difference Algorithm and Its Variations, Eugene W. Myers
+ * http://www.xmailserver.org/diff2.pdf
+ *
+ * Common leading and trailing lines are skipped before searching the shortest edit script,
+ * refactorings usually change few lines of a file.
+ */
+final class UnifiedDiff {
+	/** Number of unchanged lines shown around changes. */
+	static final int CONTEXT = 3;
+
+	private UnifiedDiff() {
+	}
+
+	/**
+	 * Returns the unified diff between two versions of a file.
+	 *
+	 * @param path the path of the file, shown in the header as "a/path" and "b/path"
+	 * @param original the original content
+	 * @param revised the revised content
+	 * @return the diff, empty if the contents are equal
+	 */
+	static String diff(String path, String original, String revised) {
+		if (original.equals(revised)) {
+			return "";
+		}
+		final String[] a = lines(original);
+		final String[] b = lines(revised);
+		final boolean[] deleted = new boolean[a.length];
+		final boolean[] inserted = new boolean[b.length];
+		int prefix = 0;
+		while (prefix < a.length && prefix < b.length && a[prefix].equals(b[prefix])) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < a.length - prefix && suffix < b.length - prefix
+				&& a[a.length - 1 - suffix].equals(b[b.length - 1 - suffix])) {
+			suffix++;
+		}
+		shortestEditScript(Arrays.copyOfRange(a, prefix, a.length - suffix),
+				Arrays.copyOfRange(b, prefix, b.length - suffix), deleted, inserted, prefix);
+
+		final StringBuilder sb = new StringBuilder();
+		sb.append("--- a/").append(path).append('\n');
+		sb.append("+++ b/").append(path).append('\n');
+		appendHunks(sb, a, b, deleted, inserted);
+		return sb.toString();
+	}
+
+	/** Splits the text into lines, keeping the line terminators. */
+	private static String[] lines(String text) {
+		final List<String> lines = new ArrayList<String>();
+		int start = 0;
+		for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', start)) {
+			lines.add(text.substring(start, i + 1));
+			start = i + 1;
+		}
+		if (start < text.length()) {
+			lines.add(text.substring(start));
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+
+	/**
+	 * Marks the lines deleted from a and inserted from b by a shortest edit script.
+	 *
+	 * @param offset index of the first line of a and b in deleted and inserted
+	 */
+	private static void shortestEditScript(String[] a, String[] b, boolean[] deleted, boolean[] inserted,
+			int offset) {
+		final int n = a.length;
+		final int m = b.length;
+		final int max = n + m;
+		final int k0 = max + 1;
+		// v[k0 + k] is the furthest x reached on diagonal k
+		final int[] v = new int[2 * max + 3];
+		final List<int[]> trace = new ArrayList<int[]>();
+		search:
+		for (int d = 0; d <= max; d++) {
+			trace.add(v.clone());
+			for (int k = -d; k <= d; k += 2) {
+				int x = k == -d || (k != d && v[k0 + k - 1] < v[k0 + k + 1])
+						? v[k0 + k + 1]
+						: v[k0 + k - 1] + 1;
+				int y = x - k;
+				while (x < n && y < m && a[x].equals(b[y])) {
+					x++;
+					y++;
+				}
+				v[k0 + k] = x;
+				if (x >= n && y >= m) {
+					break search;
+				}
+			}
+		}
+
+		int x = n;
+		int y = m;
+		for (int d = trace.size() - 1; d > 0; d--) {
+			final int[] previous = trace.get(d);
+			final int k = x - y;
+			final int previousK = k == -d || (k != d && previous[k0 + k - 1] < previous[k0 + k + 1]) ? k + 1 : k - 1;
+			final int previousX = previous[k0 + previousK];
+			final int previousY = previousX - previousK;
+			// the snake from the end of the edit to (x, y) is unchanged
+			if (previousK == k + 1) {
+				inserted[offset + previousY] = true;
+			} else {
+				deleted[offset + previousX] = true;
+			}
+			x = previousX;
+			y = previousY;
+		}
+	}
+
+	private static void appendHunks(StringBuilder sb, String[] a, String[] b, boolean[] deleted,
+			boolean[] inserted) {
+		// merge both files into one sequence of unchanged, deleted and inserted lines
+		final List<Character> kinds = new ArrayList<Character>();
+		final List<String> lines = new ArrayList<String>();
+		int i = 0;
+		int j = 0;
+		while (i < a.length || j < b.length) {
+			if (i < a.length && deleted[i]) {
+				kinds.add('-');
+				lines.add(a[i++]);
+			} else if (j < b.length && inserted[j]) {
+				kinds.add('+');
+				lines.add(b[j++]);
+			} else {
+				kinds.add(' ');
+				lines.add(a[i++]);
+				j++;
+			}
+		}
+
+		int lineA = 0;
+		int lineB = 0;
+		int next = 0;
+		while (next < kinds.size()) {
+			// find the next change
+			int firstChange = next;
+			while (firstChange < kinds.size() && kinds.get(firstChange) == ' ') {
+				firstChange++;
+			}
+			if (firstChange == kinds.size()) {
+				return;
+			}
+			// extend the hunk while changes are separated by at most 2 * CONTEXT unchanged lines
+			int lastChange = firstChange;
+			for (int e = firstChange + 1; e < kinds.size() && e - lastChange <= 2 * CONTEXT + 1; e++) {
+				if (kinds.get(e) != ' ') {
+					lastChange = e;
+				}
+			}
+			final int start = Math.max(next, firstChange - CONTEXT);
+			final int end = Math.min(kinds.size(), lastChange + 1 + CONTEXT);
+			// lines before the hunk
+			for (int e = next; e < start; e++) {
+				lineA++;
+				lineB++;
+			}
+			int countA = 0;
+			int countB = 0;
+			for (int e = start; e < end; e++) {
+				if (kinds.get(e) != '+') {
+					countA++;
+				}
+				if (kinds.get(e) != '-') {
+					countB++;
+				}
+			}
+			sb.append("@@ -").append(range(lineA, countA)).append(" +").append(range(lineB, countB)).append(" @@\n");
+			for (int e = start; e < end; e++) {
+				final String line = lines.get(e);
+				sb.append(kinds.get(e)).append(line);
+				if (!line.endsWith("\n")) {
+					sb.append("\n\\ No newline at end of file\n");
+				}
+			}
+			lineA += countA;
+			lineB += countB;
+			next = end;
+		}
+	}
+
+	/** Formats a hunk range, lines are numbered from 1, empty ranges start at the previous line. */
+	private static String range(int linesBefore, int count) {
+		final int start = count == 0 ? linesBefore : linesBefore + 1;
+		return count == 1 ? String.valueOf(start) : start + "," + count;
+	}
+}
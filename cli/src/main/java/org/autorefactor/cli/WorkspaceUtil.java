@@ -5,13 +5,17 @@ import java.io.File;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.autorefactor.util.Pair;
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
@@ -51,6 +55,13 @@ public class WorkspaceUtil {
 	    IPath projectDotProjectFile = new Path(projectFile.getAbsolutePath());
 	    IProjectDescription projectDescription = workspace.loadProjectDescription(projectDotProjectFile);
 	    IProject project = workspace.getRoot().getProject(projectDescription.getName());
+	    if (project.exists() && !isAt(project, projectDotProjectFile.removeLastSegments(1))) {
+	        // a reused workspace may know a project of the same name elsewhere, e.g. another checkout
+	        if (verbose) {
+	            System.out.println("removing project at " + project.getLocation() + " from the workspace");
+	        }
+	        project.delete(IResource.NEVER_DELETE_PROJECT_CONTENT | IResource.FORCE, null);
+	    }
 	    if (!project.exists()) {
 	        if (verbose) {
 	            System.out.println("creating project");
@@ -94,6 +105,28 @@ public class WorkspaceUtil {
 	public static Pair<IWorkspace, IProject> prepareProject(final File projectFile,
 	        final Map<String, String> classPathVariables, final boolean verbose)
 	        throws CoreException, JavaModelException {
+	    return prepareProject(projectFile, classPathVariables, verbose, true);
+	}
+
+	public static Pair<IWorkspace, IProject> prepareProject(final File projectFile,
+	        final Map<String, String> classPathVariables, final boolean verbose, final boolean refreshAll)
+	        throws CoreException, JavaModelException {
+	    return prepareProject(projectFile, classPathVariables, new ProjectImporter(null, null, verbose), verbose,
+	            refreshAll);
+	}
+
+	/**
+	 * Imports and opens the project.
+	 *
+	 * @param projectFile the .project file, or a pom.xml, a Gradle build file or their directory
+	 * @param importer imports the projects without .project file
+	 * @param refreshAll refresh the whole project, else only the source folders of a project already known
+	 *            to the workspace are refreshed and callers refresh the other resources they use
+	 *            with {@link #refresh(IResource)}. Opening a newly imported project refreshes it anyway.
+	 */
+	static Pair<IWorkspace, IProject> prepareProject(final File projectFile,
+	        final Map<String, String> classPathVariables, final ProjectImporter importer, final boolean verbose,
+	        final boolean refreshAll) throws CoreException, JavaModelException {
 	    if (!projectFile.exists()) {
 	        System.err.println("cannot access project file: " + projectFile.getAbsolutePath());
 	        throw new CoreException(new Status(0, "", "cannot access project file: " + projectFile.getAbsolutePath()));
@@ -107,24 +140,81 @@ public class WorkspaceUtil {
 	    }
 	
 	    disableAutoBuild(workspace);
+	    final Set<IProject> knownProjects = new HashSet<IProject>(Arrays.asList(workspace.getRoot().getProjects()));
 	
 	    // import external project into workspace if needed
 	    if (verbose) {
 	        System.out.println("refactor: importing project");
 	    }
-	    IProject project = createProject(workspace, projectFile, verbose);
-	    if (verbose) {
-	        System.out.println("refactor: opening project");
+	    final File dotProject = ProjectImporter.eclipseProjectFile(projectFile);
+	    final IProject project;
+	    if (dotProject != null) {
+	        project = createProject(workspace, dotProject, verbose);
+	        if (verbose) {
+	            System.out.println("refactor: opening project");
+	        }
+	        project.open(null);
+	        // a project of a reused workspace may have changed since the previous run
+	        refreshIfExists(project.getFile(IProjectDescription.DESCRIPTION_FILE_NAME));
+	        refreshIfExists(project.getFile(".classpath"));
+	        refreshIfExists(project.getFolder(".settings"));
+	    } else {
+	        project = importer.importProject(workspace, projectFile);
 	    }
-	    project.open(null);
-	    if (verbose) {
-	        System.out.println("refactor: refreshing project");
+	    if (refreshAll) {
+	        if (verbose) {
+	            System.out.println("refactor: refreshing project");
+	        }
+	        project.refreshLocal(IResource.DEPTH_INFINITE, null);
+	    } else if (knownProjects.contains(project)) {
+	        // sources of a project of a reused workspace may have been added, removed or changed since the previous run
+	        if (verbose) {
+	            System.out.println("refactor: refreshing source folders");
+	        }
+	        refreshSourceFolders(project);
 	    }
-	    project.refreshLocal(IResource.DEPTH_INFINITE, null);
 	
 	    return Pair.of(workspace, project);
 	}
 
+	private static void refreshSourceFolders(final IProject project) throws CoreException {
+	    final IWorkspaceRoot root = project.getWorkspace().getRoot();
+	    for (IClasspathEntry entry : JavaCore.create(project).getRawClasspath()) {
+	        if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+	            final IPath path = entry.getPath();
+	            final IResource sourceFolder = path.segmentCount() == 1 ? root.getProject(path.segment(0))
+	                    : root.getFolder(path);
+	            if (sourceFolder.getLocation() != null && sourceFolder.getLocation().toFile().exists()) {
+	                refresh(sourceFolder);
+	                sourceFolder.refreshLocal(IResource.DEPTH_INFINITE, null);
+	            }
+	        }
+	    }
+	}
+
+	private static boolean isAt(final IProject project, final IPath location) {
+	    final IPath projectLocation = project.getLocation();
+	    return projectLocation != null
+	            && projectLocation.toFile().getAbsoluteFile().equals(location.toFile().getAbsoluteFile());
+	}
+
+	private static void refreshIfExists(final IResource resource) throws CoreException {
+	    if (resource.getLocation() != null && resource.getLocation().toFile().exists()) {
+	        resource.refreshLocal(IResource.DEPTH_INFINITE, null);
+	    }
+	}
+
+	/**
+	 * Refreshes a resource, and its ancestors unknown to the workspace, without refreshing other resources.
+	 */
+	static void refresh(final IResource resource) throws CoreException {
+	    final IContainer parent = resource.getParent();
+	    if (parent != null && !parent.exists()) {
+	        refresh(parent);
+	    }
+	    resource.refreshLocal(IResource.DEPTH_ZERO, null);
+	}
+
 	static void printEclipseInfo(final File projectFile,
 	        final Map<String, String> classPathVariables,
 	        boolean verbose)
@@ -11,6 +11,7 @@ import org.autorefactor.matcher.AstMatcher.BoundNodes;
 import org.autorefactor.matcher.AstMatcher.Matcher;
 import org.autorefactor.matcher.DirectMatchCallback;
 import org.autorefactor.matcher.DirectMatchFinder;
+import org.autorefactor.matcher.MatcherFeatures;
 import org.autorefactor.refactoring.rules.AbstractRefactoringRule;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
@@ -35,8 +36,10 @@ public class AstMatchRule extends AbstractRefactoringRule {
     }
 
     private ASTVisitor matchVisitor;
+    private final MatcherFeatures requiredFeatures;
 
     public AstMatchRule(Matcher<?> matcher) {
+        this.requiredFeatures = MatcherFeatures.of(matcher);
         // Attention: currently first match wins?
         DirectMatchFinder finder = new DirectMatchFinder();
 
@@ -78,6 +81,13 @@ public class AstMatchRule extends AbstractRefactoringRule {
         this.matchVisitor = finder.createVisitor();
     }
 
+    /**
+     * Features a file must contain to possibly match, used to skip files via the index.
+     */
+    public MatcherFeatures getRequiredFeatures() {
+        return requiredFeatures;
+    }
+
     // location is printed half open
     private String location(ASTNode node) {
         try {
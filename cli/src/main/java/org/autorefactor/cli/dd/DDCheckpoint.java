@@ -0,0 +1,174 @@
+package org.autorefactor.cli.dd;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.cli.dd.DDMin.Result;
+
+/**
+ * Checkpoint of a delta debugging session, allowing to resume it after an interruption.
+ *
+ * Records the phase, the smallest reproducing code found so far, the reduced rules
+ * and the outcomes of the tests already done.
+ * A checkpoint only applies to the original code it was started from.
+ */
+public final class DDCheckpoint {
+    private static final int MAGIC = 0x44444331; // "DDC1"
+
+    private final String originalHash;
+    private final String phase;
+    private final String code;
+    private final List<String> rules;
+    private final Map<String, Result> outcomes;
+
+    private DDCheckpoint(String originalHash, String phase, String code, List<String> rules,
+            Map<String, Result> outcomes) {
+        this.originalHash = originalHash;
+        this.phase = phase;
+        this.code = code;
+        this.rules = rules;
+        this.outcomes = outcomes;
+    }
+
+    /**
+     * Loads the checkpoint stored in given file.
+     *
+     * @param file the checkpoint file
+     * @param originalCode the code the session started from
+     * @return the checkpoint, or null if there is none for this original code
+     */
+    public static /* @Nullable */ DDCheckpoint load(File file, String originalCode) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("unknown checkpoint format");
+            }
+            final String originalHash = in.readUTF();
+            if (!originalHash.equals(hash(originalCode))) {
+                System.err.println("ignoring checkpoint " + file + ": it was made for another version of the file");
+                return null;
+            }
+            final String phase = in.readUTF();
+            final String code = readString(in);
+            final int nbRules = in.readInt();
+            final List<String> rules = new ArrayList<String>(nbRules);
+            for (int i = 0; i < nbRules; i++) {
+                rules.add(in.readUTF());
+            }
+            final int nbOutcomes = in.readInt();
+            final Map<String, Result> outcomes = new HashMap<String, Result>(nbOutcomes * 2);
+            final Result[] results = Result.values();
+            for (int i = 0; i < nbOutcomes; i++) {
+                outcomes.put(in.readUTF(), results[in.readByte()]);
+            }
+            return new DDCheckpoint(originalHash, phase, code, rules, outcomes);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ignoring unreadable checkpoint " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a checkpoint to a temporary file first, then renames it.
+     *
+     * @param file the checkpoint file
+     * @param originalCode the code the session started from
+     * @param phase the current phase
+     * @param code the smallest reproducing code found so far
+     * @param rules the names of the rules applied by the tests
+     * @param cache the outcomes of the tests already done
+     */
+    public static void save(File file, String originalCode, String phase, String code, List<String> rules,
+            TestOutcomeCache cache) throws IOException {
+        final File dir = file.getAbsoluteFile().getParentFile();
+        final File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(hash(originalCode));
+                out.writeUTF(phase);
+                writeString(out, code);
+                out.writeInt(rules.size());
+                for (String rule : rules) {
+                    out.writeUTF(rule);
+                }
+                final Map<String, Result> outcomes = cache.getOutcomes();
+                out.writeInt(outcomes.size());
+                for (Map.Entry<String, Result> e : outcomes.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeByte(e.getValue().ordinal());
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    // writeUTF() is limited to 64 KB
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String hash(String code) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return new BigInteger(1, digest.digest(code.getBytes(StandardCharsets.UTF_8))).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** The phase to resume. */
+    public String getPhase() {
+        return phase;
+    }
+
+    /** The smallest reproducing code found so far. */
+    public String getCode() {
+        return code;
+    }
+
+    /** The names of the rules applied by the tests. */
+    public List<String> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /** The outcomes of the tests already done. */
+    public Map<String, Result> getOutcomes() {
+        return Collections.unmodifiableMap(outcomes);
+    }
+
+    @Override
+    public String toString() {
+        return "DDCheckpoint [originalHash=" + originalHash + ", phase=" + phase + ", code size=" + code.length()
+                + ", rules=" + rules + ", outcomes=" + outcomes.size() + "]";
+    }
+}
@@ -1,9 +1,15 @@
 package org.autorefactor.cli.dd;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.BitSet;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
 
 /**
  * Delta Debugging - reducing test cases with delta debugging.
@@ -22,6 +28,12 @@ import java.util.List;
         </pre>
    So 3 extra rounds with fixed length 3 and offsets 0,1,2 are tried.
 
+ * - parallel complement testing (see paper above): with a parallelism above 1 the complements are tested
+ *   concurrently, and the reproducing complement with the lowest index is taken, so the result is the same
+ *   as the one of a sequential run.
+ * - configurations are bit sets over the indexes of the original elements, so testing a complement
+ *   does not copy the elements. Callers can render candidates directly from the bit set,
+ *   see {@link #ddMin(int, int, BitSet, BitSetPredicate, int)}.
  *
  * @author cal
  */
@@ -36,24 +48,119 @@ public class DDMin {
         Unknown,
         Reproduced
     }
+    /** Test of a candidate. Must be thread safe when used with a parallelism above 1. */
     public interface Predicate<T> {
         Result apply(List<T> a);
     }
 
+    /**
+     * Test of a candidate given as the indexes of the original elements it contains.
+     * Must not modify the configuration. Must be thread safe when used with a parallelism above 1.
+     */
+    public interface BitSetPredicate {
+        Result apply(BitSet configuration);
+    }
+
+    /** A candidate being tested. */
+    private static class Candidate {
+        final BitSet configuration;
+        final Future<Result> result;
+
+        Candidate(BitSet configuration, Future<Result> result) {
+            this.configuration = configuration;
+            this.result = result;
+        }
+    }
+
     public static <T> List<T> ddMin(List<T> originalTarget, int n, Predicate<T> test) {
-        List<T> target = new LinkedList<T>(originalTarget);
+        return ddMin(originalTarget, n, test, 1);
+    }
+
+    /**
+     * Minimizes the target.
+     *
+     * @param originalTarget the target to minimize
+     * @param n the initial granularity
+     * @param test the test, must be thread safe if parallelism is above 1
+     * @param parallelism the maximum number of complements tested concurrently
+     * @return the minimized target
+     */
+    public static <T> List<T> ddMin(List<T> originalTarget, int n, final Predicate<T> test, int parallelism) {
+        final List<T> elements = new ArrayList<T>(originalTarget);
+        BitSet fixed = null;
+        if (!elements.isEmpty() && elements.get(0) instanceof Character) {
+            // hack: do not remove new lines in character mode. should be coordinated no higher level
+            fixed = new BitSet(elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                if (NEWLINE.equals(elements.get(i))) {
+                    fixed.set(i);
+                }
+            }
+        }
+        final BitSet result = ddMin(elements.size(), n, fixed, configuration -> test.apply(select(elements, configuration)),
+                parallelism);
+        return select(elements, result);
+    }
+
+    /**
+     * Returns the elements of the configuration.
+     *
+     * @param elements the original elements
+     * @param configuration the indexes of the selected elements
+     * @return the selected elements
+     */
+    public static <T> List<T> select(List<T> elements, BitSet configuration) {
+        final List<T> result = new ArrayList<T>(configuration.cardinality());
+        for (int i = configuration.nextSetBit(0); i >= 0; i = configuration.nextSetBit(i + 1)) {
+            result.add(elements.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Minimizes a configuration of size elements.
+     *
+     * @param size the number of original elements
+     * @param n the initial granularity
+     * @param fixed the indexes of the elements which must never be removed, or null
+     * @param test the test, must be thread safe if parallelism is above 1
+     * @param parallelism the maximum number of complements tested concurrently
+     * @return the indexes of the elements of the minimized configuration
+     */
+    public static BitSet ddMin(int size, int n, /* @Nullable */ BitSet fixed, BitSetPredicate test, int parallelism) {
+        if (parallelism <= 1) {
+            return ddMin(size, n, fixed, test, null, 1);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            final Thread t = new Thread(r, "ddmin");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            return ddMin(size, n, fixed, test, executor, parallelism);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BitSet ddMin(int size, int n, /* @Nullable */ BitSet fixed, BitSetPredicate test,
+            /* @Nullable */ ExecutorService executor, int parallelism) {
+        BitSet target = new BitSet(size);
+        target.set(0, size);
+        // the indexes of the elements of the target, i.e. the positions of its set bits
+        int[] indexes = indexes(target);
         boolean emptyRun = true;
         boolean fixedPass = false;
         int fixedPassSize = 2;
         int fixedPassOffset = -1;
-        dd: while(n <= target.size()) {
+        dd: while(n <= indexes.length) {
             {
-                final int minDeltaSize = target.size() / n;
-                final int maxDeltaSize = (target.size() + n - 1)/ n;
+                final int minDeltaSize = indexes.length / n;
+                final int maxDeltaSize = (indexes.length + n - 1)/ n;
                 System.out.printf(
                         "DDMin: target size: %4d, n: %4d, delta size: %4d%s"
                                 + (fixedPass && fixedPassOffset >= 0 ? ", offset: " + fixedPassOffset : "") + "%n",
-                                target.size(),
+                                indexes.length,
                                 n,
                                 minDeltaSize,
                                 !fixedPass && minDeltaSize != maxDeltaSize ? "+" : " "
@@ -75,34 +182,40 @@ public class DDMin {
                 }
                 */
                 // reduce to complement
-                for (int i = 0; i < n; i++) {
-                    List<T> complement = complement(target, i, n);
-                    // TODO: size check is hack because complement may have not removed single new-line
-                    if (complement.size() != target.size() && test.apply(complement) == Result.Reproduced) {
-                        target = complement;
-                        emptyRun = false;
-                        n = Math.max(n - 1, 2);
-                        continue dd;
-                    }
+                final BitSet currentTarget = target;
+                final int[] currentIndexes = indexes;
+                final int currentN = n;
+                final BitSet complement = firstReproduced(indexes.length, n,
+                        i -> complement(currentTarget, currentIndexes, i, currentN, fixed), test, executor, parallelism);
+                if (complement != null) {
+                    target = complement;
+                    indexes = indexes(target);
+                    emptyRun = false;
+                    n = Math.max(n - 1, 2);
+                    continue dd;
                 }
                 // increase granularity
-                if (n < target.size()) {
-                    n = Math.min(target.size(), 2 * n);
+                if (n < indexes.length) {
+                    n = Math.min(indexes.length, 2 * n);
                     continue dd;
                 }
             } else {
                 // reduce to complement
                 // try complement of delta with size fixedPassSize at different offsets
-                for (int i = 0; i < n; i++) {
-                    final int start = fixedPassOffset + i * fixedPassSize;
-                    List<T> complement = complementAt(target, start, start + fixedPassSize);
-                    // TODO: size check is hack because complement may have not removed single new-line
-                    if (complement.size() != target.size() && test.apply(complement) == Result.Reproduced) {
-                        target = complement;
-                        emptyRun = false;
-                        n = Math.max(target.size() / fixedPassSize, 1);
-                        continue dd;
-                    }
+                final BitSet currentTarget = target;
+                final int[] currentIndexes = indexes;
+                final int offset = fixedPassOffset;
+                final int deltaSize = fixedPassSize;
+                final BitSet complement = firstReproduced(indexes.length, n,
+                        i -> complementAt(currentTarget, currentIndexes, offset + i * deltaSize,
+                                offset + (i + 1) * deltaSize, fixed),
+                        test, executor, parallelism);
+                if (complement != null) {
+                    target = complement;
+                    indexes = indexes(target);
+                    emptyRun = false;
+                    n = Math.max(indexes.length / fixedPassSize, 1);
+                    continue dd;
                 }
             }
             // if at least one reduction was done try a complete new run
@@ -116,17 +229,17 @@ public class DDMin {
             }
             // try to remove deltas of size 2..4 in extra run with offsets
             // 0,<size-1>
-            if (target.size() > fixedPassSize) {
+            if (indexes.length > fixedPassSize) {
                 fixedPass = true;
                 // e.g. for size "3" try offsets 0,1,2, inital value is -1
                 if (fixedPassOffset < fixedPassSize - 1) {
                     fixedPassOffset++;
-                    n = Math.max(target.size() / fixedPassSize, 1);
+                    n = Math.max(indexes.length / fixedPassSize, 1);
                     continue dd;
                 } else if (fixedPassSize < MAX_FIXED_PASS_SIZE) {
                     fixedPassSize++;
                     fixedPassOffset = 0;
-                    n = Math.max(target.size() / fixedPassSize, 1);
+                    n = Math.max(indexes.length / fixedPassSize, 1);
                     continue dd;
                 }
             }
@@ -137,42 +250,102 @@ public class DDMin {
         return target;
     }
 
+    /**
+     * Tests the n candidates in order and returns the first one which reproduces.
+     * In parallel mode, up to parallelism candidates are tested concurrently,
+     * but the candidate with the lowest index still wins.
+     */
+    private static /* @Nullable */ BitSet firstReproduced(int targetSize, int n, IntFunction<BitSet> candidates,
+            BitSetPredicate test, /* @Nullable */ ExecutorService executor, int parallelism) {
+        if (executor == null) {
+            for (int i = 0; i < n; i++) {
+                final BitSet candidate = candidates.apply(i);
+                // TODO: size check is hack because complement may have not removed single new-line
+                if (candidate.cardinality() != targetSize && test.apply(candidate) == Result.Reproduced) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+        final Deque<Candidate> window = new ArrayDeque<Candidate>();
+        int next = 0;
+        try {
+            while (true) {
+                while (next < n && window.size() < parallelism) {
+                    final BitSet candidate = candidates.apply(next++);
+                    // TODO: size check is hack because complement may have not removed single new-line
+                    if (candidate.cardinality() != targetSize) {
+                        window.addLast(new Candidate(candidate, executor.submit(() -> test.apply(candidate))));
+                    }
+                }
+                if (window.isEmpty()) {
+                    return null;
+                }
+                final Candidate candidate = window.removeFirst();
+                if (getResult(candidate.result) == Result.Reproduced) {
+                    return candidate.configuration;
+                }
+            }
+        } finally {
+            // later candidates are not needed anymore, running tests end on their own
+            for (Candidate candidate : window) {
+                candidate.result.cancel(false);
+            }
+        }
+    }
+
+    private static Result getResult(Future<Result> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            // e.g. a time budget exceeded by the test: let the caller handle it
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static int[] indexes(BitSet configuration) {
+        final int[] result = new int[configuration.cardinality()];
+        int k = 0;
+        for (int i = configuration.nextSetBit(0); i >= 0; i = configuration.nextSetBit(i + 1)) {
+            result[k++] = i;
+        }
+        return result;
+    }
+
     // spreads remainder of list.size() % n over range
-    private static <T> List<T> complement(List<T> list, int i, int n) {
-        int start = list.size() * i / n ;
-        int end = Math.min(list.size() * (i + 1) / n, list.size());
-        return deleteRange(list, start, end);
+    private static BitSet complement(BitSet target, int[] indexes, int i, int n, BitSet fixed) {
+        int start = indexes.length * i / n ;
+        int end = Math.min(indexes.length * (i + 1) / n, indexes.length);
+        return deleteRange(target, indexes, start, end, fixed);
     }
 
     // uses exact position at start
-    private static <T> List<T> complementAt(List<T> list, int start, int rawEnd) {
-        int end = Math.min(rawEnd, list.size());
-        //System.out.println("trying: delta " + list.subList(start,  end));
-        return deleteRange(list, start, end);
+    private static BitSet complementAt(BitSet target, int[] indexes, int rawStart, int rawEnd, BitSet fixed) {
+        int start = Math.min(rawStart, indexes.length);
+        int end = Math.min(rawEnd, indexes.length);
+        return deleteRange(target, indexes, start, end, fixed);
     }
 
-    private static <T> List<T> deleteRange(List<T> list, int start, int end) {
-        List<T> l = new LinkedList<T>(list);
-        if (list.get(0) instanceof Character) {
-            // hack: do not remove new lines in character mode. should be coordinated no higher level
-            Iterator<T> it = l.subList(start, end).iterator();
-            while (it.hasNext()) {
-                if (!NEWLINE.equals(it.next())) {
-                    it.remove();
+    private static BitSet deleteRange(BitSet target, int[] indexes, int start, int end,
+            /* @Nullable */ BitSet fixed) {
+        final BitSet result = (BitSet) target.clone();
+        if (start < end) {
+            // the range is contiguous in the target, clear the matching range of the original elements
+            result.clear(indexes[start], indexes[end - 1] + 1);
+            if (fixed != null) {
+                for (int k = start; k < end; k++) {
+                    if (fixed.get(indexes[k])) {
+                        result.set(indexes[k]);
+                    }
                 }
             }
-        } else {
-            int num = end - start;
-            while (num-- > 0) {
-                l.remove(start);
-            }
         }
-        return l;
-    }
-
-    private static <T> List<T> delta(List<T> list, int i, int n) {
-        int start = list.size() * i / n ;
-        int end = Math.min(list.size() * (i + 1) / n, list.size());
-        return list.subList(start, end);
+        return result;
     }
 }
@@ -0,0 +1,91 @@
+package org.autorefactor.cli.dd;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.autorefactor.cli.dd.DDMin.Result;
+
+/**
+ * Remembers the outcome of delta debugging tests.
+ *
+ * The reduction phases often generate candidates which were already tested,
+ * e.g. when the outer loop starts a new round or when a replacement is tried again.
+ * Outcomes are keyed by a hash of the candidate content and of a variant,
+ * e.g. the names of the rules applied by the test.
+ *
+ * {@link Result#Unknown} outcomes are not remembered. Thread safe.
+ */
+public class TestOutcomeCache {
+    private final Map<String, Result> outcomes = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns the remembered outcome of the test of given content, or runs the test.
+     *
+     * @param content the candidate content
+     * @param variant what else than the content the test outcome depends on
+     * @param test the test of the candidate
+     * @return the test outcome
+     */
+    public Result apply(String content, String variant, Supplier<Result> test) {
+        final String key = hash(content, variant);
+        final Result cached = outcomes.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        final Result result = test.get();
+        if (result != Result.Unknown) {
+            outcomes.put(key, result);
+        }
+        return result;
+    }
+
+    private static String hash(String content, String variant) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(variant.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(content.getBytes(StandardCharsets.UTF_8));
+            return new BigInteger(1, digest.digest()).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Snapshot of the remembered outcomes, keyed by hash. */
+    public Map<String, Result> getOutcomes() {
+        return new HashMap<>(outcomes);
+    }
+
+    /** Remembers outcomes returned by {@link #getOutcomes()}, e.g. by a previous session. */
+    public void restore(Map<String, Result> savedOutcomes) {
+        outcomes.putAll(savedOutcomes);
+    }
+
+    /** Number of tests answered from the cache. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Number of tests which were run. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        final long h = hits.get();
+        final long total = h + misses.get();
+        return String.format("tests: %d, cache hits: %d (%d%%)", total, h, total == 0 ? 0 : h * 100 / total);
+    }
+}
@@ -0,0 +1,14 @@
+package org.autorefactor.cli.dd;
+
+/**
+ * Thrown by delta debugging tests once the time budget of the reduction is spent.
+ *
+ * Stops the reduction, which then ends with the smallest reproducing candidate found so far.
+ */
+public class TimeBudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TimeBudgetExceededException(long budgetMillis) {
+        super("time budget of " + budgetMillis + " ms exceeded");
+    }
+}
@@ -0,0 +1,225 @@
+package org.autorefactor.cli.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Persistent per-file index of AST features.
+ *
+ * Allows ast-match, ast-dump and rule prefiltering to skip files that cannot match
+ * a {@link AstFeatureQuery} without parsing them with bindings.
+ *
+ * Updates are incremental: files with unchanged modification time and size are not read,
+ * files with unchanged content hash are not parsed again.
+ * Parsing is done in parallel.
+ */
+public final class AstFeatureIndex {
+	private static final int MAGIC = 0x41464932; // "AFI2"
+
+	private final File indexFile;
+	private final Map<String, AstFeatures> entries = new ConcurrentHashMap<>();
+	/** Source level the entries were computed with. */
+	private String sourceLevel = "";
+
+	private AstFeatureIndex(File indexFile) {
+		this.indexFile = indexFile;
+	}
+
+	/**
+	 * Loads the index stored in given file, or creates an empty one if the file does not exist
+	 * or cannot be read.
+	 */
+	public static AstFeatureIndex load(File indexFile) {
+		final AstFeatureIndex index = new AstFeatureIndex(indexFile);
+		if (indexFile.isFile()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+				if (in.readInt() != MAGIC) {
+					throw new IOException("unknown index format");
+				}
+				index.sourceLevel = in.readUTF();
+				final int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					final String path = in.readUTF();
+					index.entries.put(path, AstFeatures.read(in));
+				}
+			} catch (IOException e) {
+				System.err.println("index: ignoring unreadable index " + indexFile + ": " + e);
+				index.entries.clear();
+				index.sourceLevel = "";
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Loads the index, updates it for given source roots and saves it.
+	 *
+	 * @param compilerOptions the compiler options of the project the source roots belong to
+	 * @return the updated index or null if no index file is given or the query is empty
+	 */
+	public static /* @Nullable */ AstFeatureIndex prepare(/* @Nullable */ File indexFile, AstFeatureQuery query,
+			List<File> sourceRoots, Charset charset, Map<String, String> compilerOptions, boolean verbose)
+			throws IOException {
+		if (indexFile == null || query.isEmpty()) {
+			return null;
+		}
+		final AstFeatureIndex index = load(indexFile);
+		index.update(sourceRoots, charset, compilerOptions, verbose);
+		index.save();
+		if (verbose) {
+			System.out.println("index: query " + query);
+		}
+		return index;
+	}
+
+	/**
+	 * Brings the entries of all java files below given roots up to date.
+	 * Entries of deleted files below these roots are dropped.
+	 * All entries are computed again when the source level of the compiler options changed.
+	 *
+	 * @return the number of files that had to be parsed
+	 */
+	public int update(List<File> sourceRoots, Charset charset, Map<String, String> compilerOptions,
+			boolean verbose) throws IOException {
+		final String level = String.valueOf(compilerOptions.get(JavaCore.COMPILER_SOURCE));
+		if (!level.equals(sourceLevel)) {
+			entries.clear();
+			sourceLevel = level;
+		}
+		final List<Path> files = new ArrayList<>();
+		for (File root : sourceRoots) {
+			if (root.isDirectory()) {
+				try (Stream<Path> s = Files.walk(root.toPath())) {
+					files.addAll(s.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p))
+							.collect(Collectors.toList()));
+				}
+			}
+		}
+
+		final AtomicInteger parsed = new AtomicInteger();
+		files.parallelStream().forEach(p -> {
+			try {
+				if (updateEntry(p.toFile(), charset, compilerOptions)) {
+					parsed.incrementAndGet();
+				}
+			} catch (IOException e) {
+				System.err.println("index: cannot index " + p + ": " + e);
+				entries.remove(key(p.toFile()));
+			}
+		});
+
+		final Set<String> present = new HashSet<>();
+		for (Path p : files) {
+			present.add(key(p.toFile()));
+		}
+		for (File root : sourceRoots) {
+			final String prefix = key(root) + File.separator;
+			entries.keySet().removeIf(k -> k.startsWith(prefix) && !present.contains(k));
+		}
+		if (verbose) {
+			System.out.println("index: " + files.size() + " files, " + parsed.get() + " parsed");
+		}
+		return parsed.get();
+	}
+
+	/**
+	 * @return whether the file had to be parsed
+	 */
+	private boolean updateEntry(File file, Charset charset, Map<String, String> compilerOptions)
+			throws IOException {
+		final String key = key(file);
+		final long lastModified = file.lastModified();
+		final long size = file.length();
+		final AstFeatures old = entries.get(key);
+		if (old != null && old.lastModified == lastModified && old.size == size) {
+			return false;
+		}
+		final byte[] content = Files.readAllBytes(file.toPath());
+		final byte[] hash = hash(content);
+		if (old != null && old.size == content.length && old.hasSameHash(hash)) {
+			entries.put(key, old.withLastModified(lastModified));
+			return false;
+		}
+		entries.put(key, AstFeatures.compute(lastModified, content.length, hash, new String(content, charset),
+				compilerOptions));
+		return true;
+	}
+
+	/**
+	 * Returns whether given file may match the query.
+	 * Files missing from the index may always match.
+	 */
+	public boolean mayMatch(File file, AstFeatureQuery query) {
+		final AstFeatures features = entries.get(key(file));
+		return features == null || query.mayMatch(features);
+	}
+
+	/* @Nullable */ public AstFeatures get(File file) {
+		return entries.get(key(file));
+	}
+
+	/**
+	 * Writes the index to a temporary file first, then renames it.
+	 */
+	public void save() throws IOException {
+		final File dir = indexFile.getAbsoluteFile().getParentFile();
+		if (dir != null) {
+			dir.mkdirs();
+		}
+		final File tmp = File.createTempFile(indexFile.getName(), ".tmp", dir);
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				out.writeInt(MAGIC);
+				out.writeUTF(sourceLevel);
+				final List<Map.Entry<String, AstFeatures>> snapshot = new ArrayList<>(entries.entrySet());
+				out.writeInt(snapshot.size());
+				for (Map.Entry<String, AstFeatures> e : snapshot) {
+					out.writeUTF(e.getKey());
+					e.getValue().write(out);
+				}
+			}
+			Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			tmp.delete();
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private static String key(File file) {
+		return file.getAbsolutePath();
+	}
+
+	private static byte[] hash(byte[] content) {
+		try {
+			return MessageDigest.getInstance("SHA-1").digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package org.autorefactor.cli.index;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.autorefactor.matcher.MatcherFeatures;
+import org.eclipse.jdt.core.dom.ASTNode;
+
+/**
+ * Features a source file must contain to be worth parsing.
+ *
+ * An empty query matches every file.
+ */
+public final class AstFeatureQuery {
+	private static final Map<String, Integer> NODE_TYPES_BY_NAME = nodeTypesByName();
+
+	private final BitSet nodeTypes = new BitSet();
+	private final Set<String> simpleNames = new LinkedHashSet<>();
+	private final Set<String> importedTypes = new LinkedHashSet<>();
+
+	private static Map<String, Integer> nodeTypesByName() {
+		final Map<String, Integer> result = new HashMap<>();
+		// node types are small consecutive integers, unknown ones are rejected by JDT
+		for (int type = 1; type < 256; type++) {
+			try {
+				result.put(ASTNode.nodeClassForType(type).getSimpleName(), type);
+			} catch (IllegalArgumentException unknownType) {
+				// not a node type in this JDT version
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Requires a node of given type.
+	 *
+	 * @param nodeClassName simple name of the node class, e.g. "SynchronizedStatement"
+	 * @throws IllegalArgumentException if there is no such node class
+	 */
+	public AstFeatureQuery requireNode(String nodeClassName) {
+		final Integer type = NODE_TYPES_BY_NAME.get(nodeClassName);
+		if (type == null) {
+			throw new IllegalArgumentException("unknown AST node type: " + nodeClassName);
+		}
+		nodeTypes.set(type);
+		return this;
+	}
+
+	/**
+	 * Requires a simple name with given identifier, e.g. "Vector".
+	 */
+	public AstFeatureQuery requireSimpleName(String identifier) {
+		simpleNames.add(identifier);
+		return this;
+	}
+
+	/**
+	 * Requires given type to be imported, by single type or on demand import.
+	 */
+	public AstFeatureQuery requireImport(String qualifiedName) {
+		importedTypes.add(qualifiedName);
+		return this;
+	}
+
+	/**
+	 * Requires the features needed by an AST matcher.
+	 */
+	public AstFeatureQuery requireAll(MatcherFeatures features) {
+		for (Class<? extends ASTNode> nodeClass : features.getNodeClasses()) {
+			final Integer type = NODE_TYPES_BY_NAME.get(nodeClass.getSimpleName());
+			if (type != null) {
+				nodeTypes.set(type);
+			}
+		}
+		simpleNames.addAll(features.getIdentifiers());
+		return this;
+	}
+
+	public boolean isEmpty() {
+		return nodeTypes.isEmpty() && simpleNames.isEmpty() && importedTypes.isEmpty();
+	}
+
+	/**
+	 * Returns whether a file with given features may match, i.e. contains all required features.
+	 */
+	public boolean mayMatch(AstFeatures features) {
+		if (!features.containsAllNodeTypes(nodeTypes)
+				|| !features.getSimpleNames().containsAll(simpleNames)) {
+			return false;
+		}
+		for (String type : importedTypes) {
+			if (!features.importsType(type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		final Set<String> nodes = new LinkedHashSet<>();
+		for (int type = nodeTypes.nextSetBit(0); type >= 0; type = nodeTypes.nextSetBit(type + 1)) {
+			nodes.add(ASTNode.nodeClassForType(type).getSimpleName());
+		}
+		return "AstFeatureQuery [nodes=" + nodes + ", simpleNames=" + simpleNames
+				+ ", imports=" + importedTypes + "]";
+	}
+}
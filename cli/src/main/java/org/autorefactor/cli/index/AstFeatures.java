@@ -0,0 +1,168 @@
+package org.autorefactor.cli.index;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.SimpleName;
+
+/**
+ * Features of one source file: node types present, simple names and imported types.
+ *
+ * Computed from a parse without bindings, identified by file modification time, size and content hash.
+ *
+ * @see AstFeatureIndex
+ */
+public final class AstFeatures {
+	final long lastModified;
+	final long size;
+	final byte[] hash;
+	private final BitSet nodeTypes;
+	private final Set<String> simpleNames;
+	private final Set<String> imports;
+
+	private AstFeatures(long lastModified, long size, byte[] hash, BitSet nodeTypes, Set<String> simpleNames,
+			Set<String> imports) {
+		this.lastModified = lastModified;
+		this.size = size;
+		this.hash = hash;
+		this.nodeTypes = nodeTypes;
+		this.simpleNames = simpleNames;
+		this.imports = imports;
+	}
+
+	/**
+	 * Parses given source with the compiler options of its project and collects its features.
+	 */
+	static AstFeatures compute(long lastModified, long size, byte[] hash, String source,
+			Map<String, String> compilerOptions) {
+		final ASTParser parser = ASTParser.newParser(AST.JLS8);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setSource(source.toCharArray());
+		parser.setCompilerOptions(compilerOptions);
+		parser.setResolveBindings(false);
+		final CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+
+		final BitSet nodeTypes = new BitSet();
+		final Set<String> simpleNames = new HashSet<>();
+		final Set<String> imports = new HashSet<>();
+		cu.accept(new ASTVisitor(true) {
+			@Override
+			public void preVisit(ASTNode node) {
+				nodeTypes.set(node.getNodeType());
+			}
+
+			@Override
+			public boolean visit(SimpleName node) {
+				simpleNames.add(node.getIdentifier());
+				return true;
+			}
+
+			@Override
+			public boolean visit(ImportDeclaration node) {
+				imports.add(node.getName().getFullyQualifiedName() + (node.isOnDemand() ? ".*" : ""));
+				return true;
+			}
+		});
+		return new AstFeatures(lastModified, size, hash, nodeTypes, simpleNames, imports);
+	}
+
+	/**
+	 * Returns a copy identified by a new modification time, for touched but unchanged files.
+	 */
+	AstFeatures withLastModified(long newLastModified) {
+		return new AstFeatures(newLastModified, size, hash, nodeTypes, simpleNames, imports);
+	}
+
+	boolean hasSameHash(byte[] otherHash) {
+		return Arrays.equals(hash, otherHash);
+	}
+
+	public boolean containsNodeType(int nodeType) {
+		return nodeTypes.get(nodeType);
+	}
+
+	public boolean containsAllNodeTypes(BitSet requiredNodeTypes) {
+		final BitSet missing = (BitSet) requiredNodeTypes.clone();
+		missing.andNot(nodeTypes);
+		return missing.isEmpty();
+	}
+
+	public Set<String> getSimpleNames() {
+		return Collections.unmodifiableSet(simpleNames);
+	}
+
+	/**
+	 * Imports, on demand imports end with ".*".
+	 */
+	public Set<String> getImports() {
+		return Collections.unmodifiableSet(imports);
+	}
+
+	/**
+	 * Returns whether given qualified type name is imported, by single type or on demand import.
+	 */
+	public boolean importsType(String qualifiedName) {
+		if (imports.contains(qualifiedName)) {
+			return true;
+		}
+		final int lastDot = qualifiedName.lastIndexOf('.');
+		return lastDot > 0 && imports.contains(qualifiedName.substring(0, lastDot) + ".*");
+	}
+
+	void write(DataOutputStream out) throws IOException {
+		out.writeLong(lastModified);
+		out.writeLong(size);
+		out.writeShort(hash.length);
+		out.write(hash);
+		final long[] types = nodeTypes.toLongArray();
+		out.writeShort(types.length);
+		for (long l : types) {
+			out.writeLong(l);
+		}
+		writeStrings(out, simpleNames);
+		writeStrings(out, imports);
+	}
+
+	static AstFeatures read(DataInputStream in) throws IOException {
+		final long lastModified = in.readLong();
+		final long size = in.readLong();
+		final byte[] hash = new byte[in.readUnsignedShort()];
+		in.readFully(hash);
+		final long[] types = new long[in.readUnsignedShort()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = in.readLong();
+		}
+		final Set<String> simpleNames = readStrings(in);
+		final Set<String> imports = readStrings(in);
+		return new AstFeatures(lastModified, size, hash, BitSet.valueOf(types), simpleNames, imports);
+	}
+
+	private static void writeStrings(DataOutputStream out, Set<String> strings) throws IOException {
+		out.writeInt(strings.size());
+		for (String s : strings) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static Set<String> readStrings(DataInputStream in) throws IOException {
+		final int count = in.readInt();
+		final Set<String> result = new HashSet<>(count * 2);
+		for (int i = 0; i < count; i++) {
+			result.add(in.readUTF());
+		}
+		return result;
+	}
+}
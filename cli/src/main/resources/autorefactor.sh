@@ -2,6 +2,19 @@
 #
 # usage:
 #     autorefactor --help
+#     autorefactor [--consolelog] [--workspace <dir>] <command> ...
+#
+# The eclipse workspace keeps the project metadata and the JDT indexes of the JRE and of the libraries,
+# reusing it avoids indexing them again on each run.
+# Without --workspace, a free workspace of the cache directory is reused, or a new one is created
+# when all are used by concurrent runs.
+#
+# environment:
+#     AUTOREFACTOR_ECLIPSE           eclipse executable (default: eclipse)
+#     AUTOREFACTOR_CACHE_DIR         cache directory (default: ~/.cache/autorefactor)
+#     AUTOREFACTOR_CACHE_MAX_SIZE    size of the cached workspaces in MB above which
+#                                    the least recently used ones are deleted (default: 4096)
+#     AUTOREFACTOR_CACHE_MAX_AGE     days after which unused cached workspaces are deleted (default: 30)
 #
 
 DIR=`dirname $0`
@@ -9,12 +22,69 @@ BASE_DIR=`dirname "$DIR"`
 BASE_DIR=`cd "$BASE_DIR"; pwd`
 
 [ "$AUTOREFACTOR_ECLIPSE" = "" ] && AUTOREFACTOR_ECLIPSE=eclipse
-
-WORKSPACE_DIR=`mktemp --tmpdir -d workspaceXXXXXX`
-#trap "{ [ -n \"$WORKSPACE_DIR\" ] && rm -rf \"$WORKSPACE_DIR\"; }" EXIT
+[ "$AUTOREFACTOR_CACHE_DIR" = "" ] && AUTOREFACTOR_CACHE_DIR="${XDG_CACHE_HOME:-$HOME/.cache}/autorefactor"
+[ "$AUTOREFACTOR_CACHE_MAX_SIZE" = "" ] && AUTOREFACTOR_CACHE_MAX_SIZE=4096
+[ "$AUTOREFACTOR_CACHE_MAX_AGE" = "" ] && AUTOREFACTOR_CACHE_MAX_AGE=30
 
 CONSOLE_LOG=""
-[ $# -gt 0 -a "$1" = "--consolelog" ] && CONSOLE_LOG="-consolelog" && shift
+WORKSPACE_DIR=""
+while [ $# -gt 0 ]; do
+    case "$1" in
+        --consolelog) CONSOLE_LOG="-consolelog"; shift;;
+        --workspace) [ $# -lt 2 ] && echo "--workspace: missing directory" >&2 && exit 2
+                     WORKSPACE_DIR="$2"; shift 2;;
+        --workspace=*) WORKSPACE_DIR="${1#--workspace=}"; shift;;
+        *) break;;
+    esac
+done
+
+WORKSPACES_DIR="$AUTOREFACTOR_CACHE_DIR/workspaces"
+
+# Deletes the cached workspaces unused for AUTOREFACTOR_CACHE_MAX_AGE days, then the least recently used ones
+# while the cache is larger than AUTOREFACTOR_CACHE_MAX_SIZE. Workspaces in use are locked and kept.
+clean_cache() {
+    local current="$1" ws size
+    ls -1dtr "$WORKSPACES_DIR"/*/ 2>/dev/null | while read -r ws; do
+        ws="${ws%/}"
+        [ "$ws" = "$current" ] && continue
+        size=`du -sm "$WORKSPACES_DIR" | cut -f1`
+        if [ "$size" -le "$AUTOREFACTOR_CACHE_MAX_SIZE" ] \
+                && [ -z "`find "$ws" -maxdepth 0 -mtime +$AUTOREFACTOR_CACHE_MAX_AGE`" ]; then
+            # the next workspaces were used more recently
+            break
+        fi
+        (
+            flock -n 8 || exit 0
+            rm -rf "$ws"
+        ) 8>"$ws.lock"
+    done
+}
+
+if ! command -v flock >/dev/null; then
+    # no locking: a temporary workspace for this run only
+    [ "$WORKSPACE_DIR" = "" ] && WORKSPACE_DIR=`mktemp --tmpdir -d workspaceXXXXXX` \
+        && trap "rm -rf \"$WORKSPACE_DIR\"" EXIT
+elif [ "$WORKSPACE_DIR" != "" ]; then
+    # the lock stays held by eclipse, which inherits the file descriptor
+    mkdir -p "$WORKSPACE_DIR"
+    exec 9>"$WORKSPACE_DIR/.autorefactor.lock"
+    if ! flock -n 9; then
+        echo "waiting for workspace $WORKSPACE_DIR used by another run" >&2
+        flock 9
+    fi
+else
+    mkdir -p "$WORKSPACES_DIR"
+    i=1
+    while :; do
+        exec 9>"$WORKSPACES_DIR/$i.lock"
+        flock -n 9 && break
+        i=$((i + 1))
+    done
+    WORKSPACE_DIR="$WORKSPACES_DIR/$i"
+    mkdir -p "$WORKSPACE_DIR"
+    touch "$WORKSPACE_DIR"
+    clean_cache "$WORKSPACE_DIR"
+fi
 
 # eclipse command line parameters:
 # https://help.eclipse.org/neon/index.jsp?topic=%2Forg.eclipse.platform.doc.isv%2Freference%2Fmisc%2Fruntime-options.html
@@ -22,5 +92,4 @@ CONSOLE_LOG=""
 args=( "$@" )
 args+=("-vmargs" "-Xmx2000m" "-Dorg.eclipse.equinox.p2.reconciler.dropins.directory=${BASE_DIR}/dropins")
 
-#WORKSPACE_DIR=/tmp/workspace-autorefactor
 $AUTOREFACTOR_ECLIPSE -nosplash $CONSOLE_LOG --launcher.suppressErrors -data "$WORKSPACE_DIR" -configuration "$WORKSPACE_DIR/configuration" -application org.autorefactor.cli.AutoRefactor "${args[@]}"
@@ -0,0 +1,39 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+
+public class ApplyArgsTest {
+
+	@Test
+	public void testSequentialByDefault() {
+		assertEquals(1, parse("--refactorings", "StringRefactoring").getJobs());
+		assertEquals(4, parse("--refactorings", "StringRefactoring", "--jobs", "4").getJobs());
+	}
+
+	@Test
+	public void testClasspathFileOfSingleProject() {
+		parse("--refactorings", "StringRefactoring", "--classpath-file", "cp.txt").validate(1);
+		parse("--refactorings", "StringRefactoring").validate(2);
+	}
+
+	@Test(expected = ParameterException.class)
+	public void testClasspathFileOfSeveralProjects() {
+		parse("--refactorings", "StringRefactoring", "--classpath-file", "cp.txt").validate(2);
+	}
+
+	@Test(expected = ParameterException.class)
+	public void testCheckWithDryRun() {
+		parse("--refactorings", "StringRefactoring", "--check", "--dry-run").validate(1);
+	}
+
+	private static ApplyArgs parse(String... args) {
+		final ApplyArgs applyArgs = new ApplyArgs();
+		JCommander.newBuilder().addObject(applyArgs).build().parse(args);
+		return applyArgs;
+	}
+}
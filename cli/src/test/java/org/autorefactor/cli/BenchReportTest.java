@@ -0,0 +1,54 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BenchReportTest {
+
+	@Test
+	public void testPercentile() {
+		final long[] sorted = new long[100];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i + 1;
+		}
+		assertEquals(50, BenchReport.percentile(sorted, 50));
+		assertEquals(99, BenchReport.percentile(sorted, 99));
+		assertEquals(100, BenchReport.percentile(sorted, 100));
+		assertEquals(7, BenchReport.percentile(new long[] { 7 }, 99));
+		assertEquals(2, BenchReport.percentile(new long[] { 1, 2, 3 }, 50));
+	}
+
+	@Test
+	public void testFormat() {
+		final BenchReport report = new BenchReport();
+		report.startRound();
+		report.addFile(TimeUnit.MILLISECONDS.toNanos(10), 0, false);
+		report.addFile(TimeUnit.MILLISECONDS.toNanos(30), 2, false);
+		report.addFile(TimeUnit.MILLISECONDS.toNanos(20), 0, true);
+		assertEquals(3.0, report.endRound(TimeUnit.SECONDS.toNanos(1)), 0.001);
+		report.startRound();
+		report.addFile(TimeUnit.MILLISECONDS.toNanos(10), 0, false);
+		report.addFile(TimeUnit.MILLISECONDS.toNanos(30), 1, false);
+		report.addFile(TimeUnit.MILLISECONDS.toNanos(20), 1, false);
+		assertEquals(1.5, report.endRound(TimeUnit.SECONDS.toNanos(2)), 0.001);
+
+		final String text = report.format(64L * 1024 * 1024, 3, 30);
+		assertTrue(text, text.contains("bench: 2 rounds, 6 files, 1 failed\n"));
+		assertTrue(text, text.contains("files/sec: 2.0 (rounds: min 1.5, max 3.0)"));
+		assertTrue(text, text.contains("latency ms: median 20.0, p99 30.0, max 30.0"));
+		assertTrue(text, text.contains("iterations: 0: 1 1: 2 (files per number of iterations)"));
+		assertTrue(text, text.contains("peak heap: 64 MB"));
+		assertTrue(text, text.contains("gc: 3 collections, 30 ms (1.0% of the time)"));
+	}
+
+	@Test
+	public void testNoFile() {
+		final BenchReport report = new BenchReport();
+		report.startRound();
+		assertEquals(0.0, report.endRound(TimeUnit.SECONDS.toNanos(1)), 0.0);
+		assertEquals("bench: 1 rounds, 0 files\n", report.format(0, 0, 0));
+	}
+}
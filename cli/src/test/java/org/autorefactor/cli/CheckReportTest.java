@@ -0,0 +1,37 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CheckReportTest {
+
+	@Test
+	public void testNoFile() {
+		final CheckReport report = new CheckReport(false);
+		assertTrue(report.isEmpty());
+		assertFalse(report.isDone());
+		assertEquals(0, report.printSummary());
+	}
+
+	@Test
+	public void testFiles() {
+		final CheckReport report = new CheckReport(false);
+		report.add("src/A.java", Arrays.asList("StringRefactoring"));
+		report.add("src/B.java", Arrays.asList("CollectionRefactoring", "StringRefactoring"));
+		assertFalse(report.isEmpty());
+		assertFalse(report.isDone());
+		assertEquals(CheckReport.EXIT_FILES_WOULD_CHANGE, report.printSummary());
+	}
+
+	@Test
+	public void testFailFast() {
+		final CheckReport report = new CheckReport(true);
+		assertFalse(report.isDone());
+		report.add("src/A.java", Arrays.asList("StringRefactoring"));
+		assertTrue(report.isDone());
+		assertEquals(CheckReport.EXIT_FILES_WOULD_CHANGE, report.printSummary());
+	}
+}
@@ -0,0 +1,103 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.environment.VisitorListener;
+import org.junit.Test;
+
+public class EventStreamTest {
+
+	@Test
+	public void testEventJson() {
+		final String json = new EventStream.Event("file_finished").put("path", "/p/src/A \"1\"\\.java\n")
+				.put("iterations", 2).put("changed", true).put("error", null)
+				.put("rules", Arrays.asList("A", "B")).toJson();
+		assertTrue(json, json.startsWith("{\"ts\":"));
+		assertTrue(json, json.endsWith(",\"event\":\"file_finished\",\"path\":\"/p/src/A \\\"1\\\"\\\\.java\\n\""
+				+ ",\"iterations\":2,\"changed\":true,\"rules\":[\"A\",\"B\"]}"));
+		final String control = new EventStream.Event("x").put("s", "\u0001").toJson();
+		assertTrue(control, control.endsWith(",\"event\":\"x\",\"s\":\"\\u0001\"}"));
+	}
+
+	@Test
+	public void testWritesLines() {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final EventStream stream = new EventStream(out, 16);
+		stream.emit(new EventStream.Event("a"));
+		stream.emit(new EventStream.Event("b").put("n", 1));
+		stream.shutdown(5, TimeUnit.SECONDS);
+		final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0], lines[0].endsWith("\"event\":\"a\"}"));
+		assertTrue(lines[1], lines[1].endsWith("\"event\":\"b\",\"n\":1}"));
+	}
+
+	@Test(timeout = 10000)
+	public void testDropsWhenDestinationIsSlow() throws Exception {
+		final CountDownLatch writing = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+			@Override
+			public synchronized void write(byte[] b, int off, int len) {
+				writing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.write(b, off, len);
+			}
+
+			@Override
+			public void flush() throws IOException {
+				writing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		final EventStream stream = new EventStream(out, 2);
+		stream.emit(new EventStream.Event("first"));
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+		// the writer is blocked, the queue holds 2 events
+		for (int i = 0; i < 10; i++) {
+			stream.emit(new EventStream.Event("e" + i));
+		}
+		release.countDown();
+		stream.shutdown(5, TimeUnit.SECONDS);
+		final String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(text, text.contains("\"event\":\"first\"}"));
+		assertTrue(text, text.contains("\"event\":\"e1\"}"));
+		assertFalse(text, text.contains("\"event\":\"e2\"}"));
+		assertTrue(text, text.contains("\"event\":\"events_dropped\",\"count\":8}"));
+	}
+
+	@Test
+	public void testReportsDisabledVisitors() throws Exception {
+		final File file = File.createTempFile("EventStreamTest", ".ndjson");
+		try {
+			EventStream.open(file.getPath());
+			VisitorListener.get().visitorDisabled("org.autorefactor.Rule", "faulty", new RuntimeException());
+			EventStream.close();
+			assertSame(VisitorListener.NONE, VisitorListener.get());
+
+			final String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+			assertTrue(text, text.contains(
+					"\"event\":\"visitor_disabled\",\"visitor\":\"org.autorefactor.Rule\",\"message\":\"faulty\"}"));
+		} finally {
+			EventStream.close();
+			file.delete();
+		}
+	}
+}
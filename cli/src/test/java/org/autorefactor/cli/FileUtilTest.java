@@ -0,0 +1,58 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class FileUtilTest {
+
+	@Test
+	public void testProjectEncoding() throws Exception {
+		final Path project = Files.createTempDirectory("FileUtilTest");
+		try {
+			Files.createDirectories(project.resolve(".settings"));
+			Files.write(project.resolve(".settings/org.eclipse.core.resources.prefs"),
+					"eclipse.preferences.version=1\nencoding/<project>=ISO-8859-1\n".getBytes(StandardCharsets.UTF_8));
+			final File file = project.resolve("src/A.java").toFile();
+			file.getParentFile().mkdirs();
+
+			assertEquals(StandardCharsets.ISO_8859_1, FileUtil.charset(file));
+			FileUtil.writeFile(file, "class Café {}");
+			assertEquals("class Café {}".length(), file.length());
+			assertEquals("class Café {}", FileUtil.readFile(file.getAbsolutePath()));
+
+			// only the renamed file is left
+			assertArrayEquals(new String[] { "A.java" }, file.getParentFile().list());
+		} finally {
+			deleteRecursively(project.toFile());
+		}
+	}
+
+	@Test
+	public void testMemoryMappedRead() throws Exception {
+		final File file = File.createTempFile("FileUtilTest", ".java");
+		try {
+			FileUtil.writeFile(file, "class A {}", StandardCharsets.UTF_8);
+			FileUtil.setMemoryMapThreshold(1);
+			assertEquals("class A {}", FileUtil.readFile(file, StandardCharsets.UTF_8));
+		} finally {
+			FileUtil.setMemoryMapThreshold(0);
+			file.delete();
+		}
+	}
+
+	private static void deleteRecursively(File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteRecursively(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,97 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.cli.HierarchicalDeltaDebug.Edit;
+import org.autorefactor.cli.HierarchicalDeltaDebug.Level;
+import org.autorefactor.cli.dd.DDMin.Result;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.Test;
+
+public class HierarchicalDeltaDebugTest {
+	private static final Map<String, String> JAVA_8 = compilerOptions(JavaCore.VERSION_1_8);
+
+	private static final String CODE = ""
+			+ "class A {\n"
+			+ "    int f;\n"
+			+ "    void a() {\n"
+			+ "        f = 1;\n"
+			+ "        if (f > 0) {\n"
+			+ "            f = 2;\n"
+			+ "            foo((f + 1) * 2);\n"
+			+ "        }\n"
+			+ "    }\n"
+			+ "    void b() {\n"
+			+ "        f = 3;\n"
+			+ "    }\n"
+			+ "}\n";
+
+	@Test
+	public void testCollectEdits() {
+		List<Edit> edits = HierarchicalDeltaDebug.collectEdits(HierarchicalDeltaDebug.parse(CODE, JAVA_8), CODE, Level.Statements, 0);
+		assertEquals(3, edits.size());
+		edits = HierarchicalDeltaDebug.collectEdits(HierarchicalDeltaDebug.parse(CODE, JAVA_8), CODE, Level.Statements, 1);
+		assertEquals(2, edits.size());
+		assertEquals(CODE.replace("            f = 2;\n", "            \n"),
+				HierarchicalDeltaDebug.apply(CODE, edits, edits.subList(1, 2)));
+		edits = HierarchicalDeltaDebug.collectEdits(HierarchicalDeltaDebug.parse(CODE, JAVA_8), CODE, Level.Statements, 2);
+		assertEquals(0, edits.size());
+	}
+
+	@Test
+	public void testReduce() {
+		final String reduced = HierarchicalDeltaDebug.reduce(CODE, JAVA_8, new DeltaDebugRefactor.TargetTest() {
+			@Override
+			public Result apply(String code) {
+				return code.contains("foo(") && HierarchicalDeltaDebug.parse(code, JAVA_8).getProblems().length == 0
+						? Result.Reproduced
+						: Result.NotReproduced;
+			}
+		}, 1);
+		assertEquals(""
+				+ "class A {\n"
+				+ "    \n"
+				+ "    void a() {\n"
+				+ "        \n"
+				+ "        if (f) {\n"
+				+ "            \n"
+				+ "            foo(f);\n"
+				+ "        }\n"
+				+ "    }\n"
+				+ "    \n"
+				+ "}\n", reduced);
+	}
+
+	@Test
+	public void testReduceWithProjectSourceLevel() {
+		final String code = ""
+				+ "class A {\n"
+				+ "    void a() {\n"
+				+ "        Runnable r = () -> foo();\n"
+				+ "        r.run();\n"
+				+ "    }\n"
+				+ "}\n";
+		assertEquals(0, HierarchicalDeltaDebug.parse(code, JAVA_8).getProblems().length);
+		assertTrue(HierarchicalDeltaDebug.parse(code, compilerOptions(JavaCore.VERSION_1_7)).getProblems().length > 0);
+
+		final String reduced = HierarchicalDeltaDebug.reduce(code, JAVA_8, new DeltaDebugRefactor.TargetTest() {
+			@Override
+			public Result apply(String candidate) {
+				return candidate.contains("-> foo()")
+						&& HierarchicalDeltaDebug.parse(candidate, JAVA_8).getProblems().length == 0
+						? Result.Reproduced
+						: Result.NotReproduced;
+			}
+		}, 1);
+		assertEquals(code.replace("        r.run();\n", "        \n"), reduced);
+	}
+
+	private static Map<String, String> compilerOptions(String sourceLevel) {
+		final Map<String, String> options = JavaCore.getOptions();
+		JavaCore.setComplianceOptions(sourceLevel, options);
+		return options;
+	}
+}
@@ -0,0 +1,162 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MavenResolverTest {
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File repository;
+	private File project;
+
+	@Before
+	public void setUp() throws IOException {
+		repository = tmp.newFolder("repository");
+		project = tmp.newFolder("project");
+	}
+
+	@Test
+	public void testTransitiveDependencies() throws IOException {
+		install("org.a", "a", "1.0", dependency("org.b", "b", "1.0") + dependency("org.c", "c", "1.0")
+				+ "<dependency><groupId>org.d</groupId><artifactId>d</artifactId><version>1.0</version>"
+				+ "<optional>true</optional></dependency>"
+				+ dependency("org.e", "e", "1.0", "test"));
+		install("org.b", "b", "1.0", dependency("org.c", "c", "2.0"));
+		install("org.c", "c", "1.0", "");
+		install("org.c", "c", "2.0", "");
+		install("org.d", "d", "1.0", "");
+		install("org.e", "e", "1.0", "");
+		final File pom = write(project, "pom.xml", pom("org.p", "p", "1",
+				"<properties><a.version>1.0</a.version></properties>"
+				+ "<dependencies>" + dependency("org.a", "a", "${a.version}") + "</dependencies>"));
+
+		final MavenResolver resolver = new MavenResolver(repository, false);
+		// nearest wins: c 1.0 is a dependency of a, c 2.0 of b
+		assertEquals(Arrays.asList(jar("org.a", "a", "1.0"), jar("org.b", "b", "1.0"), jar("org.c", "c", "1.0")),
+				resolver.resolveClasspath(resolver.readPom(pom)));
+	}
+
+	@Test
+	public void testParentManagementAndExclusions() throws IOException {
+		install("org.a", "a", "1.0", dependency("org.b", "b", "1.0") + dependency("org.c", "c", "1.0"));
+		install("org.b", "b", "1.0", "");
+		install("org.b", "b", "2.0", "");
+		install("org.c", "c", "1.0", "");
+		write(project, "pom.xml", pom("org.p", "parent", "1",
+				"<packaging>pom</packaging><modules><module>child</module></modules>"
+				+ "<properties><java.version>11</java.version><maven.compiler.release>${java.version}"
+				+ "</maven.compiler.release></properties>"
+				+ "<dependencyManagement><dependencies>" + dependency("org.a", "a", "1.0")
+				+ dependency("org.b", "b", "2.0") + "</dependencies></dependencyManagement>"));
+		final File child = write(new File(project, "child"), "pom.xml", "<project>"
+				+ "<parent><groupId>org.p</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+				+ "<artifactId>child</artifactId>"
+				+ "<build><sourceDirectory>src</sourceDirectory></build>"
+				+ "<dependencies><dependency><groupId>org.a</groupId><artifactId>a</artifactId>"
+				+ "<exclusions><exclusion><groupId>org.c</groupId><artifactId>*</artifactId></exclusion></exclusions>"
+				+ "</dependency></dependencies></project>");
+
+		final MavenResolver resolver = new MavenResolver(repository, false);
+		final MavenResolver.Pom pom = resolver.readPom(child);
+		assertEquals("org.p", pom.groupId);
+		assertEquals("1", pom.version);
+		assertEquals("11", pom.sourceLevel);
+		assertEquals("src", pom.sourceDirectory);
+		// the managed version of the parent applies to transitive dependencies
+		assertEquals(Arrays.asList(jar("org.a", "a", "1.0"), jar("org.b", "b", "2.0")),
+				resolver.resolveClasspath(pom));
+	}
+
+	@Test
+	public void testChildOverridesParentDependency() throws IOException {
+		install("org.a", "a", "1.0", "");
+		install("org.a", "a", "2.0", "");
+		write(project, "pom.xml", pom("org.p", "parent", "1",
+				"<packaging>pom</packaging><modules><module>child</module></modules>"
+				+ "<dependencies><dependency><groupId>org.a</groupId><artifactId>a</artifactId><version>1.0</version>"
+				+ "<scope>system</scope><systemPath>/no/such/a.jar</systemPath></dependency></dependencies>"));
+		final File child = write(new File(project, "child"), "pom.xml", "<project>"
+				+ "<parent><groupId>org.p</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+				+ "<artifactId>child</artifactId>"
+				+ "<dependencies>" + dependency("org.a", "a", "2.0", "test") + "</dependencies></project>");
+
+		final MavenResolver resolver = new MavenResolver(repository, false);
+		final MavenResolver.Pom pom = resolver.readPom(child);
+		assertEquals(1, pom.dependencies.size());
+		assertEquals("2.0", pom.dependencies.get(0).version);
+		assertEquals("test", pom.dependencies.get(0).scope);
+		assertEquals(Arrays.asList(jar("org.a", "a", "2.0")), resolver.resolveClasspath(pom));
+	}
+
+	@Test
+	public void testMissingDependenciesAndModules() throws IOException {
+		write(project, "pom.xml", pom("org.p", "parent", "1",
+				"<packaging>pom</packaging><modules><module>api</module><module>impl</module></modules>"));
+		write(new File(project, "api"), "pom.xml", "<project>"
+				+ "<parent><groupId>org.p</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+				+ "<artifactId>api</artifactId></project>");
+		final File classes = new File(project, "api/target/classes");
+		assertTrue(classes.mkdirs());
+		final File impl = write(new File(project, "impl"), "pom.xml", "<project>"
+				+ "<parent><groupId>org.p</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+				+ "<artifactId>impl</artifactId><dependencies>" + dependency("org.p", "api", "${project.version}")
+				+ dependency("org.missing", "missing", "1.0") + "</dependencies></project>");
+
+		final MavenResolver resolver = new MavenResolver(repository, false);
+		final List<File> classpath = resolver.resolveClasspath(resolver.readPom(impl));
+		assertEquals(1, classpath.size());
+		assertEquals(classes.getCanonicalFile(), classpath.get(0).getCanonicalFile());
+	}
+
+	@Test
+	public void testCompareVersions() {
+		assertTrue(MavenResolver.compareVersions("1.10", "1.9") > 0);
+		assertTrue(MavenResolver.compareVersions("2.0", "2.0.1") < 0);
+		assertEquals(0, MavenResolver.compareVersions("3.0", "3.0.0"));
+	}
+
+	private File jar(String groupId, String artifactId, String version) {
+		return new File(repository,
+				groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/" + artifactId + "-" + version + ".jar");
+	}
+
+	private void install(String groupId, String artifactId, String version, String dependencies) throws IOException {
+		final File dir = jar(groupId, artifactId, version).getParentFile();
+		write(dir, artifactId + "-" + version + ".pom",
+				pom(groupId, artifactId, version, "<dependencies>" + dependencies + "</dependencies>"));
+		write(dir, artifactId + "-" + version + ".jar", "");
+	}
+
+	private static String pom(String groupId, String artifactId, String version, String content) {
+		return "<project><modelVersion>4.0.0</modelVersion><groupId>" + groupId + "</groupId><artifactId>" + artifactId
+				+ "</artifactId><version>" + version + "</version>" + content + "</project>";
+	}
+
+	private static String dependency(String groupId, String artifactId, String version) {
+		return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId><version>"
+				+ version + "</version></dependency>";
+	}
+
+	private static String dependency(String groupId, String artifactId, String version, String scope) {
+		return dependency(groupId, artifactId, version).replace("</dependency>", "<scope>" + scope + "</scope></dependency>");
+	}
+
+	private static File write(File dir, String name, String content) throws IOException {
+		dir.mkdirs();
+		final File file = new File(dir, name);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -0,0 +1,92 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RefactorTest {
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("RefactorTest").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		deleteRecursively(dir);
+	}
+
+	@Test
+	public void testDisplayPath() {
+		final File root = new File(dir, "repo");
+		assertEquals("core/src/A.java", Refactor.displayPath(new File(root, "core/src/A.java"), root));
+		assertEquals("api/src/A.java", Refactor.displayPath(new File(root, "api/src/A.java"), root));
+		assertEquals("src/A.java", Refactor.displayPath(new File(root, "core/../core/src/A.java"), new File(root, "core")));
+	}
+
+	@Test
+	public void testDisplayPathOutsideWorkingDirectory() {
+		final File file = new File(dir, "other/src/A.java");
+		assertEquals(file.getAbsolutePath().replace(File.separatorChar, '/'),
+				Refactor.displayPath(file, new File(dir, "repo")));
+	}
+
+	@Test
+	public void testReserveProjectName() throws Exception {
+		final Set<String> projectNames = new HashSet<String>();
+		assertTrue(Refactor.reserveProjectName(eclipseProject("a", "core"), projectNames));
+		assertTrue(Refactor.reserveProjectName(eclipseProject("b", "api"), projectNames));
+		// same name as the first project, in another directory
+		assertFalse(Refactor.reserveProjectName(eclipseProject("c", "core"), projectNames));
+		// the .project file itself
+		assertFalse(Refactor.reserveProjectName(new File(eclipseProject("d", "api"), ".project"), projectNames));
+	}
+
+	@Test
+	public void testReserveProjectNameOfImportedProjects() throws Exception {
+		final File pom = new File(dir, "imported/pom.xml");
+		pom.getParentFile().mkdirs();
+		Files.write(pom.toPath(), "<project><artifactId>core</artifactId></project>".getBytes(StandardCharsets.UTF_8));
+		final Set<String> projectNames = new HashSet<String>();
+		// imported projects get unique names when imported
+		assertTrue(Refactor.reserveProjectName(pom.getParentFile(), projectNames));
+		assertTrue(projectNames.isEmpty());
+
+		// name of the imported project
+		projectNames.add("core");
+		assertFalse(Refactor.reserveProjectName(eclipseProject("a", "core"), projectNames));
+	}
+
+	private File eclipseProject(String dirName, String name) throws IOException {
+		final File projectDir = new File(dir, dirName);
+		projectDir.mkdirs();
+		Files.write(new File(projectDir, ".project").toPath(), ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<projectDescription>\n"
+				+ "\t<name>" + name + "</name>\n"
+				+ "\t<comment></comment>\n"
+				+ "\t<projects>\n"
+				+ "\t</projects>\n"
+				+ "</projectDescription>\n").getBytes(StandardCharsets.UTF_8));
+		return projectDir;
+	}
+
+	private static void deleteRecursively(File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteRecursively(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,53 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.autorefactor.refactoring.RefactoringRule;
+import org.autorefactor.refactoring.rules.AllRefactoringRules;
+import org.autorefactor.refactoring.rules.CollectionRefactoring;
+import org.autorefactor.refactoring.rules.StringRefactoring;
+import org.junit.Test;
+
+public class RulesTest {
+
+	@Test
+	public void testNewInstances() {
+		final List<RefactoringRule> rules = Arrays.<RefactoringRule>asList(
+				new StringRefactoring(), new CollectionRefactoring());
+		final List<RefactoringRule> copies = Rules.newInstances(rules);
+		assertEquals(rules.size(), copies.size());
+		for (int i = 0; i < rules.size(); i++) {
+			assertSame(rules.get(i).getClass(), copies.get(i).getClass());
+			assertNotSame(rules.get(i), copies.get(i));
+		}
+	}
+
+	@Test
+	public void testNewInstancesOfAllRules() {
+		final List<RefactoringRule> rules = AllRefactoringRules.getAllRefactoringRules();
+		final List<RefactoringRule> copies = Rules.newInstances(rules);
+		assertEquals(rules.size(), copies.size());
+		for (int i = 0; i < rules.size(); i++) {
+			assertSame(rules.get(i).getClass(), copies.get(i).getClass());
+			assertNotSame(rules.get(i), copies.get(i));
+		}
+	}
+
+	@Test
+	public void testNewInstancesOfSameRule() {
+		final StringRefactoring rule = new StringRefactoring();
+		final List<RefactoringRule> copies = Rules.newInstances(Arrays.<RefactoringRule>asList(rule, rule));
+		assertEquals(2, copies.size());
+		assertNotSame(rule, copies.get(0));
+		assertNotSame(rule, copies.get(1));
+		assertNotSame(copies.get(0), copies.get(1));
+	}
+
+	@Test
+	public void testNewInstancesOfNoRule() {
+		assertTrue(Rules.newInstances(Arrays.<RefactoringRule>asList()).isEmpty());
+	}
+}
@@ -0,0 +1,67 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class SourceDiscoveryTest {
+
+	@Test
+	public void testDiscover() throws Exception {
+		final Path repo = Files.createTempDirectory("SourceDiscoveryTest");
+		try {
+			Files.createDirectories(repo.resolve(".git"));
+			write(repo.resolve(".gitignore"), "# generated\n*.tmp\ngen/\n");
+			final Path src = repo.resolve("module/src");
+			write(src.resolve(".gitignore"), "org/b/Skip*.java\n!org/b/SkipNot.java\n");
+			for (String file : new String[] { "org/a/A.java", "org/a/ATest.java", "org/gen/G.java", "org/b/B.java",
+					"org/b/Skip1.java", "org/b/SkipNot.java", "org/b/B.tmp" }) {
+				write(src.resolve(file), "");
+			}
+
+			assertEquals(Arrays.asList("org/a/A.java", "org/a/ATest.java", "org/b/B.java", "org/b/SkipNot.java"),
+					SourceDiscovery.discover(src, Pattern.compile(".*"), Collections.emptyList(), name -> true, false));
+			assertEquals(Arrays.asList("org/a/ATest.java"),
+					SourceDiscovery.discover(src, Pattern.compile(".*"),
+							SourceDiscovery.compileGlobs(Arrays.asList("**/*Test.java")), name -> true, false));
+			assertEquals(Arrays.asList("org/b/SkipNot.java"),
+					SourceDiscovery.discover(src, Pattern.compile(".*/b/.*"), Collections.emptyList(),
+							name -> !name.equals("B.java"), false));
+		} finally {
+			deleteRecursively(repo.toFile());
+		}
+	}
+
+	@Test
+	public void testGitIgnoreRules() {
+		assertTrue(SourceDiscovery.Rule.parse("*.class").pattern.matcher("a/b/C.class").matches());
+		assertFalse(SourceDiscovery.Rule.parse("/build").pattern.matcher("a/build").matches());
+		assertTrue(SourceDiscovery.Rule.parse("a/**/Gen*.java").pattern.matcher("a/b/c/GenX.java").matches());
+		assertTrue(SourceDiscovery.Rule.parse("target/").directoryOnly);
+		assertTrue(SourceDiscovery.Rule.parse("!Keep.java").negated);
+		assertNull(SourceDiscovery.Rule.parse("# comment"));
+	}
+
+	private static void write(Path file, String content) throws Exception {
+		Files.createDirectories(file.getParent());
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void deleteRecursively(File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteRecursively(child);
+			}
+		}
+		file.delete();
+	}
+}
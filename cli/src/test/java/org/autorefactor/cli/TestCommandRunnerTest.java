@@ -0,0 +1,108 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCommandRunnerTest {
+	private Path dir;
+	private File starts;
+
+	@Before
+	public void setUp() throws Exception {
+		Assume.assumeTrue(new File("/bin/sh").canExecute());
+		dir = Files.createTempDirectory("TestCommandRunnerTest");
+		starts = dir.resolve("starts").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		if (dir != null) {
+			for (File file : dir.toFile().listFiles()) {
+				file.delete();
+			}
+			dir.toFile().delete();
+		}
+	}
+
+	@Test
+	public void testExitCodes() throws Exception {
+		final String command = script("grep -q keep \"$1\"");
+		try (TestCommandRunner runner = new TestCommandRunner(command, false, 0, false)) {
+			assertEquals(0, runner.run("class A { int keep; }"));
+			assertEquals(1, runner.run("class A { int drop; }"));
+			assertEquals(0, runner.run("class A { int keep; }"));
+		}
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		final String command = script("sleep 10");
+		try (TestCommandRunner runner = new TestCommandRunner(command, false, 200, false)) {
+			final long start = System.nanoTime();
+			assertEquals(TestCommandRunner.TIMEOUT_EXIT_CODE, runner.run("class A {}"));
+			assertTrue(System.nanoTime() - start < 5000000000L);
+		}
+	}
+
+	@Test
+	public void testOracleAnswers() throws Exception {
+		final String command = script("echo started >> '" + starts + "'\n"
+				+ "while read f; do\n"
+				+ "  if grep -q keep \"$f\"; then echo 0; else echo 1; fi\n"
+				+ "done");
+		try (TestCommandRunner runner = new TestCommandRunner(command, true, 5000, false)) {
+			assertEquals(0, runner.run("class A { int keep; }"));
+			assertEquals(1, runner.run("class A { int drop; }"));
+			assertEquals(0, runner.run("class A { int keep; }"));
+		}
+		assertEquals("one oracle for all the tests", 1, nbStarts());
+	}
+
+	@Test
+	public void testOracleRestartedAfterDying() throws Exception {
+		// answers once then exits
+		final String command = script("echo started >> '" + starts + "'\n"
+				+ "read f\n"
+				+ "echo 0");
+		try (TestCommandRunner runner = new TestCommandRunner(command, true, 5000, false)) {
+			assertEquals(0, runner.run("class A {}"));
+			assertEquals(TestCommandRunner.ERROR_EXIT_CODE, runner.run("class A {}"));
+			assertEquals(0, runner.run("class A {}"));
+		}
+		assertEquals(2, nbStarts());
+	}
+
+	@Test
+	public void testOracleTimeout() throws Exception {
+		final String command = script("echo started >> '" + starts + "'\n"
+				+ "while read f; do\n"
+				+ "  if grep -q slow \"$f\"; then sleep 10; fi\n"
+				+ "  echo 0\n"
+				+ "done");
+		try (TestCommandRunner runner = new TestCommandRunner(command, true, 200, false)) {
+			assertEquals(TestCommandRunner.TIMEOUT_EXIT_CODE, runner.run("class Slow { int slow; }"));
+			assertEquals(0, runner.run("class A {}"));
+		}
+		assertEquals(2, nbStarts());
+	}
+
+	private String script(String body) throws Exception {
+		final File file = Files.createTempFile(dir, "test", ".sh").toFile();
+		Files.write(file.toPath(), ("#!/bin/sh\n" + body + "\n").getBytes(StandardCharsets.UTF_8));
+		assertTrue(file.setExecutable(true));
+		return file.getAbsolutePath();
+	}
+
+	private int nbStarts() throws Exception {
+		return Files.readAllLines(starts.toPath(), StandardCharsets.UTF_8).size();
+	}
+}
@@ -0,0 +1,50 @@
+package org.autorefactor.cli;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class UnifiedDiffTest {
+
+	@Test
+	public void testEqual() {
+		assertEquals("", UnifiedDiff.diff("A.java", "class A {}\n", "class A {}\n"));
+	}
+
+	@Test
+	public void testHunks() {
+		final String original = "1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n13\n14\n15\n16\n";
+		final String revised = "1\n2\n3\nfour\n5\n6\n7\n8\n9\n10\n11\n12\n13\n15\n16\n17\n";
+		assertEquals(""
+				+ "--- a/src/A.java\n"
+				+ "+++ b/src/A.java\n"
+				+ "@@ -1,7 +1,7 @@\n"
+				+ " 1\n"
+				+ " 2\n"
+				+ " 3\n"
+				+ "-4\n"
+				+ "+four\n"
+				+ " 5\n"
+				+ " 6\n"
+				+ " 7\n"
+				+ "@@ -11,6 +11,6 @@\n"
+				+ " 11\n"
+				+ " 12\n"
+				+ " 13\n"
+				+ "-14\n"
+				+ " 15\n"
+				+ " 16\n"
+				+ "+17\n", UnifiedDiff.diff("src/A.java", original, revised));
+	}
+
+	@Test
+	public void testNoNewlineAtEndOfFile() {
+		assertEquals(""
+				+ "--- a/A.java\n"
+				+ "+++ b/A.java\n"
+				+ "@@ -1 +1 @@\n"
+				+ "-class A {}\n"
+				+ "\\ No newline at end of file\n"
+				+ "+class A {}\n", UnifiedDiff.diff("A.java", "class A {}", "class A {}\n"));
+	}
+}
@@ -0,0 +1,46 @@
+package org.autorefactor.cli.dd;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.autorefactor.cli.dd.DDMin.Result;
+import org.junit.Test;
+
+public class DDCheckpointTest {
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        final File file = File.createTempFile("DDCheckpointTest", "-ddmin-checkpoint");
+        try {
+            final TestOutcomeCache cache = new TestOutcomeCache();
+            cache.apply("class A {}", "rule1", () -> Result.Reproduced);
+            cache.apply("class B {}", "rule1", () -> Result.NotReproduced);
+
+            DDCheckpoint.save(file, "class A { int i; }", "Lines", "class A {}", Arrays.asList("rule1"), cache);
+
+            final DDCheckpoint checkpoint = DDCheckpoint.load(file, "class A { int i; }");
+            assertNotNull(checkpoint);
+            assertEquals("Lines", checkpoint.getPhase());
+            assertEquals("class A {}", checkpoint.getCode());
+            assertEquals(Arrays.asList("rule1"), checkpoint.getRules());
+            assertEquals(cache.getOutcomes(), checkpoint.getOutcomes());
+
+            final TestOutcomeCache restored = new TestOutcomeCache();
+            restored.restore(checkpoint.getOutcomes());
+            assertEquals(Result.NotReproduced, restored.apply("class B {}", "rule1", () -> Result.Unknown));
+            assertEquals(1, restored.getHits());
+
+            // the original code changed
+            assertNull(DDCheckpoint.load(file, "class A { long l; }"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testLoadMissing() throws Exception {
+        assertNull(DDCheckpoint.load(new File("does-not-exist-ddmin-checkpoint"), "class A {}"));
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import org.junit.Test;
@@ -38,4 +39,45 @@ public class DDMinTest {
         });
         assertEquals("[{, }]", String.valueOf(result));
     }
+
+    @Test
+    public void testParallelDDMin() {
+        String src = "{\na\nb\nc\nd\nx\ne\nf\n}\n";
+
+        for (int i = 0; i < 10; i++) {
+            List<String> code = new ArrayList(Arrays.asList(src.split("\n")));
+            List<String> result = DDMin.ddMin(code, 2, new DDMin.Predicate<String>() {
+                public DDMin.Result apply(List<String> code) {
+                    return code.contains("x") && code.contains("{") && code.contains("}") ? DDMin.Result.Reproduced : DDMin.Result.NotReproduced;
+                }
+            }, 4);
+            assertEquals("[{, x, }]", String.valueOf(result));
+
+            // several complements reproduce: the first one must win as in a sequential run
+            code = new ArrayList(Arrays.asList(src.split("\n")));
+            final DDMin.Predicate<String> eitherOne = new DDMin.Predicate<String>() {
+                public DDMin.Result apply(List<String> code) {
+                    return code.contains("a") || code.contains("f") ? DDMin.Result.Reproduced : DDMin.Result.NotReproduced;
+                }
+            };
+            assertEquals(DDMin.ddMin(code, 2, eitherOne), DDMin.ddMin(code, 2, eitherOne, 4));
+        }
+    }
+
+    @Test
+    public void testBitSetDDMin() {
+        final String src = "ab\ncxd\nef";
+        final BitSet newLines = new BitSet();
+        newLines.set(src.indexOf('\n'));
+        newLines.set(src.lastIndexOf('\n'));
+
+        final BitSet result = DDMin.ddMin(src.length(), 2, newLines, new DDMin.BitSetPredicate() {
+            public DDMin.Result apply(BitSet configuration) {
+                return configuration.get(src.indexOf('x')) ? DDMin.Result.Reproduced : DDMin.Result.NotReproduced;
+            }
+        }, 1);
+        final BitSet expected = (BitSet) newLines.clone();
+        expected.set(src.indexOf('x'));
+        assertEquals(expected, result);
+    }
 }
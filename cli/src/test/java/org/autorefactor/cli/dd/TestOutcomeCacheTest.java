@@ -0,0 +1,34 @@
+package org.autorefactor.cli.dd;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.autorefactor.cli.dd.DDMin.Result;
+import org.junit.Test;
+
+public class TestOutcomeCacheTest {
+
+    @Test
+    public void testCache() {
+        final TestOutcomeCache cache = new TestOutcomeCache();
+        final AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(Result.Reproduced, cache.apply("a", "rule1", () -> { runs.incrementAndGet(); return Result.Reproduced; }));
+        assertEquals(Result.Reproduced, cache.apply("a", "rule1", () -> { runs.incrementAndGet(); return Result.NotReproduced; }));
+        assertEquals(1, runs.get());
+
+        // other rules, other outcome
+        assertEquals(Result.NotReproduced, cache.apply("a", "rule2", () -> { runs.incrementAndGet(); return Result.NotReproduced; }));
+        assertEquals(2, runs.get());
+
+        // unknown outcomes are tested again
+        cache.apply("b", "rule1", () -> { runs.incrementAndGet(); return Result.Unknown; });
+        cache.apply("b", "rule1", () -> { runs.incrementAndGet(); return Result.Unknown; });
+        assertEquals(4, runs.get());
+
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals("tests: 5, cache hits: 1 (20%)", cache.toString());
+    }
+}
@@ -0,0 +1,94 @@
+package org.autorefactor.cli.index;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.Test;
+
+public class AstFeatureIndexTest {
+
+	@Test
+	public void testIncrementalUpdate() throws Exception {
+		final File root = Files.createTempDirectory("AstFeatureIndexTest").toFile();
+		try {
+			final List<File> roots = Arrays.asList(root);
+			final Map<String, String> options = compilerOptions(JavaCore.VERSION_1_8);
+			final File a = write(new File(root, "p/A.java"), "package p; class A { int foo; }", 1000000L);
+			final File b = write(new File(root, "p/B.java"), "package p; class B {}", 1000000L);
+			final AstFeatureIndex index = AstFeatureIndex.load(new File(root, "index"));
+
+			assertEquals(2, index.update(roots, StandardCharsets.UTF_8, options, false));
+			assertTrue(index.get(a).getSimpleNames().contains("foo"));
+
+			// same modification time and size: the file is not even read
+			assertEquals(0, index.update(roots, StandardCharsets.UTF_8, options, false));
+
+			// touched but unchanged: same hash
+			assertTrue(a.setLastModified(2000000L));
+			assertEquals(0, index.update(roots, StandardCharsets.UTF_8, options, false));
+			assertEquals(2000000L, index.get(a).lastModified);
+
+			// changed with the same size: other hash
+			write(a, "package p; class A { int bar; }", 3000000L);
+			assertEquals(1, index.update(roots, StandardCharsets.UTF_8, options, false));
+			assertTrue(index.get(a).getSimpleNames().contains("bar"));
+			assertFalse(index.get(a).getSimpleNames().contains("foo"));
+
+			// deleted
+			assertTrue(b.delete());
+			assertEquals(0, index.update(roots, StandardCharsets.UTF_8, options, false));
+			assertNull(index.get(b));
+			assertEquals(1, index.size());
+
+			// saved and loaded
+			index.save();
+			final AstFeatureIndex loaded = AstFeatureIndex.load(new File(root, "index"));
+			assertEquals(1, loaded.size());
+			assertEquals(0, loaded.update(roots, StandardCharsets.UTF_8, options, false));
+			assertTrue(loaded.get(a).getSimpleNames().contains("bar"));
+
+			// other source level
+			assertEquals(1, loaded.update(roots, StandardCharsets.UTF_8, compilerOptions(JavaCore.VERSION_1_7),
+					false));
+		} finally {
+			deleteRecursively(root);
+		}
+	}
+
+	@Test
+	public void testMayMatchUnknownFile() {
+		final AstFeatureIndex index = AstFeatureIndex.load(new File("does-not-exist.index"));
+		assertTrue(index.mayMatch(new File("Unknown.java"), new AstFeatureQuery().requireSimpleName("Vector")));
+	}
+
+	static Map<String, String> compilerOptions(String sourceLevel) {
+		final Map<String, String> options = new HashMap<String, String>();
+		JavaCore.setComplianceOptions(sourceLevel, options);
+		return options;
+	}
+
+	private static File write(File file, String content, long lastModified) throws Exception {
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		assertTrue(file.setLastModified(lastModified));
+		return file;
+	}
+
+	private static void deleteRecursively(File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteRecursively(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,78 @@
+package org.autorefactor.cli.index;
+
+import static org.junit.Assert.*;
+
+import org.autorefactor.cli.AstDumpArgs;
+import org.autorefactor.matcher.AstMatcher;
+import org.autorefactor.matcher.MatcherFeatures;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.Test;
+
+import com.beust.jcommander.JCommander;
+
+public class AstFeatureQueryTest {
+	private static final AstFeatures FEATURES = AstFeatures.compute(0, 0, new byte[0], ""
+			+ "package p;\n"
+			+ "import java.util.*;\n"
+			+ "import java.io.File;\n"
+			+ "class A {\n"
+			+ "    void m(List<File> files) {\n"
+			+ "        synchronized (this) {\n"
+			+ "            files.clear();\n"
+			+ "        }\n"
+			+ "    }\n"
+			+ "}\n", AstFeatureIndexTest.compilerOptions(JavaCore.VERSION_1_8));
+
+	@Test
+	public void testEmptyQuery() {
+		assertTrue(query().isEmpty());
+		assertTrue(query().mayMatch(FEATURES));
+	}
+
+	@Test
+	public void testRequireNode() {
+		assertTrue(query("--require-node", "SynchronizedStatement").mayMatch(FEATURES));
+		assertTrue(query("--require-node", "SynchronizedStatement", "--require-node", "MethodInvocation")
+				.mayMatch(FEATURES));
+		assertFalse(query("--require-node", "SynchronizedStatement", "--require-node", "WhileStatement")
+				.mayMatch(FEATURES));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRequireUnknownNode() {
+		query("--require-node", "NoSuchStatement");
+	}
+
+	@Test
+	public void testRequireName() {
+		assertTrue(query("--require-name", "clear").mayMatch(FEATURES));
+		assertTrue(query("--require-name", "files", "--require-name", "List").mayMatch(FEATURES));
+		assertFalse(query("--require-name", "clear", "--require-name", "Vector").mayMatch(FEATURES));
+	}
+
+	@Test
+	public void testRequireImport() {
+		assertTrue(query("--require-import", "java.io.File").mayMatch(FEATURES));
+		// on demand import
+		assertTrue(query("--require-import", "java.util.Vector").mayMatch(FEATURES));
+		assertFalse(query("--require-import", "java.io.Reader").mayMatch(FEATURES));
+	}
+
+	@Test
+	public void testRequireAll() {
+		final MatcherFeatures clear = MatcherFeatures.of(AstMatcher.methodInvocation().hasName("clear"));
+		assertTrue(new AstFeatureQuery().requireAll(clear).mayMatch(FEATURES));
+
+		final MatcherFeatures add = MatcherFeatures.of(AstMatcher.methodInvocation().hasName("add"));
+		assertFalse(new AstFeatureQuery().requireAll(add).mayMatch(FEATURES));
+
+		final MatcherFeatures whileLoop = MatcherFeatures.of(AstMatcher.whileStatement());
+		assertFalse(new AstFeatureQuery().requireAll(whileLoop).mayMatch(FEATURES));
+	}
+
+	private static AstFeatureQuery query(String... args) {
+		final AstDumpArgs dumpArgs = new AstDumpArgs();
+		JCommander.newBuilder().addObject(dumpArgs).build().parse(args);
+		return dumpArgs.getFeatureQuery();
+	}
+}
@@ -0,0 +1,39 @@
+package org.autorefactor.cfg;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Test;
+
+/**
+ * Builds the CFG of a long generated method.
+ *
+ * The time it takes is measured by the LongMethodCFGBuilderBenchmark of the benchmarks module.
+ */
+public class CFGBuilderLongMethodTest {
+    private static final int NB_LINES = 10000;
+
+    private final JavaProjectOptions options = CFGTestHelper.newJavaProjectOptions();
+
+    @Test
+    public void lineAndColumnAtEndOfMethod() throws Exception {
+        final String source = LongMethodSource.generate(NB_LINES);
+        final int lastIfPosition = source.lastIndexOf("if (");
+        final int lastIfLine = source.substring(0, lastIfPosition).split("\n", -1).length;
+
+        final String dot = new CFGDotPrinter().toDot(buildCFG(source, parse(source)).get(0));
+        assertTrue("last if statement should be at line " + lastIfLine + ", column 9",
+                dot.contains("\\n(" + lastIfLine + ",9)"));
+    }
+
+    private List<CFGBasicBlock> buildCFG(String source, CompilationUnit astRoot) {
+        return new CFGBuilder(source, options).buildCFG(astRoot);
+    }
+
+    private CompilationUnit parse(String source) throws Exception {
+        return CFGTestHelper.parse(LongMethodSource.FILE_NAME, source, options);
+    }
+}
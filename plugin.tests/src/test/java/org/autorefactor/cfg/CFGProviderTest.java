@@ -0,0 +1,135 @@
+package org.autorefactor.cfg;
+
+import static org.autorefactor.cfg.CFGTestHelper.exitBlock;
+import static org.autorefactor.cfg.CFGTestHelper.method;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+import org.junit.Test;
+
+public class CFGProviderTest {
+    private static final String SOURCE_BEFORE = ""
+            + "package org.autorefactor.cfg;\n"
+            + "public class ProviderSample {\n"
+            + "    public void changed(boolean b) {\n"
+            + "        int i = 0;\n"
+            + "    }\n"
+            + "    public void unchanged(boolean b) {\n"
+            + "        int i;\n"
+            + "        if (b) {\n"
+            + "            i = 0;\n"
+            + "        } else {\n"
+            + "            i = 1;\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n";
+    private static final String SOURCE_AFTER = SOURCE_BEFORE.replace(
+            "        int i = 0;\n", "        int i = 0;\n        i++;\n");
+
+    @Test
+    public void reuseUnchangedMethods() throws Exception {
+        final JavaProjectOptions options = CFGTestHelper.newJavaProjectOptions();
+        final CFGProvider provider = new CFGProvider(options);
+
+        final CompilationUnit astRootBefore = CFGTestHelper.parse("ProviderSample.java", SOURCE_BEFORE, options);
+        final MethodCFG changedBefore = provider.getCFG(method(astRootBefore, 0), SOURCE_BEFORE);
+        final MethodCFG unchangedBefore = provider.getCFG(method(astRootBefore, 1), SOURCE_BEFORE);
+        assertEquals(2, provider.getNbMisses());
+        assertFalse(unchangedBefore.isReused());
+        assertSame(unchangedBefore.getCFG(), provider.getCFG(method(astRootBefore, 1), SOURCE_BEFORE).getCFG());
+        assertEquals(1, provider.getNbHits());
+
+        final CompilationUnit astRootAfter = CFGTestHelper.parse("ProviderSample.java", SOURCE_AFTER, options);
+        final MethodCFG changedAfter = provider.getCFG(method(astRootAfter, 0), SOURCE_AFTER);
+        final MethodCFG unchangedAfter = provider.getCFG(method(astRootAfter, 1), SOURCE_AFTER);
+        assertEquals(3, provider.getNbMisses());
+        assertEquals(2, provider.getNbHits());
+        assertNotSame(changedBefore.getCFG(), changedAfter.getCFG());
+        assertSame(unchangedBefore.getCFG(), unchangedAfter.getCFG());
+        assertTrue(unchangedAfter.isReused());
+        assertSame(unchangedBefore.getDataFlow(), unchangedAfter.getDataFlow());
+    }
+
+    @Test
+    public void reusedDataFlowWithCurrentBindings() throws Exception {
+        final JavaProjectOptions options = CFGTestHelper.newJavaProjectOptions();
+        final CFGProvider provider = new CFGProvider(options);
+
+        final CompilationUnit astRootBefore = CFGTestHelper.parse("ProviderSample.java", SOURCE_BEFORE, options);
+        final VariableDataFlow dataFlow = provider.getCFG(method(astRootBefore, 1), SOURCE_BEFORE).getDataFlow();
+        final CompilationUnit astRootAfter = CFGTestHelper.parse("ProviderSample.java", SOURCE_AFTER, options);
+        final MethodCFG unchangedAfter = provider.getCFG(method(astRootAfter, 1), SOURCE_AFTER);
+        assertSame(dataFlow, unchangedAfter.getDataFlow());
+
+        final IVariableBinding iBefore = firstLocalVariable(method(astRootBefore, 1));
+        final IVariableBinding iAfter = firstLocalVariable(method(astRootAfter, 1));
+        assertNotSame(iBefore, iAfter);
+        assertEquals(dataFlow.getVariableIndex(iBefore), dataFlow.getVariableIndex(iAfter));
+        assertTrue(dataFlow.getVariableIndex(iAfter) != -1);
+        final int exit = exitBlock(unchangedAfter.getCFG());
+        assertEquals(2, dataFlow.getReachingDefinitions(exit, iAfter).size());
+        assertTrue(dataFlow.isDefinitelyAssignedIn(exit, iAfter));
+    }
+
+    @Test
+    public void evictSupersededGraphs() throws Exception {
+        final JavaProjectOptions options = CFGTestHelper.newJavaProjectOptions();
+        final CFGProvider provider = new CFGProvider(options);
+
+        final CompilationUnit astRoot1 = CFGTestHelper.parse("ProviderSample.java", SOURCE_BEFORE, options);
+        provider.getCFG(method(astRoot1, 0), SOURCE_BEFORE);
+        provider.getCFG(method(astRoot1, 1), SOURCE_BEFORE);
+        assertEquals(2, provider.getNbEntries());
+
+        final CompilationUnit astRoot2 = CFGTestHelper.parse("ProviderSample.java", SOURCE_AFTER, options);
+        provider.getCFG(method(astRoot2, 0), SOURCE_AFTER);
+        provider.getCFG(method(astRoot2, 1), SOURCE_AFTER);
+        // the graph of the previous source of the changed method is kept for one more AST
+        assertEquals(3, provider.getNbEntries());
+
+        final CompilationUnit astRoot3 = CFGTestHelper.parse("ProviderSample.java", SOURCE_AFTER, options);
+        final MethodCFG changed = provider.getCFG(method(astRoot3, 0), SOURCE_AFTER);
+        final MethodCFG unchanged = provider.getCFG(method(astRoot3, 1), SOURCE_AFTER);
+        assertEquals(2, provider.getNbEntries());
+        assertSame(astRoot2, changed.getCFG().getBlock(0).getNode().getRoot());
+        assertSame(astRoot1, unchanged.getCFG().getBlock(0).getNode().getRoot());
+        assertEquals(3, provider.getNbMisses());
+        assertEquals(3, provider.getNbHits());
+    }
+
+    @Test
+    public void toCurrentNode() throws Exception {
+        final JavaProjectOptions options = CFGTestHelper.newJavaProjectOptions();
+        final CFGProvider provider = new CFGProvider(options);
+
+        final CompilationUnit astRootBefore = CFGTestHelper.parse("ProviderSample.java", SOURCE_BEFORE, options);
+        provider.getCFG(method(astRootBefore, 1), SOURCE_BEFORE);
+        final CompilationUnit astRootAfter = CFGTestHelper.parse("ProviderSample.java", SOURCE_AFTER, options);
+        final MethodCFG unchangedAfter = provider.getCFG(method(astRootAfter, 1), SOURCE_AFTER);
+
+        final CompactCFG cfg = unchangedAfter.getCFG();
+        for (int b = 0; b < cfg.getNbBlocks(); b++) {
+            final ASTNode cachedNode = cfg.getBlock(b).getNode();
+            assertSame(astRootBefore, cachedNode.getRoot());
+            final ASTNode currentNode = unchangedAfter.toCurrentNode(cachedNode);
+            assertSame(astRootAfter, currentNode.getRoot());
+            assertEquals(cachedNode.getNodeType(), currentNode.getNodeType());
+            assertEquals(cachedNode.toString(), currentNode.toString());
+        }
+    }
+
+    private IVariableBinding firstLocalVariable(MethodDeclaration method) {
+        final VariableDeclarationStatement stmt = (VariableDeclarationStatement) method.getBody().statements().get(0);
+        return ((VariableDeclarationFragment) stmt.fragments().get(0)).resolveBinding();
+    }
+}
@@ -0,0 +1,86 @@
+package org.autorefactor.cfg;
+
+import java.lang.reflect.Method;
+
+import org.autorefactor.refactoring.ApplyRefactoringsJob;
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.autorefactor.refactoring.JavaProjectOptionsImpl;
+import org.autorefactor.refactoring.Release;
+import org.autorefactor.refactoring.rules.JavaCoreHelper;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+/** Parses generated sources with bindings, as needed by {@link CFGBuilder}, and finds blocks in the built CFGs. */
+final class CFGTestHelper {
+    private CFGTestHelper() {
+    }
+
+    static JavaProjectOptions newJavaProjectOptions() {
+        final JavaProjectOptionsImpl options = new JavaProjectOptionsImpl();
+        options.setJavaSERelease(Release.javaSE("1.8"));
+        options.setTabSize(4);
+        return options;
+    }
+
+    /**
+     * Creates a compilation unit in the test project and parses it with bindings.
+     *
+     * @param fileName the compilation unit file name
+     * @param javaSource the compilation unit source
+     * @param options the java project options
+     * @return the parsed compilation unit
+     */
+    static CompilationUnit parse(String fileName, String javaSource, JavaProjectOptions options) throws Exception {
+        final IPackageFragment packageFragment = JavaCoreHelper.getPackageFragment("org.autorefactor.cfg");
+        final ICompilationUnit cu = packageFragment.createCompilationUnit(fileName, javaSource, true, null);
+        cu.getBuffer().setContents(javaSource);
+        cu.save(null, true);
+
+        final ASTParser parser = ASTParser.newParser(AST.JLS8);
+        final Method m = ApplyRefactoringsJob.class.getDeclaredMethod(
+                "resetParser", ICompilationUnit.class, ASTParser.class, JavaProjectOptions.class);
+        m.setAccessible(true);
+        m.invoke(null, cu, parser, options);
+        return (CompilationUnit) parser.createAST(null);
+    }
+
+    /**
+     * Parses the provided source and builds the compact CFG of its first method.
+     *
+     * @param fileName the compilation unit file name
+     * @param javaSource the compilation unit source
+     * @return the compact CFG of the first method of the first type
+     */
+    static CompactCFG buildCompactCFG(String fileName, String javaSource) throws Exception {
+        final JavaProjectOptions options = newJavaProjectOptions();
+        final CompilationUnit astRoot = parse(fileName, javaSource, options);
+        return new CFGBuilder(javaSource, options).buildCompactCFG(method(astRoot, 0));
+    }
+
+    static MethodDeclaration method(CompilationUnit astRoot, int index) {
+        return ((TypeDeclaration) astRoot.types().get(0)).getMethods()[index];
+    }
+
+    static int block(CompactCFG cfg, String codeExcerpt) {
+        for (int b = 0; b < cfg.getNbBlocks(); b++) {
+            if (codeExcerpt.equals(cfg.getBlock(b).getCodeExcerpt())) {
+                return b;
+            }
+        }
+        throw new AssertionError("No block for code excerpt " + codeExcerpt);
+    }
+
+    static int exitBlock(CompactCFG cfg) {
+        for (int b = 0; b < cfg.getNbBlocks(); b++) {
+            if (cfg.isExitBlock(b)) {
+                return b;
+            }
+        }
+        throw new AssertionError("No exit block");
+    }
+}
@@ -0,0 +1,122 @@
+package org.autorefactor.cfg;
+
+import static org.autorefactor.cfg.CFGTestHelper.block;
+import static org.autorefactor.cfg.CFGTestHelper.buildCompactCFG;
+import static org.autorefactor.cfg.CFGTestHelper.exitBlock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.autorefactor.cfg.CodePathCollector.CodePathVisitor;
+import org.autorefactor.cfg.CodePathCollector.PathIterator;
+import org.junit.Test;
+
+public class CodePathCollectorTest {
+    private static final String SOURCE = ""
+            + "package org.autorefactor.cfg;\n"
+            + "public class PathSample {\n"
+            + "    public void sample(boolean b) {\n"
+            + "        int i;\n"
+            + "        int j = 0;\n"
+            + "        if (b) {\n"
+            + "            i = 1;\n"
+            + "        } else {\n"
+            + "            i = 2;\n"
+            + "        }\n"
+            + "        j = i;\n"
+            + "    }\n"
+            + "}\n";
+
+    @Test
+    public void visitPaths() throws Exception {
+        final CompactCFG cfg = buildCompactCFG("PathSample.java", SOURCE);
+        final int[] nbPaths = new int[1];
+        final boolean complete = new CodePathCollector().visitPaths(cfg, new CodePathVisitor() {
+            public boolean visitPath(List<CFGBasicBlock> path) {
+                assertTrue(path.get(0).isEntryBlock());
+                assertTrue(path.get(path.size() - 1).isExitBlock());
+                nbPaths[0]++;
+                return true;
+            }
+        });
+        assertTrue(complete);
+        assertEquals(2, nbPaths[0]);
+    }
+
+    @Test
+    public void straightLinePathLength() throws Exception {
+        final CompactCFG cfg = buildCompactCFG("StraightLineSample.java", ""
+                + "package org.autorefactor.cfg;\n"
+                + "public class StraightLineSample {\n"
+                + "    public void sample() {\n"
+                + "        int i = 0;\n"
+                + "        i++;\n"
+                + "    }\n"
+                + "}\n");
+        final PathIterator it = new CodePathCollector().iterator(cfg);
+        assertTrue(it.hasNext());
+        final List<CFGBasicBlock> path = it.next();
+        assertFalse(it.hasNext());
+        // the entry block, a block per statement and the exit block
+        assertEquals(4, path.size());
+        assertTrue(path.get(0).isEntryBlock());
+        assertTrue(path.get(3).isExitBlock());
+
+        // the exit block counts in the path length
+        assertTrue(new CodePathCollector(Integer.MAX_VALUE, 4).iterator(cfg).hasNext());
+        final PathIterator tooShort = new CodePathCollector(Integer.MAX_VALUE, 3).iterator(cfg);
+        assertFalse(tooShort.hasNext());
+        assertTrue(tooShort.isPathLengthLimitReached());
+    }
+
+    @Test
+    public void capPathCount() throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("package org.autorefactor.cfg;\n");
+        sb.append("public class ManyPathsSample {\n");
+        sb.append("    public int sample(int flags) {\n");
+        sb.append("        int i = 0;\n");
+        for (int n = 0; n < 30; n++) {
+            sb.append("        if ((flags & ").append(1 << n).append(") != 0) {\n");
+            sb.append("            i++;\n");
+            sb.append("        }\n");
+        }
+        sb.append("        return i;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        final CompactCFG cfg = buildCompactCFG("ManyPathsSample.java", sb.toString());
+
+        final PathIterator it = new CodePathCollector(1000, Integer.MAX_VALUE).iterator(cfg);
+        while (it.hasNext()) {
+            it.next();
+        }
+        assertEquals(1000, it.getNbPaths());
+        assertTrue(it.isPathCountLimitReached());
+        assertFalse(it.isPathLengthLimitReached());
+
+        final PathIterator shortPaths = new CodePathCollector(Integer.MAX_VALUE, 10).iterator(cfg);
+        assertFalse(shortPaths.hasNext());
+        assertTrue(shortPaths.isPathLengthLimitReached());
+    }
+
+    @Test
+    public void reaches() throws Exception {
+        final CompactCFG cfg = buildCompactCFG("PathSample.java", SOURCE);
+        final int entry = 0;
+        final int exit = exitBlock(cfg);
+        final int condition = block(cfg, "if (b) {");
+        final int thenBlock = block(cfg, "i=1;");
+        final int elseBlock = block(cfg, "i=2;");
+        final int join = block(cfg, "j=i;");
+
+        assertTrue(CodePathCollector.reaches(cfg, thenBlock, join));
+        assertTrue(CodePathCollector.reaches(cfg, condition, join, thenBlock));
+        assertFalse(CodePathCollector.reaches(cfg, condition, join, thenBlock, elseBlock));
+        assertFalse(CodePathCollector.reaches(cfg, thenBlock, elseBlock));
+        assertTrue(CodePathCollector.isOnAllPaths(cfg, entry, exit, condition));
+        assertTrue(CodePathCollector.isOnAllPaths(cfg, entry, exit, join));
+        assertFalse(CodePathCollector.isOnAllPaths(cfg, entry, exit, thenBlock));
+    }
+}
@@ -0,0 +1,124 @@
+package org.autorefactor.cfg;
+
+import static org.autorefactor.cfg.CFGTestHelper.buildCompactCFG;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.ThrowStatement;
+import org.junit.Test;
+
+public class CompactCFGTest {
+    private static final String SOURCE = ""
+            + "package org.autorefactor.cfg;\n"
+            + "public class CompactSample {\n"
+            + "    public void sample(boolean b1, boolean b2) {\n"
+            + "        int i;\n"
+            + "        if (b1) {\n"
+            + "            i = 0;\n"
+            + "        } else if (b2) {\n"
+            + "            throw new IllegalStateException();\n"
+            + "        } else {\n"
+            + "            throw new IllegalStateException();\n"
+            + "        }\n"
+            + "        while (i < 10) {\n"
+            + "            i++;\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n";
+
+    @Test
+    public void adjacency() throws Exception {
+        final CompactCFG cfg = buildCompactCFG("CompactSample.java", SOURCE);
+
+        assertTrue(cfg.isEntryBlock(0));
+        assertEquals(0, cfg.getNbIncomingEdges(0));
+        int nbExitBlocks = 0;
+        for (int b = 0; b < cfg.getNbBlocks(); b++) {
+            if (b > 0) {
+                assertTrue("blocks should be in source order",
+                        cfg.getStartPosition(b - 1) <= cfg.getStartPosition(b));
+            }
+            if (cfg.isExitBlock(b)) {
+                nbExitBlocks++;
+                assertEquals(cfg.getFirstOutgoingEdge(b), cfg.getEndOutgoingEdge(b));
+            }
+            assertEquals(b, cfg.getBlockId(cfg.getBlock(b)));
+            for (int e = cfg.getFirstOutgoingEdge(b); e < cfg.getEndOutgoingEdge(b); e++) {
+                assertEquals(b, cfg.getSource(e));
+                assertTrue("edge " + e + " should be an incoming edge of its target", isIncomingEdge(cfg, e));
+                if (e > cfg.getFirstOutgoingEdge(b)) {
+                    assertTrue("outgoing edges should be sorted by target", cfg.getTarget(e - 1) <= cfg.getTarget(e));
+                }
+            }
+            for (int i = 0; i < cfg.getNbIncomingEdges(b); i++) {
+                assertEquals(b, cfg.getTarget(cfg.getIncomingEdge(b, i)));
+            }
+        }
+        assertEquals(1, nbExitBlocks);
+        assertEquals(cfg.getNbEdges(), cfg.getEndOutgoingEdge(cfg.getNbBlocks() - 1));
+    }
+
+    @Test
+    public void conditionalEdges() throws Exception {
+        final CompactCFG cfg = buildCompactCFG("CompactSample.java", SOURCE);
+
+        int nbTrue = 0;
+        int nbFalse = 0;
+        for (int e = 0; e < cfg.getNbEdges(); e++) {
+            if (cfg.isConditional(e)) {
+                // loop conditions are not decision blocks, only their edges are conditional
+                assertNotNull(cfg.getCondition(e));
+                if (cfg.getEvaluationResult(e)) {
+                    nbTrue++;
+                } else {
+                    nbFalse++;
+                }
+            } else {
+                assertEquals(null, cfg.getCondition(e));
+            }
+        }
+        // two if statements and one while loop
+        assertEquals(3, nbTrue);
+        assertEquals(3, nbFalse);
+    }
+
+    @Test
+    public void internedExceptionTypes() throws Exception {
+        final CompactCFG cfg = buildCompactCFG("CompactSample.java", SOURCE);
+
+        assertEquals(ExceptionTypeSets.EMPTY, cfg.getThrownTypes(0));
+        int throwingSet = -1;
+        int nbThrowingBlocks = 0;
+        for (int b = 0; b < cfg.getNbBlocks(); b++) {
+            if (cfg.getBlock(b).getNode() instanceof ThrowStatement) {
+                nbThrowingBlocks++;
+                if (throwingSet == -1) {
+                    throwingSet = cfg.getThrownTypes(b);
+                }
+                assertEquals("blocks throwing the same exceptions should share the same set",
+                        throwingSet, cfg.getThrownTypes(b));
+            }
+        }
+        assertEquals(2, nbThrowingBlocks);
+        assertFalse(throwingSet == ExceptionTypeSets.EMPTY);
+        final ExceptionTypeSets sets = cfg.getExceptionTypeSets();
+        assertEquals(1, sets.size(throwingSet));
+        final ITypeBinding thrownType = sets.getTypes(throwingSet)[0];
+        assertEquals("java.lang.IllegalStateException", thrownType.getQualifiedName());
+        assertTrue(sets.contains(throwingSet, thrownType));
+        assertFalse(sets.contains(ExceptionTypeSets.EMPTY, thrownType));
+    }
+
+    private boolean isIncomingEdge(CompactCFG cfg, int edge) {
+        final int target = cfg.getTarget(edge);
+        for (int i = 0; i < cfg.getNbIncomingEdges(target); i++) {
+            if (cfg.getIncomingEdge(target, i) == edge) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package org.autorefactor.cfg;
+
+import static org.autorefactor.cfg.CFGTestHelper.block;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VariableDataFlowTest {
+    private static final String SOURCE = ""
+            + "package org.autorefactor.cfg;\n"
+            + "public class DataFlowSample {\n"
+            + "    public void sample(boolean b) {\n"
+            + "        int i;\n"
+            + "        int j = 0;\n"
+            + "        if (b) {\n"
+            + "            i = 1;\n"
+            + "        } else {\n"
+            + "            i = 2;\n"
+            + "        }\n"
+            + "        j = i;\n"
+            + "    }\n"
+            + "}\n";
+
+    private CompactCFG cfg;
+    private VariableDataFlow dataFlow;
+    private IVariableBinding i;
+    private IVariableBinding j;
+
+    @Before
+    public void setUp() throws Exception {
+        cfg = CFGTestHelper.buildCompactCFG("DataFlowSample.java", SOURCE);
+        dataFlow = VariableDataFlow.of(cfg);
+        i = variable("i");
+        j = variable("j");
+    }
+
+    @Test
+    public void liveness() throws Exception {
+        assertTrue(dataFlow.isLiveOut(block(cfg, "i=1;"), i));
+        assertTrue(dataFlow.isLiveOut(block(cfg, "i=2;"), i));
+        assertTrue(dataFlow.getLiveIn(block(cfg, "j=i;")).get(dataFlow.getVariableIndex(i)));
+        assertFalse("j is overwritten before being read", dataFlow.isLiveOut(block(cfg, "if (b) {"), j));
+        assertFalse(dataFlow.isLiveOut(block(cfg, "j=i;"), j));
+    }
+
+    @Test
+    public void reachingDefinitions() throws Exception {
+        assertEquals(2, dataFlow.getReachingDefinitions(block(cfg, "j=i;"), i).size());
+        assertEquals(1, dataFlow.getReachingDefinitions(block(cfg, "j=i;"), j).size());
+        assertEquals(0, dataFlow.getReachingDefinitions(block(cfg, "if (b) {"), i).size());
+    }
+
+    @Test
+    public void definiteAssignment() throws Exception {
+        assertFalse(dataFlow.isDefinitelyAssignedIn(block(cfg, "if (b) {"), i));
+        assertTrue(dataFlow.isDefinitelyAssignedIn(block(cfg, "if (b) {"), j));
+        assertFalse(dataFlow.isDefinitelyAssignedIn(block(cfg, "i=2;"), i));
+        assertTrue(dataFlow.isDefinitelyAssignedIn(block(cfg, "j=i;"), i));
+    }
+
+    private IVariableBinding variable(String name) {
+        for (int v = 0; v < dataFlow.getNbVariables(); v++) {
+            if (name.equals(dataFlow.getVariable(v).getName())) {
+                return dataFlow.getVariable(v);
+            }
+        }
+        throw new AssertionError("No variable named " + name);
+    }
+}
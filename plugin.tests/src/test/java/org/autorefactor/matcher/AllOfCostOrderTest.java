@@ -0,0 +1,90 @@
+package org.autorefactor.matcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.autorefactor.matcher.AstMatcher.BoundNodesBuilder;
+import org.autorefactor.matcher.AstMatcher.Matcher;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.junit.Test;
+
+public class AllOfCostOrderTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    private <T extends ASTNode> Matcher<T> recording(String id, int cost, boolean reorderable, boolean result) {
+        return new Matcher<T>() {
+            @Override
+            public boolean match(ASTNode t, BoundNodesBuilder bounds) {
+                calls.add(id);
+                return result;
+            }
+
+            @Override
+            public int cost() {
+                return cost;
+            }
+
+            @Override
+            public boolean isReorderable() {
+                return reorderable;
+            }
+        };
+    }
+
+    private static SimpleName node() {
+        return node("foo");
+    }
+
+    private static SimpleName node(String identifier) {
+        return AST.newAST(AST.JLS8).newSimpleName(identifier);
+    }
+
+    @Test
+    public void cheapCheckRejectsBeforeBindingResolution() {
+        Matcher<ASTNode> m = AstMatcher.allOf(
+                recording("binding", Matcher.COST_BINDING, true, true),
+                recording("name", Matcher.COST_CHEAP, true, false));
+
+        assertFalse(m.match(node(), new BoundNodesBuilder()));
+        assertEquals(Arrays.asList("name"), calls);
+    }
+
+    @Test
+    public void nonReorderableMatchersKeepDeclarationOrder() {
+        Matcher<ASTNode> m = AstMatcher.allOf(
+                recording("bind2", Matcher.COST_STRUCTURAL, false, true),
+                recording("bind1", Matcher.COST_CHEAP, false, true),
+                recording("binding", Matcher.COST_BINDING, true, true),
+                recording("name", Matcher.COST_CHEAP, true, true));
+
+        assertTrue(m.match(node(), new BoundNodesBuilder()));
+        assertEquals(Arrays.asList("name", "bind2", "bind1", "binding"), calls);
+    }
+
+    @Test
+    public void generatedMatchersCheckNameBeforeDeclaringClass() {
+        // probes around the generated predicates, declared in the worst order:
+        // the identifier check must run before "structural", the binding check between both probes
+        Matcher<SimpleName> m = AstMatcher.simpleName()
+                .that(this.<SimpleName> recording("expensive", Matcher.COST_BINDING + 1, true, true))
+                .hasDeclaringClass("java.util.Vector")
+                .that(this.<SimpleName> recording("structural", Matcher.COST_STRUCTURAL, true, true))
+                .hasIdentifier("foo");
+
+        // the identifier does not match: no other sub-matcher runs
+        assertFalse(m.match(node("bar"), new BoundNodesBuilder()));
+        assertTrue(calls.toString(), calls.isEmpty());
+
+        // the identifier matches, then the unresolved declaring class rejects the node before "expensive"
+        assertFalse(m.match(node("foo"), new BoundNodesBuilder()));
+        assertEquals(Arrays.asList("structural"), calls);
+    }
+}
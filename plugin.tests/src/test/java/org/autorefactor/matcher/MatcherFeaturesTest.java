@@ -0,0 +1,71 @@
+package org.autorefactor.matcher;
+
+import static org.autorefactor.matcher.AstMatcher.allOf;
+import static org.autorefactor.matcher.AstMatcher.anyOf;
+import static org.autorefactor.matcher.AstMatcher.descendant;
+import static org.autorefactor.matcher.AstMatcher.expressionStatement;
+import static org.autorefactor.matcher.AstMatcher.methodInvocation;
+import static org.autorefactor.matcher.AstMatcher.simpleName;
+import static org.autorefactor.matcher.AstMatcher.unless;
+import static org.autorefactor.matcher.AstMatcher.whileStatement;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ExpressionStatement;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.WhileStatement;
+import org.junit.Test;
+
+public class MatcherFeaturesTest {
+
+    @Test
+    public void nodeClassesAndIdentifiersOfSubMatchers() {
+        final MatcherFeatures features = MatcherFeatures.of(
+                expressionStatement().hasExpression(
+                        methodInvocation().hasName("add").hasExpression(simpleName().hasIdentifier("list"))));
+
+        assertEquals(set(ExpressionStatement.class, MethodInvocation.class, SimpleName.class),
+                features.getNodeClasses());
+        assertEquals(set("add", "list"), features.getIdentifiers());
+    }
+
+    @Test
+    public void allOfAndDescendantContribute() {
+        final MatcherFeatures features = MatcherFeatures.of(
+                allOf(whileStatement(), descendant(simpleName().hasIdentifier("i"))));
+
+        assertEquals(set(WhileStatement.class, SimpleName.class), features.getNodeClasses());
+        assertEquals(set("i"), features.getIdentifiers());
+    }
+
+    @Test
+    public void alternativesAndNegationsDoNotContribute() {
+        assertTrue(MatcherFeatures.of(
+                anyOf(simpleName().hasIdentifier("a"), simpleName().hasIdentifier("b"))).isEmpty());
+        assertTrue(MatcherFeatures.of(unless(simpleName().hasIdentifier("a"))).isEmpty());
+
+        final MatcherFeatures features = MatcherFeatures.of(
+                whileStatement().hasExpression(unless(simpleName().hasIdentifier("a"))));
+        assertEquals(set(WhileStatement.class), features.getNodeClasses());
+        assertTrue(features.getIdentifiers().isEmpty());
+    }
+
+    @Test
+    public void abstractNodeClassesAreIgnored() {
+        final MatcherFeatures features = new MatcherFeatures();
+        features.addNodeClass(Expression.class);
+        features.addIdentifier(null);
+
+        assertTrue(features.isEmpty());
+    }
+
+    @SafeVarargs
+    private static <T> LinkedHashSet<T> set(T... elements) {
+        return new LinkedHashSet<>(Arrays.asList(elements));
+    }
+}
@@ -0,0 +1,34 @@
+package org.autorefactor.cfg;
+
+/**
+ * Generates the source of a long method, shared by the CFG tests and the benchmarks module.
+ */
+public final class LongMethodSource {
+    /** The name of the generated compilation unit. */
+    public static final String FILE_NAME = "LongMethodSample.java";
+
+    private LongMethodSource() {
+    }
+
+    /**
+     * Generates a class with one void method spanning about the provided number of lines,
+     * made of if statements so that each one starts new basic blocks.
+     *
+     * @param nbLines the number of lines of the generated method
+     * @return the source of the class
+     */
+    public static String generate(int nbLines) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("package org.autorefactor.cfg;\n");
+        sb.append("public class LongMethodSample {\n");
+        sb.append("    public void sample(int i) {\n");
+        for (int line = 3; line + 3 <= nbLines; line += 3) {
+            sb.append("        if (i > ").append(line).append(") {\n");
+            sb.append("            i++;\n");
+            sb.append("        }\n");
+        }
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.BitSet;
+
+/**
+ * Worklist based solver for bit vector dataflow problems over a {@link CompactCFG}.
+ * <p>
+ * A problem is described by:
+ * <ul>
+ * <li>its direction: forward problems flow from the entry block along the edges,
+ * backward problems flow from the exit block against the edges,</li>
+ * <li>its meet operator: union for "may" problems, intersection for "must" problems,</li>
+ * <li>a gen set and a kill set per block, the transfer function being
+ * {@code out = gen | (in & ~kill)} (in and out being swapped for backward problems),</li>
+ * <li>the value at the boundary: at the entry block for forward problems,
+ * at the exit block for backward problems.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Blocks are first visited in id order (source order) for forward problems
+ * and in reverse id order for backward problems, which makes the solver converge
+ * in a couple of passes on structured code.
+ * A block is only visited again when the value flowing into it changed.
+ * </p>
+ */
+public final class BitVectorDataFlow {
+    /** The direction of a dataflow problem. */
+    public enum Direction {
+        /** Values flow from the entry block along the edges. */
+        FORWARD,
+        /** Values flow from the exit block against the edges. */
+        BACKWARD
+    }
+
+    /** The meet operator of a dataflow problem. */
+    public enum Meet {
+        /** For "may" problems: a fact holds if it holds on any path. */
+        UNION,
+        /** For "must" problems: a fact holds if it holds on all paths. */
+        INTERSECTION
+    }
+
+    private final BitSet[] in;
+    private final BitSet[] out;
+    private final int nbBlockVisits;
+
+    private BitVectorDataFlow(BitSet[] in, BitSet[] out, int nbBlockVisits) {
+        this.in = in;
+        this.out = out;
+        this.nbBlockVisits = nbBlockVisits;
+    }
+
+    /**
+     * Solves the provided dataflow problem.
+     *
+     * @param cfg the control flow graph
+     * @param direction the direction of the problem
+     * @param meet the meet operator of the problem
+     * @param universeSize the number of bits of the problem
+     * @param gen the bits generated by each block, indexed by block id
+     * @param kill the bits killed by each block, indexed by block id
+     * @param boundary the value entering the entry block (forward)
+     *            or leaving the exit block (backward)
+     * @return the solution of the dataflow problem
+     */
+    public static BitVectorDataFlow solve(CompactCFG cfg, Direction direction, Meet meet, int universeSize,
+            BitSet[] gen, BitSet[] kill, BitSet boundary) {
+        final int nbBlocks = cfg.getNbBlocks();
+        final boolean forward = direction == Direction.FORWARD;
+        final BitSet[] in = new BitSet[nbBlocks];
+        final BitSet[] out = new BitSet[nbBlocks];
+        // "before" is the value flowing into the transfer function, "after" the value it produces
+        final BitSet[] before = forward ? in : out;
+        final BitSet[] after = forward ? out : in;
+
+        final BitSet top = new BitSet(universeSize);
+        if (meet == Meet.INTERSECTION) {
+            top.set(0, universeSize);
+        }
+        for (int b = 0; b < nbBlocks; b++) {
+            before[b] = isBoundary(cfg, forward, b) ? (BitSet) boundary.clone() : (BitSet) top.clone();
+            after[b] = transfer(before[b], gen[b], kill[b]);
+        }
+
+        final int[] worklist = new int[nbBlocks];
+        final boolean[] inWorklist = new boolean[nbBlocks];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < nbBlocks; i++) {
+            final int b = forward ? i : nbBlocks - 1 - i;
+            worklist[size++] = b;
+            inWorklist[b] = true;
+        }
+
+        int nbBlockVisits = 0;
+        while (size > 0) {
+            final int b = worklist[head];
+            head = (head + 1) % nbBlocks;
+            size--;
+            inWorklist[b] = false;
+            nbBlockVisits++;
+
+            if (!isBoundary(cfg, forward, b)) {
+                final BitSet newBefore = meet(cfg, forward, meet, b, after, top);
+                if (newBefore.equals(before[b])) {
+                    continue;
+                }
+                before[b] = newBefore;
+            }
+            final BitSet newAfter = transfer(before[b], gen[b], kill[b]);
+            if (newAfter.equals(after[b])) {
+                continue;
+            }
+            after[b] = newAfter;
+
+            // the value flowing out of this block changed: revisit the blocks it flows into
+            final int nbNext = forward ? cfg.getEndOutgoingEdge(b) - cfg.getFirstOutgoingEdge(b)
+                    : cfg.getNbIncomingEdges(b);
+            for (int i = 0; i < nbNext; i++) {
+                final int next = forward
+                        ? cfg.getTarget(cfg.getFirstOutgoingEdge(b) + i)
+                        : cfg.getSource(cfg.getIncomingEdge(b, i));
+                if (!inWorklist[next]) {
+                    worklist[(head + size) % nbBlocks] = next;
+                    size++;
+                    inWorklist[next] = true;
+                }
+            }
+        }
+        return new BitVectorDataFlow(in, out, nbBlockVisits);
+    }
+
+    private static boolean isBoundary(CompactCFG cfg, boolean forward, int blockId) {
+        return forward ? cfg.isEntryBlock(blockId) : cfg.isExitBlock(blockId);
+    }
+
+    private static BitSet meet(CompactCFG cfg, boolean forward, Meet meet, int blockId, BitSet[] after,
+            BitSet top) {
+        final int nbPrevious = forward ? cfg.getNbIncomingEdges(blockId)
+                : cfg.getEndOutgoingEdge(blockId) - cfg.getFirstOutgoingEdge(blockId);
+        if (nbPrevious == 0) {
+            // unreachable block (forward) or block never reaching the exit (backward)
+            return (BitSet) top.clone();
+        }
+        BitSet result = null;
+        for (int i = 0; i < nbPrevious; i++) {
+            final int previous = forward
+                    ? cfg.getSource(cfg.getIncomingEdge(blockId, i))
+                    : cfg.getTarget(cfg.getFirstOutgoingEdge(blockId) + i);
+            if (result == null) {
+                result = (BitSet) after[previous].clone();
+            } else if (meet == Meet.UNION) {
+                result.or(after[previous]);
+            } else {
+                result.and(after[previous]);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet transfer(BitSet before, BitSet gen, BitSet kill) {
+        final BitSet result = (BitSet) before.clone();
+        result.andNot(kill);
+        result.or(gen);
+        return result;
+    }
+
+    /**
+     * Returns the value on entering the provided block.
+     *
+     * @param blockId the block id
+     * @return the value on entering the provided block, must not be modified
+     */
+    public BitSet getIn(int blockId) {
+        return in[blockId];
+    }
+
+    /**
+     * Returns the value on leaving the provided block.
+     *
+     * @param blockId the block id
+     * @return the value on leaving the provided block, must not be modified
+     */
+    public BitSet getOut(int blockId) {
+        return out[blockId];
+    }
+
+    /**
+     * Returns the number of times the solver visited a block, useful to check convergence speed.
+     *
+     * @return the number of times the solver visited a block
+     */
+    public int getNbBlockVisits() {
+        return nbBlockVisits;
+    }
+}
@@ -27,8 +27,8 @@ package org.autorefactor.cfg;
 
 import static org.autorefactor.util.Utils.equal;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 
 import org.autorefactor.util.IllegalArgumentException;
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -54,8 +54,8 @@ public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
     /** true means entry block, false means exit block, null means neither entry nor exit block. */
     private final Boolean isEntryBlock;
     private final LineAndColumn lineAndColumn;
-    private final Collection<CFGEdge> incomingEdges = new LinkedList<CFGEdge>();
-    private final Collection<Object> outgoingEdgesAndVariableAccesses = new LinkedList<Object>();
+    private final Collection<CFGEdge> incomingEdges = new ArrayList<CFGEdge>(2);
+    private final Collection<Object> outgoingEdgesAndVariableAccesses = new ArrayList<Object>(4);
 
     private CFGBasicBlock(ASTNode node, String fileName, String codeExcerpt, boolean isDecision, Boolean isEntryBlock,
             LineAndColumn lineAndColumn) {
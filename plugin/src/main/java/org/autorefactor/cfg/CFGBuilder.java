@@ -26,6 +26,8 @@
 package org.autorefactor.cfg;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -36,9 +38,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.autorefactor.refactoring.JavaProjectOptions;
 import org.autorefactor.refactoring.TypeNameDecider;
@@ -153,7 +152,7 @@ public class CFGBuilder {
          * The edges that are live on entering or after finishing analyzing a
          * statement.
          */
-        private final List<CFGEdgeBuilder> liveEdges = new LinkedList<CFGEdgeBuilder>();
+        private final List<CFGEdgeBuilder> liveEdges = new ArrayList<CFGEdgeBuilder>();
 
         private LivenessState() {
             this.liveBasicBlock = null;
@@ -219,10 +218,13 @@ public class CFGBuilder {
         }
     }
 
-    private static final Pattern NEWLINE = Pattern.compile("\r\n|\r|\n");
-
     private final String source;
     private final int tabSize;
+    /**
+     * Start position of each line in the source, computed once.
+     * Line {@code i + 1} starts at {@code lineStarts[i]}.
+     */
+    private final int[] lineStarts;
     /**
      * Edges to be built after visiting the statement used as the key.
      * <p>
@@ -257,6 +259,33 @@ public class CFGBuilder {
     public CFGBuilder(String source, JavaProjectOptions options) {
         this.source = source;
         this.tabSize = options.getTabSize();
+        this.lineStarts = computeLineStarts(source);
+    }
+
+    /**
+     * Returns the start position of each line, handling "\r\n", "\r" and "\n" line delimiters.
+     *
+     * @param source the java source code
+     * @return the start position of each line, in ascending order
+     */
+    private static int[] computeLineStarts(String source) {
+        int[] results = new int[64];
+        int nbLines = 0;
+        results[nbLines++] = 0;
+        final int length = source.length();
+        for (int i = 0; i < length; i++) {
+            final char c = source.charAt(i);
+            if (c == '\r' && i + 1 < length && source.charAt(i + 1) == '\n') {
+                i++;
+            } else if (c != '\r' && c != '\n') {
+                continue;
+            }
+            if (nbLines == results.length) {
+                results = Arrays.copyOf(results, nbLines * 2);
+            }
+            results[nbLines++] = i + 1;
+        }
+        return Arrays.copyOf(results, nbLines);
     }
 
     /**
@@ -600,13 +629,29 @@ public class CFGBuilder {
      * @return the entry block to the CFG of this method declaration
      */
     public CFGBasicBlock buildCFG(MethodDeclaration node) {
+        return buildCFG(node, new ThrowerBlocks());
+    }
+
+    /**
+     * Builds a CFG for the provided node and returns its compact form.
+     *
+     * @param node the node for which to build a CFG.
+     * @return the compact form of the CFG of this method declaration,
+     *         with the exception types escaping from this method declaration
+     */
+    public CompactCFG buildCompactCFG(MethodDeclaration node) {
+        final ThrowerBlocks throwers = new ThrowerBlocks();
+        final CFGBasicBlock entryBlock = buildCFG(node, throwers);
+        return CompactCFG.of(entryBlock, throwers.getThrownTypesBySourceBlock());
+    }
+
+    private CFGBasicBlock buildCFG(MethodDeclaration node, ThrowerBlocks throwers) {
         final CFGBasicBlock entryBlock = newEntryBlock(node);
         this.exitBlock = newExitBlock(node);
 
         addDeclarations(entryBlock, parameters(node));
 
         try {
-            final ThrowerBlocks throwers = new ThrowerBlocks();
             final CFGEdgeBuilder liveEdge = new CFGEdgeBuilder(entryBlock);
             final LivenessState liveAfterBody = buildCFG(node.getBody(), LivenessState.of(liveEdge), throwers);
             if (!liveAfterBody.liveEdges.isEmpty()) {
@@ -1669,33 +1714,27 @@ public class CFGBuilder {
     }
 
     private LineAndColumn getLineAndColumn(final int position) {
-        // TODO Use CompilationUnit.getLineNumber() and CompilationUnit.getColumnNumber()
-        // Return SourceLocation class with also startNodePosition to be used for graph node names
-        // line number and column number are then used as comments for the node
-        // file starts with line 1
-        int lineNo = 1;
-        int lastMatchPosition = 0;
-        final Matcher matcher = NEWLINE.matcher(source);
-        while (matcher.find()) {
-            final MatchResult matchResult = matcher.toMatchResult();
-            if (matchResult.end() >= position) {
-                final String startOfLine = this.source.substring(
-                        lastMatchPosition, position);
-                final int nbChars = countCharacters(startOfLine, tabSize);
-                // + 1 because line starts with column 1
-                return new LineAndColumn(position, lineNo, nbChars + 1);
-            }
-            lastMatchPosition = matchResult.end();
-            ++lineNo;
+        if (position < 0 || position > source.length()) {
+            throw new IllegalStateException(null, "A line and column number should have been found");
+        }
+        int lineIdx = Arrays.binarySearch(lineStarts, position);
+        if (lineIdx < 0) {
+            // not a line start: take the line starting before this position
+            lineIdx = -lineIdx - 2;
         }
-        throw new IllegalStateException(null, "A line and column number should have been found");
+        final int nbChars = countCharacters(lineStarts[lineIdx], position);
+        // file starts with line 1, line starts with column 1
+        return new LineAndColumn(position, lineIdx + 1, nbChars + 1);
     }
 
-    private int countCharacters(String s, int tabSize) {
+    /**
+     * Counts the characters between the provided positions, expanding tabs to the next tab stop.
+     */
+    private int countCharacters(int start, int end) {
         int result = 0;
-        for (int i = 0; i < s.length(); i++) {
-            if (s.charAt(i) == '\t') {
-                result += tabSize - (i % tabSize);
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) == '\t') {
+                result += tabSize - (result % tabSize);
             } else {
                 result++;
             }
@@ -74,13 +74,25 @@ public class CFGDotPrinter {
         }
     }
 
-    private static final class CFGEdgeComparator implements Comparator<CFGEdge> {
-        public int compare(CFGEdge e1, CFGEdge e2) {
-            final int cmp = e1.getSourceBlock().compareTo(e2.getSourceBlock());
+    private static final class EdgeComparator implements Comparator<Integer> {
+        private final CompactCFG cfg;
+
+        private EdgeComparator(CompactCFG cfg) {
+            this.cfg = cfg;
+        }
+
+        public int compare(Integer e1, Integer e2) {
+            final int cmp = compare(cfg.getSource(e1), cfg.getSource(e2));
             if (cmp != 0) {
                 return cmp;
             }
-            return e1.getTargetBlock().compareTo(e2.getTargetBlock());
+            return compare(cfg.getTarget(e1), cfg.getTarget(e2));
+        }
+
+        private int compare(int block1, int block2) {
+            final int pos1 = cfg.getStartPosition(block1);
+            final int pos2 = cfg.getStartPosition(block2);
+            return pos1 < pos2 ? -1 : (pos1 == pos2 ? 0 : 1);
         }
     }
 
@@ -92,26 +104,38 @@ public class CFGDotPrinter {
      * @return a String representing the CFG in the dot format.
      */
     public String toDot(final CFGBasicBlock startBlock) {
+        return toDot(CompactCFG.of(startBlock));
+    }
+
+    /**
+     * Returns a String representing the CFG in the dot format.
+     *
+     * @param cfg
+     *            the compact CFG to print, starting from its entry block
+     * @return a String representing the CFG in the dot format.
+     */
+    public String toDot(final CompactCFG cfg) {
         final Map<ASTNode, CFGSubGraph> subGraphs = new HashMap<ASTNode, CFGSubGraph>();
-        final Set<CFGEdge> edges = new TreeSet<CFGEdge>(new CFGEdgeComparator());
-        collect(startBlock, subGraphs, edges);
+        final Set<Integer> edges = new TreeSet<Integer>(new EdgeComparator(cfg));
+        collect(cfg, subGraphs, edges);
+        final CFGBasicBlock startBlock = cfg.getBlock(0);
         final CFGSubGraph subGraph = subGraphs.get(startBlock.getNode());
 
         final StringBuilder sb = new StringBuilder();
-        appendGraph(startBlock, subGraph, edges, sb);
+        appendGraph(cfg, startBlock, subGraph, edges, sb);
         return sb.toString();
     }
 
-    private void appendGraph(final CFGBasicBlock startblock,
-            final CFGSubGraph graph, Set<CFGEdge> edges, final StringBuilder sb) {
+    private void appendGraph(final CompactCFG cfg, final CFGBasicBlock startblock,
+            final CFGSubGraph graph, Set<Integer> edges, final StringBuilder sb) {
         final boolean needDigraph = sb.length() == 0;
         if (needDigraph) {
             appendDigraph(startblock, sb);
             sb.append("\n");
         }
         if (!edges.isEmpty()) {
-            for (CFGEdge edge : edges) {
-                appendDotEdge(edge, sb);
+            for (int edge : edges) {
+                appendDotEdge(cfg, edge, sb);
             }
             sb.append("\n");
         }
@@ -124,7 +148,7 @@ public class CFGDotPrinter {
         if (!graph.subGraphs.isEmpty()) {
             sb.append("\n");
             for (CFGSubGraph subGraph : graph.subGraphs) {
-                appendGraph(startblock, subGraph, Collections.EMPTY_SET, sb);
+                appendGraph(cfg, startblock, subGraph, Collections.<Integer> emptySet(), sb);
             }
         }
 
@@ -134,20 +158,13 @@ public class CFGDotPrinter {
         }
     }
 
-    private void collect(CFGBasicBlock block,
-            Map<ASTNode, CFGSubGraph> subGraphs, Set<CFGEdge> edges) {
-        CFGSubGraph blockSubGraph = getSubGraph(subGraphs, block.getNode());
-        if (!blockSubGraph.blocks.add(block)) {
-            // node was already added.
-            // Avoid cycles: do not go through this path again
-            return;
-        }
-
-        for (Object obj : block.getOutgoingEdgesAndVariableAccesses()) {
-            if (obj instanceof CFGEdge) {
-                final CFGEdge edge = (CFGEdge) obj;
-                edges.add(edge);
-                collect(edge.getTargetBlock(), subGraphs, edges);
+    private void collect(CompactCFG cfg,
+            Map<ASTNode, CFGSubGraph> subGraphs, Set<Integer> edges) {
+        for (int blockId = 0; blockId < cfg.getNbBlocks(); blockId++) {
+            final CFGBasicBlock block = cfg.getBlock(blockId);
+            getSubGraph(subGraphs, block.getNode()).blocks.add(block);
+            for (int e = cfg.getFirstOutgoingEdge(blockId); e < cfg.getEndOutgoingEdge(blockId); e++) {
+                edges.add(e);
             }
         }
     }
@@ -201,11 +218,11 @@ public class CFGDotPrinter {
         return sb;
     }
 
-    private boolean appendDotEdge(final CFGEdge edge, final StringBuilder sb) {
-        edge.getSourceBlock().appendDotNodeId(sb).append(" -> ");
-        edge.getTargetBlock().appendDotNodeId(sb);
-        if (edge.getCondition() != null) {
-            sb.append(" [label=\"").append(edge.getEvaluationResult())
+    private boolean appendDotEdge(final CompactCFG cfg, final int edge, final StringBuilder sb) {
+        cfg.getBlock(cfg.getSource(edge)).appendDotNodeId(sb).append(" -> ");
+        cfg.getBlock(cfg.getTarget(edge)).appendDotNodeId(sb);
+        if (cfg.isConditional(edge)) {
+            sb.append(" [label=\"").append(cfg.getEvaluationResult(edge))
                     .append("\"];");
         }
         sb.append("\n");
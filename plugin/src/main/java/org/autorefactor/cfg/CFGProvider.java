@@ -0,0 +1,206 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.autorefactor.environment.Tracer;
+import org.autorefactor.environment.Tracer.Phase;
+import org.autorefactor.refactoring.JavaProjectOptions;
+import org.autorefactor.util.UnhandledException;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+/**
+ * Builds the control flow graph of a method on first request, then caches it
+ * by a hash of the method source.
+ * <p>
+ * One instance is shared by all the refactoring iterations on a compilation unit:
+ * methods that did not change between two iterations reuse their graph
+ * and their dataflow analyses instead of building them again.
+ * </p>
+ * <p>
+ * A reused graph still references the nodes and bindings of the AST it was built from,
+ * see {@link MethodCFG#toCurrentNode(org.eclipse.jdt.core.dom.ASTNode)}.
+ * Its line numbers are the ones of the source it was built from.
+ * </p>
+ * <p>
+ * Graphs not requested again for the next AST are dropped, so that at most the current AST
+ * and the previous one are kept alive.
+ * </p>
+ */
+public final class CFGProvider {
+    /** A cached graph. */
+    static final class Entry {
+        final MethodDeclaration method;
+        final CompactCFG cfg;
+        private VariableDataFlow dataFlow;
+
+        private Entry(MethodDeclaration method, CompactCFG cfg) {
+            this.method = method;
+            this.cfg = cfg;
+        }
+
+        VariableDataFlow getDataFlow() {
+            if (dataFlow == null) {
+                dataFlow = VariableDataFlow.of(cfg);
+            }
+            return dataFlow;
+        }
+    }
+
+    private final JavaProjectOptions options;
+    /** The graphs requested for the current AST. */
+    private Map<String, Entry> entries = new HashMap<String, Entry>();
+    /** The graphs requested for the previous AST and not requested yet for the current AST. */
+    private Map<String, Entry> previousEntries = new HashMap<String, Entry>();
+    /* @Nullable */ private ASTNode currentRoot;
+    private int nbHits;
+    private int nbMisses;
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param options the Java project options used to compile the project
+     */
+    public CFGProvider(JavaProjectOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Returns the control flow graph of the provided method, building it if needed.
+     *
+     * @param method the method declaration, with a body
+     * @param source the source of the compilation unit containing the method
+     * @return the control flow graph of the provided method
+     */
+    public MethodCFG getCFG(MethodDeclaration method, String source) {
+        final String key = getEnclosingTypes(method) + hash(method, source.substring(method.getStartPosition(),
+                method.getStartPosition() + method.getLength()));
+        final ASTNode root = method.getRoot();
+        if (root != currentRoot) {
+            // the graphs of superseded method sources are not requested again
+            previousEntries = entries;
+            entries = new HashMap<String, Entry>();
+            currentRoot = root;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = previousEntries.remove(key);
+        }
+        if (entry == null
+                // same source for another method of the same AST
+                || (entry.method.getRoot() == root && entry.method != method)) {
+            nbMisses++;
+            final Tracer tracer = Tracer.get();
+            final Object span = tracer.begin(Phase.CFG);
+            final CFGBuilder builder = new CFGBuilder(source, options);
+            entry = new Entry(method, builder.buildCompactCFG(method));
+            if (span != null) {
+                tracer.end(span, getPath(method), method.getName().getIdentifier());
+            }
+        } else {
+            nbHits++;
+        }
+        entries.put(key, entry);
+        return new MethodCFG(entry, method);
+    }
+
+    private static /* @Nullable */ String getPath(MethodDeclaration method) {
+        final ASTNode root = method.getRoot();
+        if (root instanceof CompilationUnit) {
+            final IJavaElement javaElement = ((CompilationUnit) root).getJavaElement();
+            if (javaElement != null) {
+                return javaElement.getPath().toString();
+            }
+        }
+        return null;
+    }
+
+    private String getEnclosingTypes(MethodDeclaration method) {
+        final StringBuilder sb = new StringBuilder();
+        for (ASTNode node = method.getParent(); node != null; node = node.getParent()) {
+            if (node instanceof AbstractTypeDeclaration) {
+                sb.insert(0, ((AbstractTypeDeclaration) node).getName().getIdentifier()).insert(0, '.');
+            } else if (node instanceof AnonymousClassDeclaration) {
+                sb.insert(0, node.getStartPosition()).insert(0, ".$");
+            }
+        }
+        return sb.append('#').toString();
+    }
+
+    private String hash(MethodDeclaration method, String methodSource) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return new BigInteger(1, digest.digest(methodSource.getBytes("UTF-8"))).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnhandledException(method, e);
+        } catch (UnsupportedEncodingException e) {
+            throw new UnhandledException(method, e);
+        }
+    }
+
+    /**
+     * Returns the number of requests answered from the cache.
+     *
+     * @return the number of requests answered from the cache
+     */
+    public int getNbHits() {
+        return nbHits;
+    }
+
+    /**
+     * Returns the number of requests which had to build a graph.
+     *
+     * @return the number of requests which had to build a graph
+     */
+    public int getNbMisses() {
+        return nbMisses;
+    }
+
+    /**
+     * Returns the number of cached graphs.
+     *
+     * @return the number of cached graphs
+     */
+    public int getNbEntries() {
+        return entries.size() + previousEntries.size();
+    }
+
+    @Override
+    public String toString() {
+        return "CFGProvider [entries=" + getNbEntries() + ", hits=" + nbHits + ", misses=" + nbMisses + "]";
+    }
+}
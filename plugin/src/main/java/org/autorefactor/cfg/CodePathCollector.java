@@ -25,57 +25,343 @@
  */
 package org.autorefactor.cfg;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
-import org.autorefactor.util.IllegalStateException;
-
-/** Collects code paths into the CFG. */
+/**
+ * Collects code paths into the CFG.
+ * <p>
+ * The number of code paths grows exponentially with the number of sequential conditions,
+ * so paths are streamed one at a time instead of being stored,
+ * and the enumeration can be capped on the number of paths and on the length of each path.
+ * Loops are not unrolled: a path never goes through the same block twice.
+ * </p>
+ * <p>
+ * Summary queries like {@link #reaches(CompactCFG, int, int, int...)} walk the graph
+ * and never enumerate the paths.
+ * </p>
+ */
 public class CodePathCollector {
-    private final List<List<CFGBasicBlock>> results = new ArrayList<List<CFGBasicBlock>>();
-    private final LinkedList<CFGBasicBlock> stack = new LinkedList<CFGBasicBlock>();
+    /** Receives the code paths one at a time. */
+    public interface CodePathVisitor {
+        /**
+         * Visits a code path.
+         *
+         * @param path the blocks of the code path, starting with the entry block.
+         *        This list is only valid during this call, it must be copied to be kept.
+         * @return true to visit the next code path, false to stop the enumeration
+         */
+        boolean visitPath(List<CFGBasicBlock> path);
+    }
+
+    /** Iterates lazily over the code paths of a CFG, depth first. */
+    public static final class PathIterator implements Iterator<List<CFGBasicBlock>> {
+        private final CompactCFG cfg;
+        private final int maxPaths;
+        private final int maxPathLength;
+        /** The blocks of the current path. */
+        private final int[] path;
+        /** For each block of the current path, the next outgoing edge to follow. */
+        private final int[] nextEdges;
+        private final boolean[] onPath;
+        private final List<CFGBasicBlock> pathView = new AbstractList<CFGBasicBlock>() {
+            @Override
+            public CFGBasicBlock get(int index) {
+                if (index < 0 || index >= pathLength) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + pathLength);
+                }
+                return cfg.getBlock(path[index]);
+            }
+
+            @Override
+            public int size() {
+                return pathLength;
+            }
+        };
+        private int depth;
+        private int pathLength;
+        private boolean hasPendingPath;
+        private int nbPaths;
+        private boolean pathCountLimitReached;
+        private boolean pathLengthLimitReached;
+
+        private PathIterator(CompactCFG cfg, int maxPaths, int maxPathLength) {
+            this.cfg = cfg;
+            this.maxPaths = maxPaths;
+            this.maxPathLength = maxPathLength;
+            this.path = new int[cfg.getNbBlocks()];
+            this.nextEdges = new int[cfg.getNbBlocks()];
+            this.onPath = new boolean[cfg.getNbBlocks()];
+            if (cfg.getNbBlocks() > 0) {
+                hasPendingPath = append(0);
+            }
+        }
+
+        /**
+         * Appends the provided block to the current path.
+         *
+         * @return true if the current path is complete
+         */
+        private boolean append(int blockId) {
+            if (onPath[blockId]) {
+                // cycle detected, let's stop it here
+                return false;
+            }
+            if (depth == maxPathLength) {
+                pathLengthLimitReached = true;
+                return false;
+            }
+            path[depth] = blockId;
+            pathLength = depth + 1;
+            if (cfg.isExitBlock(blockId)) {
+                // the exit block ends the path and counts in its length, but there is nothing to search after it
+                return true;
+            }
+            onPath[blockId] = true;
+            nextEdges[depth] = cfg.getFirstOutgoingEdge(blockId);
+            depth++;
+            // blocks without outgoing edges (throw statements for example) also end the path
+            return cfg.getFirstOutgoingEdge(blockId) == cfg.getEndOutgoingEdge(blockId);
+        }
+
+        /**
+         * Moves the search to the next complete path.
+         *
+         * @return true if a complete path was found, false if the search is over
+         */
+        private boolean advance() {
+            while (depth > 0) {
+                final int top = depth - 1;
+                final int blockId = path[top];
+                if (nextEdges[top] < cfg.getEndOutgoingEdge(blockId)) {
+                    final int edgeId = nextEdges[top]++;
+                    if (append(cfg.getTarget(edgeId))) {
+                        return true;
+                    }
+                } else {
+                    onPath[blockId] = false;
+                    depth--;
+                }
+            }
+            return false;
+        }
+
+        public boolean hasNext() {
+            if (!hasPendingPath) {
+                hasPendingPath = advance();
+            }
+            if (hasPendingPath && nbPaths == maxPaths) {
+                pathCountLimitReached = true;
+                return false;
+            }
+            return hasPendingPath;
+        }
+
+        public List<CFGBasicBlock> next() {
+            return new ArrayList<CFGBasicBlock>(nextPathView());
+        }
+
+        /**
+         * Returns the next path, as a view which is only valid until the next call to this iterator.
+         *
+         * @return the next path
+         */
+        private List<CFGBasicBlock> nextPathView() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasPendingPath = false;
+            nbPaths++;
+            return pathView;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Returns the number of paths returned so far.
+         *
+         * @return the number of paths returned so far
+         */
+        public int getNbPaths() {
+            return nbPaths;
+        }
+
+        /**
+         * Returns whether the maximum number of paths stopped the enumeration.
+         *
+         * @return true if the maximum number of paths stopped the enumeration, false otherwise
+         */
+        public boolean isPathCountLimitReached() {
+            return pathCountLimitReached;
+        }
+
+        /**
+         * Returns whether paths were skipped because they were longer than the maximum path length.
+         *
+         * @return true if paths were skipped because they were longer than the maximum path length,
+         *         false otherwise
+         */
+        public boolean isPathLengthLimitReached() {
+            return pathLengthLimitReached;
+        }
+    }
+
+    private final int maxPaths;
+    private final int maxPathLength;
+
+    /** Builds an instance of this class which enumerates all the code paths. */
+    public CodePathCollector() {
+        this(Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Builds an instance of this class which enumerates a bounded number of code paths.
+     *
+     * @param maxPaths the maximum number of code paths to enumerate
+     * @param maxPathLength the maximum number of blocks of a code path, longer paths are skipped
+     */
+    public CodePathCollector(int maxPaths, int maxPathLength) {
+        if (maxPaths < 0 || maxPathLength < 0) {
+            throw new IllegalArgumentException("maxPaths and maxPathLength must be positive, got maxPaths="
+                    + maxPaths + " and maxPathLength=" + maxPathLength);
+        }
+        this.maxPaths = maxPaths;
+        this.maxPathLength = maxPathLength;
+    }
 
     /**
      * Returns the collected code paths.
+     * <p>
+     * All the paths are kept in memory: prefer {@link #visitPaths(CFGBasicBlock, CodePathVisitor)}
+     * or {@link #iterator(CFGBasicBlock)} for methods with many conditions.
+     * </p>
      *
      * @param entryBlock the entry block of the CFG
      * @return the collected code paths
      */
     public Collection<List<CFGBasicBlock>> getPaths(CFGBasicBlock entryBlock) {
-        collectPathes(entryBlock);
+        final List<List<CFGBasicBlock>> results = new ArrayList<List<CFGBasicBlock>>();
+        visitPaths(entryBlock, new CodePathVisitor() {
+            public boolean visitPath(List<CFGBasicBlock> path) {
+                results.add(new ArrayList<CFGBasicBlock>(path));
+                return true;
+            }
+        });
         return results;
     }
 
-    private void collectPathes(CFGBasicBlock block) {
-        if (block.isExitBlock()) {
-            // this is the end of this path,
-            // let's take a copy of the stack
-            results.add(new ArrayList<CFGBasicBlock>(stack));
-            return;
-        }
-        if (stack.contains(block)) {
-            // cycle detected, let's stop it here
-            return;
+    /**
+     * Returns an iterator over the code paths starting from the provided entry block.
+     *
+     * @param entryBlock the entry block of the CFG
+     * @return an iterator over the code paths
+     */
+    public PathIterator iterator(CFGBasicBlock entryBlock) {
+        return iterator(CompactCFG.of(entryBlock));
+    }
+
+    /**
+     * Returns an iterator over the code paths of the provided CFG.
+     *
+     * @param cfg the compact CFG
+     * @return an iterator over the code paths
+     */
+    public PathIterator iterator(CompactCFG cfg) {
+        return new PathIterator(cfg, maxPaths, maxPathLength);
+    }
+
+    /**
+     * Visits the code paths starting from the provided entry block, without storing them.
+     *
+     * @param entryBlock the entry block of the CFG
+     * @param visitor the visitor receiving the code paths
+     * @return true if all the code paths were visited, false if the visitor or one of the limits
+     *         stopped the enumeration
+     */
+    public boolean visitPaths(CFGBasicBlock entryBlock, CodePathVisitor visitor) {
+        return visitPaths(CompactCFG.of(entryBlock), visitor);
+    }
+
+    /**
+     * Visits the code paths of the provided CFG, without storing them.
+     *
+     * @param cfg the compact CFG
+     * @param visitor the visitor receiving the code paths
+     * @return true if all the code paths were visited, false if the visitor or one of the limits
+     *         stopped the enumeration
+     */
+    public boolean visitPaths(CompactCFG cfg, CodePathVisitor visitor) {
+        final PathIterator it = iterator(cfg);
+        while (it.hasNext()) {
+            if (!visitor.visitPath(it.nextPathView())) {
+                return false;
+            }
         }
+        return !it.isPathCountLimitReached() && !it.isPathLengthLimitReached();
+    }
 
-        stack.addFirst(block);
-        try {
-            boolean foundAtLeastOneEdge = false;
-            for (Object obj : block.getOutgoingEdgesAndVariableAccesses()) {
-                if (obj instanceof CFGEdge) {
-                    final CFGEdge edge = (CFGEdge) obj;
-                    collectPathes(edge.getTargetBlock());
-                    foundAtLeastOneEdge = true;
-                }
+    /**
+     * Returns whether a code path goes from one block to another without going through the avoided blocks.
+     * <p>
+     * This walks each block at most once, it does not enumerate the code paths.
+     * </p>
+     *
+     * @param cfg the compact CFG
+     * @param fromBlockId the block where the code paths start
+     * @param toBlockId the block where the code paths end
+     * @param avoidedBlockIds the blocks the code paths must not go through
+     * @return true if a code path goes from one block to the other without going through the avoided blocks,
+     *         false otherwise
+     */
+    public static boolean reaches(CompactCFG cfg, int fromBlockId, int toBlockId, int... avoidedBlockIds) {
+        final BitSet seen = new BitSet(cfg.getNbBlocks());
+        for (int avoidedBlockId : avoidedBlockIds) {
+            seen.set(avoidedBlockId);
+        }
+        if (seen.get(fromBlockId) || seen.get(toBlockId)) {
+            return false;
+        }
+        final int[] queue = new int[cfg.getNbBlocks()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = fromBlockId;
+        seen.set(fromBlockId);
+        while (head < tail) {
+            final int blockId = queue[head++];
+            if (blockId == toBlockId) {
+                return true;
             }
-            if (!foundAtLeastOneEdge) {
-                throw new IllegalStateException(block.getNode(),
-                        "Path should have ended with an exit block: " + stack);
+            for (int e = cfg.getFirstOutgoingEdge(blockId); e < cfg.getEndOutgoingEdge(blockId); e++) {
+                final int target = cfg.getTarget(e);
+                if (!seen.get(target)) {
+                    seen.set(target);
+                    queue[tail++] = target;
+                }
             }
-        } finally {
-            stack.removeLast();
         }
+        return false;
+    }
+
+    /**
+     * Returns whether all the code paths from one block to another go through the provided block.
+     *
+     * @param cfg the compact CFG
+     * @param fromBlockId the block where the code paths start
+     * @param toBlockId the block where the code paths end
+     * @param viaBlockId the block to go through
+     * @return true if all the code paths from one block to the other go through the provided block,
+     *         false otherwise
+     */
+    public static boolean isOnAllPaths(CompactCFG cfg, int fromBlockId, int toBlockId, int viaBlockId) {
+        return viaBlockId == fromBlockId
+                || viaBlockId == toBlockId
+                || !reaches(cfg, fromBlockId, toBlockId, viaBlockId);
     }
 }
@@ -0,0 +1,409 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Compact, int indexed, form of a control flow graph.
+ * <p>
+ * Blocks and edges are identified by ints and their data is stored in primitive arrays:
+ * <ul>
+ * <li>block ids are assigned in source order, so the entry block always has id 0,</li>
+ * <li>edge ids are assigned in source block order, so the outgoing edges of block {@code b}
+ * are the edges from {@link #getFirstOutgoingEdge(int)} included to {@link #getEndOutgoingEdge(int)} excluded
+ * (compressed sparse row adjacency),</li>
+ * <li>the incoming edges of each block are stored in the same way,</li>
+ * <li>the exception types thrown by each block are interned in {@link ExceptionTypeSets}.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * The {@link CFGBasicBlock} objects remain available for reporting,
+ * but traversals should only need the int arrays.
+ * </p>
+ */
+public final class CompactCFG {
+    private static final int ENTRY = 1;
+    private static final int EXIT = 2;
+    private static final int DECISION = 4;
+
+    private static final int CONDITIONAL = 1;
+    private static final int EVALUATION_RESULT = 2;
+
+    private final CFGBasicBlock[] blocks;
+    private final Map<CFGBasicBlock, Integer> blockIds;
+    private final int[] blockFlags;
+    private final int[] blockStartPositions;
+    private final int[] blockThrownTypes;
+    private final int[] outgoingOffsets;
+    private final int[] incomingOffsets;
+    private final int[] incomingEdges;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final int[] edgeFlags;
+    private final Expression[] edgeConditions;
+    private final ExceptionTypeSets exceptionTypeSets;
+
+    private CompactCFG(List<CFGBasicBlock> sortedBlocks, Map<CFGBasicBlock, Integer> blockIds,
+            Map<CFGBasicBlock, Set<ITypeBinding>> thrownTypes) {
+        final int nbBlocks = sortedBlocks.size();
+        this.blocks = sortedBlocks.toArray(new CFGBasicBlock[nbBlocks]);
+        this.blockIds = blockIds;
+        this.blockFlags = new int[nbBlocks];
+        this.blockStartPositions = new int[nbBlocks];
+        this.blockThrownTypes = new int[nbBlocks];
+        this.outgoingOffsets = new int[nbBlocks + 1];
+        this.exceptionTypeSets = new ExceptionTypeSets();
+
+        int nbEdges = 0;
+        for (int b = 0; b < nbBlocks; b++) {
+            nbEdges += countEdges(blocks[b]);
+        }
+        this.edgeSources = new int[nbEdges];
+        this.edgeTargets = new int[nbEdges];
+        this.edgeFlags = new int[nbEdges];
+        this.edgeConditions = new Expression[nbEdges];
+
+        int e = 0;
+        for (int b = 0; b < nbBlocks; b++) {
+            final CFGBasicBlock block = blocks[b];
+            blockFlags[b] = (block.isEntryBlock() ? ENTRY : 0)
+                    | (block.isExitBlock() ? EXIT : 0)
+                    | (block.isDecision() ? DECISION : 0);
+            blockStartPositions[b] = block.getLineAndColumn().getStartPosition();
+            blockThrownTypes[b] = exceptionTypeSets.intern(thrownTypes.get(block));
+
+            outgoingOffsets[b] = e;
+            for (Object obj : block.getOutgoingEdgesAndVariableAccesses()) {
+                if (obj instanceof CFGEdge) {
+                    final CFGEdge edge = (CFGEdge) obj;
+                    edgeSources[e] = b;
+                    edgeTargets[e] = blockIds.get(edge.getTargetBlock());
+                    edgeConditions[e] = edge.getCondition();
+                    edgeFlags[e] = (edge.getCondition() != null ? CONDITIONAL : 0)
+                            | (edge.getEvaluationResult() ? EVALUATION_RESULT : 0);
+                    e++;
+                }
+            }
+            sortOutgoingEdgesByTarget(outgoingOffsets[b], e);
+        }
+        outgoingOffsets[nbBlocks] = e;
+
+        // counting sort of the edges by target block
+        this.incomingOffsets = new int[nbBlocks + 1];
+        for (int i = 0; i < nbEdges; i++) {
+            incomingOffsets[edgeTargets[i] + 1]++;
+        }
+        for (int b = 0; b < nbBlocks; b++) {
+            incomingOffsets[b + 1] += incomingOffsets[b];
+        }
+        this.incomingEdges = new int[nbEdges];
+        final int[] next = new int[nbBlocks];
+        System.arraycopy(incomingOffsets, 0, next, 0, nbBlocks);
+        for (int i = 0; i < nbEdges; i++) {
+            incomingEdges[next[edgeTargets[i]]++] = i;
+        }
+    }
+
+    private static int countEdges(CFGBasicBlock block) {
+        int result = 0;
+        for (Object obj : block.getOutgoingEdgesAndVariableAccesses()) {
+            if (obj instanceof CFGEdge) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /** Stable insertion sort: blocks only have a handful of outgoing edges. */
+    private void sortOutgoingEdgesByTarget(int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            final int target = edgeTargets[i];
+            final int flags = edgeFlags[i];
+            final Expression condition = edgeConditions[i];
+            int j = i - 1;
+            while (j >= start && edgeTargets[j] > target) {
+                edgeTargets[j + 1] = edgeTargets[j];
+                edgeFlags[j + 1] = edgeFlags[j];
+                edgeConditions[j + 1] = edgeConditions[j];
+                j--;
+            }
+            edgeTargets[j + 1] = target;
+            edgeFlags[j + 1] = flags;
+            edgeConditions[j + 1] = condition;
+        }
+    }
+
+    /**
+     * Builds the compact form of the CFG reachable from the provided entry block.
+     *
+     * @param entryBlock the entry block of the CFG
+     * @return the compact form of the CFG
+     */
+    public static CompactCFG of(CFGBasicBlock entryBlock) {
+        return of(entryBlock, Collections.<CFGBasicBlock, Set<ITypeBinding>> emptyMap());
+    }
+
+    /**
+     * Builds the compact form of the CFG reachable from the provided entry block.
+     *
+     * @param entryBlock the entry block of the CFG
+     * @param thrownTypes the exception types potentially thrown by each block
+     * @return the compact form of the CFG
+     */
+    static CompactCFG of(CFGBasicBlock entryBlock, Map<CFGBasicBlock, Set<ITypeBinding>> thrownTypes) {
+        // iterative depth first search: long methods would overflow the stack with a recursive one
+        final Map<CFGBasicBlock, Integer> blockIds = new HashMap<CFGBasicBlock, Integer>();
+        final List<CFGBasicBlock> reachableBlocks = new ArrayList<CFGBasicBlock>();
+        final List<CFGBasicBlock> stack = new ArrayList<CFGBasicBlock>();
+        stack.add(entryBlock);
+        while (!stack.isEmpty()) {
+            final CFGBasicBlock block = stack.remove(stack.size() - 1);
+            if (blockIds.containsKey(block)) {
+                continue;
+            }
+            blockIds.put(block, -1);
+            reachableBlocks.add(block);
+            // push in reverse order to visit blocks in the same order as a recursive search
+            final int top = stack.size();
+            for (Object obj : block.getOutgoingEdgesAndVariableAccesses()) {
+                if (obj instanceof CFGEdge) {
+                    stack.add(top, ((CFGEdge) obj).getTargetBlock());
+                }
+            }
+        }
+
+        Collections.sort(reachableBlocks);
+        for (int i = 0; i < reachableBlocks.size(); i++) {
+            blockIds.put(reachableBlocks.get(i), i);
+        }
+        return new CompactCFG(reachableBlocks, blockIds, thrownTypes);
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return the number of blocks
+     */
+    public int getNbBlocks() {
+        return blocks.length;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges
+     */
+    public int getNbEdges() {
+        return edgeSources.length;
+    }
+
+    /**
+     * Returns the id of the provided block.
+     *
+     * @param block the block
+     * @return the id of the provided block, or -1 if it is not part of this CFG
+     */
+    public int getBlockId(CFGBasicBlock block) {
+        final Integer id = blockIds.get(block);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the block with the provided id.
+     *
+     * @param blockId the block id
+     * @return the block with the provided id
+     */
+    public CFGBasicBlock getBlock(int blockId) {
+        return blocks[blockId];
+    }
+
+    /**
+     * Returns whether the provided block is the entry block.
+     *
+     * @param blockId the block id
+     * @return true if the provided block is the entry block, false otherwise
+     */
+    public boolean isEntryBlock(int blockId) {
+        return (blockFlags[blockId] & ENTRY) != 0;
+    }
+
+    /**
+     * Returns whether the provided block is the exit block.
+     *
+     * @param blockId the block id
+     * @return true if the provided block is the exit block, false otherwise
+     */
+    public boolean isExitBlock(int blockId) {
+        return (blockFlags[blockId] & EXIT) != 0;
+    }
+
+    /**
+     * Returns whether the provided block is a decision block.
+     *
+     * @param blockId the block id
+     * @return true if the provided block is a decision block, false otherwise
+     */
+    public boolean isDecision(int blockId) {
+        return (blockFlags[blockId] & DECISION) != 0;
+    }
+
+    /**
+     * Returns the start position of the provided block in the source.
+     *
+     * @param blockId the block id
+     * @return the start position of the provided block
+     */
+    public int getStartPosition(int blockId) {
+        return blockStartPositions[blockId];
+    }
+
+    /**
+     * Returns the id of the set of exception types potentially thrown by the provided block.
+     *
+     * @param blockId the block id
+     * @return the id of the set of thrown exception types in {@link #getExceptionTypeSets()}
+     */
+    public int getThrownTypes(int blockId) {
+        return blockThrownTypes[blockId];
+    }
+
+    /**
+     * Returns the interned sets of exception types thrown by the blocks.
+     *
+     * @return the interned sets of exception types thrown by the blocks
+     */
+    public ExceptionTypeSets getExceptionTypeSets() {
+        return exceptionTypeSets;
+    }
+
+    /**
+     * Returns the first outgoing edge of the provided block.
+     * Outgoing edges are sorted by target block.
+     *
+     * @param blockId the block id
+     * @return the first outgoing edge id of the provided block
+     */
+    public int getFirstOutgoingEdge(int blockId) {
+        return outgoingOffsets[blockId];
+    }
+
+    /**
+     * Returns the id following the last outgoing edge of the provided block.
+     *
+     * @param blockId the block id
+     * @return the id following the last outgoing edge of the provided block
+     */
+    public int getEndOutgoingEdge(int blockId) {
+        return outgoingOffsets[blockId + 1];
+    }
+
+    /**
+     * Returns the number of incoming edges of the provided block.
+     *
+     * @param blockId the block id
+     * @return the number of incoming edges of the provided block
+     */
+    public int getNbIncomingEdges(int blockId) {
+        return incomingOffsets[blockId + 1] - incomingOffsets[blockId];
+    }
+
+    /**
+     * Returns the i-th incoming edge of the provided block.
+     *
+     * @param blockId the block id
+     * @param i the index of the incoming edge, lower than {@link #getNbIncomingEdges(int)}
+     * @return the i-th incoming edge id of the provided block
+     */
+    public int getIncomingEdge(int blockId, int i) {
+        return incomingEdges[incomingOffsets[blockId] + i];
+    }
+
+    /**
+     * Returns the source block of the provided edge.
+     *
+     * @param edgeId the edge id
+     * @return the source block id of the provided edge
+     */
+    public int getSource(int edgeId) {
+        return edgeSources[edgeId];
+    }
+
+    /**
+     * Returns the target block of the provided edge.
+     *
+     * @param edgeId the edge id
+     * @return the target block id of the provided edge
+     */
+    public int getTarget(int edgeId) {
+        return edgeTargets[edgeId];
+    }
+
+    /**
+     * Returns whether the provided edge is taken depending on a decision condition.
+     *
+     * @param edgeId the edge id
+     * @return true if the provided edge has a condition, false otherwise
+     */
+    public boolean isConditional(int edgeId) {
+        return (edgeFlags[edgeId] & CONDITIONAL) != 0;
+    }
+
+    /**
+     * Returns the condition evaluation result for which the provided edge is taken.
+     *
+     * @param edgeId the edge id
+     * @return the condition evaluation result
+     */
+    public boolean getEvaluationResult(int edgeId) {
+        return (edgeFlags[edgeId] & EVALUATION_RESULT) != 0;
+    }
+
+    /**
+     * Returns the decision condition of the provided edge.
+     *
+     * @param edgeId the edge id
+     * @return the decision condition of the provided edge, or null
+     */
+    public Expression getCondition(int edgeId) {
+        return edgeConditions[edgeId];
+    }
+
+    @Override
+    public String toString() {
+        return "CompactCFG [" + blocks.length + " blocks, " + edgeSources.length + " edges, "
+                + exceptionTypeSets.size() + " exception type sets]";
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Interned sets of exception types.
+ * <p>
+ * Each distinct exception type receives an int id, and each distinct set of exception types
+ * receives an int id. Blocks throwing the same exceptions then share the same set id,
+ * and two sets can be compared by comparing their ids.
+ * </p>
+ * <p>
+ * Set id {@link #EMPTY} always represents the empty set.
+ * </p>
+ */
+public final class ExceptionTypeSets {
+    /** Id of the empty set. */
+    public static final int EMPTY = 0;
+
+    /** Key wrapping the sorted type ids of a set. */
+    private static final class TypeIds {
+        private final int[] ids;
+
+        private TypeIds(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TypeIds && Arrays.equals(ids, ((TypeIds) obj).ids);
+        }
+    }
+
+    private final List<ITypeBinding> types = new ArrayList<ITypeBinding>();
+    private final Map<ITypeBinding, Integer> typeIds = new HashMap<ITypeBinding, Integer>();
+    private final List<int[]> sets = new ArrayList<int[]>();
+    private final Map<TypeIds, Integer> setIds = new HashMap<TypeIds, Integer>();
+
+    /** Builds an instance of this class, only containing the empty set. */
+    public ExceptionTypeSets() {
+        intern(new int[0]);
+    }
+
+    /**
+     * Interns the provided set of exception types.
+     *
+     * @param exceptionTypes the exception types, can be null or empty
+     * @return the id of the interned set
+     */
+    public int intern(Collection<ITypeBinding> exceptionTypes) {
+        if (exceptionTypes == null || exceptionTypes.isEmpty()) {
+            return EMPTY;
+        }
+        final int[] ids = new int[exceptionTypes.size()];
+        int i = 0;
+        for (ITypeBinding exceptionType : exceptionTypes) {
+            ids[i++] = internType(exceptionType);
+        }
+        Arrays.sort(ids);
+        return intern(ids);
+    }
+
+    private int intern(int[] sortedTypeIds) {
+        final TypeIds key = new TypeIds(sortedTypeIds);
+        final Integer setId = setIds.get(key);
+        if (setId != null) {
+            return setId;
+        }
+        final int newSetId = sets.size();
+        sets.add(sortedTypeIds);
+        setIds.put(key, newSetId);
+        return newSetId;
+    }
+
+    private int internType(ITypeBinding exceptionType) {
+        final Integer typeId = typeIds.get(exceptionType);
+        if (typeId != null) {
+            return typeId;
+        }
+        final int newTypeId = types.size();
+        types.add(exceptionType);
+        typeIds.put(exceptionType, newTypeId);
+        return newTypeId;
+    }
+
+    /**
+     * Returns the number of interned sets, including the empty set.
+     *
+     * @return the number of interned sets
+     */
+    public int size() {
+        return sets.size();
+    }
+
+    /**
+     * Returns the number of elements of the provided set.
+     *
+     * @param setId the set id
+     * @return the number of elements of the provided set
+     */
+    public int size(int setId) {
+        return sets.get(setId).length;
+    }
+
+    /**
+     * Returns the exception types of the provided set.
+     *
+     * @param setId the set id
+     * @return a new array with the exception types of the provided set
+     */
+    public ITypeBinding[] getTypes(int setId) {
+        final int[] ids = sets.get(setId);
+        final ITypeBinding[] results = new ITypeBinding[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            results[i] = types.get(ids[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Returns whether the provided set contains the provided exception type.
+     *
+     * @param setId the set id
+     * @param exceptionType the exception type to look for
+     * @return true if the provided set contains the provided exception type, false otherwise
+     */
+    public boolean contains(int setId, ITypeBinding exceptionType) {
+        final Integer typeId = typeIds.get(exceptionType);
+        return typeId != null && Arrays.binarySearch(sets.get(setId), typeId) >= 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ExceptionTypeSets[");
+        for (int setId = 0; setId < sets.size(); setId++) {
+            if (setId > 0) {
+                sb.append(", ");
+            }
+            sb.append(setId).append("=").append(Arrays.toString(getTypes(setId)));
+        }
+        return sb.append("]").toString();
+    }
+}
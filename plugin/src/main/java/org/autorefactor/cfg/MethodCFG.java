@@ -0,0 +1,117 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NodeFinder;
+
+/**
+ * The control flow graph of a method declaration, as returned by {@link CFGProvider}.
+ * <p>
+ * The graph may have been built from an earlier AST of the same compilation unit,
+ * when the method source did not change since then.
+ * In this case, the AST nodes referenced by the graph belong to the earlier AST,
+ * and {@link #toCurrentNode(ASTNode)} must be used to find the matching node in the current AST.
+ * </p>
+ */
+public final class MethodCFG {
+    private final CFGProvider.Entry entry;
+    private final MethodDeclaration currentMethod;
+
+    MethodCFG(CFGProvider.Entry entry, MethodDeclaration currentMethod) {
+        this.entry = entry;
+        this.currentMethod = currentMethod;
+    }
+
+    /**
+     * Returns the compact control flow graph of the method.
+     *
+     * @return the compact control flow graph of the method
+     */
+    public CompactCFG getCFG() {
+        return entry.cfg;
+    }
+
+    /**
+     * Returns the dataflow analyses of the method, computed on first request and shared with
+     * the next iterations as long as the method source does not change.
+     *
+     * @return the dataflow analyses of the method
+     */
+    public VariableDataFlow getDataFlow() {
+        return entry.getDataFlow();
+    }
+
+    /**
+     * Returns the method declaration in the current AST.
+     *
+     * @return the method declaration in the current AST
+     */
+    public MethodDeclaration getMethodDeclaration() {
+        return currentMethod;
+    }
+
+    /**
+     * Returns whether the graph was built from an earlier AST.
+     *
+     * @return true if the graph was built from an earlier AST, false if it was built from the current AST
+     */
+    public boolean isReused() {
+        return entry.method.getRoot() != currentMethod.getRoot();
+    }
+
+    /**
+     * Returns the node of the current AST matching the provided node of the graph.
+     *
+     * @param <T> the type of the node
+     * @param node a node referenced by the graph
+     * @return the node of the current AST at the same place in the method, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ASTNode> T toCurrentNode(T node) {
+        if (node == null || node.getRoot() == currentMethod.getRoot()) {
+            return node;
+        }
+        final int start = node.getStartPosition() - entry.method.getStartPosition()
+                + currentMethod.getStartPosition();
+        final int length = node.getLength();
+        ASTNode result = new NodeFinder(currentMethod, start, length).getCoveringNode();
+        // several nested nodes can have the same source range: find the one with the same type
+        while (result != null
+                && result.getStartPosition() == start
+                && result.getLength() == length
+                && result.getNodeType() != node.getNodeType()) {
+            result = result.getParent();
+        }
+        if (result == null
+                || result.getStartPosition() != start
+                || result.getLength() != length) {
+            return null;
+        }
+        return (T) result;
+    }
+}
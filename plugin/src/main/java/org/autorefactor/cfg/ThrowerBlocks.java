@@ -74,6 +74,33 @@ class ThrowerBlocks {
         return results;
     }
 
+    /**
+     * Returns the exception types potentially thrown by each block,
+     * including the blocks at the source of throwing edges.
+     *
+     * @return the exception types potentially thrown by each block
+     */
+    public Map<CFGBasicBlock, Set<ITypeBinding>> getThrownTypesBySourceBlock() {
+        final Map<CFGBasicBlock, Set<ITypeBinding>> results = new HashMap<CFGBasicBlock, Set<ITypeBinding>>();
+        for (Entry<CFGBasicBlock, Set<ITypeBinding>> entry : potentialThrowingBlocks.entrySet()) {
+            addAll(results, entry.getKey(), entry.getValue());
+        }
+        for (Entry<CFGEdgeBuilder, Set<ITypeBinding>> entry : potentialThrowingEdges.entrySet()) {
+            addAll(results, entry.getKey().getSourceBlock(), entry.getValue());
+        }
+        return results;
+    }
+
+    private void addAll(Map<CFGBasicBlock, Set<ITypeBinding>> results, CFGBasicBlock block,
+            Set<ITypeBinding> thrownTypes) {
+        Set<ITypeBinding> types = results.get(block);
+        if (types == null) {
+            types = new HashSet<ITypeBinding>();
+            results.put(block, types);
+        }
+        types.addAll(thrownTypes);
+    }
+
     private Set<ITypeBinding> getNonMatching(Set<ITypeBinding> exceptionTypes,
             Set<ITypeBinding> thrownTypes) {
         final Set<ITypeBinding> results = new HashSet<ITypeBinding>();
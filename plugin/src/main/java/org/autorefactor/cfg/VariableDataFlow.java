@@ -0,0 +1,406 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import static org.autorefactor.cfg.VariableAccess.DECL_INIT;
+import static org.autorefactor.cfg.VariableAccess.DECL_UNINIT;
+import static org.autorefactor.cfg.VariableAccess.READ;
+import static org.autorefactor.cfg.VariableAccess.WRITE;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.cfg.BitVectorDataFlow.Direction;
+import org.autorefactor.cfg.BitVectorDataFlow.Meet;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Name;
+
+/**
+ * Liveness, reaching definitions and definite assignment of the local variables of a method.
+ * <p>
+ * Local variables and their definitions are numbered once from the {@link VariableAccess}es
+ * of the {@link CompactCFG}, then each analysis is solved with {@link BitVectorDataFlow}
+ * the first time it is queried.
+ * </p>
+ * <p>
+ * {@link CFGBuilder} records the accesses of a block in the order it visits the expressions,
+ * which is not always the evaluation order (the left hand side of an assignment is recorded before its
+ * right hand side). So liveness considers that every read in a block happens before the writes
+ * of this block: the results may report more live variables than there really are, never less.
+ * </p>
+ */
+public final class VariableDataFlow {
+    private final CompactCFG cfg;
+    private final List<IVariableBinding> variables = new ArrayList<IVariableBinding>();
+    /**
+     * The variable indexes by binding key, so that the bindings of another AST of the same method
+     * find the same variables when the analyses are reused, see {@link CFGProvider}.
+     */
+    private final Map<Object, Integer> variableIndexes = new HashMap<Object, Integer>();
+    private final List<VariableAccess> definitions = new ArrayList<VariableAccess>();
+    private final List<Integer> definitionVariables = new ArrayList<Integer>();
+    /** The accesses to local variables of each block, in recording order. */
+    private final List<List<VariableAccess>> blockAccesses;
+    /** The index of the variable accessed by each access of {@link #blockAccesses}. */
+    private final int[][] blockAccessVariables;
+
+    private BitVectorDataFlow liveness;
+    private BitVectorDataFlow reachingDefinitions;
+    private BitVectorDataFlow definiteAssignment;
+
+    private VariableDataFlow(CompactCFG cfg) {
+        this.cfg = cfg;
+        final int nbBlocks = cfg.getNbBlocks();
+        this.blockAccesses = new ArrayList<List<VariableAccess>>(nbBlocks);
+        this.blockAccessVariables = new int[nbBlocks][];
+        final List<Integer> accessVariables = new ArrayList<Integer>();
+        for (int b = 0; b < nbBlocks; b++) {
+            final List<VariableAccess> accesses = new ArrayList<VariableAccess>();
+            accessVariables.clear();
+            for (Object obj : cfg.getBlock(b).getOutgoingEdgesAndVariableAccesses()) {
+                if (obj instanceof VariableAccess) {
+                    final VariableAccess access = (VariableAccess) obj;
+                    final IVariableBinding variable = getLocalVariable(access);
+                    if (variable != null) {
+                        final int varIndex = indexOf(variable);
+                        accesses.add(access);
+                        accessVariables.add(varIndex);
+                        if (isDefinition(access)) {
+                            definitions.add(access);
+                            definitionVariables.add(varIndex);
+                        }
+                    }
+                }
+            }
+            blockAccesses.add(accesses);
+            blockAccessVariables[b] = new int[accessVariables.size()];
+            for (int i = 0; i < accessVariables.size(); i++) {
+                blockAccessVariables[b][i] = accessVariables.get(i);
+            }
+        }
+    }
+
+    /**
+     * Prepares the dataflow analyses of the provided control flow graph.
+     *
+     * @param cfg the control flow graph of a method
+     * @return the dataflow analyses of the provided control flow graph
+     */
+    public static VariableDataFlow of(CompactCFG cfg) {
+        return new VariableDataFlow(cfg);
+    }
+
+    private static IVariableBinding getLocalVariable(VariableAccess access) {
+        final Name name = access.getName();
+        if (name == null) {
+            return null;
+        }
+        final IBinding binding = name.resolveBinding();
+        if (binding instanceof IVariableBinding && !((IVariableBinding) binding).isField()) {
+            return (IVariableBinding) binding;
+        }
+        return null;
+    }
+
+    private int indexOf(IVariableBinding variable) {
+        final Integer index = variableIndexes.get(key(variable));
+        if (index != null) {
+            return index;
+        }
+        final int newIndex = variables.size();
+        variables.add(variable);
+        variableIndexes.put(key(variable), newIndex);
+        return newIndex;
+    }
+
+    /** Recovered bindings may have no key, they are then only equal to themselves. */
+    private static Object key(IVariableBinding variable) {
+        final String key = variable.getKey();
+        return key != null ? key : variable;
+    }
+
+    private static boolean isDefinition(VariableAccess access) {
+        return (access.getAccessType() & (DECL_INIT | WRITE)) != 0;
+    }
+
+    private static boolean is(VariableAccess access, int flag) {
+        return (access.getAccessType() & flag) != 0;
+    }
+
+    /**
+     * Returns the control flow graph being analyzed.
+     *
+     * @return the control flow graph being analyzed
+     */
+    public CompactCFG getCFG() {
+        return cfg;
+    }
+
+    /**
+     * Returns the number of local variables accessed in the method.
+     *
+     * @return the number of local variables accessed in the method
+     */
+    public int getNbVariables() {
+        return variables.size();
+    }
+
+    /**
+     * Returns the local variable with the provided index.
+     *
+     * @param varIndex the variable index, as used in the bit sets returned by this class
+     * @return the local variable with the provided index, from the AST the graph was built from
+     */
+    public IVariableBinding getVariable(int varIndex) {
+        return variables.get(varIndex);
+    }
+
+    /**
+     * Returns the index of the provided local variable.
+     *
+     * @param variable the local variable, from the AST the graph was built from or from a later AST
+     * @return the index of the provided local variable, or -1 if it is not accessed in the method
+     */
+    public int getVariableIndex(IVariableBinding variable) {
+        final Integer index = variableIndexes.get(key(variable));
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the number of definitions of local variables in the method.
+     *
+     * @return the number of definitions of local variables in the method
+     */
+    public int getNbDefinitions() {
+        return definitions.size();
+    }
+
+    /**
+     * Returns the definition with the provided index.
+     *
+     * @param defIndex the definition index, as used in the bit sets returned by this class
+     * @return the variable access defining the variable
+     */
+    public VariableAccess getDefinition(int defIndex) {
+        return definitions.get(defIndex);
+    }
+
+    /**
+     * Returns the index of the variable defined by the provided definition.
+     *
+     * @param defIndex the definition index
+     * @return the index of the variable defined by the provided definition
+     */
+    public int getDefinedVariable(int defIndex) {
+        return definitionVariables.get(defIndex);
+    }
+
+    /**
+     * Returns the local variables live on entering the provided block.
+     *
+     * @param blockId the block id
+     * @return the indexes of the live variables, must not be modified
+     */
+    public BitSet getLiveIn(int blockId) {
+        return getLiveness().getIn(blockId);
+    }
+
+    /**
+     * Returns the local variables live on leaving the provided block,
+     * i.e. which value may be read later on.
+     *
+     * @param blockId the block id
+     * @return the indexes of the live variables, must not be modified
+     */
+    public BitSet getLiveOut(int blockId) {
+        return getLiveness().getOut(blockId);
+    }
+
+    /**
+     * Returns whether the value of the provided variable may be read after the provided block.
+     *
+     * @param blockId the block id
+     * @param variable the local variable
+     * @return true if the variable is live on leaving the provided block, false otherwise
+     */
+    public boolean isLiveOut(int blockId, IVariableBinding variable) {
+        final int varIndex = getVariableIndex(variable);
+        return varIndex != -1 && getLiveOut(blockId).get(varIndex);
+    }
+
+    /**
+     * Returns the definitions reaching the start of the provided block.
+     *
+     * @param blockId the block id
+     * @return the indexes of the reaching definitions, must not be modified
+     */
+    public BitSet getReachingDefinitionsIn(int blockId) {
+        return getReachingDefinitions().getIn(blockId);
+    }
+
+    /**
+     * Returns the definitions of the provided variable reaching the start of the provided block.
+     *
+     * @param blockId the block id
+     * @param variable the local variable
+     * @return the variable accesses defining the variable
+     */
+    public List<VariableAccess> getReachingDefinitions(int blockId, IVariableBinding variable) {
+        final List<VariableAccess> results = new ArrayList<VariableAccess>();
+        final int varIndex = getVariableIndex(variable);
+        if (varIndex != -1) {
+            final BitSet reaching = getReachingDefinitionsIn(blockId);
+            for (int d = reaching.nextSetBit(0); d >= 0; d = reaching.nextSetBit(d + 1)) {
+                if (definitionVariables.get(d) == varIndex) {
+                    results.add(definitions.get(d));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the local variables definitely assigned on entering the provided block.
+     *
+     * @param blockId the block id
+     * @return the indexes of the definitely assigned variables, must not be modified
+     */
+    public BitSet getDefinitelyAssignedIn(int blockId) {
+        return getDefiniteAssignment().getIn(blockId);
+    }
+
+    /**
+     * Returns whether the provided variable is definitely assigned on entering the provided block.
+     *
+     * @param blockId the block id
+     * @param variable the local variable
+     * @return true if the provided variable is definitely assigned, false otherwise
+     */
+    public boolean isDefinitelyAssignedIn(int blockId, IVariableBinding variable) {
+        final int varIndex = getVariableIndex(variable);
+        return varIndex != -1 && getDefinitelyAssignedIn(blockId).get(varIndex);
+    }
+
+    private BitVectorDataFlow getLiveness() {
+        if (liveness == null) {
+            final int nbBlocks = cfg.getNbBlocks();
+            final BitSet[] gen = new BitSet[nbBlocks];
+            final BitSet[] kill = new BitSet[nbBlocks];
+            for (int b = 0; b < nbBlocks; b++) {
+                gen[b] = new BitSet();
+                kill[b] = new BitSet();
+                final List<VariableAccess> accesses = blockAccesses.get(b);
+                for (int i = 0; i < accesses.size(); i++) {
+                    final VariableAccess access = accesses.get(i);
+                    final int varIndex = blockAccessVariables[b][i];
+                    if (is(access, READ)) {
+                        gen[b].set(varIndex);
+                    }
+                    if (is(access, DECL_INIT | DECL_UNINIT | WRITE)) {
+                        kill[b].set(varIndex);
+                    }
+                }
+                // reads are considered to happen before the writes in the same block
+                kill[b].andNot(gen[b]);
+            }
+            liveness = BitVectorDataFlow.solve(cfg, Direction.BACKWARD, Meet.UNION, variables.size(), gen, kill,
+                    new BitSet());
+        }
+        return liveness;
+    }
+
+    private BitVectorDataFlow getReachingDefinitions() {
+        if (reachingDefinitions == null) {
+            final int nbBlocks = cfg.getNbBlocks();
+            final BitSet[] definitionsOfVariable = new BitSet[variables.size()];
+            for (int v = 0; v < definitionsOfVariable.length; v++) {
+                definitionsOfVariable[v] = new BitSet();
+            }
+            for (int d = 0; d < definitions.size(); d++) {
+                definitionsOfVariable[definitionVariables.get(d)].set(d);
+            }
+
+            final BitSet[] gen = new BitSet[nbBlocks];
+            final BitSet[] kill = new BitSet[nbBlocks];
+            int d = 0;
+            for (int b = 0; b < nbBlocks; b++) {
+                gen[b] = new BitSet();
+                kill[b] = new BitSet();
+                final List<VariableAccess> accesses = blockAccesses.get(b);
+                for (int i = 0; i < accesses.size(); i++) {
+                    final VariableAccess access = accesses.get(i);
+                    final int varIndex = blockAccessVariables[b][i];
+                    if (is(access, DECL_UNINIT)) {
+                        // a new variable: previous definitions (from an earlier loop iteration) are dead
+                        gen[b].andNot(definitionsOfVariable[varIndex]);
+                        kill[b].or(definitionsOfVariable[varIndex]);
+                    }
+                    if (isDefinition(access)) {
+                        // definitions are numbered in the same order as this loop
+                        gen[b].andNot(definitionsOfVariable[varIndex]);
+                        kill[b].or(definitionsOfVariable[varIndex]);
+                        gen[b].set(d++);
+                    }
+                }
+                kill[b].andNot(gen[b]);
+            }
+            reachingDefinitions = BitVectorDataFlow.solve(cfg, Direction.FORWARD, Meet.UNION, definitions.size(),
+                    gen, kill, new BitSet());
+        }
+        return reachingDefinitions;
+    }
+
+    private BitVectorDataFlow getDefiniteAssignment() {
+        if (definiteAssignment == null) {
+            final int nbBlocks = cfg.getNbBlocks();
+            final BitSet[] gen = new BitSet[nbBlocks];
+            final BitSet[] kill = new BitSet[nbBlocks];
+            for (int b = 0; b < nbBlocks; b++) {
+                gen[b] = new BitSet();
+                kill[b] = new BitSet();
+                final List<VariableAccess> accesses = blockAccesses.get(b);
+                for (int i = 0; i < accesses.size(); i++) {
+                    final VariableAccess access = accesses.get(i);
+                    final int varIndex = blockAccessVariables[b][i];
+                    if (isDefinition(access)) {
+                        gen[b].set(varIndex);
+                        kill[b].clear(varIndex);
+                    } else if (is(access, DECL_UNINIT)) {
+                        gen[b].clear(varIndex);
+                        kill[b].set(varIndex);
+                    }
+                }
+            }
+            definiteAssignment = BitVectorDataFlow.solve(cfg, Direction.FORWARD, Meet.INTERSECTION,
+                    variables.size(), gen, kill, new BitSet());
+        }
+        return definiteAssignment;
+    }
+}
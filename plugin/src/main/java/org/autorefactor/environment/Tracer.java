@@ -0,0 +1,99 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.environment;
+
+/**
+ * Traces the phases of the refactorings, e.g. to record them in a profiler.
+ * <p>
+ * Tracing is off by default: {@link #begin(Phase)} then returns null and callers skip computing the attributes.
+ */
+public abstract class Tracer {
+    /** The traced phases. */
+    public enum Phase {
+        /** Parsing a compilation unit into an AST. */
+        PARSE,
+        /** A rule contributing refactorings, traced when it contributes them. */
+        RULE,
+        /** Applying the refactorings to the document. */
+        APPLY,
+        /** Saving the compilation unit. */
+        SAVE,
+        /** Building the control flow graph of a method. */
+        CFG,
+        /** Testing a candidate code while delta debugging. */
+        DD_TEST
+    }
+
+    /** The tracer which traces nothing. */
+    public static final Tracer NONE = new Tracer() {
+        @Override
+        public Object begin(Phase phase) {
+            return null;
+        }
+
+        @Override
+        public void end(Object span, String path, String detail) {
+            // nothing to trace
+        }
+    };
+
+    private static volatile Tracer current = NONE;
+
+    /**
+     * Returns the current tracer.
+     *
+     * @return the current tracer, {@link #NONE} by default
+     */
+    public static Tracer get() {
+        return current;
+    }
+
+    /**
+     * Sets the current tracer.
+     *
+     * @param tracer the new tracer, or {@link #NONE} to stop tracing
+     */
+    public static void set(Tracer tracer) {
+        current = tracer;
+    }
+
+    /**
+     * Starts tracing a phase.
+     *
+     * @param phase the phase starting now
+     * @return the span to pass to {@link #end(Object, String, String)}, or null if this phase is not traced
+     */
+    public abstract /* @Nullable */ Object begin(Phase phase);
+
+    /**
+     * Ends tracing a phase.
+     *
+     * @param span the span returned by {@link #begin(Phase)}, not null
+     * @param path the path of the file being refactored, null if unknown
+     * @param detail the rule class, the result of a test, etc.
+     */
+    public abstract void end(Object span, /* @Nullable */ String path, /* @Nullable */ String detail);
+}
@@ -0,0 +1,71 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.environment;
+
+/**
+ * Listens to the refactoring visitors disabled while refactoring, e.g. to report them to a monitoring tool
+ * without parsing the logged messages.
+ * <p>
+ * Nothing listens by default.
+ */
+public abstract class VisitorListener {
+    /** The listener which ignores everything. */
+    public static final VisitorListener NONE = new VisitorListener() {
+        @Override
+        public void visitorDisabled(String visitorClassName, String message, Exception cause) {
+            // nothing to report
+        }
+    };
+
+    private static volatile VisitorListener current = NONE;
+
+    /**
+     * Returns the current listener.
+     *
+     * @return the current listener, {@link #NONE} by default
+     */
+    public static VisitorListener get() {
+        return current;
+    }
+
+    /**
+     * Sets the current listener.
+     *
+     * @param listener the new listener, or {@link #NONE} to stop listening
+     */
+    public static void set(VisitorListener listener) {
+        current = listener;
+    }
+
+    /**
+     * A visitor threw an exception: it is disabled for the rest of the run. Called before the error is logged.
+     *
+     * @param visitorClassName the class name of the disabled visitor
+     * @param message the message logged for this error
+     * @param cause the exception thrown by the visitor
+     */
+    public abstract void visitorDisabled(String visitorClassName, String message, Exception cause);
+}
@@ -15,4 +15,9 @@ class AnyOfMatcher<T extends ASTNode>
     public boolean match(ASTNode t, BoundNodesBuilder resultBounds) {
         return InternalMatcherUtil.matchAnyOf(t, resultBounds, getMatchers());
     }
+
+    @Override
+    public void collectRequiredFeatures(MatcherFeatures features) {
+        // no single alternative is required
+    }
 }
\ No newline at end of file
@@ -240,7 +240,42 @@ public abstract class AstMatcher extends PrivateAstMatcher {
 
     /** basic matcher interface for some ast node T */
     public interface Matcher<T extends ASTNode> {
+        /** cost of a check on the node itself, e.g. comparing an identifier or an operator */
+        int COST_CHEAP = 1;
+        /** cost of an opaque predicate */
+        int COST_PREDICATE = 5;
+        /** cost of a matcher descending into child nodes */
+        int COST_STRUCTURAL = 10;
+        /** cost of a check resolving bindings */
+        int COST_BINDING = 100;
+
         boolean match(ASTNode t, BoundNodesBuilder bounds);
+
+        /**
+         * Estimated cost of a call to {@link #match(ASTNode, BoundNodesBuilder)}.
+         *
+         * Used by "allOf" to evaluate cheap checks before expensive ones.
+         */
+        default int cost() {
+            return COST_STRUCTURAL;
+        }
+
+        /**
+         * Whether this matcher neither reads nor writes bounds and does not rely on
+         * other matchers having matched before, so "allOf" may evaluate it out of
+         * declaration order.
+         */
+        default boolean isReorderable() {
+            return false;
+        }
+
+        /**
+         * Adds the features a compilation unit must contain for this matcher to match.
+         *
+         * Contributing nothing is always correct, it only makes file prefiltering less selective.
+         */
+        default void collectRequiredFeatures(MatcherFeatures features) {
+        }
     }
 
     /**
@@ -275,7 +310,12 @@ public abstract class AstMatcher extends PrivateAstMatcher {
     @SuppressWarnings("unchecked")
     @SafeVarargs
     public static <T extends ASTNode> Matcher<T> allOf(Matcher<? extends T> firstMatcher, Matcher<? extends T>... matchers) {
-        return matchers.length == 0 ? (Matcher<T>)firstMatcher : new CommonMatcher<>(ASTNode.class, matchers);
+        if (matchers.length == 0) {
+            return (Matcher<T>) firstMatcher;
+        }
+        final CommonMatcher<T, Matcher<T>> result = new CommonMatcher<>(ASTNode.class, firstMatcher);
+        result.addAll(matchers);
+        return result;
     }
 
     /**
@@ -286,10 +326,20 @@ public abstract class AstMatcher extends PrivateAstMatcher {
 
 			@Override
 			public boolean match(ASTNode t, BoundNodesBuilder bounds) {
-				// the sub matcher shall be able to read bounds but new binds are not 
+				// the sub matcher shall be able to read bounds but new binds are not
 				// returned
 				return !matcher.match(t, bounds.copy());
 			}
+
+			@Override
+			public int cost() {
+				return matcher.cost();
+			}
+
+			@Override
+			public boolean isReorderable() {
+				return matcher.isReorderable();
+			}
 		};
 	}
 
@@ -304,6 +354,11 @@ public abstract class AstMatcher extends PrivateAstMatcher {
 	            DescendantFinderVisitor visitor = new DescendantFinderVisitor(matcher, bounds);
 	            return visitor.findOrDefault(t, false);
 			}
+
+			@Override
+			public void collectRequiredFeatures(MatcherFeatures features) {
+				matcher.collectRequiredFeatures(features);
+			}
 		};
 	}
 	
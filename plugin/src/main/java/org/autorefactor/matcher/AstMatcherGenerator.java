@@ -231,7 +231,7 @@ public class AstMatcherGenerator {
 		if (nodeClassName.equals("SimpleName")) {
 			w.write(f("\n" + 
 					"        public final %s hasDeclaringClass(String name) {\n" + 
-					"            addPredicate(\"declaringClass\", n -> {\n" + 
+					"            addBindingPredicate(\"declaringClass\", n -> {\n" + 
 					"                IVariableBinding b = tryCast(n.resolveBinding(), IVariableBinding.class);\n" + 
 					"                ITypeBinding declaringClass = b != null ? b.getDeclaringClass() : null;\n" + 
 					"                if (declaringClass == null) {\n" + 
@@ -294,14 +294,14 @@ public class AstMatcherGenerator {
 			w.write("\n" + 
 					"        public final MethodInvocationMatcher isMethod(String typeQualifiedName,\n" + 
 					"                String methodName, String... parameterTypesQualifiedNames) {\n" + 
-					"            addPredicate(n -> ASTHelper.isMethod(n, typeQualifiedName, methodName, parameterTypesQualifiedNames));\n" + 
+					"            addBindingPredicate(\"method\", n -> ASTHelper.isMethod(n, typeQualifiedName, methodName, parameterTypesQualifiedNames));\n" + 
 					"            return this;\n" + 
 					"        }\n");
 		} else if (nodeClassName.equals("MethodDeclaration")) {
 			w.write("\n" + 
 					"        public final MethodDeclarationMatcher isMethod(String typeQualifiedName,\n" + 
 					"                String methodName, String... parameterTypesQualifiedNames) {\n" + 
-					"            addPredicate(n -> ASTHelper.isMethod(n, typeQualifiedName, methodName, parameterTypesQualifiedNames));\n" + 
+					"            addBindingPredicate(\"method\", n -> ASTHelper.isMethod(n, typeQualifiedName, methodName, parameterTypesQualifiedNames));\n" + 
 					"            return this;\n" + 
 					"        }\n");
 		}
@@ -331,9 +331,9 @@ public class AstMatcherGenerator {
 		if (nodeClassName.equals("QualifiedName")) {
 			w.write("\n" + 
 					"        public final QualifiedNameMatcher isArrayLength() {\n" + 
-					"            addPredicate(n ->\n" + 
-					"                ASTHelper.isArray(n.getQualifier())\n" + 
-					"                    && n.getName().getIdentifier().equals(\"length\"));\n" + 
+					"            addBindingPredicate(\"arrayLength\", n ->\n" + 
+					"                n.getName().getIdentifier().equals(\"length\")\n" + 
+					"                    && ASTHelper.isArray(n.getQualifier()));\n" + 
 					"            return this;\n" + 
 					"        }\n");
 		}
@@ -409,7 +409,7 @@ public class AstMatcherGenerator {
 			w.write("\n" +
 					f("        public final %s has%s(String name) {\n", 
 							matcherClassName, capitalize(visibleId), childClassName) +
-					f("            addPredicate(\"%s\", n -> { SimpleName sn = tryCast(n.get%s(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });\n", 
+					f("            addIdentifierPredicate(\"%s\", name, n -> { SimpleName sn = tryCast(n.get%s(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });\n", 
 							id, capitalize(id)) +
 					"            return this;\n" +
 					"        }\n"
@@ -496,6 +496,18 @@ public class AstMatcherGenerator {
 						);
 				break;
 			case "String":
+				if ("identifier".equals(id)) {
+					w.write("\n" +
+							f("        public final %s has%s(%s v) {\n", 
+									matcherClassName, capitalize(id), valueType) +
+							f("            addIdentifierPredicate(\"%s\", v, n -> v != null && v.equals(n.get%s()));\n", 
+									id, capitalize(id)) +
+							"            return this;\n" +
+							"        }\n"
+							);
+					break;
+				}
+				// fall through
 			case "Assignment$Operator":
 			case "InfixExpression$Operator":
 			case "PostfixExpression$Operator":
@@ -1,7 +1,10 @@
 package org.autorefactor.matcher;
 
+import static org.autorefactor.matcher.InternalMatcherUtil.allReorderable;
 import static org.autorefactor.matcher.InternalMatcherUtil.matchAllOf;
+import static org.autorefactor.matcher.InternalMatcherUtil.orderByCost;
 import static org.autorefactor.matcher.InternalMatcherUtil.predicateMatcher;
+import static org.autorefactor.matcher.InternalMatcherUtil.sumCost;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +26,8 @@ public class CommonMatcher<T extends ASTNode, M extends Matcher<T>> implements B
     private final Class<? extends ASTNode> clazz;
     private final List<Matcher<?>> matchers = new ArrayList<>();
     private List<String> bindIds = new ArrayList<>();
+    /** sub-matchers ordered by cost, computed on first match */
+    private volatile Matcher<?>[] orderedMatchers;
 
     CommonMatcher(Class<? extends ASTNode> clazz) {
         this.clazz = clazz;
@@ -46,6 +51,7 @@ public class CommonMatcher<T extends ASTNode, M extends Matcher<T>> implements B
             throw new NullPointerException("matcher");
         }
         matchers.add(matcher);
+        orderedMatchers = null;
     }
 
     final List<Matcher<?>> getMatchers() {
@@ -73,7 +79,40 @@ public class CommonMatcher<T extends ASTNode, M extends Matcher<T>> implements B
             return false;
         }
         // TODO: replace with matcher creation style
-        return matchAllOf(t, resultBounds, matchers, bindIds);
+        return matchAllOf(t, resultBounds, getOrderedMatchers(), bindIds);
+    }
+
+    /**
+     * Returns the sub-matchers in evaluation order.
+     *
+     * The order is computed once, sub-matchers are expected to be fully built
+     * when this matcher is first used.
+     */
+    private Matcher<?>[] getOrderedMatchers() {
+        Matcher<?>[] result = orderedMatchers;
+        if (result == null) {
+            result = orderByCost(matchers);
+            orderedMatchers = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int cost() {
+        return Matcher.COST_CHEAP + sumCost(matchers);
+    }
+
+    @Override
+    public boolean isReorderable() {
+        return bindIds.isEmpty() && allReorderable(matchers);
+    }
+
+    @Override
+    public void collectRequiredFeatures(MatcherFeatures features) {
+        features.addNodeClass(clazz);
+        for (Matcher<?> m : matchers) {
+            m.collectRequiredFeatures(features);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -137,6 +176,23 @@ public class CommonMatcher<T extends ASTNode, M extends Matcher<T>> implements B
         add(InternalMatcherUtil.predicateMatcher(name, (Class<T>)clazz, condition));
     }
 
+    /**
+     * Adds a predicate checking the identifier of a simple name.
+     * The identifier is required to be present in compilation units this matcher matches.
+     */
+    @SuppressWarnings("unchecked")
+    protected final void addIdentifierPredicate(String name, String identifier, Predicate<T> condition) {
+        add(InternalMatcherUtil.identifierMatcher(name, (Class<T>)clazz, identifier, condition));
+    }
+
+    /**
+     * Adds a predicate resolving bindings. It is evaluated after cheaper matchers.
+     */
+    @SuppressWarnings("unchecked")
+    protected final void addBindingPredicate(String name, Predicate<T> condition) {
+        add(InternalMatcherUtil.predicateMatcher(name, (Class<T>)clazz, condition, Matcher.COST_BINDING));
+    }
+
     @SuppressWarnings("unchecked")
 	protected final	<PT extends ASTNode>
 	void addProperty(
@@ -174,6 +230,6 @@ public class CommonMatcher<T extends ASTNode, M extends Matcher<T>> implements B
 
     @SuppressWarnings("unchecked")
 	protected final void addCountIs(Function<T, List<?>> getter, int count) {
-		add(predicateMatcher((Class<T>)clazz, n -> size(getter.apply(n)) == count));
+		add(predicateMatcher("count", (Class<T>)clazz, n -> size(getter.apply(n)) == count));
 	}
 }
\ No newline at end of file
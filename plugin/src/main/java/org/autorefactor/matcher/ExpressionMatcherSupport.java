@@ -46,7 +46,7 @@ class ExpressionMatcherSupport<T extends Expression, M extends ExpressionMatcher
     @SuppressWarnings("unchecked")
 	public final <C,V> M hasConstantExpressionValue( 
     		Class<C> constantClass, Function<C,V> accessor, V value) { 
-    	addPredicate(n -> { 
+    	addBindingPredicate("constantExpressionValue", n -> { 
     		final Object o = n.resolveConstantExpressionValue(); 
     		final V v = constantClass.isInstance(o) ? accessor.apply(constantClass.cast(o)) : null; 
     		return v != null && v.equals(value); 
@@ -56,7 +56,7 @@ class ExpressionMatcherSupport<T extends Expression, M extends ExpressionMatcher
 
     @SuppressWarnings("unchecked")
 	public final M hasTypeBinding(TypeBindingMatcher m) { 
-    	addPredicate( 
+    	addBindingPredicate("typeBinding",
     			n -> { 
     				final ITypeBinding tb = n.resolveTypeBinding(); 
     				return tb != null && m.matches(tb); 
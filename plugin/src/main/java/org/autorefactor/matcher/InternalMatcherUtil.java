@@ -1,6 +1,8 @@
 package org.autorefactor.matcher;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -182,6 +184,13 @@ public final class InternalMatcherUtil {
             return false;
         }
 
+        @Override
+        public void collectRequiredFeatures(MatcherFeatures features) {
+            for (Matcher<?> m : matchers) {
+                m.collectRequiredFeatures(features);
+            }
+        }
+
         @Override
         public String toString() {
             return "ComputedExpressionMatcher[" + name + ", " + nodeClass.getName() + "]";
@@ -190,35 +199,153 @@ public final class InternalMatcherUtil {
 
     /**
      * Helper factory method for matching nodeClass dependent expression.
+     *
+     * The condition is opaque, so it is always evaluated in declaration order.
      */
     static <T extends ASTNode> Matcher<T> predicateMatcher(Class<T> nodeClass, Predicate<T> condition) {
-        return new Matcher<T>() {
-            @Override
-            public boolean match(ASTNode t, BoundNodesBuilder resultBounds) {
-                if (nodeClass.isInstance(t)) {
-                    return condition.test(nodeClass.cast(t));
-                }
-                return false;
+        return new PredicateMatcher<>("predicate", nodeClass, condition, Matcher.COST_PREDICATE, false);
+    }
+
+    /**
+     * Helper factory method for matching a cheap nodeClass dependent expression
+     * like a property value comparison.
+     *
+     * The condition must not depend on other matchers, it may be evaluated before them.
+     */
+    static <T extends ASTNode> Matcher<T> predicateMatcher(String name, Class<T> nodeClass, Predicate<T> condition) {
+        return predicateMatcher(name, nodeClass, condition, Matcher.COST_CHEAP);
+    }
+
+    /**
+     * Helper factory method for matching a nodeClass dependent expression with given cost.
+     *
+     * The condition must not depend on other matchers, it may be evaluated before them.
+     */
+    static <T extends ASTNode> Matcher<T> predicateMatcher(String name, Class<T> nodeClass, Predicate<T> condition,
+            int cost) {
+        return new PredicateMatcher<>(name, nodeClass, condition, cost, true);
+    }
+
+    /**
+     * Helper factory method for matching a cheap nodeClass dependent expression
+     * which only holds when the compilation unit contains given identifier.
+     */
+    static <T extends ASTNode> Matcher<T> identifierMatcher(String name, Class<T> nodeClass, String identifier,
+            Predicate<T> condition) {
+        final PredicateMatcher<T> matcher =
+                new PredicateMatcher<>(name, nodeClass, condition, Matcher.COST_CHEAP, true);
+        matcher.requiredIdentifier = identifier;
+        return matcher;
+    }
+
+    private static class PredicateMatcher<T extends ASTNode> implements Matcher<T> {
+        private final String name;
+        private final Class<T> nodeClass;
+        private final Predicate<T> condition;
+        private final int cost;
+        private final boolean reorderable;
+        /* @Nullable */ private String requiredIdentifier;
+
+        PredicateMatcher(String name, Class<T> nodeClass, Predicate<T> condition, int cost, boolean reorderable) {
+            this.name = name;
+            this.nodeClass = nodeClass;
+            this.condition = condition;
+            this.cost = cost;
+            this.reorderable = reorderable;
+        }
+
+        @Override
+        public boolean match(ASTNode t, BoundNodesBuilder resultBounds) {
+            if (nodeClass.isInstance(t)) {
+                return condition.test(nodeClass.cast(t));
             }
-        };
+            return false;
+        }
+
+        @Override
+        public int cost() {
+            return cost;
+        }
+
+        @Override
+        public boolean isReorderable() {
+            return reorderable;
+        }
+
+        @Override
+        public void collectRequiredFeatures(MatcherFeatures features) {
+            features.addNodeClass(nodeClass);
+            features.addIdentifier(requiredIdentifier);
+        }
+
+        @Override
+        public String toString() {
+            return "PredicateMatcher[" + name + ", " + nodeClass.getName() + "]";
+        }
+    }
+
+    /**
+     * Orders "allOf" sub-matchers by ascending cost.
+     *
+     * Only reorderable matchers are moved. The other ones may read bounds written by
+     * their predecessors, so they keep their declaration order relative to each other.
+     * As both sequences are merged by cost, a cheap name check runs before a matcher
+     * resolving bindings, whatever the declaration order was.
+     */
+    static Matcher<?>[] orderByCost(List<? extends Matcher<?>> matchers) {
+        final List<Matcher<?>> reorderables = new ArrayList<>();
+        final List<Matcher<?>> fixed = new ArrayList<>();
+        for (Matcher<?> m : matchers) {
+            if (m.isReorderable()) {
+                reorderables.add(m);
+            } else {
+                fixed.add(m);
+            }
+        }
+        // stable sort: equal costs keep declaration order
+        reorderables.sort(Comparator.comparingInt(Matcher::cost));
+
+        final Matcher<?>[] result = new Matcher<?>[matchers.size()];
+        int i = 0;
+        int r = 0;
+        int f = 0;
+        while (r < reorderables.size() && f < fixed.size()) {
+            if (reorderables.get(r).cost() <= fixed.get(f).cost()) {
+                result[i++] = reorderables.get(r++);
+            } else {
+                result[i++] = fixed.get(f++);
+            }
+        }
+        while (r < reorderables.size()) {
+            result[i++] = reorderables.get(r++);
+        }
+        while (f < fixed.size()) {
+            result[i++] = fixed.get(f++);
+        }
+        return result;
     }
 
+    /**
+     * Estimated cost of evaluating all given matchers.
+     */
+    static int sumCost(List<? extends Matcher<?>> matchers) {
+        int cost = 0;
+        for (Matcher<?> m : matchers) {
+            cost += m.cost();
+        }
+        return cost;
+    }
 
     /**
-     * Helper factory method for matching nodeClass dependent expression.
-     * 
-     * TODO: use name
+     * Returns whether all given matchers are reorderable.
      */
-    static <T extends ASTNode> Matcher<T> predicateMatcher(String name, Class<T> nodeClass, Predicate<T> condition) {
-        return new Matcher<T>() {
-            @Override
-            public boolean match(ASTNode t, BoundNodesBuilder resultBounds) {
-                if (nodeClass.isInstance(t)) {
-                    return condition.test(nodeClass.cast(t));
-                }
+    static boolean allReorderable(List<? extends Matcher<?>> matchers) {
+        for (Matcher<?> m : matchers) {
+            if (!m.isReorderable()) {
                 return false;
             }
-        };
+        }
+        return true;
     }
 
     static String location(ASTNode node) {
@@ -398,7 +525,7 @@ public final class InternalMatcherUtil {
 			Class<T> nodeClazz, 
 			Function<T, List<?>> getter, 
 			int count) {
-		return predicateMatcher(nodeClazz, n -> InternalMatcherUtil.size(getter.apply(n)) == count);
+		return predicateMatcher("count", nodeClazz, n -> InternalMatcherUtil.size(getter.apply(n)) == count);
 	}
 
 	static int size(List<?> l) {
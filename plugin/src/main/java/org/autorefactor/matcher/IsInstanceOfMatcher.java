@@ -20,4 +20,14 @@ class IsInstanceOfMatcher
         // TODO: check if optimizable
         return t instanceof Expression && ASTHelper.instanceOf((Expression) t, className);
     }
+
+    @Override
+    public int cost() {
+        return COST_BINDING;
+    }
+
+    @Override
+    public boolean isReorderable() {
+        return true;
+    }
 }
\ No newline at end of file
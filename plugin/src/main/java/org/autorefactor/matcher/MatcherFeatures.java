@@ -0,0 +1,92 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2026 AutoRefactor contributors - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.matcher;
+
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.autorefactor.matcher.AstMatcher.Matcher;
+import org.eclipse.jdt.core.dom.ASTNode;
+
+/**
+ * Features a compilation unit must contain for a matcher to possibly match one of its nodes.
+ *
+ * The features are a necessary condition only: they allow to skip files without parsing them,
+ * for example from a persistent index.
+ * Matchers that cannot tell which features they need (opaque predicates, "anyOf", "unless", ...)
+ * simply do not contribute.
+ */
+public final class MatcherFeatures {
+    private final Set<Class<? extends ASTNode>> nodeClasses = new LinkedHashSet<>();
+    private final Set<String> identifiers = new LinkedHashSet<>();
+
+    /**
+     * Collects the features required by given matcher.
+     */
+    public static MatcherFeatures of(Matcher<?> matcher) {
+        final MatcherFeatures features = new MatcherFeatures();
+        matcher.collectRequiredFeatures(features);
+        return features;
+    }
+
+    /**
+     * Requires a node of given class. Abstract classes are ignored since
+     * a node of any sub class would do.
+     */
+    public void addNodeClass(Class<? extends ASTNode> nodeClass) {
+        if (!Modifier.isAbstract(nodeClass.getModifiers())) {
+            nodeClasses.add(nodeClass);
+        }
+    }
+
+    /**
+     * Requires a simple name with given identifier.
+     */
+    public void addIdentifier(String identifier) {
+        if (identifier != null) {
+            identifiers.add(identifier);
+        }
+    }
+
+    public Set<Class<? extends ASTNode>> getNodeClasses() {
+        return Collections.unmodifiableSet(nodeClasses);
+    }
+
+    public Set<String> getIdentifiers() {
+        return Collections.unmodifiableSet(identifiers);
+    }
+
+    public boolean isEmpty() {
+        return nodeClasses.isEmpty() && identifiers.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "MatcherFeatures [nodeClasses=" + nodeClasses + ", identifiers=" + identifiers + "]";
+    }
+}
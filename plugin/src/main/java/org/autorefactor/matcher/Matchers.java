@@ -133,7 +133,7 @@ public final class Matchers {
         }
 
         public final BreakStatementMatcher hasLabel(String name) {
-            addPredicate("label", n -> { SimpleName sn = tryCast(n.getLabel(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("label", name, n -> { SimpleName sn = tryCast(n.getLabel(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -314,7 +314,7 @@ public final class Matchers {
         }
 
         public final ContinueStatementMatcher hasLabel(String name) {
-            addPredicate("label", n -> { SimpleName sn = tryCast(n.getLabel(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("label", name, n -> { SimpleName sn = tryCast(n.getLabel(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -415,7 +415,7 @@ public final class Matchers {
         }
 
         public final QualifiedTypeMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -466,7 +466,7 @@ public final class Matchers {
         }
 
         public final MemberValuePairMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -497,7 +497,7 @@ public final class Matchers {
         }
 
         public final VariableDeclarationFragmentMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -561,7 +561,7 @@ public final class Matchers {
         }
 
         public final EnumDeclarationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -890,7 +890,7 @@ public final class Matchers {
         }
 
         public final EnumConstantDeclarationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -1250,7 +1250,7 @@ public final class Matchers {
         }
 
         public final TypeDeclarationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -1391,7 +1391,7 @@ public final class Matchers {
         }
 
         public final QualifiedNameMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -1402,9 +1402,9 @@ public final class Matchers {
         }
 
         public final QualifiedNameMatcher isArrayLength() {
-            addPredicate(n ->
-                ASTHelper.isArray(n.getQualifier())
-                    && n.getName().getIdentifier().equals("length"));
+            addBindingPredicate("arrayLength", n ->
+                n.getName().getIdentifier().equals("length")
+                    && ASTHelper.isArray(n.getQualifier()));
             return this;
         }
     }
@@ -1596,7 +1596,7 @@ public final class Matchers {
         }
 
         public final SimpleTypeMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -1793,7 +1793,7 @@ public final class Matchers {
         }
 
         public final MemberRefMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -1841,7 +1841,7 @@ public final class Matchers {
         }
 
         public final ExpressionMethodReferenceMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -1866,7 +1866,7 @@ public final class Matchers {
         }
 
         public final TypeParameterMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -1919,7 +1919,7 @@ public final class Matchers {
         }
 
         public final MethodRefMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2197,7 +2197,7 @@ public final class Matchers {
         }
 
         public final SingleVariableDeclarationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2281,7 +2281,7 @@ public final class Matchers {
         }
 
         public final SuperFieldAccessMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2337,7 +2337,7 @@ public final class Matchers {
         }
 
         public final AnnotationTypeDeclarationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2421,7 +2421,7 @@ public final class Matchers {
         }
 
         public final MethodInvocationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2450,7 +2450,7 @@ public final class Matchers {
 
         public final MethodInvocationMatcher isMethod(String typeQualifiedName,
                 String methodName, String... parameterTypesQualifiedNames) {
-            addPredicate(n -> ASTHelper.isMethod(n, typeQualifiedName, methodName, parameterTypesQualifiedNames));
+            addBindingPredicate("method", n -> ASTHelper.isMethod(n, typeQualifiedName, methodName, parameterTypesQualifiedNames));
             return this;
         }
     }
@@ -2513,7 +2513,7 @@ public final class Matchers {
         }
 
         public final MethodDeclarationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2535,7 +2535,7 @@ public final class Matchers {
         }
 
         public final MethodDeclarationMatcher hasReceiverQualifier(String name) {
-            addPredicate("receiverQualifier", n -> { SimpleName sn = tryCast(n.getReceiverQualifier(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("receiverQualifier", name, n -> { SimpleName sn = tryCast(n.getReceiverQualifier(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2749,7 +2749,7 @@ public final class Matchers {
         }
 
         public final LabeledStatementMatcher hasLabel(String name) {
-            addPredicate("label", n -> { SimpleName sn = tryCast(n.getLabel(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("label", name, n -> { SimpleName sn = tryCast(n.getLabel(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2828,7 +2828,7 @@ public final class Matchers {
         }
 
         public final MethodRefParameterMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -2864,7 +2864,7 @@ public final class Matchers {
         }
 
         public final FieldAccessMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -3151,12 +3151,12 @@ public final class Matchers {
         }
 
         public final SimpleNameMatcher hasIdentifier(String v) {
-            addPredicate("identifier", n -> v != null && v.equals(n.getIdentifier()));
+            addIdentifierPredicate("identifier", v, n -> v != null && v.equals(n.getIdentifier()));
             return this;
         }
 
         public final SimpleNameMatcher hasDeclaringClass(String name) {
-            addPredicate("declaringClass", n -> {
+            addBindingPredicate("declaringClass", n -> {
                 IVariableBinding b = tryCast(n.resolveBinding(), IVariableBinding.class);
                 ITypeBinding declaringClass = b != null ? b.getDeclaringClass() : null;
                 if (declaringClass == null) {
@@ -3348,7 +3348,7 @@ public final class Matchers {
         }
 
         public final NameQualifiedTypeMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -3390,7 +3390,7 @@ public final class Matchers {
         }
 
         public final AnnotationTypeMemberDeclarationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -3642,7 +3642,7 @@ public final class Matchers {
         }
 
         public final SuperMethodInvocationMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -3712,7 +3712,7 @@ public final class Matchers {
         }
 
         public final SuperMethodReferenceMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
@@ -3760,7 +3760,7 @@ public final class Matchers {
         }
 
         public final TypeMethodReferenceMatcher hasName(String name) {
-            addPredicate("name", n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
+            addIdentifierPredicate("name", name, n -> { SimpleName sn = tryCast(n.getName(), SimpleName.class); return name != null && sn != null && name.equals(sn.getIdentifier()); });
             return this;
         }
 
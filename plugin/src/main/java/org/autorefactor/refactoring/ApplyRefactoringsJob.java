@@ -32,7 +32,10 @@ import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 
+import org.autorefactor.cfg.CFGProvider;
 import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.Tracer;
+import org.autorefactor.environment.Tracer.Phase;
 import org.autorefactor.refactoring.rules.AggregateASTVisitor;
 import org.autorefactor.refactoring.rules.RefactoringContext;
 import org.autorefactor.util.IllegalStateException;
@@ -197,8 +200,9 @@ public class ApplyRefactoringsJob extends Job {
         final ASTParser parser = ASTParser.newParser(AST.JLS8);
         resetParser(compilationUnit, parser, options);
 
-        CompilationUnit astRoot = (CompilationUnit) parser.createAST(null);
+        CompilationUnit astRoot = parse(compilationUnit, parser);
 
+        final CFGProvider cfgProvider = new CFGProvider(options);
         final int maxIterations = 100;
         int iterationCount = 0;
         Set<ASTVisitor> lastLoopVisitors = Collections.emptySet();
@@ -219,7 +223,7 @@ public class ApplyRefactoringsJob extends Job {
             }
 
             final RefactoringContext ctx = new RefactoringContext(
-                compilationUnit, astRoot, options, monitor, environment);
+                compilationUnit, astRoot, options, monitor, environment, cfgProvider);
             refactoring.setRefactoringContext(ctx);
 
             final Refactorings refactorings = refactoring.getRefactorings(astRoot);
@@ -232,7 +236,12 @@ public class ApplyRefactoringsJob extends Job {
 
             try {
                 // apply the refactorings and save the compilation unit
+                final Tracer tracer = Tracer.get();
+                final Object span = tracer.begin(Phase.APPLY);
                 refactorings.applyTo(document);
+                if (span != null) {
+                    tracer.end(span, compilationUnit.getPath().toString(), null);
+                }
             } catch (MalformedTreeException e) {
                 final String errorMsg = "Illegal changes have been created by "
                         + visitorClasses("", refactoring.getVisitorsContributingRefactoring())
@@ -255,7 +264,12 @@ public class ApplyRefactoringsJob extends Job {
             // /** can be useful to back out a change that does not compile */
             // , null, null);
             if (!hadUnsavedChanges) {
+                final Tracer tracer = Tracer.get();
+                final Object span = tracer.begin(Phase.SAVE);
                 compilationUnit.save(null, true);
+                if (span != null) {
+                    tracer.end(span, compilationUnit.getPath().toString(), null);
+                }
             }
             // I did not find any other way to directly modify the AST
             // while still keeping the resolved type bindings working.
@@ -264,10 +278,11 @@ public class ApplyRefactoringsJob extends Job {
             // FIXME we should find a way to apply all the changes at
             // the AST level and refresh the bindings
             resetParser(compilationUnit, parser, options);
-            astRoot = (CompilationUnit) parser.createAST(null);
+            astRoot = parse(compilationUnit, parser);
             ++iterationCount;
 
             final Set<ASTVisitor> thisLoopVisitors = refactoring.getVisitorsContributingRefactoring();
+            refactoringsApplied(compilationUnit, iterationCount, thisLoopVisitors);
             if (!thisLoopVisitors.equals(lastLoopVisitors)) {
                 lastLoopVisitors = new HashSet<ASTVisitor>(thisLoopVisitors);
                 nbLoopsWithSameVisitors = 0;
@@ -279,6 +294,54 @@ public class ApplyRefactoringsJob extends Job {
         return changed;
     }
 
+    /**
+     * Called after each iteration of
+     * {@link #applyRefactoring(IDocument, ICompilationUnit, AggregateASTVisitor, JavaProjectOptions, SubMonitor)}
+     * which changed the compilation unit, e.g. to report progress. Does nothing by default.
+     *
+     * @param compilationUnit the refactored compilation unit
+     * @param iteration the number of the iteration, from 1
+     * @param visitors the visitors which contributed refactorings in this iteration
+     */
+    protected void refactoringsApplied(ICompilationUnit compilationUnit, int iteration, Set<ASTVisitor> visitors) {
+    }
+
+    /**
+     * Finds the refactorings of the first iteration of
+     * {@link #applyRefactoring(IDocument, ICompilationUnit, AggregateASTVisitor, JavaProjectOptions, SubMonitor)}
+     * without applying them, e.g. to check whether a compilation unit is already refactored.
+     *
+     * @param compilationUnit the compilation unit to check
+     * @param refactoring the {@link AggregateASTVisitor} to run on the compilation unit
+     * @param options the Java project options used to compile the project
+     * @param monitor the progress monitor of the current job
+     * @return the visitors contributing refactorings, empty if the compilation unit needs no refactoring
+     */
+    public Set<ASTVisitor> findRefactorings(ICompilationUnit compilationUnit, AggregateASTVisitor refactoring,
+            JavaProjectOptions options, SubMonitor monitor) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS8);
+        resetParser(compilationUnit, parser, options);
+        final CompilationUnit astRoot = parse(compilationUnit, parser);
+
+        refactoring.setRefactoringContext(new RefactoringContext(
+            compilationUnit, astRoot, options, monitor, environment, new CFGProvider(options)));
+        final Refactorings refactorings = refactoring.getRefactorings(astRoot);
+        if (!refactorings.hasRefactorings()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<ASTVisitor>(refactoring.getVisitorsContributingRefactoring());
+    }
+
+    private static CompilationUnit parse(ICompilationUnit compilationUnit, ASTParser parser) {
+        final Tracer tracer = Tracer.get();
+        final Object span = tracer.begin(Phase.PARSE);
+        final CompilationUnit astRoot = (CompilationUnit) parser.createAST(null);
+        if (span != null) {
+            tracer.end(span, compilationUnit.getPath().toString(), null);
+        }
+        return astRoot;
+    }
+
     private static void resetParser(ICompilationUnit cu, ASTParser parser, JavaProjectOptions options) {
         parser.setSource(cu);
         parser.setResolveBindings(true);
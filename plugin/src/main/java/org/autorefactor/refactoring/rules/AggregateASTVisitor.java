@@ -41,6 +41,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.autorefactor.environment.Tracer;
+import org.autorefactor.environment.Tracer.Phase;
+import org.autorefactor.environment.VisitorListener;
 import org.autorefactor.preferences.Preferences;
 import org.autorefactor.refactoring.JavaRefactoringRule;
 import org.autorefactor.refactoring.RefactoringRule;
@@ -50,6 +53,7 @@ import org.autorefactor.util.AutoRefactorException;
 import org.autorefactor.util.NotImplementedException;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
@@ -336,6 +340,7 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
                 logBadlyBehavedVisitor(v, node);
             } else {
                 visitorsContributingRefactoring.add(v);
+                traceContribution(v);
             }
             // changes will be made to this node.
             // no other visitors can make any more changes to it
@@ -345,6 +350,15 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
         return true;
     }
 
+    private void traceContribution(ASTVisitor v) {
+        final Tracer tracer = Tracer.get();
+        final Object span = tracer.begin(Phase.RULE);
+        if (span != null) {
+            final ICompilationUnit cu = this.ctx.getCompilationUnit();
+            tracer.end(span, cu != null ? cu.getPath().toString() : null, v.getClass().getName());
+        }
+    }
+
     private void logBadlyBehavedVisitor(ASTVisitor v, ASTNode node) {
         String message = "Visitor " + v.getClass().getName() + " is badly behaved:"
                 + " it reported doing a refactoring, but it did not actually contribute any refactoring.";
@@ -358,6 +372,7 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
         }
         String message = "Visitor " + v.getClass().getName() + " is faulty,"
                 + " it will be disabled for the rest of this run.";
+        VisitorListener.get().visitorDisabled(v.getClass().getName(), message, e);
         ctx.getLogger().error(message, new UnhandledException(node, message, e));
     }
 
@@ -25,6 +25,8 @@
  */
 package org.autorefactor.refactoring.rules;
 
+import org.autorefactor.cfg.CFGProvider;
+import org.autorefactor.cfg.MethodCFG;
 import org.autorefactor.refactoring.ASTBuilder;
 import org.autorefactor.refactoring.JavaProjectOptions;
 import org.autorefactor.refactoring.Refactorings;
@@ -36,6 +38,7 @@ import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Comment;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
 
 import static org.autorefactor.refactoring.ASTHelper.*;
 import static org.autorefactor.refactoring.SourceLocation.*;
@@ -52,6 +55,7 @@ public class RefactoringContext {
     private final JavaProjectOptions options;
     private final SubMonitor monitor;
     private final Environment environment;
+    private final CFGProvider cfgProvider;
 
     /**
      * Builds an instance of this class.
@@ -64,6 +68,21 @@ public class RefactoringContext {
      */
     public RefactoringContext(ICompilationUnit compilationUnit, CompilationUnit astRoot,
             JavaProjectOptions options, SubMonitor monitor, Environment environment) {
+        this(compilationUnit, astRoot, options, monitor, environment, new CFGProvider(options));
+    }
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param compilationUnit the compilation unit to refactor
+     * @param astRoot the compilation unit, root of the AST
+     * @param options the Java project options used to compile the project
+     * @param monitor the progress monitor of the current job
+     * @param environment the environment
+     * @param cfgProvider the control flow graphs cache, shared by all the iterations on this compilation unit
+     */
+    public RefactoringContext(ICompilationUnit compilationUnit, CompilationUnit astRoot,
+            JavaProjectOptions options, SubMonitor monitor, Environment environment, CFGProvider cfgProvider) {
         this.compilationUnit = compilationUnit;
         this.astRoot = astRoot;
         this.monitor = monitor;
@@ -71,6 +90,7 @@ public class RefactoringContext {
         this.refactorings = new Refactorings(astRoot, environment.getEventLoop());
         this.astBuilder = new ASTBuilder(refactorings);
         this.options = options;
+        this.cfgProvider = cfgProvider;
     }
 
     /**
@@ -127,6 +147,17 @@ public class RefactoringContext {
         return refactorings;
     }
 
+    /**
+     * Returns the control flow graph of the provided method, built on first request.
+     * The graph is reused across iterations as long as the method source does not change.
+     *
+     * @param method the method declaration, with a body
+     * @return the control flow graph of the provided method
+     */
+    public MethodCFG getCFG(MethodDeclaration method) {
+        return cfgProvider.getCFG(method, getSource(method));
+    }
+
     String getSource(ASTNode node) {
         try {
             return compilationUnit.getSource();